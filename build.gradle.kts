@@ -3,6 +3,7 @@ plugins {
     `java-library`
     `maven-publish`
     id("com.gradleup.shadow") version "9.3.1" apply false
+    id("me.champeau.jmh") version "0.7.3" apply false
 }
 
 allprojects {
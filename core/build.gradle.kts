@@ -1,5 +1,6 @@
 plugins {
     id("com.gradleup.shadow")
+    id("me.champeau.jmh")
 }
 
 val shade: Configuration by configurations.creating
@@ -59,7 +60,24 @@ dependencies {
     implementation("org.bstats:bstats-bukkit:3.1.0")
 
     compileOnly(files("libs/DonutWorth-1.6.0-release-1.jar"))
-    
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("io.papermc.paper:paper-api:1.21.11-R0.1-SNAPSHOT")
+
+    jmh("io.papermc.paper:paper-api:1.21.11-R0.1-SNAPSHOT")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// Benchmarks run with 'gradlew :core:jmh', they are not part of the build
+jmh {
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
 }
 
 tasks.withType<JavaCompile>().configureEach {
@@ -0,0 +1,115 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the player proximity pass of the range check with the chunk index against the nested loop
+ * RangeMath used before, over every spawner and the server's players.
+ *
+ * <p>Both sides answer the same question for each spawner: is any player passing the spawn conditions in the
+ * same world and within the spawner's range. The index is built inside the benchmark, as the range check
+ * builds it again on every pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RangeCheckBenchmark {
+    private static final int WORLDS = 3;
+    // Spawners and players are spread over a square of this many blocks per side in each world
+    private static final int WORLD_SIZE = 20_000;
+    private static final double RANGE = 16;
+
+    @Param({"10000", "50000", "100000"})
+    private int spawnerCount;
+
+    @Param({"300"})
+    private int playerCount;
+
+    private PlayerRangeWrapper[] players;
+    private UUID[] spawnerWorlds;
+    private double[] spawnerX;
+    private double[] spawnerY;
+    private double[] spawnerZ;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        UUID[] worlds = new UUID[WORLDS];
+        for (int i = 0; i < WORLDS; i++) {
+            worlds[i] = new UUID(0, i);
+        }
+
+        players = new PlayerRangeWrapper[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            UUID world = worlds[random.nextInt(WORLDS)];
+            // A few players are in spectator mode or otherwise don't count
+            players[i] = new PlayerRangeWrapper(new UUID(1, i), world, world.toString(),
+                    coordinate(random), 64 + random.nextInt(64), coordinate(random), random.nextInt(10) != 0);
+        }
+
+        spawnerWorlds = new UUID[spawnerCount];
+        spawnerX = new double[spawnerCount];
+        spawnerY = new double[spawnerCount];
+        spawnerZ = new double[spawnerCount];
+        for (int i = 0; i < spawnerCount; i++) {
+            // Half the spawners are clustered around players, as they are on a real server
+            if (i % 2 == 0) {
+                PlayerRangeWrapper near = players[random.nextInt(playerCount)];
+                spawnerWorlds[i] = near.worldUID();
+                spawnerX[i] = Math.floor(near.x() + random.nextInt(64) - 32) + 0.5;
+                spawnerY[i] = Math.floor(near.y() + random.nextInt(16) - 8) + 0.5;
+                spawnerZ[i] = Math.floor(near.z() + random.nextInt(64) - 32) + 0.5;
+            } else {
+                spawnerWorlds[i] = worlds[random.nextInt(WORLDS)];
+                spawnerX[i] = Math.floor(coordinate(random)) + 0.5;
+                spawnerY[i] = 64 + random.nextInt(64) + 0.5;
+                spawnerZ[i] = Math.floor(coordinate(random)) + 0.5;
+            }
+        }
+    }
+
+    private static double coordinate(Random random) {
+        return random.nextDouble() * WORLD_SIZE - WORLD_SIZE / 2.0;
+    }
+
+    @Benchmark
+    public boolean[] nestedLoop() {
+        boolean[] active = new boolean[spawnerCount];
+        double rangeSq = RANGE * RANGE;
+        for (int i = 0; i < spawnerCount; i++) {
+            for (PlayerRangeWrapper p : players) {
+                if (!p.spawnConditions()) continue;
+                if (!spawnerWorlds[i].equals(p.worldUID())) continue;
+
+                if (p.distanceSquared(spawnerX[i], spawnerY[i], spawnerZ[i]) <= rangeSq) {
+                    active[i] = true;
+                    break;
+                }
+            }
+        }
+        return active;
+    }
+
+    @Benchmark
+    public boolean[] chunkIndex() {
+        PlayerChunkIndex index = new PlayerChunkIndex(players);
+        boolean[] active = new boolean[spawnerCount];
+        for (int i = 0; i < spawnerCount; i++) {
+            UUID world = spawnerWorlds[i];
+            if (index.isWorldEmpty(world)) continue;
+            active[i] = index.anyPlayerInRange(world, spawnerX[i], spawnerY[i], spawnerZ[i], RANGE);
+        }
+        return active;
+    }
+}
@@ -50,12 +50,15 @@ import github.nighter.smartspawner.spawner.data.SpawnerFileHandler;
 import github.nighter.smartspawner.spawner.data.storage.SpawnerStorage;
 import github.nighter.smartspawner.spawner.data.storage.StorageMode;
 import github.nighter.smartspawner.spawner.data.database.DatabaseManager;
+import github.nighter.smartspawner.spawner.data.binary.BinaryStorageMigration;
+import github.nighter.smartspawner.spawner.data.binary.SpawnerBinaryHandler;
 import github.nighter.smartspawner.spawner.data.database.SpawnerDatabaseHandler;
 import github.nighter.smartspawner.spawner.data.database.SqliteToMySqlMigration;
 import github.nighter.smartspawner.spawner.data.database.YamlToDatabaseMigration;
 import github.nighter.smartspawner.spawner.config.SpawnerMobHeadTexture;
 import github.nighter.smartspawner.spawner.lootgen.SpawnerLootGenerator;
 import github.nighter.smartspawner.spawner.data.WorldEventHandler;
+import github.nighter.smartspawner.spawner.properties.VirtualInventory;
 import github.nighter.smartspawner.language.LanguageManager;
 import github.nighter.smartspawner.updates.ConfigUpdater;
 import github.nighter.smartspawner.nms.VersionInitializer;
@@ -79,6 +82,7 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
     private static SmartSpawner instance;
     public final int DATA_VERSION = 3;
     private final boolean debugMode = getConfig().getBoolean("debug", false);
+    private static final long STORAGE_METRICS_INTERVAL_TICKS = 20L * 60 * 5;
 
     // Integration Manager
     private IntegrationManager integrationManager;
@@ -123,6 +127,7 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
     private SpawnerManager spawnerManager;
     private HopperService hopperService;
     private SpawnerLocationLockManager spawnerLocationLockManager;
+    private Scheduler.Task storageMetricsTask;
 
     // Event handlers and utilities
     private NaturalSpawnerListener naturalSpawnerListener;
@@ -278,6 +283,7 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
     private void initializeCoreComponents() {
         // Initialize storage based on configured mode
         initializeStorage();
+        startStorageMetricsReport();
 
         this.spawnerManager = new SpawnerManager(this);
         this.spawnerLocationLockManager = new SpawnerLocationLockManager(this);
@@ -331,6 +337,17 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
                             }
                         }
 
+                        // Check for binary storage data left from BINARY mode
+                        BinaryStorageMigration binaryMigration = new BinaryStorageMigration(this);
+                        if (binaryMigration.hasBinaryData()) {
+                            getLogger().info("Binary storage data detected, starting migration to " + dbType + "...");
+                            if (binaryMigration.exportToDatabase(dbHandler)) {
+                                getLogger().info("Binary storage migration completed successfully!");
+                            } else {
+                                getLogger().warning("Binary storage migration failed. Check logs for details.");
+                            }
+                        }
+
                         // Check for SQLite to MySQL migration (only when mode is MYSQL)
                         if (mode == StorageMode.MYSQL) {
                             SqliteToMySqlMigration sqliteMigration = new SqliteToMySqlMigration(this, databaseManager);
@@ -359,9 +376,57 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
                 databaseManager = null;
                 initializeYamlStorage();
             }
+        } else if (mode == StorageMode.BINARY) {
+            initializeBinaryStorage();
         } else {
+            if (getConfig().getBoolean("database.migrate_from_local", true)) {
+                BinaryStorageMigration binaryMigration = new BinaryStorageMigration(this);
+                if (binaryMigration.hasBinaryData()) {
+                    getLogger().info("Binary storage data detected, starting migration to YAML...");
+                    if (!binaryMigration.exportToYaml()) {
+                        getLogger().warning("Binary storage migration failed. Check logs for details.");
+                    }
+                }
+            }
+            initializeYamlStorage();
+        }
+    }
+
+    private void initializeBinaryStorage() {
+        getLogger().info("Initializing binary storage mode...");
+        SpawnerBinaryHandler binaryHandler = new SpawnerBinaryHandler(this);
+        if (!binaryHandler.initialize()) {
+            getLogger().severe("Failed to initialize binary storage, falling back to YAML");
             initializeYamlStorage();
+            return;
+        }
+        this.spawnerStorage = binaryHandler;
+
+        if (getConfig().getBoolean("database.migrate_from_local", true)) {
+            new BinaryStorageMigration(this).importInto(binaryHandler);
+        } else {
+            debug("Local data migration is disabled in config.");
+        }
+
+        getLogger().info("Binary storage initialized successfully.");
+    }
+
+    /**
+     * Logs how busy the storage is every few minutes while debug mode is on, so saturation shows up
+     * before the queue is full and tasks are refused.
+     */
+    private void startStorageMetricsReport() {
+        if (!debugMode || spawnerStorage == null) return;
+        storageMetricsTask = Scheduler.runTaskTimerAsync(this::logStorageMetrics,
+                STORAGE_METRICS_INTERVAL_TICKS, STORAGE_METRICS_INTERVAL_TICKS);
+    }
+
+    private void logStorageMetrics() {
+        debug(spawnerStorage.getPersistenceExecutor().describeMetrics());
+        if (spawnerStorage instanceof SpawnerDatabaseHandler dbHandler) {
+            debug(dbHandler.getQueryCache().describeMetrics());
         }
+        debug(VirtualInventory.getSignatureInterner().describeMetrics());
     }
 
     private void initializeYamlStorage() {
@@ -503,6 +568,7 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
 
         // reload services
         integrationManager.reload();
+        rangeChecker.loadConfig();
         spawnerMenuAction.reload();
         timeFormatter.clearCache();
         
@@ -570,6 +636,7 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
     }
 
     private void cleanupResources() {
+        if (storageMetricsTask != null) storageMetricsTask.cancel();
         if (rangeChecker != null) rangeChecker.cleanup();
         if (spawnerGuiViewManager != null) spawnerGuiViewManager.cleanup();
         if (hopperService != null) hopperService.cleanup();
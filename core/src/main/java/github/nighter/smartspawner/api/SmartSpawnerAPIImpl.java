@@ -169,13 +169,13 @@ public class SmartSpawnerAPIImpl implements SmartSpawnerAPI {
             return null;
         }
 
-        SpawnerData spawnerData = plugin.getSpawnerManager().getSpawnerById(spawnerId);
+        SpawnerData spawnerData = plugin.getSpawnerManager().getOrLoadSpawnerById(spawnerId);
         return spawnerData != null ? convertToDTO(spawnerData) : null;
     }
 
     @Override
     public List<SpawnerDataDTO> getAllSpawners() {
-        return plugin.getSpawnerManager().getAllSpawners().stream()
+        return plugin.getSpawnerManager().loadAllSpawners().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -186,7 +186,7 @@ public class SmartSpawnerAPIImpl implements SmartSpawnerAPI {
             return null;
         }
 
-        SpawnerData spawnerData = plugin.getSpawnerManager().getSpawnerById(spawnerId);
+        SpawnerData spawnerData = plugin.getSpawnerManager().getOrLoadSpawnerById(spawnerId);
         return spawnerData != null ? new SpawnerDataModifierImpl(spawnerData) : null;
     }
 
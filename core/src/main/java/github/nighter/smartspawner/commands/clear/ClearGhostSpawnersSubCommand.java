@@ -3,14 +3,17 @@ package github.nighter.smartspawner.commands.clear;
 import com.mojang.brigadier.context.CommandContext;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.commands.BaseSubCommand;
+import github.nighter.smartspawner.spawner.data.SpawnerManager;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
 import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.utils.ChunkUtil;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.jspecify.annotations.NullMarked;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @NullMarked
@@ -42,21 +45,23 @@ public class ClearGhostSpawnersSubCommand extends BaseSubCommand {
         // Notify that the check is starting
         plugin.getMessageService().sendMessage(sender, "command_ghost_spawner_check_start");
 
-        // Get all spawners first
-        List<SpawnerData> allSpawners = plugin.getSpawnerManager().getAllSpawners();
-        
-        // Track how many spawners are being checked using thread-safe counter
+        SpawnerManager spawnerManager = plugin.getSpawnerManager();
+
+        // Track how many spawners are being removed using thread-safe counter
         final AtomicInteger removedCount = new AtomicInteger(0);
-        final int totalSpawners = allSpawners.size();
-        
-        // Check each spawner on its location thread for Folia compatibility
-        for (SpawnerData spawner : allSpawners) {
-            org.bukkit.Location loc = spawner.getSpawnerLocation();
-            if (loc != null && loc.getWorld() != null) {
-                Scheduler.runLocationTask(loc, () -> {
-                    if (plugin.getSpawnerManager().isGhostSpawner(spawner)) {
-                        plugin.getSpawnerManager().removeGhostSpawner(spawner.getSpawnerId());
-                        removedCount.incrementAndGet();
+
+        // Check each chunk's spawners on its region thread for Folia compatibility, one task per chunk
+        for (World world : Bukkit.getWorlds()) {
+            String worldName = world.getName();
+            for (long chunkKey : spawnerManager.getSpawnerChunks(worldName)) {
+                int chunkX = ChunkUtil.getChunkX(chunkKey);
+                int chunkZ = ChunkUtil.getChunkZ(chunkKey);
+                Scheduler.runChunkTask(world, chunkX, chunkZ, () -> {
+                    for (SpawnerData spawner : new ArrayList<>(spawnerManager.getSpawnersInChunk(worldName, chunkX, chunkZ))) {
+                        if (spawnerManager.isGhostSpawner(spawner)) {
+                            spawnerManager.removeGhostSpawner(spawner.getSpawnerId());
+                            removedCount.incrementAndGet();
+                        }
                     }
                 });
             }
@@ -5,6 +5,7 @@ import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.nms.VersionInitializer;
 import github.nighter.smartspawner.commands.BaseSubCommand;
 import github.nighter.smartspawner.commands.list.gui.CrossServerSpawnerData;
+import github.nighter.smartspawner.commands.list.gui.CrossServerSpawnerPage;
 import github.nighter.smartspawner.commands.list.gui.list.enums.FilterOption;
 import github.nighter.smartspawner.commands.list.gui.list.enums.SortOption;
 import github.nighter.smartspawner.commands.list.gui.list.SpawnerListHolder;
@@ -514,9 +515,7 @@ public class ListSubCommand extends BaseSubCommand {
         player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1.0f, 1.0f);
 
         // Get all spawners in the world
-        List<SpawnerData> worldSpawners = spawnerManager.getAllSpawners().stream()
-                .filter(spawner -> spawner.getSpawnerLocation().getWorld().getName().equals(worldName))
-                .collect(Collectors.toList());
+        List<SpawnerData> worldSpawners = spawnerManager.loadSpawnersInWorld(worldName);
 
         // Apply filtering
         if (filter == FilterOption.ACTIVE) {
@@ -740,6 +739,17 @@ public class ListSubCommand extends BaseSubCommand {
      */
     public void openSpawnerListGUIForServer(Player player, String targetServer, String worldName, int page,
                                             FilterOption filter, SortOption sort) {
+        openSpawnerListGUIForServer(player, targetServer, worldName, page, filter, sort, null, null);
+    }
+
+    /**
+     * Open spawner list GUI for a remote server with filter and sort options.
+     * Only the requested page is queried. When paging from a neighbouring page, pass its last spawner
+     * as {@code after} or its first spawner as {@code before} so the page is found from there.
+     */
+    public void openSpawnerListGUIForServer(Player player, String targetServer, String worldName, int page,
+                                            FilterOption filter, SortOption sort,
+                                            CrossServerSpawnerPage.Key after, CrossServerSpawnerPage.Key before) {
         if (!player.hasPermission("smartspawner.command.list")) {
             messageService.sendMessage(player, "no_permission");
             return;
@@ -762,17 +772,17 @@ public class ListSubCommand extends BaseSubCommand {
 
         player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1.0f, 1.0f);
 
-        final int requestedPage = page;
         final FilterOption finalFilter = filter;
         final SortOption finalSort = sort;
-        dbHandler.getCrossServerSpawnersAsync(targetServer, worldName, filter.name(), sort.name(), spawners -> {
-            if (spawners.isEmpty()) {
+        dbHandler.getCrossServerSpawnerPageAsync(targetServer, worldName, filter.name(), sort.name(),
+                page, SPAWNERS_PER_PAGE, after, before, spawnerPage -> {
+            if (spawnerPage.totalSpawners() == 0) {
                 messageService.sendMessage(player, "no_spawners_found");
                 return;
             }
 
-            int totalPages = (int) Math.ceil((double) spawners.size() / SPAWNERS_PER_PAGE);
-            int currentPage = Math.max(1, Math.min(requestedPage, totalPages));
+            int totalPages = spawnerPage.totalPages();
+            int currentPage = spawnerPage.page();
 
             String worldTitle = formatWorldName(worldName);
 
@@ -784,17 +794,13 @@ public class ListSubCommand extends BaseSubCommand {
             String title = languageManager.getGuiTitle("gui_title_spawner_list", titlePlaceholders);
 
             Inventory inv = Bukkit.createInventory(
-                new SpawnerListHolder(currentPage, totalPages, worldName, finalFilter, finalSort, targetServer),
+                new SpawnerListHolder(currentPage, totalPages, worldName, finalFilter, finalSort, targetServer,
+                        spawnerPage.firstKey(), spawnerPage.lastKey()),
                 54, title
             );
 
-            // Calculate start and end indices for current page
-            int startIndex = (currentPage - 1) * SPAWNERS_PER_PAGE;
-            int endIndex = Math.min(startIndex + SPAWNERS_PER_PAGE, spawners.size());
-
-            // Populate inventory with spawners
-            for (int i = startIndex; i < endIndex; i++) {
-                CrossServerSpawnerData spawner = spawners.get(i);
+            // Populate inventory with the spawners of this page
+            for (CrossServerSpawnerData spawner : spawnerPage.spawners()) {
                 inv.addItem(createCrossServerSpawnerItem(spawner, targetServer));
             }
 
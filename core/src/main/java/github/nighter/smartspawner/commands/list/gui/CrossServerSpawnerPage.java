@@ -0,0 +1,34 @@
+package github.nighter.smartspawner.commands.list.gui;
+
+import java.util.List;
+
+/**
+ * One page of a remote world's spawner list.
+ * Holds the sort keys of its first and last spawner, so the pages next to it can be queried
+ * from where this one ends instead of counting through every spawner before it.
+ *
+ * @param spawners      The spawners shown on the page, in list order
+ * @param page          The page number, starting at 1
+ * @param totalPages    Number of pages for the current filter, at least 1
+ * @param totalSpawners Number of spawners matching the current filter
+ */
+public record CrossServerSpawnerPage(List<CrossServerSpawnerData> spawners, int page, int totalPages,
+                                     int totalSpawners) {
+
+    /**
+     * Position of a spawner in the list order, a page boundary for keyset queries.
+     */
+    public record Key(int stackSize, String spawnerId) {
+        public static Key of(CrossServerSpawnerData spawner) {
+            return new Key(spawner.getStackSize(), spawner.getSpawnerId());
+        }
+    }
+
+    public Key firstKey() {
+        return spawners.isEmpty() ? null : Key.of(spawners.get(0));
+    }
+
+    public Key lastKey() {
+        return spawners.isEmpty() ? null : Key.of(spawners.get(spawners.size() - 1));
+    }
+}
@@ -198,7 +198,8 @@ public class SpawnerListGUI implements Listener {
         if (event.getSlot() == 45 && currentPage > 1) {
             // Previous page
             if (isRemote) {
-                listSubCommand.openSpawnerListGUIForServer(player, targetServer, worldName, currentPage - 1);
+                listSubCommand.openSpawnerListGUIForServer(player, targetServer, worldName, currentPage - 1,
+                        currentFilter, currentSort, null, holder.getFirstKey());
             } else {
                 listSubCommand.openSpawnerListGUI(player, worldName, currentPage - 1, currentFilter, currentSort);
             }
@@ -223,7 +224,8 @@ public class SpawnerListGUI implements Listener {
         if (event.getSlot() == 53 && currentPage < totalPages) {
             // Next page
             if (isRemote) {
-                listSubCommand.openSpawnerListGUIForServer(player, targetServer, worldName, currentPage + 1);
+                listSubCommand.openSpawnerListGUIForServer(player, targetServer, worldName, currentPage + 1,
+                        currentFilter, currentSort, holder.getLastKey(), null);
             } else {
                 listSubCommand.openSpawnerListGUI(player, worldName, currentPage + 1, currentFilter, currentSort);
             }
@@ -280,7 +282,7 @@ public class SpawnerListGUI implements Listener {
                     holder.getWorldName(), holder.getCurrentPage(), targetServer);
             } else {
                 // Local server - verify spawner exists
-                SpawnerData spawner = spawnerManager.getSpawnerById(spawnerId);
+                SpawnerData spawner = spawnerManager.getOrLoadSpawnerById(spawnerId);
 
                 if (spawner != null) {
                     // Open the management GUI
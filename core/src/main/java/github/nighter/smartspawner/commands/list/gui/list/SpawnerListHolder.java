@@ -1,5 +1,6 @@
 package github.nighter.smartspawner.commands.list.gui.list;
 
+import github.nighter.smartspawner.commands.list.gui.CrossServerSpawnerPage;
 import github.nighter.smartspawner.commands.list.gui.list.enums.FilterOption;
 import github.nighter.smartspawner.commands.list.gui.list.enums.SortOption;
 import lombok.Getter;
@@ -14,6 +15,9 @@ public class SpawnerListHolder implements InventoryHolder {
     private final FilterOption filterOption;
     private final SortOption sortType;
     private final String targetServer;
+    // First and last spawner of a remote page, the anchors for querying the pages next to it
+    private final CrossServerSpawnerPage.Key firstKey;
+    private final CrossServerSpawnerPage.Key lastKey;
 
     public SpawnerListHolder(int currentPage, int totalPages, String worldName,
                              FilterOption filterOption, SortOption sortType) {
@@ -22,12 +26,20 @@ public class SpawnerListHolder implements InventoryHolder {
 
     public SpawnerListHolder(int currentPage, int totalPages, String worldName,
                              FilterOption filterOption, SortOption sortType, String targetServer) {
+        this(currentPage, totalPages, worldName, filterOption, sortType, targetServer, null, null);
+    }
+
+    public SpawnerListHolder(int currentPage, int totalPages, String worldName,
+                             FilterOption filterOption, SortOption sortType, String targetServer,
+                             CrossServerSpawnerPage.Key firstKey, CrossServerSpawnerPage.Key lastKey) {
         this.currentPage = currentPage;
         this.totalPages = totalPages;
         this.worldName = worldName;
         this.filterOption = filterOption;
         this.sortType = sortType;
         this.targetServer = targetServer;
+        this.firstKey = firstKey;
+        this.lastKey = lastKey;
     }
 
     /**
@@ -55,7 +55,7 @@ public class SpawnerManagementGUI {
 
         // For local spawners, verify it exists
         if (!isRemote) {
-            SpawnerData spawner = spawnerManager.getSpawnerById(spawnerId);
+            SpawnerData spawner = spawnerManager.getOrLoadSpawnerById(spawnerId);
             if (spawner == null) {
                 messageService.sendMessage(player, "spawner_not_found");
                 return;
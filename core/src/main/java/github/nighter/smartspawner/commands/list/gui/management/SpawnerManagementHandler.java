@@ -81,7 +81,7 @@ public class SpawnerManagementHandler implements Listener {
         }
 
         // Local spawner actions
-        SpawnerData spawner = spawnerManager.getSpawnerById(spawnerId);
+        SpawnerData spawner = spawnerManager.getOrLoadSpawnerById(spawnerId);
         if (spawner == null) {
             messageService.sendMessage(player, "spawner_not_found");
             return;
@@ -16,8 +16,8 @@ import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
@@ -60,8 +60,9 @@ public class HopperTransfer {
             Hopper hopper = (Hopper) hopperLoc.getBlock().getState(false);
             if (hopper == null) return;
 
-            Map<Integer, ItemStack> displayItems = virtualInv.getDisplayInventory();
-            if (displayItems == null || displayItems.isEmpty()) return;
+            // Walk display slots lazily, only the stacks actually inspected get built
+            Iterator<ItemStack> displayItems = virtualInv.displaySlotIterator(0);
+            if (!displayItems.hasNext()) return;
 
             Inventory hopperInv = hopper.getInventory();
 
@@ -70,8 +71,8 @@ public class HopperTransfer {
 
             List<ItemStack> removed = new ArrayList<>();
 
-            for (ItemStack item : displayItems.values()) {
-                if (transferred >= maxTransfers) break;
+            while (displayItems.hasNext() && transferred < maxTransfers) {
+                ItemStack item = displayItems.next();
                 if (item == null || item.getType() == Material.AIR) continue;
 
                 int stackAmount = item.getAmount();
@@ -84,10 +85,10 @@ public class HopperTransfer {
 
                 addAmountToInventory(hopperInv, item, toMove);
 
-                ItemStack removeStack = item.clone();
-                removeStack.setAmount(toMove);
+                // The display stack is a fresh copy, so it can be reused for the removal
+                item.setAmount(toMove);
 
-                removed.add(removeStack);
+                removed.add(item);
                 transferred++;
             }
 
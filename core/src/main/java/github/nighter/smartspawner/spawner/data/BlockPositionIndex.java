@@ -0,0 +1,131 @@
+package github.nighter.smartspawner.spawner.data;
+
+/**
+ * Spawners of one world by packed block position, see {@link #pack(int, int, int)}.
+ *
+ * <p>An open addressing table over primitive keys, so lookups don't box the position or allocate a key.
+ * Lookups run on region threads while the main thread adds and removes spawners, so every access holds
+ * the index's lock; a lookup reading the arrays mid-resize or mid-deletion could otherwise index past the
+ * end of the table or miss a spawner that is being shifted back.
+ *
+ * @param <V> the spawner type, only ever compared by identity
+ */
+class BlockPositionIndex<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys = new long[MIN_CAPACITY];
+    // A null value marks a free slot, so every packed position can be used as a key
+    private Object[] values = new Object[MIN_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Packs a block position into a long, 26 bits for x and z and 12 bits for y like the game does.
+     */
+    static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized V get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    synchronized void put(long key, V spawner) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = spawner;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = spawner;
+        size++;
+    }
+
+    /**
+     * Removes the spawner at the position, only if it is still the given one.
+     */
+    synchronized void remove(long key, V spawner) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                if (values[i] == spawner) {
+                    deleteSlot(i, mask);
+                    size--;
+                }
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    synchronized void clear() {
+        keys = new long[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+        size = 0;
+    }
+
+    private void deleteSlot(int gap, int mask) {
+        // Shift later entries of the probe run back into the gap, so lookups never stop early
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) break;
+
+            int home = slot(keys[i], mask);
+            boolean movable = gap <= i ? (home <= gap || home > i) : (home <= gap && home > i);
+            if (movable) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+
+        int mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = slot(oldKeys[j], mask);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    static int slot(long key, int mask) {
+        // Nearby positions only differ in a few bits of each coordinate, and x sits in the top bits, which a
+        // multiply alone never carries down into the slot; the MurmurHash3 finalizer spreads every bit
+        long h = key ^ (key >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return (int) (h ^ (h >>> 33)) & mask;
+    }
+}
@@ -1,26 +1,24 @@
 package github.nighter.smartspawner.spawner.data;
 
 import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.data.storage.PersistenceExecutor;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerSnapshot;
 import github.nighter.smartspawner.spawner.data.storage.SpawnerStorage;
+import github.nighter.smartspawner.spawner.data.storage.WriteBehindScheduler;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
-import github.nighter.smartspawner.spawner.properties.VirtualInventory;
-import github.nighter.smartspawner.Scheduler;
-import github.nighter.smartspawner.spawner.utils.ItemStackSerializer;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.Material;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.EntityType;
-import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class SpawnerFileHandler implements SpawnerStorage {
     private final SmartSpawner plugin;
@@ -34,15 +32,34 @@ public class SpawnerFileHandler implements SpawnerStorage {
     private final Set<String> dirtySpawners = ConcurrentHashMap.newKeySet();
     private final Set<String> deletedSpawners = ConcurrentHashMap.newKeySet();
 
-    private volatile boolean isSaving = false;
-    private Scheduler.Task saveTask = null;
+    private final PersistenceExecutor persistenceExecutor;
+    private final WriteBehindScheduler writeBehind;
+
+    // Journal mode appends changed spawners instead of rewriting the whole file on every flush
+    private final boolean journalEnabled;
+    private final long journalCompactBytes;
+    private SpawnerJournal journal;
 
     public SpawnerFileHandler(SmartSpawner plugin) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.CURRENT_VERSION = plugin.getDATA_VERSION();
+        this.journalEnabled = plugin.getConfig().getBoolean("database.yaml_journal.enabled", false);
+        this.journalCompactBytes = Math.max(1L, plugin.getConfig().getLong("database.yaml_journal.compact_size_mb", 16L)) * 1024L * 1024L;
+        this.persistenceExecutor = new PersistenceExecutor(plugin, "spawner file");
+        this.writeBehind = new WriteBehindScheduler(plugin, "spawner file", persistenceExecutor, new WriteBehindScheduler.FlushTarget() {
+            @Override
+            public int pendingChanges() {
+                return dirtySpawners.size() + deletedSpawners.size();
+            }
+
+            @Override
+            public int flushBatch(int maxChanges) throws IOException {
+                return writeChanges(maxChanges);
+            }
+        });
         setupSpawnerDataFile();
-        startSaveTask();
+        writeBehind.start();
     }
 
     @Override
@@ -60,6 +77,19 @@ public class SpawnerFileHandler implements SpawnerStorage {
 
         spawnerData = YamlConfiguration.loadConfiguration(spawnerDataFile);
 
+        // Replay changes that were journaled after the last snapshot, even if journal mode was turned off since.
+        // Compacting right away keeps spawners_data.yml complete for migrations that read it directly
+        journal = new SpawnerJournal(plugin.getDataFolder(), logger);
+        int replayed = journal.replay(spawnerData);
+        if (replayed > 0) {
+            logger.info("Replayed " + replayed + " journaled spawner changes");
+            try {
+                compactJournal();
+            } catch (IOException e) {
+                logger.severe("Could not compact spawner journal: " + e.getMessage());
+            }
+        }
+
         int version = spawnerData.getInt(DATA_VERSION_KEY, 1);
         if (version < CURRENT_VERSION) {
             logger.info("Data version " + version + " detected. Current version is " + CURRENT_VERSION + ".");
@@ -67,21 +97,6 @@ public class SpawnerFileHandler implements SpawnerStorage {
         }
     }
 
-    private void startSaveTask() {
-        // Hardcoded 5-minute interval (5 * 60 * 20 = 6000 ticks)
-        long intervalTicks = 6000L;
-
-        if (saveTask != null) {
-            saveTask.cancel();
-            saveTask = null;
-        }
-
-        saveTask = Scheduler.runTaskTimerAsync(() -> {
-            plugin.debug("Running scheduled save task");
-            flushChanges();
-        }, intervalTicks, intervalTicks);
-    }
-
     @Override
     public void markSpawnerModified(String spawnerId) {
         if (spawnerId != null) {
@@ -105,65 +120,74 @@ public class SpawnerFileHandler implements SpawnerStorage {
             return;
         }
 
-        if (isSaving) {
-            plugin.debug("Flush operation already in progress");
-            return;
-        }
-
-        isSaving = true;
         plugin.debug("Flushing " + dirtySpawners.size() + " modified and " + deletedSpawners.size() + " deleted spawners");
+        writeBehind.requestFlush();
+    }
 
-        Scheduler.runTaskAsync(() -> {
-            try {
-                if (!dirtySpawners.isEmpty()) {
-                    Set<String> toUpdate = new HashSet<>(dirtySpawners);
-                    dirtySpawners.removeAll(toUpdate);
-
-                    Map<String, SpawnerData> batch = new HashMap<>();
-                    for (String id : toUpdate) {
-                        SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(id);
-                        if (spawner != null) {
-                            batch.put(id, spawner);
-                        }
-                    }
+    @Override
+    public boolean hasPendingChanges(String spawnerId) {
+        return dirtySpawners.contains(spawnerId) || deletedSpawners.contains(spawnerId) || writeBehind.isInFlight(spawnerId);
+    }
 
-                    if (!batch.isEmpty()) {
-                        saveSpawnerBatch(batch);
-                    }
-                }
+    @Override
+    public WriteBehindScheduler getWriteBehind() {
+        return writeBehind;
+    }
 
-                if (!deletedSpawners.isEmpty()) {
-                    Set<String> toDelete = new HashSet<>(deletedSpawners);
-                    deletedSpawners.removeAll(toDelete);
+    @Override
+    public PersistenceExecutor getPersistenceExecutor() {
+        return persistenceExecutor;
+    }
 
-                    for (String id : toDelete) {
-                        String path = "spawners." + id;
-                        spawnerData.set(path, null);
-                    }
+    private int writeChanges(int maxChanges) throws IOException {
+        // Without the journal every batch rewrites the whole file, so everything is written in one go
+        int limit = journalEnabled ? maxChanges : Integer.MAX_VALUE;
+        Set<String> toUpdate = writeBehind.take(dirtySpawners, limit);
+        Set<String> toDelete = writeBehind.take(deletedSpawners, limit - toUpdate.size());
 
-                    if (!toDelete.isEmpty()) {
-                        spawnerData.save(spawnerDataFile);
+        try {
+            if (!toUpdate.isEmpty()) {
+                // Snapshot every spawner before serializing any, so the batch is one consistent point in time
+                Map<String, SpawnerSnapshot> batch = new HashMap<>();
+                for (String id : toUpdate) {
+                    SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(id);
+                    if (spawner != null) {
+                        batch.put(id, SpawnerSnapshot.of(spawner));
                     }
                 }
 
-                // Automatic ghost spawner check removed - use /ss clear ghost_spawners command instead
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error during flush: " + e.getMessage());
-                e.printStackTrace();
-
-                for (String id : dirtySpawners) {
-                    dirtySpawners.add(id);
+                if (!batch.isEmpty() && !saveSpawnerBatch(batch)) {
+                    requeue(batch.keySet(), dirtySpawners);
                 }
-                for (String id : deletedSpawners) {
-                    deletedSpawners.add(id);
-                }
-            } finally {
-                isSaving = false;
             }
-        });
+
+            if (!toDelete.isEmpty()) {
+                deleteSpawnerBatch(toDelete);
+            }
+        } catch (IOException e) {
+            requeue(toDelete, deletedSpawners);
+            throw e;
+        }
+
+        if (journalEnabled && journal.size() >= journalCompactBytes) {
+            plugin.debug("Compacting spawner journal");
+            compactJournal();
+        }
+
+        // Automatic ghost spawner check removed - use /ss clear ghost_spawners command instead
+        return toUpdate.size() + toDelete.size();
     }
 
-    private boolean saveSpawnerBatch(Map<String, SpawnerData> spawners) {
+    private void requeue(Set<String> spawnerIds, Set<String> queue) {
+        for (String id : spawnerIds) {
+            // Don't resurrect a spawner that changed state while its batch was being written
+            if (!dirtySpawners.contains(id) && !deletedSpawners.contains(id)) {
+                queue.add(id);
+            }
+        }
+    }
+
+    private boolean saveSpawnerBatch(Map<String, SpawnerSnapshot> spawners) {
         if (spawners.isEmpty()) return true;
 
         try {
@@ -174,68 +198,21 @@ public class SpawnerFileHandler implements SpawnerStorage {
 
             spawnerData.set(DATA_VERSION_KEY, CURRENT_VERSION);
 
-            for (Map.Entry<String, SpawnerData> entry : spawners.entrySet()) {
-                String spawnerId = entry.getKey();
-                SpawnerData spawner = entry.getValue();
-                String path = "spawners." + spawnerId;
-                Location loc = spawner.getSpawnerLocation();
-
-                spawnerData.set(path + ".location", String.format("%s,%d,%d,%d",
-                        loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()));
-
-                spawnerData.set(path + ".entityType", spawner.getEntityType() != null ?
-                        spawner.getEntityType().name() : null);
-
-                // Save item spawner material if this is an item spawner
-                if (spawner.isItemSpawner()) {
-                    spawnerData.set(path + ".itemSpawnerMaterial", spawner.getSpawnedItemMaterial().name());
-                } else {
-                    spawnerData.set(path + ".itemSpawnerMaterial", null);
-                }
-
-                String settings = String.format("%d,%b,%d,%b,%d,%d,%d,%d,%d,%d,%d,%d,%b",
-                        spawner.getSpawnerExp(),
-                        spawner.getSpawnerActive(),
-                        spawner.getSpawnerRange(),
-                        spawner.getSpawnerStop().get(),
-                        spawner.getSpawnDelay(),
-                        spawner.getMaxSpawnerLootSlots(),
-                        spawner.getMaxStoredExp(),
-                        spawner.getMinMobs(),
-                        spawner.getMaxMobs(),
-                        spawner.getStackSize(),
-                        spawner.getMaxStackSize(),
-                        spawner.getLastSpawnTime(),
-                        spawner.getIsAtCapacity());
-
-                spawnerData.set(path + ".settings", settings);
-                
-                // Save last interacted player separately
-                spawnerData.set(path + ".lastInteractedPlayer", spawner.getLastInteractedPlayer());
-
-                // Save preferred sort item
-                spawnerData.set(path + ".preferredSortItem", spawner.getPreferredSortItem() != null ?
-                        spawner.getPreferredSortItem().name() : null);
-
-                Set<Material> filteredItems = spawner.getFilteredItems();
-                if (filteredItems != null && !filteredItems.isEmpty()) {
-                    List<String> materials = filteredItems.stream()
-                            .map(Material::name)
-                            .collect(Collectors.toList());
-                    spawnerData.set(path + ".filteredItems", String.join(",", materials));
-                } else {
-                    spawnerData.set(path + ".filteredItems", null);
-                }
+            for (Map.Entry<String, SpawnerSnapshot> entry : spawners.entrySet()) {
+                writeSpawnerSection("spawners." + entry.getKey(), entry.getValue().toRecord());
+            }
 
-                VirtualInventory virtualInv = spawner.getVirtualInventory();
-                if (virtualInv != null) {
-                    Map<VirtualInventory.ItemSignature, Long> items = virtualInv.getConsolidatedItems();
-                    List<String> serializedItems = ItemStackSerializer.serializeInventory(items);
-                    spawnerData.set(path + ".inventory", serializedItems);
+            if (journalEnabled) {
+                for (String spawnerId : spawners.keySet()) {
+                    ConfigurationSection section = spawnerData.getConfigurationSection("spawners." + spawnerId);
+                    if (section != null) {
+                        journal.appendUpdate(spawnerId, section);
+                    }
                 }
+                journal.sync();
+            } else {
+                spawnerData.save(spawnerDataFile);
             }
-
-            spawnerData.save(spawnerDataFile);
             return true;
         } catch (IOException e) {
             plugin.getLogger().severe("Could not save spawner batch to file!");
@@ -244,302 +221,260 @@ public class SpawnerFileHandler implements SpawnerStorage {
         }
     }
 
-    @Override
-    public Map<String, SpawnerData> loadAllSpawnersRaw() {
-        Map<String, SpawnerData> loadedSpawners = new HashMap<>();
+    private void writeSpawnerSection(String path, SpawnerRecord record) {
+        spawnerData.set(path + ".location", record.locationString());
+
+        spawnerData.set(path + ".entityType", record.entityType());
+
+        // Save item spawner material if this is an item spawner
+        spawnerData.set(path + ".itemSpawnerMaterial", record.itemSpawnerMaterial());
+
+        String settings = String.format("%d,%b,%d,%b,%d,%d,%d,%d,%d,%d,%d,%d,%b",
+                record.spawnerExp(),
+                record.spawnerActive(),
+                record.spawnerRange(),
+                record.spawnerStop(),
+                record.spawnDelay(),
+                record.maxSpawnerLootSlots(),
+                record.maxStoredExp(),
+                record.minMobs(),
+                record.maxMobs(),
+                record.stackSize(),
+                record.maxStackSize(),
+                record.lastSpawnTime(),
+                record.atCapacity());
+
+        spawnerData.set(path + ".settings", settings);
+        
+        // Save last interacted player separately
+        spawnerData.set(path + ".lastInteractedPlayer", record.lastInteractedPlayer());
 
-        ConfigurationSection spawnersSection = spawnerData.getConfigurationSection("spawners");
-        if (spawnersSection == null) return loadedSpawners;
+        // Save preferred sort item
+        spawnerData.set(path + ".preferredSortItem", record.preferredSortItem());
 
-        for (String spawnerId : spawnersSection.getKeys(false)) {
-            try {
-                // Use non-logging version and skip hopper restart during batch load
-                SpawnerData spawner = loadSpawnerFromConfig(spawnerId, false, false);
-                // Add to map even if null (world not loaded)
-                loadedSpawners.put(spawnerId, spawner);
-            } catch (Exception e) {
-                plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
-                // Add null entry to indicate error
-                loadedSpawners.put(spawnerId, null);
-            }
-        }
+        spawnerData.set(path + ".filteredItems", record.filteredItems());
 
-        return loadedSpawners;
+        spawnerData.set(path + ".inventory", InventoryCodec.toBase64(record.inventory()));
     }
 
-    @Override
-    public SpawnerData loadSpecificSpawner(String spawnerId) {
-        try {
-            return loadSpawnerFromConfig(spawnerId, false);
-        } catch (Exception e) {
-            plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
-            return null;
+    /**
+     * Reads the inventory of a spawner section, saved as base64 {@link InventoryCodec} data
+     * or by older versions as a list of entries.
+     * @throws IllegalArgumentException if the inventory is not valid base64
+     */
+    public static byte[] readInventory(ConfigurationSection section) {
+        if (section.isList("inventory")) {
+            return InventoryCodec.fromLegacy(section.getStringList("inventory"));
         }
+        return InventoryCodec.fromBase64(section.getString("inventory"));
     }
 
     /**
-     * Get the raw location string for a spawner (used by WorldEventHandler)
+     * Reads a spawner section without building the spawner, so it can run off the main thread.
+     * @param version The data version of the file the section belongs to
+     * @return The record, or null if the section has no valid location or entity type
      */
-    @Override
-    public String getRawLocationString(String spawnerId) {
-        String path = "spawners." + spawnerId + ".location";
-        return spawnerData.getString(path);
-    }
-
-    private SpawnerData loadSpawnerFromConfig(String spawnerId) {
-        return loadSpawnerFromConfig(spawnerId, true, true);
-    }
-
-    private SpawnerData loadSpawnerFromConfig(String spawnerId, boolean logErrors) {
-        return loadSpawnerFromConfig(spawnerId, logErrors, true);
-    }
-
-    private SpawnerData loadSpawnerFromConfig(String spawnerId, boolean logErrors, boolean restartHopper) {
-        String path = "spawners." + spawnerId;
-
-        String locationString = spawnerData.getString(path + ".location");
-        if (locationString == null) {
-            if (logErrors) {
-                logger.severe("Invalid location for spawner " + spawnerId);
-            }
+    public static SpawnerRecord readRecord(ConfigurationSection section, String spawnerId, int version, Logger logger) {
+        if (section == null) {
             return null;
         }
 
-        String[] locParts = locationString.split(",");
+        String locationString = section.getString("location");
+        String[] locParts = locationString != null ? locationString.split(",") : new String[0];
         if (locParts.length != 4) {
-            if (logErrors) {
-                logger.severe("Invalid location format for spawner " + spawnerId);
-            }
+            logger.warning("Invalid location for spawner " + spawnerId + ", skipping.");
             return null;
         }
 
-        org.bukkit.World world = Bukkit.getWorld(locParts[0]);
-        if (world == null) {
-            if (logErrors) {
-                logger.severe("World not found for spawner " + spawnerId + ": " + locParts[0]);
-            } else {
-                plugin.debug("World not yet loaded for spawner " + spawnerId + ": " + locParts[0]);
-            }
+        int locX, locY, locZ;
+        try {
+            locX = Integer.parseInt(locParts[1]);
+            locY = Integer.parseInt(locParts[2]);
+            locZ = Integer.parseInt(locParts[3]);
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid location coordinates for spawner " + spawnerId + ", skipping.");
             return null;
         }
 
-        Location location = new Location(world,
-                Integer.parseInt(locParts[1]),
-                Integer.parseInt(locParts[2]),
-                Integer.parseInt(locParts[3]));
-
-        String entityTypeString = spawnerData.getString(path + ".entityType");
-        if (entityTypeString == null) {
-            if (logErrors) {
-                logger.severe("Missing entity type for spawner " + spawnerId);
-            }
+        String entityType = section.getString("entityType");
+        if (entityType == null) {
+            logger.warning("No entity type for spawner " + spawnerId + ", skipping.");
             return null;
         }
-
-        EntityType entityType;
         try {
-            entityType = EntityType.valueOf(entityTypeString);
+            EntityType.valueOf(entityType);
         } catch (IllegalArgumentException e) {
-            if (logErrors) {
-                logger.severe("Invalid entity type for spawner " + spawnerId + ": " + entityTypeString);
-            }
+            logger.warning("Invalid entity type for spawner " + spawnerId + ": " + entityType + ", skipping.");
             return null;
         }
 
-        // Check if this is an item spawner
-        SpawnerData spawner;
-        if (entityType == EntityType.ITEM) {
-            String itemSpawnerMaterialString = spawnerData.getString(path + ".itemSpawnerMaterial");
-            if (itemSpawnerMaterialString != null) {
-                try {
-                    Material itemMaterial = Material.valueOf(itemSpawnerMaterialString);
-                    spawner = new SpawnerData(spawnerId, location, itemMaterial, plugin);
-                } catch (IllegalArgumentException e) {
-                    if (logErrors) {
-                        logger.severe("Invalid item spawner material for spawner " + spawnerId + ": " + itemSpawnerMaterialString);
-                    }
-                    return null;
-                }
-            } else {
-                // Fallback to regular entity spawner if no item material specified
-                spawner = new SpawnerData(spawnerId, location, entityType, plugin);
-            }
-        } else {
-            spawner = new SpawnerData(spawnerId, location, entityType, plugin);
-        }
-
-        String settingsString = spawnerData.getString(path + ".settings");
+        // Defaults for settings missing from older files, also used by the YAML to database migration
+        int spawnerExp = 0;
+        boolean spawnerActive = true;
+        int spawnerRange = 16;
+        boolean spawnerStop = true;
+        long spawnDelay = 500;
+        int maxSpawnerLootSlots = 45;
+        int maxStoredExp = 1000;
+        int minMobs = 1;
+        int maxMobs = 4;
+        int stackSize = 1;
+        int maxStackSize = 1000;
+        long lastSpawnTime = 0;
+        boolean isAtCapacity = false;
+
+        String settingsString = section.getString("settings");
         if (settingsString != null) {
             String[] settings = settingsString.split(",");
-
-            int version = spawnerData.getInt(DATA_VERSION_KEY, 1);
-
             try {
-                if (version >= 3) {
-                    if (settings.length >= 13) {
-                        spawner.setSpawnerExpData(Integer.parseInt(settings[0]));
-                        spawner.setSpawnerActive(Boolean.parseBoolean(settings[1]));
-                        spawner.setSpawnerRange(Integer.parseInt(settings[2]));
-                        spawner.getSpawnerStop().set(Boolean.parseBoolean(settings[3]));
-                        spawner.setSpawnDelayFromConfig();
-                        spawner.setMaxSpawnerLootSlots(Integer.parseInt(settings[5]));
-                        spawner.setMaxStoredExp(Integer.parseInt(settings[6]));
-                        spawner.setMinMobs(Integer.parseInt(settings[7]));
-                        spawner.setMaxMobs(Integer.parseInt(settings[8]));
-                        spawner.setStackSize(Integer.parseInt(settings[9]), restartHopper);
-                        spawner.setMaxStackSize(Integer.parseInt(settings[10]));
-                        spawner.setLastSpawnTime(Long.parseLong(settings[11]));
-                        spawner.setIsAtCapacity(Boolean.parseBoolean(settings[12]));
-                    }
-                } else {
-                    spawner.setSpawnerExpData(Integer.parseInt(settings[0]));
-                    spawner.setSpawnerActive(Boolean.parseBoolean(settings[1]));
-                    spawner.setSpawnerRange(Integer.parseInt(settings[2]));
-                    spawner.getSpawnerStop().set(Boolean.parseBoolean(settings[3]));
-                    spawner.setSpawnDelayFromConfig();
-                    spawner.setMaxSpawnerLootSlots(Integer.parseInt(settings[5]));
-                    spawner.setMaxStoredExp(Integer.parseInt(settings[6]));
-                    spawner.setMinMobs(Integer.parseInt(settings[7]));
-                    spawner.setMaxMobs(Integer.parseInt(settings[8]));
-                    spawner.setStackSize(Integer.parseInt(settings[9]), restartHopper);
-                    spawner.setLastSpawnTime(Long.parseLong(settings[10]));
-                    spawner.setIsAtCapacity(false);
+                if (version >= 3 && settings.length >= 13) {
+                    spawnerExp = Integer.parseInt(settings[0]);
+                    spawnerActive = Boolean.parseBoolean(settings[1]);
+                    spawnerRange = Integer.parseInt(settings[2]);
+                    spawnerStop = Boolean.parseBoolean(settings[3]);
+                    spawnDelay = Long.parseLong(settings[4]);
+                    maxSpawnerLootSlots = Integer.parseInt(settings[5]);
+                    maxStoredExp = Integer.parseInt(settings[6]);
+                    minMobs = Integer.parseInt(settings[7]);
+                    maxMobs = Integer.parseInt(settings[8]);
+                    stackSize = Integer.parseInt(settings[9]);
+                    maxStackSize = Integer.parseInt(settings[10]);
+                    lastSpawnTime = Long.parseLong(settings[11]);
+                    isAtCapacity = Boolean.parseBoolean(settings[12]);
+                } else if (settings.length >= 11) {
+                    spawnerExp = Integer.parseInt(settings[0]);
+                    spawnerActive = Boolean.parseBoolean(settings[1]);
+                    spawnerRange = Integer.parseInt(settings[2]);
+                    spawnerStop = Boolean.parseBoolean(settings[3]);
+                    spawnDelay = Long.parseLong(settings[4]);
+                    maxSpawnerLootSlots = Integer.parseInt(settings[5]);
+                    maxStoredExp = Integer.parseInt(settings[6]);
+                    minMobs = Integer.parseInt(settings[7]);
+                    maxMobs = Integer.parseInt(settings[8]);
+                    stackSize = Integer.parseInt(settings[9]);
+                    lastSpawnTime = Long.parseLong(settings[10]);
                 }
             } catch (NumberFormatException e) {
-                logger.severe("Invalid settings format for spawner " + spawnerId);
-                logger.severe("Settings: " + settingsString);
-                e.printStackTrace();
-                return null;
+                logger.warning("Invalid settings format for spawner " + spawnerId + ", using defaults.");
             }
         }
 
-        String filteredItemsStr = spawnerData.getString(path + ".filteredItems");
-        if (filteredItemsStr != null && !filteredItemsStr.isEmpty()) {
-            String[] materialNames = filteredItemsStr.split(",");
-            for (String materialName : materialNames) {
-                try {
-                    Material material = Material.valueOf(materialName.trim());
-                    spawner.getFilteredItems().add(material);
-                } catch (IllegalArgumentException e) {
-                    logger.warning("Invalid material in filtered items for spawner " + spawnerId + ": " + materialName);
-                }
-            }
+        byte[] inventory;
+        try {
+            inventory = readInventory(section);
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid inventory for spawner " + spawnerId + ", loading it empty.");
+            inventory = InventoryCodec.EMPTY;
         }
 
-        List<String> inventoryData = spawnerData.getStringList(path + ".inventory");
-        VirtualInventory virtualInv = new VirtualInventory(spawner.getMaxSpawnerLootSlots());
+        return new SpawnerRecord(spawnerId, locParts[0], locX, locY, locZ,
+                entityType, section.getString("itemSpawnerMaterial"),
+                spawnerExp, spawnerActive, spawnerRange, spawnerStop, spawnDelay,
+                maxSpawnerLootSlots, maxStoredExp, minMobs, maxMobs, stackSize, maxStackSize,
+                lastSpawnTime, isAtCapacity,
+                section.getString("lastInteractedPlayer"),
+                section.getString("preferredSortItem"),
+                section.getString("filteredItems"),
+                inventory);
+    }
 
-        if (inventoryData != null && !inventoryData.isEmpty()) {
-            try {
-                Map<ItemStack, Integer> items = ItemStackSerializer.deserializeInventory(inventoryData);
-                for (Map.Entry<ItemStack, Integer> entry : items.entrySet()) {
-                    ItemStack item = entry.getKey();
-                    int amount = entry.getValue();
-
-                    if (item != null && amount > 0) {
-                        while (amount > 0) {
-                            int batchSize = Math.min(amount, item.getMaxStackSize());
-                            ItemStack batch = item.clone();
-                            batch.setAmount(batchSize);
-                            virtualInv.addItems(Collections.singletonList(batch));
-                            amount -= batchSize;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.warning("Error loading inventory for spawner " + spawnerId);
-                e.printStackTrace();
-            }
+    private void deleteSpawnerBatch(Set<String> spawnerIds) throws IOException {
+        for (String id : spawnerIds) {
+            spawnerData.set("spawners." + id, null);
         }
 
-        spawner.setVirtualInventory(virtualInv);
-        
-        // Recalculate accumulated sell value after loading inventory
-        spawner.recalculateSellValue();
-        
-        // Load last interacted player
-        String lastInteractedPlayer = spawnerData.getString(path + ".lastInteractedPlayer");
-        spawner.setLastInteractedPlayer(lastInteractedPlayer);
-
-        // Load preferred sort item
-        String preferredSortItemStr = spawnerData.getString(path + ".preferredSortItem");
-        if (preferredSortItemStr != null && !preferredSortItemStr.isEmpty()) {
-            try {
-                Material preferredSortItem = Material.valueOf(preferredSortItemStr);
-                spawner.setPreferredSortItem(preferredSortItem);
-                // Apply the sort preference to the virtual inventory
-                virtualInv.sortItems(preferredSortItem);
-            } catch (IllegalArgumentException e) {
-                logger.warning("Invalid preferred sort item for spawner " + spawnerId + ": " + preferredSortItemStr);
+        if (journalEnabled) {
+            for (String id : spawnerIds) {
+                journal.appendDelete(id);
             }
+            journal.sync();
+        } else {
+            spawnerData.save(spawnerDataFile);
         }
-        
-        // Restore the physical spawner block state for item spawners
-        if (spawner.isItemSpawner()) {
-            Scheduler.runLocationTask(location, () -> {
-                org.bukkit.block.Block block = location.getBlock();
-                if (block.getType() == Material.SPAWNER) {
-                    org.bukkit.block.BlockState state = block.getState(false);
-                    if (state instanceof org.bukkit.block.CreatureSpawner cs) {
-                        cs.setSpawnedType(EntityType.ITEM);
-                        ItemStack spawnedItem = new ItemStack(spawner.getSpawnedItemMaterial(), 1);
-                        cs.setSpawnedItem(spawnedItem);
-                        cs.update(true, false);
+    }
+
+    /**
+     * Folds the journal into spawners_data.yml. The snapshot is written to a temporary file and moved
+     * into place before the journal is emptied, so a crash at any point leaves a replayable state.
+     */
+    private void compactJournal() throws IOException {
+        File tempFile = new File(spawnerDataFile.getParentFile(), spawnerDataFile.getName() + ".tmp");
+        spawnerData.save(tempFile);
+        java.nio.file.Files.move(tempFile.toPath(), spawnerDataFile.toPath(),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+        journal.truncate();
+    }
+
+    @Override
+    public void streamSpawnerRecords(Consumer<SpawnerRecord> consumer) {
+        // Saves change the configuration in place, so none may run while sections are read in parallel
+        writeBehind.runExclusive(() -> {
+            ConfigurationSection spawnersSection = spawnerData.getConfigurationSection("spawners");
+            if (spawnersSection == null) return;
+
+            int version = spawnerData.getInt(DATA_VERSION_KEY, 1);
+            spawnersSection.getKeys(false).parallelStream().forEach(spawnerId -> {
+                try {
+                    SpawnerRecord record = readRecord(spawnersSection.getConfigurationSection(spawnerId), spawnerId, version, logger);
+                    if (record != null) {
+                        consumer.accept(record);
                     }
+                } catch (Exception e) {
+                    plugin.debug("Error reading spawner " + spawnerId + ": " + e.getMessage());
                 }
             });
-        }
-        
-        return spawner;
+        });
     }
 
     @Override
-    public void queueSpawnerForSaving(String spawnerId) {
-        markSpawnerModified(spawnerId);
+    public SpawnerData buildSpawner(SpawnerRecord record) {
+        return record.toSpawnerData(plugin, false);
     }
 
     @Override
-    public void shutdown() {
-        if (saveTask != null) {
-            saveTask.cancel();
-            saveTask = null;
+    public SpawnerData loadSpecificSpawner(String spawnerId) {
+        try {
+            SpawnerRecord record = readRecord(spawnerData.getConfigurationSection("spawners." + spawnerId),
+                    spawnerId, spawnerData.getInt(DATA_VERSION_KEY, 1), logger);
+            return record != null ? record.toSpawnerData(plugin, true) : null;
+        } catch (Exception e) {
+            plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
+            return null;
         }
+    }
 
-        if (!dirtySpawners.isEmpty() || !deletedSpawners.isEmpty()) {
-            try {
-                isSaving = true;
-
-                if (!dirtySpawners.isEmpty()) {
-                    Map<String, SpawnerData> batch = new HashMap<>();
-                    for (String id : dirtySpawners) {
-                        SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(id);
-                        if (spawner != null) {
-                            batch.put(id, spawner);
-                        }
-                    }
+    /**
+     * Get the raw location string for a spawner (used by WorldEventHandler)
+     */
+    @Override
+    public String getRawLocationString(String spawnerId) {
+        String path = "spawners." + spawnerId + ".location";
+        return spawnerData.getString(path);
+    }
 
-                    if (!batch.isEmpty()) {
-                        saveSpawnerBatch(batch);
-                    }
-                }
+    @Override
+    public void queueSpawnerForSaving(String spawnerId) {
+        markSpawnerModified(spawnerId);
+    }
 
-                if (!deletedSpawners.isEmpty()) {
-                    for (String id : deletedSpawners) {
-                        String path = "spawners." + id;
-                        spawnerData.set(path, null);
-                    }
+    @Override
+    public void shutdown() {
+        writeBehind.stop();
+        persistenceExecutor.shutdown();
 
-                    spawnerData.save(spawnerDataFile);
-                }
+        // Perform synchronous flush on shutdown
+        writeBehind.flushAll();
+        dirtySpawners.clear();
+        deletedSpawners.clear();
 
-                dirtySpawners.clear();
-                deletedSpawners.clear();
-            } catch (Exception e) {
-                logger.severe("Error during shutdown flush: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                isSaving = false;
+        // Leave a complete snapshot behind so the next start doesn't have to replay anything
+        if (journal.size() > 0) {
+            try {
+                compactJournal();
+            } catch (IOException e) {
+                logger.severe("Could not compact spawner journal on shutdown: " + e.getMessage());
             }
         }
+        journal.close();
     }
 }
@@ -0,0 +1,153 @@
+package github.nighter.smartspawner.spawner.data;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.logging.Logger;
+
+/**
+ * Append-only change log for the YAML backend.
+ * Each line is one record, either {@code U <id> <base64 yaml>} holding the full section of an
+ * updated spawner, or {@code D <id>} for a deleted one. Replaying the records in order over the
+ * snapshot in spawners_data.yml gives the current state; replaying twice is harmless.
+ */
+public class SpawnerJournal {
+    public static final String JOURNAL_FILE_NAME = "spawners_data.journal";
+
+    private static final char UPDATE = 'U';
+    private static final char DELETE = 'D';
+
+    private final File journalFile;
+    private final Logger logger;
+    private FileOutputStream outputStream;
+    private Writer writer;
+
+    public SpawnerJournal(File dataFolder, Logger logger) {
+        this.journalFile = new File(dataFolder, JOURNAL_FILE_NAME);
+        this.logger = logger;
+    }
+
+    public synchronized void appendUpdate(String spawnerId, ConfigurationSection section) throws IOException {
+        YamlConfiguration record = new YamlConfiguration();
+        for (String key : section.getKeys(false)) {
+            record.set(key, section.get(key));
+        }
+        String encoded = Base64.getEncoder().encodeToString(record.saveToString().getBytes(StandardCharsets.UTF_8));
+        openWriter().write(UPDATE + " " + spawnerId + " " + encoded + "\n");
+    }
+
+    public synchronized void appendDelete(String spawnerId) throws IOException {
+        openWriter().write(DELETE + " " + spawnerId + "\n");
+    }
+
+    /**
+     * Writes buffered records through to disk.
+     */
+    public synchronized void sync() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            outputStream.getFD().sync();
+        }
+    }
+
+    public long size() {
+        return journalFile.length();
+    }
+
+    /**
+     * Empties the journal, called once its records are part of a saved snapshot.
+     */
+    public synchronized void truncate() throws IOException {
+        close();
+        try (FileOutputStream ignored = new FileOutputStream(journalFile, false)) {
+            // Opening without append truncates the file
+        }
+    }
+
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warning("Error closing spawner journal: " + e.getMessage());
+            }
+            writer = null;
+            outputStream = null;
+        }
+    }
+
+    /**
+     * Applies every record of the journal to a loaded snapshot.
+     *
+     * @param target The loaded spawners_data.yml
+     * @return Number of records applied
+     */
+    public int replay(FileConfiguration target) {
+        return replay(journalFile, target, logger);
+    }
+
+    /**
+     * Applies every record of a journal file to a loaded snapshot.
+     * A torn last record from a crash mid-write is skipped.
+     *
+     * @param journalFile The journal file, may not exist
+     * @param target      The loaded spawners_data.yml
+     * @param logger      Logger for skipped records
+     * @return Number of records applied
+     */
+    public static int replay(File journalFile, FileConfiguration target, Logger logger) {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+
+        int applied = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) continue;
+
+                String[] parts = line.split(" ", 3);
+                try {
+                    if (parts.length == 2 && parts[0].charAt(0) == DELETE) {
+                        target.set("spawners." + parts[1], null);
+                    } else if (parts.length == 3 && parts[0].charAt(0) == UPDATE) {
+                        String yaml = new String(Base64.getDecoder().decode(parts[2]), StandardCharsets.UTF_8);
+                        YamlConfiguration record = new YamlConfiguration();
+                        record.loadFromString(yaml);
+
+                        String path = "spawners." + parts[1];
+                        target.set(path, null);
+                        for (String key : record.getKeys(false)) {
+                            target.set(path + "." + key, record.get(key));
+                        }
+                    } else {
+                        logger.warning("Skipping malformed spawner journal record at line " + lineNumber);
+                        continue;
+                    }
+                    applied++;
+                } catch (IllegalArgumentException | InvalidConfigurationException e) {
+                    logger.warning("Skipping unreadable spawner journal record at line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.severe("Error reading spawner journal: " + e.getMessage());
+        }
+        return applied;
+    }
+
+    private Writer openWriter() throws IOException {
+        if (writer == null) {
+            outputStream = new FileOutputStream(journalFile, true);
+            writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        }
+        return writer;
+    }
+}
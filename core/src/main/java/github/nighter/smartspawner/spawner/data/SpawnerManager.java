@@ -2,8 +2,10 @@ package github.nighter.smartspawner.spawner.data;
 
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
 import github.nighter.smartspawner.spawner.data.storage.SpawnerStorage;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import github.nighter.smartspawner.utils.ChunkUtil;
 import org.bukkit.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -11,44 +13,36 @@ import java.util.concurrent.ConcurrentHashMap;
 public class SpawnerManager {
     private final SmartSpawner plugin;
     private final Map<String, SpawnerData> spawners = new ConcurrentHashMap<>();
-    private final Map<LocationKey, SpawnerData> locationIndex = new HashMap<>();
+    // World name -> packed block position -> spawner
+    private final Map<String, BlockPositionIndex<SpawnerData>> locationIndex = new ConcurrentHashMap<>();
     private final Map<String, Set<SpawnerData>> worldIndex = new HashMap<>();
+    // World name -> chunk key -> spawners, read off-thread by the range checker
+    private final Map<String, Map<Long, Set<SpawnerData>>> chunkIndex = new ConcurrentHashMap<>();
     private final SpawnerStorage spawnerStorage;
     // Set to keep track of confirmed ghost spawners to avoid repeated checks
     private final Set<String> confirmedGhostSpawners = ConcurrentHashMap.newKeySet();
 
+    // Lazy loading keeps spawners in unloaded chunks as records until they are needed
+    private final boolean lazyLoading;
+    private final Map<String, SpawnerRecord> coldSpawners = new ConcurrentHashMap<>();
+    // World name -> chunk key -> spawner ID -> record
+    private final Map<String, Map<Long, Map<String, SpawnerRecord>>> coldChunkIndex = new ConcurrentHashMap<>();
+    private Scheduler.Task unloadTask = null;
+
+    // Set while the startup loader is still indexing stored spawners, a spawner block with no spawner
+    // found may then belong to one that isn't indexed yet
+    private volatile boolean startupLoading = false;
+
     public SpawnerManager(SmartSpawner plugin) {
         this.plugin = plugin;
         this.spawnerStorage = plugin.getSpawnerStorage();
+        this.lazyLoading = plugin.getConfig().getBoolean("database.lazy_loading.enabled", false);
         // Initialize without loading spawners - let WorldEventHandler manage loading
         initializeWithoutLoading();
-    }
-
-    private static class LocationKey {
-        private final String world;
-        private final int x, y, z;
-
-        public LocationKey(Location location) {
-            this.world = location.getWorld().getName();
-            this.x = location.getBlockX();
-            this.y = location.getBlockY();
-            this.z = location.getBlockZ();
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof LocationKey)) return false;
-            LocationKey that = (LocationKey) o;
-            return x == that.x &&
-                    y == that.y &&
-                    z == that.z &&
-                    world.equals(that.world);
-        }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(world, x, y, z);
+        if (lazyLoading) {
+            long intervalTicks = Math.max(1L, plugin.getConfig().getLong("database.lazy_loading.unload_interval_seconds", 60L)) * 20L;
+            unloadTask = Scheduler.runTaskTimer(this::unloadIdleSpawners, intervalTicks, intervalTicks);
         }
     }
 
@@ -79,24 +73,27 @@ public class SpawnerManager {
 
     public void addSpawner(String id, SpawnerData spawner) {
         spawners.put(id, spawner);
-        locationIndex.put(new LocationKey(spawner.getSpawnerLocation()), spawner);
+        addToLocationIndex(spawner);
 
         // Add to world index
         String worldName = spawner.getSpawnerLocation().getWorld().getName();
         worldIndex.computeIfAbsent(worldName, k -> new HashSet<>()).add(spawner);
+        addToChunkIndex(spawner);
+        requestRangeCheck(spawner);
 
         // Queue for saving
         spawnerStorage.queueSpawnerForSaving(id);
     }
 
     public void removeSpawner(String id) {
+        removeColdSpawner(id);
         SpawnerData spawner = spawners.get(id);
         if (spawner != null) {
             Location loc = spawner.getSpawnerLocation();
             // Run hologram removal on location thread
             Scheduler.runLocationTask(loc, spawner::removeHologram);
 
-            locationIndex.remove(new LocationKey(spawner.getSpawnerLocation()));
+            removeFromLocationIndex(spawner);
 
             // Remove from world index
             String worldName = spawner.getSpawnerLocation().getWorld().getName();
@@ -107,6 +104,7 @@ public class SpawnerManager {
                     worldIndex.remove(worldName);
                 }
             }
+            removeFromChunkIndex(spawner);
 
             spawners.remove(id);
         }
@@ -114,37 +112,214 @@ public class SpawnerManager {
 
     public int countSpawnersInWorld(String worldName) {
         Set<SpawnerData> worldSpawners = worldIndex.get(worldName);
-        return worldSpawners != null ? worldSpawners.size() : 0;
+        int count = worldSpawners != null ? worldSpawners.size() : 0;
+
+        Map<Long, Map<String, SpawnerRecord>> worldChunks = coldChunkIndex.get(worldName);
+        if (worldChunks != null) {
+            for (Map<String, SpawnerRecord> chunkSpawners : worldChunks.values()) {
+                count += chunkSpawners.size();
+            }
+        }
+        return count;
     }
 
     public int countTotalSpawnersWithStacks(String worldName) {
         Set<SpawnerData> worldSpawners = worldIndex.get(worldName);
-        if (worldSpawners == null) return 0;
-
-        return worldSpawners.stream()
-                .mapToInt(SpawnerData::getStackSize)
-                .sum();
+        int total = worldSpawners != null
+                ? worldSpawners.stream().mapToInt(SpawnerData::getStackSize).sum()
+                : 0;
+
+        Map<Long, Map<String, SpawnerRecord>> worldChunks = coldChunkIndex.get(worldName);
+        if (worldChunks != null) {
+            for (Map<String, SpawnerRecord> chunkSpawners : worldChunks.values()) {
+                for (SpawnerRecord record : chunkSpawners.values()) {
+                    total += record.stackSize();
+                }
+            }
+        }
+        return total;
     }
 
     public SpawnerData getSpawnerByLocation(Location location) {
-        return locationIndex.get(new LocationKey(location));
+        World world = location.getWorld();
+        if (world == null) return null;
+
+        String worldName = world.getName();
+        int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+        SpawnerData spawner = getSpawnerAt(worldName, x, y, z);
+        if (spawner == null && lazyLoading && hasColdSpawnerAt(worldName, x, y, z)) {
+            // The chunk load may not have been handled yet
+            loadChunkSpawners(worldName, x >> 4, z >> 4);
+            spawner = getSpawnerAt(worldName, x, y, z);
+        }
+        return spawner;
     }
 
+    private SpawnerData getSpawnerAt(String worldName, int x, int y, int z) {
+        BlockPositionIndex<SpawnerData> worldSpawners = locationIndex.get(worldName);
+        return worldSpawners == null ? null : worldSpawners.get(BlockPositionIndex.pack(x, y, z));
+    }
+
+    /**
+     * Gets a loaded spawner by ID. With lazy loading, spawners that are only kept as records are not returned,
+     * use {@link #getOrLoadSpawnerById(String)} where a spawner must be found wherever it is.
+     */
     public SpawnerData getSpawnerById(String id) {
         return spawners.get(id);
     }
 
+    /**
+     * Gets a spawner by ID, loading it from its record if lazy loading has not loaded it yet.
+     * Must be called on the main thread.
+     */
+    public SpawnerData getOrLoadSpawnerById(String id) {
+        SpawnerData spawner = spawners.get(id);
+        if (spawner == null && lazyLoading) {
+            SpawnerRecord record = coldSpawners.get(id);
+            if (record != null) {
+                spawner = loadColdSpawner(record);
+            }
+        }
+        return spawner;
+    }
+
+    /**
+     * Gets every spawner, loading the ones lazy loading has not loaded yet.
+     * Must be called on the main thread.
+     */
+    public List<SpawnerData> loadAllSpawners() {
+        for (SpawnerRecord record : new ArrayList<>(coldSpawners.values())) {
+            loadColdSpawner(record);
+        }
+        return getAllSpawners();
+    }
+
+    /**
+     * Gets every spawner of a world, loading the ones lazy loading has not loaded yet.
+     * Must be called on the main thread.
+     */
+    public List<SpawnerData> loadSpawnersInWorld(String worldName) {
+        Map<Long, Map<String, SpawnerRecord>> worldChunks = coldChunkIndex.get(worldName);
+        if (worldChunks != null) {
+            for (Map<String, SpawnerRecord> chunkSpawners : new ArrayList<>(worldChunks.values())) {
+                for (SpawnerRecord record : new ArrayList<>(chunkSpawners.values())) {
+                    loadColdSpawner(record);
+                }
+            }
+        }
+
+        Set<SpawnerData> worldSpawners = worldIndex.get(worldName);
+        return worldSpawners != null ? new ArrayList<>(worldSpawners) : new ArrayList<>();
+    }
+
     public List<SpawnerData> getAllSpawners() {
         return new ArrayList<>(spawners.values());
     }
 
     public void addSpawnerToIndexes(String spawnerId, SpawnerData spawner) {
         spawners.put(spawnerId, spawner);
-        locationIndex.put(new LocationKey(spawner.getSpawnerLocation()), spawner);
+        addToLocationIndex(spawner);
 
         // Add to world index
         String worldName = spawner.getSpawnerLocation().getWorld().getName();
         worldIndex.computeIfAbsent(worldName, k -> new HashSet<>()).add(spawner);
+        addToChunkIndex(spawner);
+        requestRangeCheck(spawner);
+    }
+
+    private void requestRangeCheck(SpawnerData spawner) {
+        // New spawners are not near any moving player yet, so the incremental range check must be told about them
+        if (plugin.getRangeChecker() != null) {
+            plugin.getRangeChecker().requestCheck(spawner);
+        }
+    }
+
+    private void addToLocationIndex(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        long key = BlockPositionIndex.pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        locationIndex.compute(loc.getWorld().getName(), (k, worldSpawners) -> {
+            BlockPositionIndex<SpawnerData> index = worldSpawners != null ? worldSpawners : new BlockPositionIndex<>();
+            index.put(key, spawner);
+            return index;
+        });
+    }
+
+    private void removeFromLocationIndex(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        String worldName = loc.getWorld().getName();
+        long key = BlockPositionIndex.pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        // Removing the emptied index in the same step keeps a concurrent add from going into a discarded index
+        locationIndex.computeIfPresent(worldName, (k, worldSpawners) -> {
+            worldSpawners.remove(key, spawner);
+            return worldSpawners.isEmpty() ? null : worldSpawners;
+        });
+    }
+
+    private void addToChunkIndex(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        long chunkKey = ChunkUtil.getChunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        chunkIndex.computeIfAbsent(loc.getWorld().getName(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chunkKey, k -> ConcurrentHashMap.newKeySet())
+                .add(spawner);
+    }
+
+    private void removeFromChunkIndex(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        Map<Long, Set<SpawnerData>> worldChunks = chunkIndex.get(loc.getWorld().getName());
+        if (worldChunks == null) return;
+
+        long chunkKey = ChunkUtil.getChunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        worldChunks.computeIfPresent(chunkKey, (k, chunkSpawners) -> {
+            chunkSpawners.remove(spawner);
+            return chunkSpawners.isEmpty() ? null : chunkSpawners;
+        });
+    }
+
+    /**
+     * Collects every spawner whose chunk lies within a square chunk radius around the given chunk.
+     * Safe to call from async threads.
+     *
+     * @param worldName The world to search
+     * @param chunkX    Center chunk X
+     * @param chunkZ    Center chunk Z
+     * @param radius    Radius in chunks (0 = only the center chunk)
+     * @param out       Collection receiving the spawners found
+     */
+    public void collectSpawnersNearChunk(String worldName, int chunkX, int chunkZ, int radius,
+                                         Collection<SpawnerData> out) {
+        Map<Long, Set<SpawnerData>> worldChunks = chunkIndex.get(worldName);
+        if (worldChunks == null || worldChunks.isEmpty()) return;
+
+        for (int cx = chunkX - radius; cx <= chunkX + radius; cx++) {
+            for (int cz = chunkZ - radius; cz <= chunkZ + radius; cz++) {
+                Set<SpawnerData> chunkSpawners = worldChunks.get(ChunkUtil.getChunkKey(cx, cz));
+                if (chunkSpawners != null) {
+                    out.addAll(chunkSpawners);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the loaded spawners in a chunk. Safe to call from async threads.
+     *
+     * @return The spawners in the chunk, empty if there are none
+     */
+    public Set<SpawnerData> getSpawnersInChunk(String worldName, int chunkX, int chunkZ) {
+        Map<Long, Set<SpawnerData>> worldChunks = chunkIndex.get(worldName);
+        if (worldChunks == null) return Collections.emptySet();
+
+        Set<SpawnerData> chunkSpawners = worldChunks.get(ChunkUtil.getChunkKey(chunkX, chunkZ));
+        return chunkSpawners == null ? Collections.emptySet() : Collections.unmodifiableSet(chunkSpawners);
+    }
+
+    /**
+     * Gets the keys of the chunks holding loaded spawners in a world, see {@link ChunkUtil#getChunkKey(int, int)}.
+     * The set is a copy, so spawners can be added and removed while going through it.
+     */
+    public Set<Long> getSpawnerChunks(String worldName) {
+        Map<Long, Set<SpawnerData>> worldChunks = chunkIndex.get(worldName);
+        return worldChunks == null ? Collections.emptySet() : new HashSet<>(worldChunks.keySet());
     }
 
     public Set<SpawnerData> getSpawnersInWorld(String worldName) {
@@ -156,6 +331,9 @@ public class SpawnerManager {
         spawners.clear();
         locationIndex.clear();
         worldIndex.clear();
+        chunkIndex.clear();
+        coldSpawners.clear();
+        coldChunkIndex.clear();
         confirmedGhostSpawners.clear();
 
         // Don't load spawners - let WorldEventHandler handle it
@@ -247,13 +425,151 @@ public class SpawnerManager {
     }
 
     public void cleanupAllSpawners() {
+        if (unloadTask != null) {
+            unloadTask.cancel();
+            unloadTask = null;
+        }
         spawners.clear();
         locationIndex.clear();
         worldIndex.clear();
+        chunkIndex.clear();
+        coldSpawners.clear();
+        coldChunkIndex.clear();
         confirmedGhostSpawners.clear();
     }
 
+    /**
+     * Checks whether stored spawners are still being indexed after startup. Until they are,
+     * {@link #getSpawnerByLocation(Location)} returning null doesn't mean the block is a natural spawner.
+     */
+    public boolean isStartupLoading() {
+        return startupLoading;
+    }
+
+    void setStartupLoading(boolean startupLoading) {
+        this.startupLoading = startupLoading;
+    }
+
     public int getTotalSpawners() {
-        return this.spawners.size();
+        return this.spawners.size() + this.coldSpawners.size();
+    }
+
+    // ===============================================================
+    //                    Lazy Loading
+    // ===============================================================
+
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Keeps a spawner as a record until its chunk loads or it is looked up.
+     */
+    public void addColdSpawner(SpawnerRecord record) {
+        coldSpawners.put(record.spawnerId(), record);
+        coldChunkIndex.computeIfAbsent(record.worldName(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(ChunkUtil.getChunkKey(record.x() >> 4, record.z() >> 4), k -> new ConcurrentHashMap<>())
+                .put(record.spawnerId(), record);
+    }
+
+    private void removeColdSpawner(String id) {
+        SpawnerRecord record = coldSpawners.remove(id);
+        if (record == null) return;
+
+        Map<Long, Map<String, SpawnerRecord>> worldChunks = coldChunkIndex.get(record.worldName());
+        if (worldChunks == null) return;
+
+        worldChunks.computeIfPresent(ChunkUtil.getChunkKey(record.x() >> 4, record.z() >> 4), (k, chunkSpawners) -> {
+            chunkSpawners.remove(id);
+            return chunkSpawners.isEmpty() ? null : chunkSpawners;
+        });
+    }
+
+    private boolean hasColdSpawnerAt(String worldName, int x, int y, int z) {
+        Map<Long, Map<String, SpawnerRecord>> worldChunks = coldChunkIndex.get(worldName);
+        if (worldChunks == null) return false;
+
+        Map<String, SpawnerRecord> chunkSpawners = worldChunks.get(ChunkUtil.getChunkKey(x >> 4, z >> 4));
+        if (chunkSpawners == null) return false;
+
+        for (SpawnerRecord record : chunkSpawners.values()) {
+            if (record.x() == x && record.y() == y && record.z() == z) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the spawners kept as records in a chunk, called when the chunk loads.
+     */
+    public void loadChunkSpawners(String worldName, int chunkX, int chunkZ) {
+        Map<Long, Map<String, SpawnerRecord>> worldChunks = coldChunkIndex.get(worldName);
+        if (worldChunks == null) return;
+
+        Map<String, SpawnerRecord> chunkSpawners = worldChunks.get(ChunkUtil.getChunkKey(chunkX, chunkZ));
+        if (chunkSpawners == null) return;
+
+        for (SpawnerRecord record : new ArrayList<>(chunkSpawners.values())) {
+            loadColdSpawner(record);
+        }
+    }
+
+    private SpawnerData loadColdSpawner(SpawnerRecord record) {
+        removeColdSpawner(record.spawnerId());
+
+        SpawnerData spawner;
+        try {
+            spawner = spawnerStorage.buildSpawner(record);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to load spawner " + record.spawnerId() + ": " + e.getMessage());
+            addColdSpawner(record);
+            return null;
+        }
+
+        if (spawner == null) {
+            // World isn't available, keep the record so nothing is lost
+            addColdSpawner(record);
+            return null;
+        }
+
+        addSpawnerToIndexes(record.spawnerId(), spawner);
+        return spawner;
+    }
+
+    /**
+     * Returns loaded spawners to records once their chunk is unloaded, their changes are saved and
+     * nobody has their menus open.
+     */
+    private void unloadIdleSpawners() {
+        int unloaded = 0;
+        // Goes by chunk, so loaded chunks are skipped with one check instead of one per spawner
+        for (Map.Entry<String, Map<Long, Set<SpawnerData>>> worldEntry : chunkIndex.entrySet()) {
+            World world = Bukkit.getWorld(worldEntry.getKey());
+            if (world == null) continue;
+
+            for (Long chunkKey : new ArrayList<>(worldEntry.getValue().keySet())) {
+                if (world.isChunkLoaded(ChunkUtil.getChunkX(chunkKey), ChunkUtil.getChunkZ(chunkKey))) continue;
+
+                Set<SpawnerData> chunkSpawners = worldEntry.getValue().get(chunkKey);
+                if (chunkSpawners == null) continue;
+
+                for (SpawnerData spawner : new ArrayList<>(chunkSpawners)) {
+                    String spawnerId = spawner.getSpawnerId();
+                    if (spawnerStorage.hasPendingChanges(spawnerId)) continue;
+                    if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) continue;
+
+                    SpawnerRecord record = SpawnerRecord.capture(spawner);
+                    removeSpawner(spawnerId);
+                    spawner.clearPreGeneratedLoot();
+                    addColdSpawner(record);
+                    unloaded++;
+                }
+            }
+        }
+
+        if (unloaded > 0) {
+            plugin.debug("Unloaded " + unloaded + " spawners in unloaded chunks, " + coldSpawners.size() + " kept as records");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package github.nighter.smartspawner.spawner.data;
+
+import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerStorage;
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Loads the stored spawners at startup without stalling the server.
+ * Worker threads read the storage into {@link SpawnerRecord}s and queue them, while the main thread
+ * builds and indexes queued records for a limited time each tick. The queue is bounded, so parsing
+ * waits for the main thread instead of holding every spawner in memory twice.
+ */
+public class SpawnerStartupLoader {
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000L;
+
+    private final SmartSpawner plugin;
+    private final Logger logger;
+    private final SpawnerStorage storage;
+    // Receives the ID and world name of spawners whose world isn't loaded yet
+    private final BiConsumer<String, String> pendingConsumer;
+
+    private final BlockingQueue<SpawnerRecord> queue;
+    private final long tickBudgetNanos;
+    private final AtomicInteger readCount = new AtomicInteger();
+    private volatile boolean readingDone = false;
+
+    private Scheduler.Task indexTask = null;
+    private long startTime;
+    private long lastProgressTime;
+    private int loadedCount = 0;
+    private int pendingCount = 0;
+    private int coldCount = 0;
+    private int failedCount = 0;
+
+    public SpawnerStartupLoader(SmartSpawner plugin, BiConsumer<String, String> pendingConsumer) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.storage = plugin.getSpawnerStorage();
+        this.pendingConsumer = pendingConsumer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, plugin.getConfig().getInt("database.startup_load.queue_size", 5000)));
+        this.tickBudgetNanos = Math.max(1, plugin.getConfig().getLong("database.startup_load.tick_budget_ms", 25)) * 1_000_000L;
+    }
+
+    public void start() {
+        startTime = System.currentTimeMillis();
+        lastProgressTime = startTime;
+        plugin.getSpawnerManager().setStartupLoading(true);
+
+        // Read on the storage's own reader threads, a large load shouldn't occupy the shared async pool
+        storage.getPersistenceExecutor().read(this::readAll, () -> {
+            logger.warning("Storage reader is unavailable, reading stored spawners on the async pool instead");
+            Scheduler.runTaskAsync(this::readAll);
+        });
+        indexTask = Scheduler.runTaskTimer(this::indexQueued, 1L, 1L);
+    }
+
+    private void readAll() {
+        try {
+            storage.streamSpawnerRecords(this::enqueue);
+        } catch (Exception e) {
+            logger.severe("Error reading stored spawners: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            readingDone = true;
+        }
+    }
+
+    private void enqueue(SpawnerRecord record) {
+        readCount.incrementAndGet();
+        try {
+            // Give up once the plugin is disabled, the main thread no longer drains the queue then
+            while (plugin.isEnabled()) {
+                if (queue.offer(record, 100L, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void indexQueued() {
+        // Read the flag before draining, so nothing queued after the last check is missed
+        boolean done = readingDone;
+        long deadline = System.nanoTime() + tickBudgetNanos;
+
+        SpawnerRecord record;
+        while (System.nanoTime() < deadline && (record = queue.poll()) != null) {
+            index(record);
+        }
+
+        if (done && queue.isEmpty()) {
+            finish();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastProgressTime >= PROGRESS_INTERVAL_MILLIS) {
+            lastProgressTime = now;
+            logger.info("Loading spawners... " + (loadedCount + pendingCount + coldCount) + " of " + readCount.get()
+                    + " read so far" + (done ? "" : " (still reading)"));
+        }
+    }
+
+    private void index(SpawnerRecord record) {
+        String spawnerId = record.spawnerId();
+        SpawnerManager spawnerManager = plugin.getSpawnerManager();
+        if (spawnerManager.isLazyLoading()) {
+            World world = Bukkit.getWorld(record.worldName());
+            if (world != null && !world.isChunkLoaded(record.x() >> 4, record.z() >> 4)) {
+                // Keep it as a record until its chunk loads
+                spawnerManager.addColdSpawner(record);
+                coldCount++;
+                return;
+            }
+        }
+
+        SpawnerData spawner;
+        try {
+            spawner = storage.buildSpawner(record);
+        } catch (Exception e) {
+            plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
+            failedCount++;
+            return;
+        }
+
+        if (spawner != null) {
+            spawnerManager.addSpawnerToIndexes(spawnerId, spawner);
+            loadedCount++;
+        } else if (Bukkit.getWorld(record.worldName()) == null) {
+            // Spawner couldn't be loaded because its world is missing, load it when the world becomes available
+            pendingConsumer.accept(spawnerId, record.worldName());
+            pendingCount++;
+        } else {
+            failedCount++;
+        }
+    }
+
+    private void finish() {
+        if (indexTask != null) {
+            indexTask.cancel();
+            indexTask = null;
+        }
+        plugin.getSpawnerManager().setStartupLoading(false);
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("Initial spawner load complete in " + elapsed + "ms. Loaded: " + loadedCount +
+                (coldCount > 0 ? ", Kept unloaded (unloaded chunks): " + coldCount : "") +
+                ", Pending (missing worlds): " + pendingCount +
+                (failedCount > 0 ? ", Invalid: " + failedCount : ""));
+
+        if (pendingCount > 0) {
+            logger.info("Pending spawners will be loaded when their worlds become available.");
+        }
+    }
+}
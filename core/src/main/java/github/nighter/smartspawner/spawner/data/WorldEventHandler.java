@@ -8,6 +8,7 @@ import org.bukkit.World;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.WorldInitEvent;
 import org.bukkit.event.world.WorldLoadEvent;
 import org.bukkit.event.world.WorldSaveEvent;
@@ -104,6 +105,19 @@ public class WorldEventHandler implements Listener {
         plugin.getSpawnerStorage().flushChanges();
     }
 
+    /**
+     * Called when a chunk is loaded, loads the spawners lazy loading kept as records in it
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        SpawnerManager spawnerManager = plugin.getSpawnerManager();
+        if (spawnerManager == null || !spawnerManager.isLazyLoading()) {
+            return;
+        }
+
+        spawnerManager.loadChunkSpawners(event.getWorld().getName(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+
     /**
      * Attempt to perform initial spawner loading, checking for available worlds
      */
@@ -115,37 +129,9 @@ public class WorldEventHandler implements Listener {
         initialLoadAttempted = true;
         plugin.debug("Attempting initial spawner load...");
 
-        // Load spawner data from file
-        Map<String, SpawnerData> allSpawnerData = plugin.getSpawnerStorage().loadAllSpawnersRaw();
-
-        int loadedCount = 0;
-        int pendingCount = 0;
-
-        for (Map.Entry<String, SpawnerData> entry : allSpawnerData.entrySet()) {
-            String spawnerId = entry.getKey();
-            SpawnerData spawner = entry.getValue();
-
-            if (spawner != null) {
-                // Successfully loaded spawner
-                plugin.getSpawnerManager().addSpawnerToIndexes(spawnerId, spawner);
-                loadedCount++;
-            } else {
-                // Spawner couldn't be loaded, likely due to missing world
-                // Store as pending for later loading
-                PendingSpawnerData pending = loadPendingSpawnerFromFile(spawnerId);
-                if (pending != null) {
-                    pendingSpawners.put(spawnerId, pending);
-                    pendingCount++;
-                }
-            }
-        }
-
-        logger.info("Initial spawner load complete. Loaded: " + loadedCount +
-                   ", Pending (missing worlds): " + pendingCount);
-
-        if (pendingCount > 0) {
-            logger.info("Pending spawners will be loaded when their worlds become available.");
-        }
+        // Stream spawner data from storage, spawners are indexed over the next ticks
+        new SpawnerStartupLoader(plugin, (spawnerId, worldName) ->
+                pendingSpawners.put(spawnerId, new PendingSpawnerData(spawnerId, worldName))).start();
     }
 
     /**
@@ -207,25 +193,6 @@ public class WorldEventHandler implements Listener {
         }
     }
 
-    /**
-     * Load basic spawner information without creating the full SpawnerData object
-     */
-    private PendingSpawnerData loadPendingSpawnerFromFile(String spawnerId) {
-        try {
-            String locationString = plugin.getSpawnerStorage().getRawLocationString(spawnerId);
-            if (locationString != null) {
-                String[] locParts = locationString.split(",");
-                if (locParts.length >= 1) {
-                    return new PendingSpawnerData(spawnerId, locParts[0]);
-                }
-            }
-        } catch (Exception e) {
-            plugin.debug("Error loading pending spawner data for " + spawnerId + ": " + e.getMessage());
-        }
-
-        return null;
-    }
-
     /**
      * Check if a world is currently loaded and available
      */
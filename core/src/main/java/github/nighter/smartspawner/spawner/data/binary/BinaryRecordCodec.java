@@ -0,0 +1,226 @@
+package github.nighter.smartspawner.spawner.data.binary;
+
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes {@link SpawnerRecord}s into the payload of a binary storage record.
+ * Numbers are zigzag varints, strings are length-prefixed UTF-8 and the inventory is stored
+ * as length-prefixed {@link InventoryCodec} data. Version 1 records, which kept their own inventory
+ * entry encoding, are still read.
+ */
+final class BinaryRecordCodec {
+    static final int FORMAT_VERSION = 2;
+    private static final int FORMAT_VERSION_V1 = 1;
+
+    private static final int KIND_PLAIN = 0;
+    private static final int KIND_DAMAGE = 1;
+    private static final int KIND_POTION = 2;
+    private static final String TIPPED_ARROW_PREFIX = "TIPPED_ARROW#";
+
+    private BinaryRecordCodec() {
+    }
+
+    static byte[] encode(SpawnerRecord record) {
+        Output out = new Output();
+        out.writeVarLong(FORMAT_VERSION);
+        out.writeString(record.spawnerId());
+        out.writeString(record.worldName());
+        out.writeVarLong(record.x());
+        out.writeVarLong(record.y());
+        out.writeVarLong(record.z());
+        out.writeString(record.entityType());
+        out.writeString(record.itemSpawnerMaterial());
+
+        int flags = (record.spawnerActive() ? 1 : 0)
+                | (record.spawnerStop() ? 2 : 0)
+                | (record.atCapacity() ? 4 : 0);
+        out.write(flags);
+        out.writeVarLong(record.spawnerExp());
+        out.writeVarLong(record.spawnerRange());
+        out.writeVarLong(record.spawnDelay());
+        out.writeVarLong(record.maxSpawnerLootSlots());
+        out.writeVarLong(record.maxStoredExp());
+        out.writeVarLong(record.minMobs());
+        out.writeVarLong(record.maxMobs());
+        out.writeVarLong(record.stackSize());
+        out.writeVarLong(record.maxStackSize());
+        out.writeVarLong(record.lastSpawnTime());
+
+        out.writeString(record.lastInteractedPlayer());
+        out.writeString(record.preferredSortItem());
+        out.writeString(record.filteredItems());
+
+        byte[] inventory = record.inventory();
+        out.writeVarLong(inventory.length);
+        out.write(inventory, 0, inventory.length);
+        return out.toByteArray();
+    }
+
+    static SpawnerRecord decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        try {
+            int version = (int) readVarLong(in);
+            if (version != FORMAT_VERSION && version != FORMAT_VERSION_V1) {
+                throw new IllegalArgumentException("Unsupported binary record version " + version);
+            }
+
+            String spawnerId = readString(in);
+            String worldName = readString(in);
+            int x = (int) readVarLong(in);
+            int y = (int) readVarLong(in);
+            int z = (int) readVarLong(in);
+            String entityType = readString(in);
+            String itemSpawnerMaterial = readString(in);
+
+            int flags = in.get();
+            int spawnerExp = (int) readVarLong(in);
+            int spawnerRange = (int) readVarLong(in);
+            long spawnDelay = readVarLong(in);
+            int maxSpawnerLootSlots = (int) readVarLong(in);
+            int maxStoredExp = (int) readVarLong(in);
+            int minMobs = (int) readVarLong(in);
+            int maxMobs = (int) readVarLong(in);
+            int stackSize = (int) readVarLong(in);
+            int maxStackSize = (int) readVarLong(in);
+            long lastSpawnTime = readVarLong(in);
+
+            String lastInteractedPlayer = readString(in);
+            String preferredSortItem = readString(in);
+            String filteredItems = readString(in);
+
+            byte[] inventory;
+            if (version == FORMAT_VERSION_V1) {
+                int entryCount = (int) readVarLong(in);
+                List<String> entries = new ArrayList<>(entryCount);
+                for (int i = 0; i < entryCount; i++) {
+                    entries.add(readInventoryEntry(in));
+                }
+                inventory = InventoryCodec.fromLegacy(entries);
+            } else {
+                int length = (int) readVarLong(in);
+                if (length < 0 || length > in.remaining()) {
+                    throw new IllegalArgumentException("Truncated binary record");
+                }
+                inventory = new byte[length];
+                in.get(inventory);
+            }
+
+            return new SpawnerRecord(spawnerId, worldName, x, y, z, entityType, itemSpawnerMaterial,
+                    spawnerExp, (flags & 1) != 0, spawnerRange, (flags & 2) != 0, spawnDelay,
+                    maxSpawnerLootSlots, maxStoredExp, minMobs, maxMobs, stackSize, maxStackSize,
+                    lastSpawnTime, (flags & 4) != 0, lastInteractedPlayer, preferredSortItem,
+                    filteredItems, inventory);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary record", e);
+        }
+    }
+
+    /**
+     * Reads only the spawner ID of a payload, used to rebuild the index without decoding every record.
+     */
+    static String decodeId(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        readVarLong(in);
+        return readString(in);
+    }
+
+    static byte[] encodeDelete(String spawnerId) {
+        Output out = new Output();
+        out.writeVarLong(FORMAT_VERSION);
+        out.writeString(spawnerId);
+        return out.toByteArray();
+    }
+
+    // Version 1 inventory entries, read back into the old text formats:
+    // MATERIAL:count, MATERIAL;damage:count,... and TIPPED_ARROW#potion:count,...
+
+    private static String readInventoryEntry(ByteBuffer in) {
+        int kind = in.get();
+        StringBuilder sb = new StringBuilder();
+        switch (kind) {
+            case KIND_POTION -> {
+                sb.append(TIPPED_ARROW_PREFIX);
+                int count = (int) readVarLong(in);
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) sb.append(',');
+                    sb.append(readString(in)).append(':').append(readVarLong(in));
+                }
+            }
+            case KIND_DAMAGE -> {
+                sb.append(readString(in)).append(';');
+                int count = (int) readVarLong(in);
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) sb.append(',');
+                    sb.append(readVarLong(in)).append(':').append(readVarLong(in));
+                }
+            }
+            case KIND_PLAIN -> sb.append(readString(in)).append(':').append(readVarLong(in));
+            default -> throw new IllegalArgumentException("Unknown inventory entry kind " + kind);
+        }
+        return sb.toString();
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint");
+            }
+            b = in.get();
+            raw |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        // Zigzag decode
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static String readString(ByteBuffer in) {
+        // Length is stored plus one, so zero can mark null
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Truncated binary record");
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+        Output() {
+            super(128);
+        }
+
+        void writeVarLong(long value) {
+            // Zigzag encode so small negative values (coordinates) stay short
+            long raw = (value << 1) ^ (value >> 63);
+            while ((raw & ~0x7FL) != 0) {
+                write((int) ((raw & 0x7F) | 0x80));
+                raw >>>= 7;
+            }
+            write((int) raw);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package github.nighter.smartspawner.spawner.data.binary;
+
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.data.SpawnerFileHandler;
+import github.nighter.smartspawner.spawner.data.SpawnerJournal;
+import github.nighter.smartspawner.spawner.data.database.SpawnerDatabaseHandler;
+import github.nighter.smartspawner.spawner.data.database.SpawnerItemTable;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Converts spawner data between binary storage and the other storage modes.
+ * Imports read spawners_data.yml or the SQLite file into binary storage; exports write binary storage
+ * into spawners_data.yml or the active database. Sources are renamed with a .migrated suffix afterwards
+ * to prevent re-migration, replacing an older .migrated copy so switching modes back and forth keeps working.
+ */
+public class BinaryStorageMigration {
+    private final SmartSpawner plugin;
+    private final Logger logger;
+
+    private static final String YAML_FILE_NAME = "spawners_data.yml";
+    private static final String MIGRATED_FILE_SUFFIX = ".migrated";
+    // Exports only read existing segments, so the size of new ones doesn't matter
+    private static final int READ_SEGMENT_SIZE = 64 * 1024;
+
+    private static final String SELECT_ALL_SQLITE = """
+            SELECT spawner_id, world_name, loc_x, loc_y, loc_z, entity_type, item_spawner_material,
+                   spawner_exp, spawner_active, spawner_range, spawner_stop, spawn_delay,
+                   max_spawner_loot_slots, max_stored_exp, min_mobs, max_mobs, stack_size,
+                   max_stack_size, last_spawn_time, is_at_capacity, last_interacted_player,
+                   preferred_sort_item, filtered_items, inventory_data
+            FROM smart_spawners WHERE server_name = ?
+            """;
+
+    public BinaryStorageMigration(SmartSpawner plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+    }
+
+    // ============== Import into binary storage ==============
+
+    /**
+     * Imports spawners_data.yml (with its journal) and the SQLite file into binary storage, if present.
+     * @param handler The initialized binary storage handler
+     */
+    public void importInto(SpawnerBinaryHandler handler) {
+        File yamlFile = new File(plugin.getDataFolder(), YAML_FILE_NAME);
+        if (yamlFile.exists()) {
+            importYaml(handler, yamlFile);
+        }
+
+        String sqliteFileName = plugin.getConfig().getString("database.sqlite.file", "spawners.db");
+        File sqliteFile = new File(plugin.getDataFolder(), sqliteFileName);
+        if (sqliteFile.exists()) {
+            importSqlite(handler, sqliteFile);
+        }
+    }
+
+    private void importYaml(SpawnerBinaryHandler handler, File yamlFile) {
+        FileConfiguration yamlData = YamlConfiguration.loadConfiguration(yamlFile);
+        File journalFile = new File(plugin.getDataFolder(), SpawnerJournal.JOURNAL_FILE_NAME);
+        SpawnerJournal.replay(journalFile, yamlData, logger);
+
+        ConfigurationSection spawnersSection = yamlData.getConfigurationSection("spawners");
+        if (spawnersSection == null || spawnersSection.getKeys(false).isEmpty()) {
+            return;
+        }
+
+        logger.info("YAML data detected, starting migration to binary storage...");
+        int version = yamlData.getInt("data_version", 1);
+        int migratedCount = 0;
+        int failedCount = 0;
+
+        for (String spawnerId : spawnersSection.getKeys(false)) {
+            try {
+                SpawnerRecord record = SpawnerFileHandler.readRecord(spawnersSection.getConfigurationSection(spawnerId), spawnerId, version, logger);
+                if (record == null) {
+                    failedCount++;
+                    continue;
+                }
+                handler.writeRecord(record);
+                migratedCount++;
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to migrate spawner " + spawnerId, e);
+                failedCount++;
+            }
+        }
+        handler.sync();
+
+        logger.info("YAML migration completed. Migrated: " + migratedCount + ", Failed: " + failedCount);
+        if (failedCount == 0 || migratedCount > 0) {
+            renameMigrated(yamlFile);
+            if (journalFile.exists()) {
+                renameMigrated(journalFile);
+            }
+        }
+    }
+
+    private void importSqlite(SpawnerBinaryHandler handler, File sqliteFile) {
+        String jdbcUrl = "jdbc:sqlite:" + sqliteFile.getAbsolutePath();
+        String serverName = plugin.getConfig().getString("database.server_name", "server1");
+        int migratedCount = 0;
+        int failedCount = 0;
+
+        try (Connection conn = DriverManager.getConnection(jdbcUrl);
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQLITE)) {
+
+            // Records only carry inventory_data, so bring back inventories kept in the item table first
+            SpawnerItemTable.foldIntoInventoryData(conn, null);
+
+            stmt.setString(1, serverName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String spawnerId = rs.getString("spawner_id");
+                    try {
+                        handler.writeRecord(SpawnerDatabaseHandler.readRecord(rs));
+                        migratedCount++;
+                    } catch (Exception e) {
+                        logger.log(Level.WARNING, "Failed to migrate spawner " + spawnerId, e);
+                        failedCount++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // Table might not exist or other error
+            plugin.debug("SQLite import skipped: " + e.getMessage());
+            return;
+        }
+        handler.sync();
+
+        if (migratedCount == 0 && failedCount == 0) {
+            return;
+        }
+        logger.info("SQLite to binary migration completed. Migrated: " + migratedCount + ", Failed: " + failedCount);
+        if (failedCount == 0) {
+            renameMigrated(sqliteFile);
+        }
+    }
+
+    // ============== Export from binary storage ==============
+
+    /**
+     * Check if there is binary storage data that hasn't been exported yet.
+     * @return true if the binary folder holds spawner data
+     */
+    public boolean hasBinaryData() {
+        File directory = new File(plugin.getDataFolder(), SpawnerBinaryHandler.DIRECTORY_NAME);
+        String[] files = directory.list((dir, name) -> name.endsWith(".dat"));
+        return files != null && files.length > 0;
+    }
+
+    /**
+     * Writes binary storage into spawners_data.yml, replacing spawners with the same ID.
+     * Must run before the YAML handler loads the file.
+     * @return true if the export succeeded
+     */
+    public boolean exportToYaml() {
+        List<SpawnerRecord> records = readBinaryRecords();
+        if (records == null) {
+            return false;
+        }
+
+        File yamlFile = new File(plugin.getDataFolder(), YAML_FILE_NAME);
+        FileConfiguration yamlData = YamlConfiguration.loadConfiguration(yamlFile);
+        File journalFile = new File(plugin.getDataFolder(), SpawnerJournal.JOURNAL_FILE_NAME);
+        SpawnerJournal.replay(journalFile, yamlData, logger);
+
+        yamlData.set("data_version", plugin.getDATA_VERSION());
+        for (SpawnerRecord record : records) {
+            writeYamlRecord(yamlData, record);
+        }
+
+        try {
+            File tempFile = new File(plugin.getDataFolder(), YAML_FILE_NAME + ".tmp");
+            yamlData.save(tempFile);
+            Files.move(tempFile.toPath(), yamlFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not write binary spawner data to " + YAML_FILE_NAME, e);
+            return false;
+        }
+
+        // The journal is part of the saved file now, replaying it again would undo the export
+        if (journalFile.exists()) {
+            renameMigrated(journalFile);
+        }
+        logger.info("Exported " + records.size() + " spawners from binary storage to " + YAML_FILE_NAME);
+        renameMigrated(new File(plugin.getDataFolder(), SpawnerBinaryHandler.DIRECTORY_NAME));
+        return true;
+    }
+
+    /**
+     * Writes binary storage into the database of the given handler.
+     * @param dbHandler The initialized database handler
+     * @return true if the export succeeded
+     */
+    public boolean exportToDatabase(SpawnerDatabaseHandler dbHandler) {
+        List<SpawnerRecord> records = readBinaryRecords();
+        if (records == null || !dbHandler.saveRecords(records)) {
+            return false;
+        }
+
+        logger.info("Exported " + records.size() + " spawners from binary storage to the database");
+        renameMigrated(new File(plugin.getDataFolder(), SpawnerBinaryHandler.DIRECTORY_NAME));
+        return true;
+    }
+
+    private List<SpawnerRecord> readBinaryRecords() {
+        SegmentStore store = new SegmentStore(new File(plugin.getDataFolder(), SpawnerBinaryHandler.DIRECTORY_NAME),
+                READ_SEGMENT_SIZE, logger);
+        try {
+            store.open();
+            List<SpawnerRecord> records = new ArrayList<>(store.size());
+            for (String spawnerId : store.ids()) {
+                try {
+                    records.add(BinaryRecordCodec.decode(store.get(spawnerId)));
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Skipping unreadable binary record for spawner " + spawnerId + ": " + e.getMessage());
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not read binary spawner storage", e);
+            return null;
+        } finally {
+            store.close();
+        }
+    }
+
+    // ============== Record conversion ==============
+
+    private void writeYamlRecord(FileConfiguration yamlData, SpawnerRecord record) {
+        String path = "spawners." + record.spawnerId();
+        yamlData.set(path, null);
+        yamlData.set(path + ".location", record.locationString());
+        yamlData.set(path + ".entityType", record.entityType());
+        yamlData.set(path + ".itemSpawnerMaterial", record.itemSpawnerMaterial());
+        yamlData.set(path + ".settings", String.format("%d,%b,%d,%b,%d,%d,%d,%d,%d,%d,%d,%d,%b",
+                record.spawnerExp(),
+                record.spawnerActive(),
+                record.spawnerRange(),
+                record.spawnerStop(),
+                record.spawnDelay(),
+                record.maxSpawnerLootSlots(),
+                record.maxStoredExp(),
+                record.minMobs(),
+                record.maxMobs(),
+                record.stackSize(),
+                record.maxStackSize(),
+                record.lastSpawnTime(),
+                record.atCapacity()));
+        yamlData.set(path + ".lastInteractedPlayer", record.lastInteractedPlayer());
+        yamlData.set(path + ".preferredSortItem", record.preferredSortItem());
+        yamlData.set(path + ".filteredItems", record.filteredItems());
+        yamlData.set(path + ".inventory", InventoryCodec.toBase64(record.inventory()));
+    }
+
+    private void renameMigrated(File file) {
+        File migratedFile = new File(file.getParentFile(), file.getName() + MIGRATED_FILE_SUFFIX);
+        if (migratedFile.exists()) {
+            // Left over from an earlier switch between modes
+            File[] children = migratedFile.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    child.delete();
+                }
+            }
+            migratedFile.delete();
+        }
+
+        if (file.renameTo(migratedFile)) {
+            logger.info(file.getName() + " renamed to " + migratedFile.getName());
+        } else {
+            logger.warning("Failed to rename " + file.getName() + ". Manual cleanup may be required.");
+        }
+    }
+}
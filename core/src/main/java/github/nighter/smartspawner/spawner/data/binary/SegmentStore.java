@@ -0,0 +1,341 @@
+package github.nighter.smartspawner.spawner.data.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record log over memory-mapped segment files, with an in-memory offset index keyed by spawner ID.
+ *
+ * <p>Each segment starts with a magic number and format version, followed by records laid out as
+ * {@code [type][payload length][crc32][payload]}. The type byte is written last, so a record torn by a
+ * crash still reads as the zeroed end of the segment. Updates append a new record and deletes append a
+ * tombstone; the space they replace is reclaimed by {@link #compact()}, which copies the live records into
+ * new segments and then records the first new segment in the manifest so older segments are ignored.
+ */
+final class SegmentStore {
+    private static final int MAGIC = 0x53534253; // "SSBS"
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String MANIFEST_FILE_NAME = "manifest";
+
+    private final File directory;
+    private final int segmentSize;
+    private final Logger logger;
+
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<String, RecordPointer> index = new HashMap<>();
+    private final Set<Segment> unsyncedSegments = new HashSet<>();
+    private Segment active;
+    // Bytes of records still referenced by the index, versus all record bytes in the segments
+    private long liveBytes;
+    private long totalBytes;
+
+    SegmentStore(File directory, int segmentSize, Logger logger) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.logger = logger;
+    }
+
+    /**
+     * Maps the existing segments and rebuilds the index from their records.
+     */
+    synchronized void open() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        int baseSegment = readManifest();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                int id = parseSegmentId(file.getName());
+                if (id < 0) continue;
+                if (id < baseSegment) {
+                    // Left behind by a compaction that could not delete it
+                    deleteSegmentFile(file);
+                    continue;
+                }
+                segments.put(id, mapSegment(id, file, file.length()));
+            }
+        }
+
+        for (Segment segment : segments.values()) {
+            scanSegment(segment);
+        }
+
+        active = segments.isEmpty() ? createSegment(baseSegment, segmentSize) : segments.lastEntry().getValue();
+    }
+
+    synchronized void put(String spawnerId, byte[] payload) throws IOException {
+        RecordPointer pointer = append(TYPE_PUT, payload);
+        RecordPointer previous = index.put(spawnerId, pointer);
+        if (previous != null) {
+            liveBytes -= previous.recordSize();
+        }
+        liveBytes += pointer.recordSize();
+    }
+
+    synchronized void delete(String spawnerId) throws IOException {
+        RecordPointer previous = index.get(spawnerId);
+        if (previous == null) {
+            return;
+        }
+        append(TYPE_DELETE, BinaryRecordCodec.encodeDelete(spawnerId));
+        index.remove(spawnerId);
+        liveBytes -= previous.recordSize();
+    }
+
+    /**
+     * Reads the payload of the current record of a spawner.
+     *
+     * @return The payload, or null if the spawner isn't stored
+     */
+    synchronized byte[] get(String spawnerId) {
+        RecordPointer pointer = index.get(spawnerId);
+        if (pointer == null) {
+            return null;
+        }
+        byte[] payload = new byte[pointer.length()];
+        pointer.segment().buffer.get(pointer.offset(), payload);
+        return payload;
+    }
+
+    synchronized boolean contains(String spawnerId) {
+        return index.containsKey(spawnerId);
+    }
+
+    synchronized Set<String> ids() {
+        return new HashSet<>(index.keySet());
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Forces the records written since the last call out to disk.
+     */
+    synchronized void sync() {
+        for (Segment segment : unsyncedSegments) {
+            segment.buffer.force();
+        }
+        unsyncedSegments.clear();
+    }
+
+    /**
+     * Compaction pays off once at least half of the stored bytes are replaced or deleted records.
+     */
+    synchronized boolean needsCompaction() {
+        long garbage = totalBytes - liveBytes;
+        return garbage >= segmentSize && garbage > liveBytes;
+    }
+
+    /**
+     * Copies every live record into new segments and drops the old ones.
+     * The manifest only moves to the new segments once they are on disk, so a crash leaves either
+     * the old segments or the complete new ones in effect.
+     */
+    synchronized void compact() throws IOException {
+        int baseSegment = active.id + 1;
+        List<Segment> oldSegments = new ArrayList<>(segments.values());
+        Map<String, RecordPointer> compacted = new HashMap<>(index.size());
+        long compactedBytes = 0;
+
+        // Copies go after every existing segment, so if this fails part way they are still older
+        // than anything appended afterwards and replaying all segments stays correct
+        active = createSegment(baseSegment, segmentSize);
+        for (Map.Entry<String, RecordPointer> entry : index.entrySet()) {
+            RecordPointer pointer = entry.getValue();
+            byte[] payload = new byte[pointer.length()];
+            pointer.segment().buffer.get(pointer.offset(), payload);
+
+            RecordPointer copied = append(TYPE_PUT, payload);
+            compacted.put(entry.getKey(), copied);
+            compactedBytes += copied.recordSize();
+        }
+        sync();
+
+        writeManifest(baseSegment);
+        for (Segment segment : oldSegments) {
+            segments.remove(segment.id);
+            unsyncedSegments.remove(segment);
+            deleteSegmentFile(segment.file);
+        }
+
+        index.clear();
+        index.putAll(compacted);
+        liveBytes = compactedBytes;
+        totalBytes = compactedBytes;
+    }
+
+    synchronized void close() {
+        sync();
+        segments.clear();
+        index.clear();
+        active = null;
+    }
+
+    private RecordPointer append(byte type, byte[] payload) throws IOException {
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (active.writePosition + recordSize > active.buffer.capacity()) {
+            active = createSegment(active.id + 1, Math.max(segmentSize, HEADER_SIZE + recordSize));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.writePosition;
+        buffer.putInt(position + 1, payload.length);
+        buffer.putInt(position + 5, (int) crc.getValue());
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.put(position, type);
+
+        active.writePosition += recordSize;
+        totalBytes += recordSize;
+        unsyncedSegments.add(active);
+        return new RecordPointer(active, position + RECORD_HEADER_SIZE, payload.length);
+    }
+
+    private void scanSegment(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int limit = buffer.capacity();
+        int position = HEADER_SIZE;
+
+        while (position + RECORD_HEADER_SIZE <= limit) {
+            byte type = buffer.get(position);
+            if (type == 0) break;
+
+            int length = buffer.getInt(position + 1);
+            int checksum = buffer.getInt(position + 5);
+            if ((type != TYPE_PUT && type != TYPE_DELETE) || length < 0
+                    || position + RECORD_HEADER_SIZE + length > limit) {
+                logger.warning("Stopping at damaged record in " + segment.file.getName() + " at offset " + position);
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                logger.warning("Skipping torn record in " + segment.file.getName() + " at offset " + position);
+                break;
+            }
+
+            String spawnerId = BinaryRecordCodec.decodeId(payload);
+            RecordPointer previous;
+            if (type == TYPE_PUT) {
+                RecordPointer pointer = new RecordPointer(segment, position + RECORD_HEADER_SIZE, length);
+                previous = index.put(spawnerId, pointer);
+                liveBytes += pointer.recordSize();
+            } else {
+                previous = index.remove(spawnerId);
+            }
+            if (previous != null) {
+                liveBytes -= previous.recordSize();
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+            totalBytes += RECORD_HEADER_SIZE + length;
+        }
+        segment.writePosition = position;
+    }
+
+    private Segment createSegment(int id, int capacity) throws IOException {
+        File file = new File(directory, segmentFileName(id));
+        Segment segment = mapSegment(id, file, capacity);
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, BinaryRecordCodec.FORMAT_VERSION);
+        segment.writePosition = HEADER_SIZE;
+        segments.put(id, segment);
+        unsyncedSegments.add(segment);
+        return segment;
+    }
+
+    private Segment mapSegment(int id, File file, long capacity) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() < capacity) {
+                raf.setLength(capacity);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            if (buffer.capacity() >= HEADER_SIZE && buffer.getInt(0) != 0 && buffer.getInt(0) != MAGIC) {
+                throw new IOException(file.getName() + " is not a spawner segment file");
+            }
+            return new Segment(id, file, buffer);
+        }
+    }
+
+    private int readManifest() throws IOException {
+        File manifest = new File(directory, MANIFEST_FILE_NAME);
+        if (!manifest.exists()) {
+            return 0;
+        }
+        String content = Files.readString(manifest.toPath(), StandardCharsets.UTF_8).trim();
+        try {
+            return Integer.parseInt(content);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid segment manifest: " + content);
+        }
+    }
+
+    private void writeManifest(int baseSegment) throws IOException {
+        File manifest = new File(directory, MANIFEST_FILE_NAME);
+        File tempFile = new File(directory, MANIFEST_FILE_NAME + ".tmp");
+        Files.writeString(tempFile.toPath(), Integer.toString(baseSegment), StandardCharsets.UTF_8);
+        Files.move(tempFile.toPath(), manifest.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteSegmentFile(File file) {
+        // Can fail while the file is still mapped on some platforms, the manifest already excludes it
+        if (!file.delete()) {
+            logger.fine("Could not delete old spawner segment " + file.getName() + " yet");
+        }
+    }
+
+    private static String segmentFileName(int id) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX);
+    }
+
+    private static int parseSegmentId(String fileName) {
+        try {
+            return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(int id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private record RecordPointer(Segment segment, int offset, int length) {
+        int recordSize() {
+            return RECORD_HEADER_SIZE + length;
+        }
+    }
+}
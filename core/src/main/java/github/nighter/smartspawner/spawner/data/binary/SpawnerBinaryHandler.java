@@ -0,0 +1,255 @@
+package github.nighter.smartspawner.spawner.data.binary;
+
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.data.storage.PersistenceExecutor;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerSnapshot;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerStorage;
+import github.nighter.smartspawner.spawner.data.storage.WriteBehindScheduler;
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binary storage handler for spawner data.
+ * Implements SpawnerStorage interface over memory-mapped segment files in the binary folder.
+ */
+public class SpawnerBinaryHandler implements SpawnerStorage {
+    public static final String DIRECTORY_NAME = "binary";
+
+    private final SmartSpawner plugin;
+    private final Logger logger;
+    private final SegmentStore store;
+
+    // Dirty tracking for batch saves
+    private final Set<String> dirtySpawners = ConcurrentHashMap.newKeySet();
+    private final Set<String> deletedSpawners = ConcurrentHashMap.newKeySet();
+
+    private final PersistenceExecutor persistenceExecutor;
+    private final WriteBehindScheduler writeBehind;
+
+    public SpawnerBinaryHandler(SmartSpawner plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        int segmentSizeMb = Math.max(1, plugin.getConfig().getInt("database.binary.segment_size_mb", 8));
+        this.store = new SegmentStore(new File(plugin.getDataFolder(), DIRECTORY_NAME), segmentSizeMb * 1024 * 1024, logger);
+        this.persistenceExecutor = new PersistenceExecutor(plugin, "binary storage");
+        this.writeBehind = new WriteBehindScheduler(plugin, "binary storage", persistenceExecutor, new WriteBehindScheduler.FlushTarget() {
+            @Override
+            public int pendingChanges() {
+                return dirtySpawners.size() + deletedSpawners.size();
+            }
+
+            @Override
+            public int flushBatch(int maxChanges) throws IOException {
+                return writeChanges(maxChanges);
+            }
+        });
+    }
+
+    @Override
+    public boolean initialize() {
+        try {
+            store.open();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not open binary spawner storage", e);
+            return false;
+        }
+        plugin.debug("Opened binary spawner storage with " + store.size() + " spawners");
+
+        writeBehind.start();
+        return true;
+    }
+
+    @Override
+    public void markSpawnerModified(String spawnerId) {
+        if (spawnerId != null) {
+            dirtySpawners.add(spawnerId);
+            deletedSpawners.remove(spawnerId);
+        }
+    }
+
+    @Override
+    public void markSpawnerDeleted(String spawnerId) {
+        if (spawnerId != null) {
+            deletedSpawners.add(spawnerId);
+            dirtySpawners.remove(spawnerId);
+        }
+    }
+
+    @Override
+    public void queueSpawnerForSaving(String spawnerId) {
+        markSpawnerModified(spawnerId);
+    }
+
+    @Override
+    public void flushChanges() {
+        if (dirtySpawners.isEmpty() && deletedSpawners.isEmpty()) {
+            plugin.debug("No binary storage changes to flush");
+            return;
+        }
+
+        plugin.debug("Flushing " + dirtySpawners.size() + " modified and " + deletedSpawners.size() + " deleted spawners to binary storage");
+        writeBehind.requestFlush();
+    }
+
+    @Override
+    public boolean hasPendingChanges(String spawnerId) {
+        return dirtySpawners.contains(spawnerId) || deletedSpawners.contains(spawnerId) || writeBehind.isInFlight(spawnerId);
+    }
+
+    @Override
+    public WriteBehindScheduler getWriteBehind() {
+        return writeBehind;
+    }
+
+    @Override
+    public PersistenceExecutor getPersistenceExecutor() {
+        return persistenceExecutor;
+    }
+
+    private int writeChanges(int maxChanges) throws IOException {
+        Set<String> toUpdate = writeBehind.take(dirtySpawners, maxChanges);
+        Set<String> toDelete = writeBehind.take(deletedSpawners, maxChanges - toUpdate.size());
+
+        if (!toUpdate.isEmpty()) {
+            saveSpawnerBatch(toUpdate);
+        }
+        if (!toDelete.isEmpty()) {
+            deleteSpawnerBatch(toDelete);
+        }
+
+        store.sync();
+
+        if (store.needsCompaction()) {
+            plugin.debug("Compacting binary spawner storage");
+            store.compact();
+        }
+        return toUpdate.size() + toDelete.size();
+    }
+
+    private void saveSpawnerBatch(Set<String> spawnerIds) {
+        // Snapshot every spawner before encoding any, so the batch is one consistent point in time
+        List<SpawnerSnapshot> snapshots = new ArrayList<>(spawnerIds.size());
+        for (String spawnerId : spawnerIds) {
+            SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(spawnerId);
+            if (spawner != null) {
+                snapshots.add(SpawnerSnapshot.of(spawner));
+            }
+        }
+
+        int saved = 0;
+        for (SpawnerSnapshot snapshot : snapshots) {
+            String spawnerId = snapshot.spawnerId();
+            try {
+                store.put(spawnerId, BinaryRecordCodec.encode(snapshot.toRecord()));
+                saved++;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Error saving spawner " + spawnerId + " to binary storage", e);
+                // Re-add to dirty list for retry
+                dirtySpawners.add(spawnerId);
+            }
+        }
+        plugin.debug("Saved " + saved + " spawners to binary storage");
+    }
+
+    private void deleteSpawnerBatch(Set<String> spawnerIds) {
+        for (String spawnerId : spawnerIds) {
+            try {
+                store.delete(spawnerId);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Error deleting spawner " + spawnerId + " from binary storage", e);
+                // Re-add to deleted list for retry
+                deletedSpawners.add(spawnerId);
+            }
+        }
+        plugin.debug("Deleted " + spawnerIds.size() + " spawners from binary storage");
+    }
+
+    @Override
+    public void streamSpawnerRecords(Consumer<SpawnerRecord> consumer) {
+        // The store only serializes copying each payload out, decoding runs in parallel
+        store.ids().parallelStream().forEach(spawnerId -> {
+            try {
+                SpawnerRecord record = readRecord(spawnerId);
+                if (record != null) {
+                    consumer.accept(record);
+                }
+            } catch (Exception e) {
+                plugin.debug("Error reading spawner " + spawnerId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public SpawnerData buildSpawner(SpawnerRecord record) {
+        return record.toSpawnerData(plugin, false);
+    }
+
+    @Override
+    public SpawnerData loadSpecificSpawner(String spawnerId) {
+        try {
+            SpawnerRecord record = readRecord(spawnerId);
+            return record != null ? record.toSpawnerData(plugin, true) : null;
+        } catch (Exception e) {
+            plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String getRawLocationString(String spawnerId) {
+        try {
+            SpawnerRecord record = readRecord(spawnerId);
+            return record != null ? record.locationString() : null;
+        } catch (IllegalArgumentException e) {
+            plugin.debug("Error reading location of spawner " + spawnerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the stored record of a spawner without building it.
+     *
+     * @return The record, or null if the spawner isn't stored
+     */
+    public SpawnerRecord readRecord(String spawnerId) {
+        byte[] payload = store.get(spawnerId);
+        return payload != null ? BinaryRecordCodec.decode(payload) : null;
+    }
+
+    /**
+     * Writes a record directly, bypassing dirty tracking. Used by conversions from other storage modes.
+     */
+    public void writeRecord(SpawnerRecord record) throws IOException {
+        store.put(record.spawnerId(), BinaryRecordCodec.encode(record));
+    }
+
+    public Set<String> getStoredSpawnerIds() {
+        return store.ids();
+    }
+
+    public void sync() {
+        store.sync();
+    }
+
+    @Override
+    public void shutdown() {
+        writeBehind.stop();
+        persistenceExecutor.shutdown();
+
+        // Perform synchronous flush on shutdown
+        if (!dirtySpawners.isEmpty() || !deletedSpawners.isEmpty()) {
+            logger.info("Saving " + dirtySpawners.size() + " spawners to binary storage on shutdown...");
+        }
+        writeBehind.flushAll();
+
+        store.close();
+    }
+}
@@ -0,0 +1,194 @@
+package github.nighter.smartspawner.spawner.data.database;
+
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.data.storage.StorageMode;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Results of the cross-server list queries, kept until the spawners they were read from change.
+ *
+ * <p>Every server bumps its row in the smart_spawner_versions table in the same transaction as the spawner
+ * changes it writes. Instead of running the list queries again on every click, readers poll that table, at most
+ * once per poll interval, and keep serving a cached result while the versions of the servers it covers are
+ * unchanged. Results covering every server, such as the server list, are dropped on any change.
+ * Entries also expire after the max age, for servers running versions that don't bump the table.
+ */
+public class CrossServerQueryCache {
+    static final String BUMP_SQL_MYSQL = """
+            INSERT INTO smart_spawner_versions (server_name, version) VALUES (?, 1)
+            ON DUPLICATE KEY UPDATE version = version + 1
+            """;
+
+    static final String BUMP_SQL_SQLITE = """
+            INSERT INTO smart_spawner_versions (server_name, version) VALUES (?, 1)
+            ON CONFLICT(server_name) DO UPDATE SET version = version + 1
+            """;
+
+    private static final String SELECT_VERSIONS_SQL = "SELECT server_name, version FROM smart_spawner_versions";
+
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+    private final long maxAgeMillis;
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries;
+    private volatile Map<String, Long> versions = new HashMap<>();
+    // Changes whenever any server's version does, the version of results covering every server
+    private volatile long generation = 0;
+    private volatile long lastPoll = 0;
+
+    // Metrics, only changed while holding the cache's lock
+    private long hits = 0;
+    private long misses = 0;
+
+    private record Entry(Object value, long version, long cachedAt) {
+    }
+
+    public CrossServerQueryCache(SmartSpawner plugin) {
+        this.enabled = plugin.getConfig().getBoolean("database.cross_server_cache.enabled", true);
+        this.pollIntervalMillis = Math.max(0, plugin.getConfig().getLong("database.cross_server_cache.poll_interval_ms", 2000));
+        this.maxAgeMillis = Math.max(1, plugin.getConfig().getLong("database.cross_server_cache.max_age_seconds", 60)) * 1000L;
+        this.maxEntries = Math.max(1, plugin.getConfig().getInt("database.cross_server_cache.max_entries", 512));
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Bumps a server's version, to be run in the transaction that changes its spawners.
+     */
+    public static void bumpVersion(Connection conn, StorageMode storageMode, String serverName) throws SQLException {
+        String sql = storageMode == StorageMode.SQLITE ? BUMP_SQL_SQLITE : BUMP_SQL_MYSQL;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, serverName);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads the server versions if the last read is older than the poll interval.
+     * A failed read is logged by the caller and leaves the cache empty, so queries run uncached until it works again.
+     */
+    public void pollIfDue(Connection conn) throws SQLException {
+        if (!enabled || System.currentTimeMillis() - lastPoll < pollIntervalMillis) {
+            return;
+        }
+
+        Map<String, Long> polled = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_VERSIONS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                polled.put(rs.getString("server_name"), rs.getLong("version"));
+            }
+        } catch (SQLException e) {
+            invalidate();
+            throw e;
+        }
+
+        synchronized (this) {
+            if (!polled.equals(versions)) {
+                versions = polled;
+                generation++;
+            }
+            lastPoll = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * @param server The server the result was read from, or null for results covering every server
+     * @return The cached result, or null if there is none or the server changed since it was read
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(String key, String server) {
+        if (!enabled) {
+            return null;
+        }
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.version() != currentVersion(server)
+                || System.currentTimeMillis() - entry.cachedAt() >= maxAgeMillis) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return (T) entry.value();
+    }
+
+    /**
+     * Caches a result. The value is handed to every later caller, so it must not be modified.
+     * @param version The {@link #version(String)} taken before the result was read, so a change
+     *                polled while it was being read still counts as newer
+     */
+    public synchronized void put(String key, long version, Object value) {
+        if (enabled) {
+            entries.put(key, new Entry(value, version, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * @param server A server name, or null for results covering every server
+     * @return The last polled version of the server
+     */
+    public synchronized long version(String server) {
+        return currentVersion(server);
+    }
+
+    /**
+     * Reads the versions again on the next query instead of after the poll interval.
+     * Used after this server changes spawners, so its own changes show up right away.
+     */
+    public void requestPoll() {
+        lastPoll = 0;
+    }
+
+    /**
+     * Drops every cached result and reads the versions again on the next query.
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        lastPoll = 0;
+    }
+
+    private long currentVersion(String server) {
+        return server == null ? generation : versions.getOrDefault(server, 0L);
+    }
+
+    public static String key(Object... parts) {
+        StringBuilder key = new StringBuilder();
+        for (Object part : parts) {
+            key.append(part).append('\u0000');
+        }
+        return key.toString();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * One line of cache counts since startup, for the periodic debug report.
+     */
+    public synchronized String describeMetrics() {
+        if (!enabled) {
+            return "Cross-server query cache: disabled";
+        }
+        long lookups = hits + misses;
+        return "Cross-server query cache: " + entries.size() + " results, " + hits + " hits and " + misses
+                + " misses (" + (lookups > 0 ? hits * 100 / lookups : 0) + "% hit rate)";
+    }
+}
@@ -4,23 +4,36 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.spawner.data.storage.StorageMode;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Manages database connections using HikariCP connection pool.
  * Supports MySQL/MariaDB and SQLite for spawner data storage.
+ *
+ * <p>SQLite allows one writer at a time, so in SQLite mode writes get a single connection of their own and
+ * lookups a separate pool of read-only connections. With WAL, reads then run alongside a save instead of
+ * waiting for it on a shared connection.
  */
 public class DatabaseManager {
     private final SmartSpawner plugin;
     private final Logger logger;
     private final StorageMode storageMode;
     private HikariDataSource dataSource;
+    // Read-only connections in SQLite mode, null when reads share the main pool
+    private HikariDataSource readDataSource;
+    private StatementCache statementCache;
 
     // Configuration values
     private final String host;
@@ -30,6 +43,7 @@ public class DatabaseManager {
     private final String password;
     private final String serverName;
     private final String sqliteFile;
+    private final boolean itemTableEnabled;
 
     // Pool settings
     private final int maxPoolSize;
@@ -40,6 +54,13 @@ public class DatabaseManager {
     private final long keepaliveTime;
     private final long leakDetectionThreshold;
 
+    // SQLite settings
+    private final int sqliteReadPoolSize;
+    private final long sqliteMmapSizeBytes;
+    private final String sqliteTempStore;
+    private final int sqliteWalAutocheckpoint;
+    private final int sqliteStatementCacheSize;
+
     // MySQL/MariaDB table creation SQL
     private static final String CREATE_TABLE_MYSQL = """
             CREATE TABLE IF NOT EXISTS smart_spawners (
@@ -77,8 +98,9 @@ public class DatabaseManager {
                 preferred_sort_item VARCHAR(64) DEFAULT NULL,
                 filtered_items TEXT DEFAULT NULL,
 
-                -- Inventory (JSON blob)
+                -- Inventory (base64 InventoryCodec data)
                 inventory_data MEDIUMTEXT DEFAULT NULL,
+                total_items BIGINT DEFAULT NULL,
 
                 -- Timestamps
                 created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -88,7 +110,8 @@ public class DatabaseManager {
                 UNIQUE KEY uk_server_spawner (server_name, spawner_id),
                 UNIQUE KEY uk_location (server_name, world_name, loc_x, loc_y, loc_z),
                 INDEX idx_server (server_name),
-                INDEX idx_world (server_name, world_name)
+                INDEX idx_world (server_name, world_name),
+                INDEX idx_world_stack (server_name, world_name, stack_size, spawner_id)
             ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
             """;
 
@@ -129,8 +152,9 @@ public class DatabaseManager {
                 preferred_sort_item VARCHAR(64) DEFAULT NULL,
                 filtered_items TEXT DEFAULT NULL,
 
-                -- Inventory (JSON blob)
+                -- Inventory (base64 InventoryCodec data)
                 inventory_data TEXT DEFAULT NULL,
+                total_items BIGINT DEFAULT NULL,
 
                 -- Timestamps
                 created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -148,6 +172,87 @@ public class DatabaseManager {
     private static final String CREATE_INDEX_WORLD_SQLITE =
             "CREATE INDEX IF NOT EXISTS idx_world ON smart_spawners (server_name, world_name)";
 
+    // Added after the first release, so tables created before need them added
+    private static final String ADD_TOTAL_ITEMS_COLUMN =
+            "ALTER TABLE smart_spawners ADD COLUMN total_items BIGINT DEFAULT NULL";
+    private static final String CREATE_INDEX_WORLD_STACK =
+            "CREATE INDEX idx_world_stack ON smart_spawners (server_name, world_name, stack_size, spawner_id)";
+
+    // Fills total_items of rows written before the column existed, item rows first since their inventory_data is empty
+    private static final String BACKFILL_ITEM_TOTALS_SQL = """
+            UPDATE smart_spawners SET total_items = (
+                SELECT SUM(i.amount) FROM smart_spawner_items i
+                WHERE i.server_name = smart_spawners.server_name AND i.spawner_id = smart_spawners.spawner_id)
+            WHERE total_items IS NULL AND EXISTS (
+                SELECT 1 FROM smart_spawner_items i
+                WHERE i.server_name = smart_spawners.server_name AND i.spawner_id = smart_spawners.spawner_id)
+            """;
+    private static final String SELECT_MISSING_TOTALS_SQL =
+            "SELECT server_name, spawner_id, inventory_data FROM smart_spawners WHERE total_items IS NULL";
+    private static final String SET_TOTAL_ITEMS_SQL =
+            "UPDATE smart_spawners SET total_items = ? WHERE server_name = ? AND spawner_id = ?";
+
+    // Normalized inventory table, one row per item variant of a spawner (optional)
+    private static final String CREATE_ITEMS_TABLE_MYSQL = """
+            CREATE TABLE IF NOT EXISTS smart_spawner_items (
+                server_name VARCHAR(64) NOT NULL,
+                spawner_id VARCHAR(64) NOT NULL,
+                item_key VARCHAR(128) NOT NULL,
+                amount BIGINT NOT NULL DEFAULT 0,
+                PRIMARY KEY (server_name, spawner_id, item_key)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+            """;
+
+    private static final String CREATE_ITEMS_TABLE_SQLITE = """
+            CREATE TABLE IF NOT EXISTS smart_spawner_items (
+                server_name VARCHAR(64) NOT NULL,
+                spawner_id VARCHAR(64) NOT NULL,
+                item_key VARCHAR(128) NOT NULL,
+                amount BIGINT NOT NULL DEFAULT 0,
+                PRIMARY KEY (server_name, spawner_id, item_key)
+            )
+            """;
+
+    // Version per server, bumped whenever its spawners change so other servers know when their cached lists are stale
+    private static final String CREATE_VERSIONS_TABLE_MYSQL = """
+            CREATE TABLE IF NOT EXISTS smart_spawner_versions (
+                server_name VARCHAR(64) NOT NULL PRIMARY KEY,
+                version BIGINT NOT NULL DEFAULT 0
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+            """;
+
+    private static final String CREATE_VERSIONS_TABLE_SQLITE = """
+            CREATE TABLE IF NOT EXISTS smart_spawner_versions (
+                server_name VARCHAR(64) NOT NULL PRIMARY KEY,
+                version BIGINT NOT NULL DEFAULT 0
+            )
+            """;
+
+    // Progress of interrupted migrations into this database by each server, see MigrationPipeline
+    private static final String CREATE_MIGRATIONS_TABLE_MYSQL = """
+            CREATE TABLE IF NOT EXISTS smart_spawner_migrations (
+                server_name VARCHAR(64) NOT NULL,
+                name VARCHAR(64) NOT NULL,
+                source VARCHAR(255) NOT NULL,
+                position BIGINT NOT NULL,
+                migrated BIGINT NOT NULL,
+                failed BIGINT NOT NULL,
+                PRIMARY KEY (server_name, name)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+            """;
+
+    private static final String CREATE_MIGRATIONS_TABLE_SQLITE = """
+            CREATE TABLE IF NOT EXISTS smart_spawner_migrations (
+                server_name VARCHAR(64) NOT NULL,
+                name VARCHAR(64) NOT NULL,
+                source VARCHAR(255) NOT NULL,
+                position BIGINT NOT NULL,
+                migrated BIGINT NOT NULL,
+                failed BIGINT NOT NULL,
+                PRIMARY KEY (server_name, name)
+            )
+            """;
+
     public DatabaseManager(SmartSpawner plugin, StorageMode storageMode) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
@@ -161,6 +266,7 @@ public class DatabaseManager {
         this.password = plugin.getConfig().getString("database.sql.password", "");
         this.serverName = plugin.getConfig().getString("database.server_name", "server1");
         this.sqliteFile = plugin.getConfig().getString("database.sqlite.file", "spawners.db");
+        this.itemTableEnabled = plugin.getConfig().getBoolean("database.item_table.enabled", false);
 
         // Pool settings
         this.maxPoolSize = plugin.getConfig().getInt("database.sql.pool.maximum-size", 10);
@@ -170,6 +276,15 @@ public class DatabaseManager {
         this.idleTimeout = plugin.getConfig().getLong("database.sql.pool.idle-timeout", 600000);
         this.keepaliveTime = plugin.getConfig().getLong("database.sql.pool.keepalive-time", 30000);
         this.leakDetectionThreshold = plugin.getConfig().getLong("database.sql.pool.leak-detection-threshold", 0);
+
+        // SQLite settings
+        this.sqliteReadPoolSize = Math.max(0, plugin.getConfig().getInt("database.sqlite.read_pool_size", 4));
+        this.sqliteMmapSizeBytes = Math.max(0, plugin.getConfig().getLong("database.sqlite.mmap_size_mb", 64)) * 1024L * 1024L;
+        this.sqliteTempStore = plugin.getConfig().getString("database.sqlite.temp_store", "MEMORY");
+        // Kept above 0, it bounds the WAL even when the periodic checkpoint is disabled or keeps being skipped
+        int walAutocheckpoint = plugin.getConfig().getInt("database.sqlite.wal_autocheckpoint", 1000);
+        this.sqliteWalAutocheckpoint = walAutocheckpoint > 0 ? walAutocheckpoint : 1000;
+        this.sqliteStatementCacheSize = Math.max(0, plugin.getConfig().getInt("database.sqlite.statement_cache_size", 64));
     }
 
     /**
@@ -198,6 +313,16 @@ public class DatabaseManager {
         }
 
         dataSource = new HikariDataSource(config);
+
+        // The MariaDB driver caches statements itself
+        statementCache = new StatementCache(storageMode == StorageMode.SQLITE ? sqliteStatementCacheSize : 0);
+
+        // Opened after the writer, which creates the database file and switches it to WAL
+        if (storageMode == StorageMode.SQLITE && sqliteReadPoolSize > 0) {
+            HikariConfig readConfig = new HikariConfig();
+            setupSQLiteReadDataSource(readConfig);
+            readDataSource = new HikariDataSource(readConfig);
+        }
     }
 
     private void setupMySQLDataSource(HikariConfig config) {
@@ -247,8 +372,8 @@ public class DatabaseManager {
         config.setJdbcUrl(jdbcUrl);
         config.setDriverClassName("org.sqlite.JDBC");
 
-        // SQLite-specific pool settings (SQLite doesn't handle multiple connections well)
-        config.setMaximumPoolSize(1);  // SQLite works best with single connection
+        // Single writer connection, SQLite allows only one write at a time anyway
+        config.setMaximumPoolSize(1);
         config.setMinimumIdle(1);
         config.setConnectionTimeout(connectionTimeout);
         config.setMaxLifetime(0);  // Disable max lifetime for SQLite
@@ -256,10 +381,36 @@ public class DatabaseManager {
 
         // SQLite performance settings
         config.setPoolName("SmartSpawner-SQLite-HikariCP");
+        addSQLitePragmas(config);
         config.addDataSourceProperty("journal_mode", "WAL");
         config.addDataSourceProperty("synchronous", "NORMAL");
-        config.addDataSourceProperty("cache_size", "10000");
         config.addDataSourceProperty("foreign_keys", "ON");
+        // Pages written to the WAL before SQLite checkpoints it during a commit
+        config.setConnectionInitSql("PRAGMA wal_autocheckpoint = " + sqliteWalAutocheckpoint);
+    }
+
+    private void setupSQLiteReadDataSource(HikariConfig config) {
+        config.setJdbcUrl(dataSource.getJdbcUrl());
+        config.setDriverClassName("org.sqlite.JDBC");
+
+        config.setMaximumPoolSize(sqliteReadPoolSize);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setMaxLifetime(0);
+        config.setIdleTimeout(0);
+
+        config.setPoolName("SmartSpawner-SQLite-Read-HikariCP");
+        addSQLitePragmas(config);
+        // Refuse writes, so nothing can take the write lock away from the writer connection
+        config.setConnectionInitSql("PRAGMA query_only = ON");
+    }
+
+    private void addSQLitePragmas(HikariConfig config) {
+        config.addDataSourceProperty("cache_size", "10000");
+        config.addDataSourceProperty("mmap_size", String.valueOf(sqliteMmapSizeBytes));
+        config.addDataSourceProperty("temp_store", sqliteTempStore);
+        // Wait for a checkpoint or the writer instead of failing with SQLITE_BUSY
+        config.addDataSourceProperty("busy_timeout", String.valueOf(connectionTimeout));
     }
 
     private void createTables() throws SQLException {
@@ -270,14 +421,106 @@ public class DatabaseManager {
                 stmt.execute(CREATE_TABLE_SQLITE);
                 stmt.execute(CREATE_INDEX_SERVER_SQLITE);
                 stmt.execute(CREATE_INDEX_WORLD_SQLITE);
+                stmt.execute(CREATE_VERSIONS_TABLE_SQLITE);
+                stmt.execute(CREATE_MIGRATIONS_TABLE_SQLITE);
+                if (itemTableEnabled) {
+                    stmt.execute(CREATE_ITEMS_TABLE_SQLITE);
+                }
             } else {
                 stmt.execute(CREATE_TABLE_MYSQL);
+                stmt.execute(CREATE_VERSIONS_TABLE_MYSQL);
+                stmt.execute(CREATE_MIGRATIONS_TABLE_MYSQL);
+                if (itemTableEnabled) {
+                    stmt.execute(CREATE_ITEMS_TABLE_MYSQL);
+                }
             }
 
+            upgradeTables(conn, stmt);
+
             plugin.debug("Database tables created/verified successfully.");
         }
     }
 
+    /**
+     * Adds the total_items column and the keyset index to tables created by older versions,
+     * then fills in the totals of rows that don't have one yet.
+     */
+    private void upgradeTables(Connection conn, Statement stmt) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getColumns(conn.getCatalog(), null, "smart_spawner_migrations", "server_name")) {
+            if (!rs.next()) {
+                // Checkpoints were shared by every server on the database; dropping them only restarts a migration
+                stmt.execute("DROP TABLE smart_spawner_migrations");
+                stmt.execute(storageMode == StorageMode.SQLITE ? CREATE_MIGRATIONS_TABLE_SQLITE : CREATE_MIGRATIONS_TABLE_MYSQL);
+                logger.info("Recreated smart_spawner_migrations with per-server checkpoints.");
+            }
+        }
+
+        try (ResultSet rs = metaData.getColumns(conn.getCatalog(), null, "smart_spawners", "total_items")) {
+            if (!rs.next()) {
+                stmt.execute(ADD_TOTAL_ITEMS_COLUMN);
+                logger.info("Added the total_items column to smart_spawners.");
+            }
+        }
+
+        boolean hasIndex = false;
+        try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, "smart_spawners", false, true)) {
+            while (rs.next()) {
+                if ("idx_world_stack".equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    hasIndex = true;
+                    break;
+                }
+            }
+        }
+        if (!hasIndex) {
+            stmt.execute(CREATE_INDEX_WORLD_STACK);
+        }
+
+        backfillTotalItems(conn, stmt);
+    }
+
+    private void backfillTotalItems(Connection conn, Statement stmt) throws SQLException {
+        if (SpawnerItemTable.exists(conn)) {
+            stmt.executeUpdate(BACKFILL_ITEM_TOTALS_SQL);
+        }
+
+        // Read everything first, SQLite doesn't like updating a table while a query on it is open
+        List<MissingTotal> missing = new ArrayList<>();
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(SELECT_MISSING_TOTALS_SQL)) {
+            while (rs.next()) {
+                long total;
+                try {
+                    total = InventoryCodec.totalAmount(SpawnerDatabaseHandler.readInventoryData(rs.getString("inventory_data")));
+                } catch (IllegalArgumentException e) {
+                    total = 0;
+                }
+                missing.add(new MissingTotal(rs.getString("server_name"), rs.getString("spawner_id"), total));
+            }
+        }
+
+        int filled = 0;
+        try (PreparedStatement update = conn.prepareStatement(SET_TOTAL_ITEMS_SQL)) {
+            for (MissingTotal row : missing) {
+                update.setLong(1, row.total());
+                update.setString(2, row.serverName());
+                update.setString(3, row.spawnerId());
+                update.addBatch();
+                if (++filled % 500 == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+
+        if (filled > 0) {
+            logger.info("Calculated the stored item totals of " + filled + " spawners.");
+        }
+    }
+
+    private record MissingTotal(String serverName, String spawnerId, long total) {
+    }
+
     /**
      * Get a connection from the pool.
      * @return A database connection
@@ -290,6 +533,60 @@ public class DatabaseManager {
         return dataSource.getConnection();
     }
 
+    /**
+     * Get a connection for lookups. In SQLite mode it comes from the read-only pool, so it doesn't wait for
+     * the writer; otherwise it is a regular connection from the pool.
+     * @return A database connection, read-only in SQLite mode
+     * @throws SQLException if connection cannot be obtained
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (readDataSource == null) {
+            return getConnection();
+        }
+        if (readDataSource.isClosed()) {
+            throw new SQLException("Database read connection pool has been closed");
+        }
+        return readDataSource.getConnection();
+    }
+
+    /**
+     * Get a prepared statement that stays open on its connection for reuse, in SQLite mode.
+     * Hand it back with {@link #releaseCached(PreparedStatement)} instead of closing it.
+     * @see StatementCache
+     */
+    public PreparedStatement prepareCached(Connection conn, String sql) throws SQLException {
+        return statementCache.prepare(conn, sql);
+    }
+
+    /**
+     * Hand back a statement from {@link #prepareCached(Connection, String)}.
+     */
+    public void releaseCached(PreparedStatement stmt) throws SQLException {
+        statementCache.release(stmt);
+    }
+
+    /**
+     * Copy the SQLite write-ahead log back into the database file and truncate it.
+     * Run on the storage writer while no saves are queued, so the log doesn't keep growing between saves.
+     * Does nothing outside SQLite mode.
+     */
+    public void checkpoint() {
+        if (storageMode != StorageMode.SQLITE) return;
+
+        long start = System.currentTimeMillis();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(TRUNCATE)")) {
+            if (rs.next()) {
+                // busy is 1 when a reader kept the checkpoint from finishing, it is retried next time
+                plugin.debug("SQLite checkpoint copied " + rs.getInt(3) + " of " + rs.getInt(2) + " WAL pages in "
+                        + (System.currentTimeMillis() - start) + "ms" + (rs.getInt(1) != 0 ? " (busy)" : ""));
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error checkpointing the SQLite database", e);
+        }
+    }
+
     /**
      * Get the configured server name for this server.
      * @return The server name used to identify spawners
@@ -306,6 +603,14 @@ public class DatabaseManager {
         return storageMode;
     }
 
+    /**
+     * Check if spawner inventories are stored per item in smart_spawner_items.
+     * @return true if the item table is enabled
+     */
+    public boolean isItemTableEnabled() {
+        return itemTableEnabled;
+    }
+
     /**
      * Check if the database connection pool is active.
      * @return true if the pool is active and accepting connections
@@ -318,6 +623,12 @@ public class DatabaseManager {
      * Shutdown the database connection pool.
      */
     public void shutdown() {
+        if (readDataSource != null && !readDataSource.isClosed()) {
+            readDataSource.close();
+        }
+        if (statementCache != null) {
+            statementCache.clear();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("Database connection pool closed.");
@@ -0,0 +1,412 @@
+package github.nighter.smartspawner.spawner.data.database;
+
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves spawners from another storage into the database without holding them all in memory.
+ *
+ * <p>The calling thread reads the source and queues each entry. Encoder threads turn entries into rows,
+ * parsing and re-encoding their inventories, and a single writer thread upserts the rows in batches.
+ * Both queues are bounded, so a slow database holds back the reader instead of filling memory.
+ *
+ * <p>Entries are numbered in source order. Each batch commits together with a checkpoint in
+ * smart_spawner_migrations, kept per server: the number of leading entries that are all written, plus the counts so far.
+ * A migration that stops midway resumes from there on the next startup, as long as the source still has the
+ * same fingerprint. Entries after the checkpoint that were already written are simply upserted again.
+ *
+ * @param <S> Source entry type
+ */
+public class MigrationPipeline<S> {
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000L;
+    private static final long OFFER_TIMEOUT_MILLIS = 100L;
+
+    private static final String SELECT_CHECKPOINT_SQL =
+            "SELECT source, position, migrated, failed FROM smart_spawner_migrations WHERE server_name = ? AND name = ?";
+    private static final String DELETE_CHECKPOINT_SQL =
+            "DELETE FROM smart_spawner_migrations WHERE server_name = ? AND name = ?";
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO smart_spawner_migrations (server_name, name, source, position, migrated, failed) VALUES (?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Reads the source in a fixed order, the same on every run over the same data.
+     */
+    @FunctionalInterface
+    public interface Source<S> {
+        void read(EntrySink<S> sink) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface EntrySink<S> {
+        /**
+         * Queues the next entry.
+         * @return false once the migration is aborted and reading should stop
+         */
+        boolean accept(S entry);
+    }
+
+    /**
+     * Turns a source entry into a row. Runs on several threads at once.
+     */
+    @FunctionalInterface
+    public interface Encoder<S> {
+        /**
+         * @return The row, or null if the entry is invalid and was logged
+         */
+        Row encode(S entry) throws Exception;
+    }
+
+    /**
+     * A spawner to write, with the server it belongs to.
+     */
+    public record Row(String serverName, SpawnerRecord record) {
+    }
+
+    /**
+     * @param migrated Spawners written up to the last checkpoint, including those of earlier runs
+     * @param failed   Invalid source entries up to the last checkpoint, including those of earlier runs
+     * @param complete Whether every entry was handled; otherwise the checkpoint is kept for the next run
+     */
+    public record Result(long migrated, long failed, boolean complete) {
+    }
+
+    // A source entry or encoded row with its position in the source
+    private record Numbered<T>(long position, T value) {
+    }
+
+    private final Logger logger;
+    private final DatabaseManager databaseManager;
+    private final String serverName;
+    private final String name;
+    private final int encoderThreads;
+    private final int batchSize;
+    private final int queueSize;
+
+    private volatile boolean aborted = false;
+
+    /**
+     * @param name Identifies the migration in the checkpoint table, together with this server's name
+     */
+    public MigrationPipeline(SmartSpawner plugin, DatabaseManager databaseManager, String name) {
+        this.logger = plugin.getLogger();
+        this.databaseManager = databaseManager;
+        this.serverName = databaseManager.getServerName();
+        this.name = name;
+
+        int configuredThreads = plugin.getConfig().getInt("database.migration.encoder_threads", 0);
+        this.encoderThreads = configuredThreads > 0
+                ? configuredThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("database.migration.batch_size", 500));
+        this.queueSize = Math.max(1, plugin.getConfig().getInt("database.migration.queue_size", 2000));
+    }
+
+    /**
+     * Runs the migration on the calling thread, which reads the source, and waits for it to finish.
+     * @param fingerprint Describes the source data, a checkpoint taken from another fingerprint is discarded
+     * @param total       Number of source entries, for progress reports
+     */
+    public Result run(String fingerprint, long total, Source<S> source, Encoder<S> encoder) {
+        Checkpoint start = loadCheckpoint(fingerprint);
+        if (start.position() > 0) {
+            logger.info("Resuming migration after " + start.position() + " of " + total + " spawners");
+        }
+
+        BlockingQueue<Numbered<S>> entries = new ArrayBlockingQueue<>(queueSize);
+        BlockingQueue<Numbered<Row>> rows = new ArrayBlockingQueue<>(queueSize);
+        Numbered<S> entryEnd = new Numbered<>(-1, null);
+        Numbered<Row> rowEnd = new Numbered<>(-1, null);
+
+        List<Thread> encoders = new ArrayList<>(encoderThreads);
+        for (int i = 0; i < encoderThreads; i++) {
+            Thread thread = Thread.ofPlatform().name("SmartSpawner-migration-encoder-" + i).daemon(true)
+                    .start(() -> encode(encoder, entries, rows, entryEnd, rowEnd));
+            encoders.add(thread);
+        }
+        Writer writer = new Writer(fingerprint, total, start, rows, rowEnd);
+        Thread writerThread = Thread.ofPlatform().name("SmartSpawner-migration-writer").daemon(true).start(writer);
+
+        boolean readComplete = false;
+        try {
+            long[] position = {0};
+            source.read(entry -> {
+                long current = ++position[0];
+                // Entries up to the checkpoint were written by an earlier run
+                return current <= start.position() || offer(entries, new Numbered<>(current, entry));
+            });
+            readComplete = !aborted;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error reading spawners to migrate", e);
+            aborted = true;
+        }
+
+        try {
+            for (int i = 0; i < encoderThreads; i++) {
+                // End markers must get through even after an abort, or the encoders would never stop
+                entries.put(entryEnd);
+            }
+            for (Thread thread : encoders) {
+                thread.join();
+            }
+            writerThread.join();
+        } catch (InterruptedException e) {
+            aborted = true;
+            Thread.currentThread().interrupt();
+        }
+
+        boolean complete = readComplete && writer.isComplete();
+        return new Result(writer.getMigrated(), writer.getFailed(), complete);
+    }
+
+    private void encode(Encoder<S> encoder, BlockingQueue<Numbered<S>> entries, BlockingQueue<Numbered<Row>> rows,
+                        Numbered<S> entryEnd, Numbered<Row> rowEnd) {
+        try {
+            while (true) {
+                Numbered<S> entry = entries.take();
+                if (entry == entryEnd) {
+                    // The writer stops by itself once aborted
+                    offer(rows, rowEnd);
+                    return;
+                }
+                if (aborted) continue;
+
+                Row row = null;
+                try {
+                    row = encoder.encode(entry.value());
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Failed to migrate spawner at position " + entry.position(), e);
+                }
+                // Failed entries are passed on too, the writer needs every position to move the checkpoint.
+                // Once aborted this returns false, and entries are taken without encoding until the end marker
+                offer(rows, new Numbered<>(entry.position(), row));
+            }
+        } catch (InterruptedException e) {
+            aborted = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> boolean offer(BlockingQueue<T> queue, T value) {
+        try {
+            while (!aborted) {
+                if (queue.offer(value, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            aborted = true;
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private Checkpoint loadCheckpoint(String fingerprint) {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_CHECKPOINT_SQL)) {
+            stmt.setString(1, serverName);
+            stmt.setString(2, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    if (fingerprint.equals(rs.getString("source"))) {
+                        return new Checkpoint(rs.getLong("position"), rs.getLong("migrated"), rs.getLong("failed"));
+                    }
+                    logger.info("The migration source changed since the last attempt, starting over");
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error reading the migration checkpoint, starting over", e);
+        }
+        return new Checkpoint(0, 0, 0);
+    }
+
+    private record Checkpoint(long position, long migrated, long failed) {
+    }
+
+    /**
+     * Writes encoded rows in batches, each committed with the checkpoint it reaches.
+     */
+    private class Writer implements Runnable {
+        private final String fingerprint;
+        private final long total;
+        private final Checkpoint start;
+        private final BlockingQueue<Numbered<Row>> rows;
+        private final Numbered<Row> rowEnd;
+
+        // Positions handled after the checkpoint that don't join up with it yet, true if the row was written.
+        // They are only counted once the checkpoint passes them, as a resumed run writes them again
+        private final TreeMap<Long, Boolean> handled = new TreeMap<>();
+        private long position;
+        private volatile long migrated;
+        private volatile long failed;
+        private volatile boolean complete = false;
+
+        private final long startTime = System.currentTimeMillis();
+        private long lastProgressTime = startTime;
+        private long migratedThisRun = 0;
+
+        Writer(String fingerprint, long total, Checkpoint start, BlockingQueue<Numbered<Row>> rows, Numbered<Row> rowEnd) {
+            this.fingerprint = fingerprint;
+            this.total = total;
+            this.start = start;
+            this.rows = rows;
+            this.rowEnd = rowEnd;
+            this.position = start.position();
+            this.migrated = start.migrated();
+            this.failed = start.failed();
+        }
+
+        @Override
+        public void run() {
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement upsert = conn.prepareStatement(
+                         SpawnerDatabaseHandler.upsertSql(databaseManager.getStorageMode()))) {
+                conn.setAutoCommit(false);
+
+                int openEncoders = encoderThreads;
+                List<Numbered<Row>> batch = new ArrayList<>(batchSize);
+                while (openEncoders > 0 && !aborted) {
+                    Numbered<Row> row = rows.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (row == rowEnd) {
+                        openEncoders--;
+                    } else if (row != null) {
+                        batch.add(row);
+                    }
+
+                    if (batch.size() >= batchSize || (!batch.isEmpty() && (row == null || openEncoders == 0))) {
+                        writeBatch(conn, upsert, batch, false);
+                        batch.clear();
+                        reportProgress();
+                    }
+                }
+
+                if (!aborted) {
+                    // Let other servers know this one's spawners changed, and drop the finished checkpoint
+                    writeBatch(conn, upsert, batch, true);
+                    complete = true;
+                    long elapsed = System.currentTimeMillis() - startTime;
+                    logger.info("Wrote " + migratedThisRun + " spawners in " + elapsed + "ms ("
+                            + rate(migratedThisRun, elapsed) + " per second)");
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Database error during migration, it will resume from the last checkpoint", e);
+                aborted = true;
+            } catch (InterruptedException e) {
+                aborted = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void writeBatch(Connection conn, PreparedStatement upsert, List<Numbered<Row>> batch,
+                                boolean last) throws SQLException {
+            int written = 0;
+            for (Numbered<Row> numbered : batch) {
+                Row row = numbered.value();
+                if (row != null) {
+                    SpawnerRecord record = row.record();
+                    SpawnerDatabaseHandler.setRecordParameters(upsert, row.serverName(), record,
+                            InventoryCodec.totalAmount(record.inventory()));
+                    upsert.addBatch();
+                    written++;
+                }
+            }
+
+            try {
+                if (written > 0) {
+                    upsert.executeBatch();
+                }
+
+                advance(batch);
+                try (PreparedStatement delete = conn.prepareStatement(DELETE_CHECKPOINT_SQL)) {
+                    delete.setString(1, serverName);
+                    delete.setString(2, name);
+                    delete.executeUpdate();
+                }
+                if (last) {
+                    CrossServerQueryCache.bumpVersion(conn, databaseManager.getStorageMode(), serverName);
+                } else {
+                    try (PreparedStatement insert = conn.prepareStatement(INSERT_CHECKPOINT_SQL)) {
+                        insert.setString(1, serverName);
+                        insert.setString(2, name);
+                        insert.setString(3, fingerprint);
+                        insert.setLong(4, position);
+                        insert.setLong(5, migrated);
+                        insert.setLong(6, failed);
+                        insert.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+            migratedThisRun += written;
+        }
+
+        /**
+         * Moves the checkpoint over the batch's positions that join up with it, counting them.
+         * Only called right before the commit; a failed commit aborts the migration.
+         */
+        private void advance(List<Numbered<Row>> batch) {
+            for (Numbered<Row> numbered : batch) {
+                handled.put(numbered.position(), numbered.value() != null);
+            }
+            while (!handled.isEmpty() && handled.firstKey() == position + 1) {
+                Map.Entry<Long, Boolean> next = handled.pollFirstEntry();
+                position = next.getKey();
+                if (next.getValue()) {
+                    migrated++;
+                } else {
+                    failed++;
+                }
+            }
+        }
+
+        private void reportProgress() {
+            long now = System.currentTimeMillis();
+            if (now - lastProgressTime < PROGRESS_INTERVAL_MILLIS) return;
+            lastProgressTime = now;
+
+            long elapsed = now - startTime;
+            long done = position;
+            long remaining = Math.max(0, total - done);
+            long handledThisRun = done - start.position();
+            String eta = handledThisRun > 0
+                    ? ", about " + (remaining * elapsed / handledThisRun / 1000L) + "s left"
+                    : "";
+            logger.info("Migrated " + done + "/" + total + " spawners (" + rate(migratedThisRun, elapsed)
+                    + " per second" + eta + ")");
+        }
+
+        private static long rate(long count, long elapsedMillis) {
+            return elapsedMillis > 0 ? count * 1000L / elapsedMillis : count;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        long getMigrated() {
+            return migrated;
+        }
+
+        long getFailed() {
+            return failed;
+        }
+    }
+}
@@ -3,16 +3,18 @@ package github.nighter.smartspawner.spawner.data.database;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.Scheduler;
 import github.nighter.smartspawner.commands.list.gui.CrossServerSpawnerData;
+import github.nighter.smartspawner.commands.list.gui.CrossServerSpawnerPage;
+import github.nighter.smartspawner.spawner.data.storage.PersistenceExecutor;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerSnapshot;
 import github.nighter.smartspawner.spawner.data.storage.SpawnerStorage;
+import github.nighter.smartspawner.spawner.data.storage.WriteBehindScheduler;
 import github.nighter.smartspawner.spawner.data.storage.StorageMode;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
 import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
 import github.nighter.smartspawner.spawner.utils.ItemStackSerializer;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.entity.EntityType;
-import org.bukkit.inventory.ItemStack;
 
 import java.sql.*;
 import java.util.*;
@@ -21,7 +23,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Database-backed storage handler for spawner data.
@@ -37,12 +38,26 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
     private final Set<String> dirtySpawners = ConcurrentHashMap.newKeySet();
     private final Set<String> deletedSpawners = ConcurrentHashMap.newKeySet();
 
-    private volatile boolean isSaving = false;
-    private Scheduler.Task saveTask = null;
+    private final PersistenceExecutor persistenceExecutor;
+    private final WriteBehindScheduler writeBehind;
+
+    // Results of the cross-server list queries, until the versions table shows a change
+    private final CrossServerQueryCache queryCache;
+
+    // Periodic SQLite WAL checkpoint, run while the writer is idle or once it is overdue
+    private Scheduler.Task checkpointTask = null;
+    private long checkpointIntervalMillis = 0;
+    private volatile long lastCheckpoint = System.currentTimeMillis();
 
     // Cache for raw location strings (used by WorldEventHandler)
     private final Map<String, String> locationCache = new ConcurrentHashMap<>();
 
+    // Streamed spawners whose inventory_data still has to move into item rows once they are built
+    private final Set<String> legacyInventorySpawners = ConcurrentHashMap.newKeySet();
+
+    // Whether smart_spawner_items exists, other servers may store their inventories there even if this one doesn't
+    private volatile boolean itemTablePresent = false;
+
     // SQL Statements
     private static final String SELECT_ALL_SQL = """
             SELECT spawner_id, world_name, loc_x, loc_y, loc_z, entity_type, item_spawner_material,
@@ -75,8 +90,8 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
                 spawner_range, spawner_stop, spawn_delay, max_spawner_loot_slots,
                 max_stored_exp, min_mobs, max_mobs, stack_size, max_stack_size,
                 last_spawn_time, is_at_capacity, last_interacted_player,
-                preferred_sort_item, filtered_items, inventory_data
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                preferred_sort_item, filtered_items, inventory_data, total_items
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             ON DUPLICATE KEY UPDATE
                 world_name = VALUES(world_name),
                 loc_x = VALUES(loc_x),
@@ -100,7 +115,8 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
                 last_interacted_player = VALUES(last_interacted_player),
                 preferred_sort_item = VALUES(preferred_sort_item),
                 filtered_items = VALUES(filtered_items),
-                inventory_data = VALUES(inventory_data)
+                inventory_data = VALUES(inventory_data),
+                total_items = VALUES(total_items)
             """;
 
     // SQLite upsert syntax (ON CONFLICT)
@@ -111,8 +127,8 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
                 spawner_range, spawner_stop, spawn_delay, max_spawner_loot_slots,
                 max_stored_exp, min_mobs, max_mobs, stack_size, max_stack_size,
                 last_spawn_time, is_at_capacity, last_interacted_player,
-                preferred_sort_item, filtered_items, inventory_data
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                preferred_sort_item, filtered_items, inventory_data, total_items
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             ON CONFLICT(server_name, spawner_id) DO UPDATE SET
                 world_name = excluded.world_name,
                 loc_x = excluded.loc_x,
@@ -136,18 +152,60 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
                 last_interacted_player = excluded.last_interacted_player,
                 preferred_sort_item = excluded.preferred_sort_item,
                 filtered_items = excluded.filtered_items,
-                inventory_data = excluded.inventory_data
+                inventory_data = excluded.inventory_data,
+                total_items = excluded.total_items
             """;
 
     private static final String DELETE_SQL = """
             DELETE FROM smart_spawners WHERE server_name = ? AND spawner_id = ?
             """;
 
+    // Columns of each SpawnerData dirty field group, in bit order, bound by setUpdateParameters
+    private static final String[][] DIRTY_GROUP_COLUMNS = {
+            {"spawner_exp", "last_spawn_time", "is_at_capacity"},
+            {"inventory_data", "total_items"},
+            {"stack_size", "max_stack_size", "max_spawner_loot_slots", "max_stored_exp", "min_mobs", "max_mobs"},
+            {"entity_type", "item_spawner_material", "spawner_active", "spawner_range", "spawner_stop",
+                    "spawn_delay", "last_interacted_player", "preferred_sort_item"},
+            {"filtered_items"}
+    };
+
+    // Targeted UPDATE for every combination of dirty field groups, indexed by the dirty mask
+    private static final String[] UPDATE_SQL = buildUpdateStatements();
+
+    private static String[] buildUpdateStatements() {
+        String[] statements = new String[SpawnerData.DIRTY_ALL + 1];
+        for (int mask = 1; mask <= SpawnerData.DIRTY_ALL; mask++) {
+            StringJoiner columns = new StringJoiner(", ");
+            for (int group = 0; group < DIRTY_GROUP_COLUMNS.length; group++) {
+                if ((mask & (1 << group)) == 0) continue;
+                for (String column : DIRTY_GROUP_COLUMNS[group]) {
+                    columns.add(column + " = ?");
+                }
+            }
+            statements[mask] = "UPDATE smart_spawners SET " + columns + " WHERE server_name = ? AND spawner_id = ?";
+        }
+        return statements;
+    }
+
     public SpawnerDatabaseHandler(SmartSpawner plugin, DatabaseManager databaseManager) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.databaseManager = databaseManager;
         this.serverName = databaseManager.getServerName();
+        this.persistenceExecutor = new PersistenceExecutor(plugin, "database");
+        this.queryCache = new CrossServerQueryCache(plugin);
+        this.writeBehind = new WriteBehindScheduler(plugin, "database", persistenceExecutor, new WriteBehindScheduler.FlushTarget() {
+            @Override
+            public int pendingChanges() {
+                return dirtySpawners.size() + deletedSpawners.size();
+            }
+
+            @Override
+            public int flushBatch(int maxChanges) {
+                return writeChanges(maxChanges);
+            }
+        });
     }
 
     @Override
@@ -157,24 +215,43 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
             return false;
         }
 
-        // Start the periodic save task
-        startSaveTask();
-        return true;
-    }
+        try (Connection conn = databaseManager.getConnection()) {
+            if (!databaseManager.isItemTableEnabled()) {
+                // Inventories must be back in inventory_data before spawners are loaded from it
+                int moved = SpawnerItemTable.foldIntoInventoryData(conn, serverName);
+                if (moved > 0) {
+                    logger.info("Moved the inventories of " + moved + " spawners from the item table back to inventory_data");
+                }
+            }
+            itemTablePresent = SpawnerItemTable.exists(conn);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error checking the spawner item table", e);
+            return false;
+        }
 
-    private void startSaveTask() {
-        // Hardcoded 5-minute interval (5 * 60 * 20 = 6000 ticks)
-        long intervalTicks = 6000L;
+        // Start the write-behind save task
+        writeBehind.start();
 
-        if (saveTask != null) {
-            saveTask.cancel();
-            saveTask = null;
+        long checkpointSeconds = plugin.getConfig().getLong("database.sqlite.checkpoint_interval_seconds", 300);
+        if (databaseManager.getStorageMode() == StorageMode.SQLITE && checkpointSeconds > 0) {
+            long ticks = checkpointSeconds * 20L;
+            checkpointIntervalMillis = checkpointSeconds * 1000L;
+            checkpointTask = Scheduler.runTaskTimerAsync(this::checkpointIfIdle, ticks, ticks);
         }
+        return true;
+    }
 
-        saveTask = Scheduler.runTaskTimerAsync(() -> {
-            plugin.debug("Running scheduled database save task");
-            flushChanges();
-        }, intervalTicks, intervalTicks);
+    private void checkpointIfIdle() {
+        // Prefer a moment when the writer has nothing queued, but don't let a busy server put it off forever
+        boolean overdue = System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMillis * 3;
+        if (persistenceExecutor.getWriteQueueDepth() > 0 && !overdue) {
+            plugin.debug("Skipping SQLite checkpoint, saves are queued");
+            return;
+        }
+        persistenceExecutor.write(() -> {
+            databaseManager.checkpoint();
+            lastCheckpoint = System.currentTimeMillis();
+        }, () -> {});
     }
 
     @Override
@@ -206,89 +283,248 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
             return;
         }
 
-        if (isSaving) {
-            plugin.debug("Database flush operation already in progress");
-            return;
-        }
-
-        isSaving = true;
         plugin.debug("Flushing " + dirtySpawners.size() + " modified and " + deletedSpawners.size() + " deleted spawners to database");
+        writeBehind.requestFlush();
+    }
 
-        Scheduler.runTaskAsync(() -> {
-            try {
-                // Handle updates
-                if (!dirtySpawners.isEmpty()) {
-                    Set<String> toUpdate = new HashSet<>(dirtySpawners);
-                    dirtySpawners.removeAll(toUpdate);
+    @Override
+    public boolean hasPendingChanges(String spawnerId) {
+        return dirtySpawners.contains(spawnerId) || deletedSpawners.contains(spawnerId) || writeBehind.isInFlight(spawnerId);
+    }
 
-                    saveSpawnerBatch(toUpdate);
-                }
+    @Override
+    public WriteBehindScheduler getWriteBehind() {
+        return writeBehind;
+    }
 
-                // Handle deletes
-                if (!deletedSpawners.isEmpty()) {
-                    Set<String> toDelete = new HashSet<>(deletedSpawners);
-                    deletedSpawners.removeAll(toDelete);
+    @Override
+    public PersistenceExecutor getPersistenceExecutor() {
+        return persistenceExecutor;
+    }
 
-                    deleteSpawnerBatch(toDelete);
-                }
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "Error during database flush", e);
-                // Re-add failed items back to dirty lists
-                // Note: In production, might want more sophisticated retry logic
-            } finally {
-                isSaving = false;
-            }
-        });
+    public CrossServerQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    private int writeChanges(int maxChanges) {
+        // Failed saves and deletes are re-added to the dirty lists by the batch methods
+        Set<String> toUpdate = writeBehind.take(dirtySpawners, maxChanges);
+        Set<String> toDelete = writeBehind.take(deletedSpawners, maxChanges - toUpdate.size());
+
+        saveSpawnerBatch(toUpdate);
+        deleteSpawnerBatch(toDelete);
+        return toUpdate.size() + toDelete.size();
     }
 
     private void saveSpawnerBatch(Set<String> spawnerIds) {
         if (spawnerIds.isEmpty()) return;
 
-        // Select appropriate SQL based on storage mode
-        String upsertSql = databaseManager.getStorageMode() == StorageMode.SQLITE
-                ? UPSERT_SQL_SQLITE
-                : UPSERT_SQL_MYSQL;
+        // Snapshot every changed spawner before writing any, so the batch is one consistent point in time.
+        // New or fully changed spawners get the upsert, the rest an UPDATE of only their changed columns,
+        // batched per combination of changes
+        boolean itemTable = databaseManager.isItemTableEnabled();
+        List<PendingSave> pending = new ArrayList<>();
+        List<PendingSave> fullSaves = new ArrayList<>();
+        Map<Integer, List<PendingSave>> partialSaves = new HashMap<>();
+
+        for (String spawnerId : spawnerIds) {
+            SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(spawnerId);
+            if (spawner == null) continue;
+
+            int fields = spawner.takeDirtyFields();
+            if (fields == 0) continue;
+
+            // Items changed per spawner, when inventories are stored in the item table
+            Set<VirtualInventory.ItemSignature> changedItems = Collections.emptySet();
+            if (itemTable && (fields & SpawnerData.DIRTY_INVENTORY) != 0 && spawner.getVirtualInventory() != null) {
+                changedItems = spawner.getVirtualInventory().drainChangedSignatures();
+            }
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(upsertSql)) {
+            PendingSave save = new PendingSave(spawner, SpawnerSnapshot.of(spawner), fields, changedItems);
+            pending.add(save);
+            if (fields == SpawnerData.DIRTY_ALL) {
+                fullSaves.add(save);
+            } else {
+                partialSaves.computeIfAbsent(fields, k -> new ArrayList<>()).add(save);
+            }
+        }
+
+        if (pending.isEmpty()) {
+            plugin.debug("No changed spawner fields to save to database");
+            return;
+        }
+
+        // Select appropriate SQL based on storage mode
+        String upsertSql = upsertSql(databaseManager.getStorageMode());
 
+        try (Connection conn = databaseManager.getConnection()) {
             conn.setAutoCommit(false);
+            int partialCount = 0;
 
-            for (String spawnerId : spawnerIds) {
-                SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(spawnerId);
-                if (spawner == null) continue;
+            try {
+                for (Map.Entry<Integer, List<PendingSave>> entry : partialSaves.entrySet()) {
+                    int fields = entry.getKey();
+                    List<PendingSave> saves = entry.getValue();
 
-                setSpawnerParameters(stmt, spawner);
-                stmt.addBatch();
-            }
+                    PreparedStatement stmt = databaseManager.prepareCached(conn, UPDATE_SQL[fields]);
+                    try {
+                        for (PendingSave save : saves) {
+                            setUpdateParameters(stmt, save.snapshot(), fields);
+                            stmt.addBatch();
+                        }
+
+                        int[] results = stmt.executeBatch();
+                        for (int i = 0; i < results.length && i < saves.size(); i++) {
+                            if (results[i] == 0) {
+                                // Row is missing (e.g. deleted from another server), write the whole spawner
+                                fullSaves.add(saves.get(i));
+                            } else {
+                                partialCount++;
+                            }
+                        }
+                    } finally {
+                        databaseManager.releaseCached(stmt);
+                    }
+                }
+
+                if (!fullSaves.isEmpty()) {
+                    PreparedStatement stmt = databaseManager.prepareCached(conn, upsertSql);
+                    try {
+                        for (PendingSave save : fullSaves) {
+                            setSnapshotParameters(stmt, save.snapshot());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    } finally {
+                        databaseManager.releaseCached(stmt);
+                    }
+                }
+
+                if (itemTable) {
+                    Set<PendingSave> fullSaveSet = Collections.newSetFromMap(new IdentityHashMap<>());
+                    fullSaveSet.addAll(fullSaves);
+                    writeItemRows(conn, pending, fullSaveSet);
+                }
 
-            stmt.executeBatch();
-            conn.commit();
-            plugin.debug("Saved " + spawnerIds.size() + " spawners to database");
+                CrossServerQueryCache.bumpVersion(conn, databaseManager.getStorageMode(), serverName);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            queryCache.requestPoll();
+            plugin.debug("Saved " + pending.size() + " spawners to database (" + fullSaves.size()
+                    + " full, " + partialCount + " partial)");
 
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error saving spawner batch to database", e);
-            // Re-add to dirty list for retry
+            // Re-add to dirty list for retry, with the fields and items that were not saved
+            for (PendingSave save : pending) {
+                save.spawner().markDirty(save.fields());
+                if (!save.changedItems().isEmpty()) {
+                    save.spawner().getVirtualInventory().markChanged(save.changedItems());
+                }
+            }
             dirtySpawners.addAll(spawnerIds);
         }
     }
 
+    /**
+     * Upserts the item table rows of changed items, and deletes the rows of items that are gone.
+     * @param fullSaves Saves whose rows may be missing for unchanged items, these get all their rows written
+     */
+    private void writeItemRows(Connection conn, List<PendingSave> saves, Set<PendingSave> fullSaves) throws SQLException {
+        String upsertSql = databaseManager.getStorageMode() == StorageMode.SQLITE
+                ? SpawnerItemTable.UPSERT_SQL_SQLITE
+                : SpawnerItemTable.UPSERT_SQL_MYSQL;
+
+        PreparedStatement upsert = databaseManager.prepareCached(conn, upsertSql);
+        PreparedStatement delete = null;
+        try {
+            delete = databaseManager.prepareCached(conn, SpawnerItemTable.DELETE_ITEM_SQL);
+            int upserted = 0;
+            int deleted = 0;
+            int spawners = 0;
+
+            for (PendingSave save : saves) {
+                boolean full = fullSaves.contains(save);
+                if (save.changedItems().isEmpty() && !full) continue;
+                spawners++;
+
+                Map<String, Long> amounts = SpawnerItemTable.amountsByKey(save.snapshot().items());
+                Set<String> keys = new HashSet<>();
+                for (VirtualInventory.ItemSignature signature : save.changedItems()) {
+                    keys.add(ItemStackSerializer.getItemKey(signature.getTemplateRef()));
+                }
+                if (full) {
+                    keys.addAll(amounts.keySet());
+                }
+
+                for (String key : keys) {
+                    long amount = amounts.getOrDefault(key, 0L);
+                    PreparedStatement stmt = amount > 0 ? upsert : delete;
+                    stmt.setString(1, serverName);
+                    stmt.setString(2, save.snapshot().spawnerId());
+                    stmt.setString(3, key);
+                    if (amount > 0) {
+                        stmt.setLong(4, amount);
+                        upserted++;
+                    } else {
+                        deleted++;
+                    }
+                    stmt.addBatch();
+                }
+            }
+
+            if (upserted > 0) upsert.executeBatch();
+            if (deleted > 0) delete.executeBatch();
+            plugin.debug("Wrote " + upserted + " and deleted " + deleted + " item rows for " + spawners + " spawners");
+        } finally {
+            databaseManager.releaseCached(upsert);
+            databaseManager.releaseCached(delete);
+        }
+    }
+
     private void deleteSpawnerBatch(Set<String> spawnerIds) {
         if (spawnerIds.isEmpty()) return;
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
-
+        try (Connection conn = databaseManager.getConnection()) {
             conn.setAutoCommit(false);
 
-            for (String spawnerId : spawnerIds) {
-                stmt.setString(1, serverName);
-                stmt.setString(2, spawnerId);
-                stmt.addBatch();
-            }
+            try {
+                PreparedStatement stmt = databaseManager.prepareCached(conn, DELETE_SQL);
+                try {
+                    for (String spawnerId : spawnerIds) {
+                        stmt.setString(1, serverName);
+                        stmt.setString(2, spawnerId);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                } finally {
+                    databaseManager.releaseCached(stmt);
+                }
+
+                if (databaseManager.isItemTableEnabled()) {
+                    PreparedStatement itemStmt = databaseManager.prepareCached(conn, SpawnerItemTable.DELETE_SPAWNER_SQL);
+                    try {
+                        for (String spawnerId : spawnerIds) {
+                            itemStmt.setString(1, serverName);
+                            itemStmt.setString(2, spawnerId);
+                            itemStmt.addBatch();
+                        }
+                        itemStmt.executeBatch();
+                    } finally {
+                        databaseManager.releaseCached(itemStmt);
+                    }
+                }
 
-            stmt.executeBatch();
-            conn.commit();
+                CrossServerQueryCache.bumpVersion(conn, databaseManager.getStorageMode(), serverName);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            queryCache.requestPoll();
             plugin.debug("Deleted " + spawnerIds.size() + " spawners from database");
 
         } catch (SQLException e) {
@@ -298,63 +534,186 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
         }
     }
 
-    private void setSpawnerParameters(PreparedStatement stmt, SpawnerData spawner) throws SQLException {
-        Location loc = spawner.getSpawnerLocation();
+    private void setSnapshotParameters(PreparedStatement stmt, SpawnerSnapshot snapshot) throws SQLException {
+        // With the item table the inventory goes to item rows, and the empty state inventory leaves inventory_data empty
+        setRecordParameters(stmt, serverName,
+                databaseManager.isItemTableEnabled() ? snapshot.state() : snapshot.toRecord(), totalItems(snapshot.items()));
+    }
+
+    private static long totalItems(Map<VirtualInventory.ItemSignature, Long> items) {
+        long total = 0;
+        for (long amount : items.values()) {
+            total += amount;
+        }
+        return total;
+    }
+
+    /**
+     * Binds the columns of the given dirty field groups, in {@link #DIRTY_GROUP_COLUMNS} order, then the key.
+     */
+    private void setUpdateParameters(PreparedStatement stmt, SpawnerSnapshot snapshot, int fields) throws SQLException {
+        SpawnerRecord state = snapshot.state();
+        int index = 1;
+        if ((fields & SpawnerData.DIRTY_EXP) != 0) {
+            stmt.setInt(index++, state.spawnerExp());
+            stmt.setLong(index++, state.lastSpawnTime());
+            stmt.setBoolean(index++, state.atCapacity());
+        }
+        if ((fields & SpawnerData.DIRTY_INVENTORY) != 0) {
+            if (databaseManager.isItemTableEnabled()) {
+                // Items go to the item table, inventory_data stays empty
+                stmt.setString(index++, null);
+            } else {
+                stmt.setString(index++, toInventoryData(InventoryCodec.encode(snapshot.items())));
+            }
+            stmt.setLong(index++, totalItems(snapshot.items()));
+        }
+        if ((fields & SpawnerData.DIRTY_STACK) != 0) {
+            stmt.setInt(index++, state.stackSize());
+            stmt.setInt(index++, state.maxStackSize());
+            stmt.setInt(index++, state.maxSpawnerLootSlots());
+            stmt.setInt(index++, state.maxStoredExp());
+            stmt.setInt(index++, state.minMobs());
+            stmt.setInt(index++, state.maxMobs());
+        }
+        if ((fields & SpawnerData.DIRTY_SETTINGS) != 0) {
+            stmt.setString(index++, state.entityType());
+            stmt.setString(index++, state.itemSpawnerMaterial());
+            stmt.setBoolean(index++, state.spawnerActive());
+            stmt.setInt(index++, state.spawnerRange());
+            stmt.setBoolean(index++, state.spawnerStop());
+            stmt.setLong(index++, state.spawnDelay());
+            stmt.setString(index++, state.lastInteractedPlayer());
+            stmt.setString(index++, state.preferredSortItem());
+        }
+        if ((fields & SpawnerData.DIRTY_FILTERS) != 0) {
+            stmt.setString(index++, state.filteredItems());
+        }
+        stmt.setString(index++, serverName);
+        stmt.setString(index, state.spawnerId());
+    }
+
+    /**
+     * Upsert of all smart_spawners columns for the storage mode, bound by
+     * {@link #setRecordParameters(PreparedStatement, String, SpawnerRecord, long)}.
+     */
+    static String upsertSql(StorageMode storageMode) {
+        return storageMode == StorageMode.SQLITE ? UPSERT_SQL_SQLITE : UPSERT_SQL_MYSQL;
+    }
 
-        stmt.setString(1, spawner.getSpawnerId());
+    static void setRecordParameters(PreparedStatement stmt, String serverName, SpawnerRecord record,
+                                    long totalItems) throws SQLException {
+        stmt.setString(1, record.spawnerId());
         stmt.setString(2, serverName);
-        stmt.setString(3, loc.getWorld().getName());
-        stmt.setInt(4, loc.getBlockX());
-        stmt.setInt(5, loc.getBlockY());
-        stmt.setInt(6, loc.getBlockZ());
-        stmt.setString(7, spawner.getEntityType().name());
-        stmt.setString(8, spawner.isItemSpawner() ? spawner.getSpawnedItemMaterial().name() : null);
-        stmt.setInt(9, spawner.getSpawnerExp());
-        stmt.setBoolean(10, spawner.getSpawnerActive());
-        stmt.setInt(11, spawner.getSpawnerRange());
-        stmt.setBoolean(12, spawner.getSpawnerStop().get());
-        stmt.setLong(13, spawner.getSpawnDelay());
-        stmt.setInt(14, spawner.getMaxSpawnerLootSlots());
-        stmt.setInt(15, spawner.getMaxStoredExp());
-        stmt.setInt(16, spawner.getMinMobs());
-        stmt.setInt(17, spawner.getMaxMobs());
-        stmt.setInt(18, spawner.getStackSize());
-        stmt.setInt(19, spawner.getMaxStackSize());
-        stmt.setLong(20, spawner.getLastSpawnTime());
-        stmt.setBoolean(21, spawner.getIsAtCapacity());
-        stmt.setString(22, spawner.getLastInteractedPlayer());
-        stmt.setString(23, spawner.getPreferredSortItem() != null ? spawner.getPreferredSortItem().name() : null);
-        stmt.setString(24, serializeFilteredItems(spawner.getFilteredItems()));
-        stmt.setString(25, serializeInventory(spawner.getVirtualInventory()));
+        stmt.setString(3, record.worldName());
+        stmt.setInt(4, record.x());
+        stmt.setInt(5, record.y());
+        stmt.setInt(6, record.z());
+        stmt.setString(7, record.entityType());
+        stmt.setString(8, record.itemSpawnerMaterial());
+        stmt.setInt(9, record.spawnerExp());
+        stmt.setBoolean(10, record.spawnerActive());
+        stmt.setInt(11, record.spawnerRange());
+        stmt.setBoolean(12, record.spawnerStop());
+        stmt.setLong(13, record.spawnDelay());
+        stmt.setInt(14, record.maxSpawnerLootSlots());
+        stmt.setInt(15, record.maxStoredExp());
+        stmt.setInt(16, record.minMobs());
+        stmt.setInt(17, record.maxMobs());
+        stmt.setInt(18, record.stackSize());
+        stmt.setInt(19, record.maxStackSize());
+        stmt.setLong(20, record.lastSpawnTime());
+        stmt.setBoolean(21, record.atCapacity());
+        stmt.setString(22, record.lastInteractedPlayer());
+        stmt.setString(23, record.preferredSortItem());
+        stmt.setString(24, record.filteredItems());
+        stmt.setString(25, toInventoryData(record.inventory()));
+        stmt.setLong(26, totalItems);
     }
 
-    @Override
-    public Map<String, SpawnerData> loadAllSpawnersRaw() {
-        Map<String, SpawnerData> loadedSpawners = new HashMap<>();
+    /**
+     * Upserts raw spawner records, used by conversions from other storage modes.
+     * @param records The records to write
+     * @return true if every record was written
+     */
+    public boolean saveRecords(Collection<SpawnerRecord> records) {
+        if (records.isEmpty()) return true;
+
+        String upsertSql = upsertSql(databaseManager.getStorageMode());
 
         try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(upsertSql)) {
+
+            conn.setAutoCommit(false);
+            int batchCount = 0;
+            final int BATCH_SIZE = 100;
+
+            for (SpawnerRecord record : records) {
+                setRecordParameters(stmt, serverName, record, InventoryCodec.totalAmount(record.inventory()));
+                stmt.addBatch();
+
+                if (++batchCount >= BATCH_SIZE) {
+                    stmt.executeBatch();
+                    conn.commit();
+                    batchCount = 0;
+                }
+            }
+
+            if (batchCount > 0) {
+                stmt.executeBatch();
+                conn.commit();
+            }
+
+            // The records carry their inventory in inventory_data, older item rows would take precedence
+            if (SpawnerItemTable.exists(conn)) {
+                try (PreparedStatement itemStmt = conn.prepareStatement(SpawnerItemTable.DELETE_SPAWNER_SQL)) {
+                    for (SpawnerRecord record : records) {
+                        itemStmt.setString(1, serverName);
+                        itemStmt.setString(2, record.spawnerId());
+                        itemStmt.addBatch();
+                    }
+                    itemStmt.executeBatch();
+                    conn.commit();
+                }
+            }
+            return true;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error saving spawner records to database", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void streamSpawnerRecords(Consumer<SpawnerRecord> consumer) {
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_SQL)) {
 
+            boolean itemTable = databaseManager.isItemTableEnabled();
+            Map<String, List<String>> itemEntries = Collections.emptyMap();
+            if (itemTable) {
+                try (PreparedStatement itemStmt = conn.prepareStatement(SpawnerItemTable.SELECT_SERVER_SQL)) {
+                    itemStmt.setString(1, serverName);
+                    itemEntries = SpawnerItemTable.readEntries(itemStmt);
+                }
+            }
+
             stmt.setString(1, serverName);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     String spawnerId = rs.getString("spawner_id");
                     try {
-                        SpawnerData spawner = loadSpawnerFromResultSet(rs);
-                        loadedSpawners.put(spawnerId, spawner);
-
-                        // Cache location for WorldEventHandler
-                        if (spawner == null) {
-                            String worldName = rs.getString("world_name");
-                            int x = rs.getInt("loc_x");
-                            int y = rs.getInt("loc_y");
-                            int z = rs.getInt("loc_z");
-                            locationCache.put(spawnerId, String.format("%s,%d,%d,%d", worldName, x, y, z));
+                        SpawnerRecord record = readRecord(rs);
+                        List<String> items = itemEntries.get(spawnerId);
+                        if (items != null) {
+                            record = record.withInventory(InventoryCodec.fromLegacy(items));
+                        } else if (itemTable && !InventoryCodec.isEmpty(record.inventory())) {
+                            legacyInventorySpawners.add(spawnerId);
                         }
+                        consumer.accept(record);
                     } catch (Exception e) {
-                        plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
-                        loadedSpawners.put(spawnerId, null);
+                        plugin.debug("Error reading spawner " + spawnerId + ": " + e.getMessage());
                     }
                 }
             }
@@ -362,21 +721,45 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error loading spawners from database", e);
         }
+    }
 
-        return loadedSpawners;
+    @Override
+    public SpawnerData buildSpawner(SpawnerRecord record) {
+        SpawnerData spawner = record.toSpawnerData(plugin, false);
+        if (spawner != null && legacyInventorySpawners.remove(record.spawnerId())) {
+            moveInventoryToItemTable(spawner);
+        }
+        return spawner;
     }
 
     @Override
     public SpawnerData loadSpecificSpawner(String spawnerId) {
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_ONE_SQL)) {
 
+            List<String> itemEntries = null;
+            if (databaseManager.isItemTableEnabled()) {
+                try (PreparedStatement itemStmt = conn.prepareStatement(SpawnerItemTable.SELECT_SPAWNER_SQL)) {
+                    itemStmt.setString(1, serverName);
+                    itemStmt.setString(2, spawnerId);
+                    itemEntries = SpawnerItemTable.readEntries(itemStmt).get(spawnerId);
+                }
+            }
+
             stmt.setString(1, serverName);
             stmt.setString(2, spawnerId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return loadSpawnerFromResultSet(rs);
+                    SpawnerRecord record = readRecord(rs);
+                    if (itemEntries != null) {
+                        record = record.withInventory(InventoryCodec.fromLegacy(itemEntries));
+                    }
+                    SpawnerData spawner = record.toSpawnerData(plugin, false);
+                    if (spawner != null && itemEntries == null && databaseManager.isItemTableEnabled()) {
+                        moveInventoryToItemTable(spawner);
+                    }
+                    return spawner;
                 }
             }
 
@@ -396,7 +779,7 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
         }
 
         // Query database
-        try (Connection conn = databaseManager.getConnection();
+        try (Connection conn = databaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_LOCATION_SQL)) {
 
             stmt.setString(1, serverName);
@@ -421,148 +804,66 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
         return null;
     }
 
-    private SpawnerData loadSpawnerFromResultSet(ResultSet rs) throws SQLException {
-        String spawnerId = rs.getString("spawner_id");
-        String worldName = rs.getString("world_name");
-        int x = rs.getInt("loc_x");
-        int y = rs.getInt("loc_y");
-        int z = rs.getInt("loc_z");
-
-        org.bukkit.World world = Bukkit.getWorld(worldName);
-        if (world == null) {
-            plugin.debug("World not yet loaded for spawner " + spawnerId + ": " + worldName);
-            return null;
-        }
-
-        Location location = new Location(world, x, y, z);
-        String entityTypeStr = rs.getString("entity_type");
-        EntityType entityType;
-        try {
-            entityType = EntityType.valueOf(entityTypeStr);
-        } catch (IllegalArgumentException e) {
-            logger.severe("Invalid entity type for spawner " + spawnerId + ": " + entityTypeStr);
-            return null;
-        }
-
-        // Create spawner based on type
-        SpawnerData spawner;
-        String itemMaterialStr = rs.getString("item_spawner_material");
-        if (entityType == EntityType.ITEM && itemMaterialStr != null) {
-            try {
-                Material itemMaterial = Material.valueOf(itemMaterialStr);
-                spawner = new SpawnerData(spawnerId, location, itemMaterial, plugin);
-            } catch (IllegalArgumentException e) {
-                logger.severe("Invalid item spawner material for spawner " + spawnerId + ": " + itemMaterialStr);
-                return null;
-            }
-        } else {
-            spawner = new SpawnerData(spawnerId, location, entityType, plugin);
-        }
-
-        // Load settings
-        spawner.setSpawnerExpData(rs.getInt("spawner_exp"));
-        spawner.setSpawnerActive(rs.getBoolean("spawner_active"));
-        spawner.setSpawnerRange(rs.getInt("spawner_range"));
-        spawner.getSpawnerStop().set(rs.getBoolean("spawner_stop"));
-        spawner.setSpawnDelayFromConfig(); // Use config delay
-        spawner.setMaxSpawnerLootSlots(rs.getInt("max_spawner_loot_slots"));
-        spawner.setMaxStoredExp(rs.getInt("max_stored_exp"));
-        spawner.setMinMobs(rs.getInt("min_mobs"));
-        spawner.setMaxMobs(rs.getInt("max_mobs"));
-        spawner.setStackSize(rs.getInt("stack_size"), false); // Don't restart hopper during batch load
-        spawner.setMaxStackSize(rs.getInt("max_stack_size"));
-        spawner.setLastSpawnTime(rs.getLong("last_spawn_time"));
-        spawner.setIsAtCapacity(rs.getBoolean("is_at_capacity"));
-
-        // Load player interaction data
-        spawner.setLastInteractedPlayer(rs.getString("last_interacted_player"));
-
-        // Load preferred sort item
-        String preferredSortItemStr = rs.getString("preferred_sort_item");
-        if (preferredSortItemStr != null && !preferredSortItemStr.isEmpty()) {
-            try {
-                Material preferredSortItem = Material.valueOf(preferredSortItemStr);
-                spawner.setPreferredSortItem(preferredSortItem);
-            } catch (IllegalArgumentException e) {
-                logger.warning("Invalid preferred sort item for spawner " + spawnerId + ": " + preferredSortItemStr);
-            }
-        }
-
-        // Load filtered items
-        String filteredItemsStr = rs.getString("filtered_items");
-        if (filteredItemsStr != null && !filteredItemsStr.isEmpty()) {
-            deserializeFilteredItems(filteredItemsStr, spawner.getFilteredItems());
-        }
-
-        // Load inventory
-        String inventoryData = rs.getString("inventory_data");
-        VirtualInventory virtualInv = new VirtualInventory(spawner.getMaxSpawnerLootSlots());
-        if (inventoryData != null && !inventoryData.isEmpty()) {
-            try {
-                loadInventoryFromJson(inventoryData, virtualInv);
-            } catch (Exception e) {
-                logger.warning("Error loading inventory for spawner " + spawnerId + ": " + e.getMessage());
-            }
-        }
-        spawner.setVirtualInventory(virtualInv);
-
-        // Recalculate accumulated sell value after loading inventory
-        spawner.recalculateSellValue();
-
-        // Apply sort preference to virtual inventory
-        if (spawner.getPreferredSortItem() != null) {
-            virtualInv.sortItems(spawner.getPreferredSortItem());
-        }
-
-        // Restore the physical spawner block state for item spawners
-        if (spawner.isItemSpawner()) {
-            Scheduler.runLocationTask(location, () -> {
-                org.bukkit.block.Block block = location.getBlock();
-                if (block.getType() == Material.SPAWNER) {
-                    org.bukkit.block.BlockState state = block.getState(false);
-                    if (state instanceof org.bukkit.block.CreatureSpawner cs) {
-                        cs.setSpawnedType(EntityType.ITEM);
-                        ItemStack spawnedItem = new ItemStack(spawner.getSpawnedItemMaterial(), 1);
-                        cs.setSpawnedItem(spawnedItem);
-                        cs.update(true, false);
-                    }
-                }
-            });
+    /**
+     * Queues a spawner loaded from inventory_data so the next save moves its inventory into item rows.
+     */
+    private void moveInventoryToItemTable(SpawnerData spawner) {
+        VirtualInventory virtualInv = spawner.getVirtualInventory();
+        if (virtualInv.getTotalItems() > 0) {
+            virtualInv.markChanged(virtualInv.getConsolidatedItems().keySet());
+            spawner.markDirty(SpawnerData.DIRTY_INVENTORY);
+            dirtySpawners.add(spawner.getSpawnerId());
         }
+    }
 
-        return spawner;
+    /**
+     * Reads the current smart_spawners row without building the spawner.
+     * The inventory comes from inventory_data only, item table rows are not included.
+     */
+    public static SpawnerRecord readRecord(ResultSet rs) throws SQLException {
+        return new SpawnerRecord(
+                rs.getString("spawner_id"),
+                rs.getString("world_name"),
+                rs.getInt("loc_x"),
+                rs.getInt("loc_y"),
+                rs.getInt("loc_z"),
+                rs.getString("entity_type"),
+                rs.getString("item_spawner_material"),
+                rs.getInt("spawner_exp"),
+                rs.getBoolean("spawner_active"),
+                rs.getInt("spawner_range"),
+                rs.getBoolean("spawner_stop"),
+                rs.getLong("spawn_delay"),
+                rs.getInt("max_spawner_loot_slots"),
+                rs.getInt("max_stored_exp"),
+                rs.getInt("min_mobs"),
+                rs.getInt("max_mobs"),
+                rs.getInt("stack_size"),
+                rs.getInt("max_stack_size"),
+                rs.getLong("last_spawn_time"),
+                rs.getBoolean("is_at_capacity"),
+                rs.getString("last_interacted_player"),
+                rs.getString("preferred_sort_item"),
+                rs.getString("filtered_items"),
+                readInventoryData(rs.getString("inventory_data")));
     }
 
     @Override
     public void shutdown() {
-        if (saveTask != null) {
-            saveTask.cancel();
-            saveTask = null;
+        writeBehind.stop();
+        if (checkpointTask != null) {
+            checkpointTask.cancel();
+            checkpointTask = null;
         }
+        persistenceExecutor.shutdown();
 
         // Perform synchronous flush on shutdown
         if (!dirtySpawners.isEmpty() || !deletedSpawners.isEmpty()) {
-            try {
-                isSaving = true;
-                logger.info("Saving " + dirtySpawners.size() + " spawners to database on shutdown...");
-
-                if (!dirtySpawners.isEmpty()) {
-                    saveSpawnerBatch(new HashSet<>(dirtySpawners));
-                }
-
-                if (!deletedSpawners.isEmpty()) {
-                    deleteSpawnerBatch(new HashSet<>(deletedSpawners));
-                }
-
-                dirtySpawners.clear();
-                deletedSpawners.clear();
-                logger.info("Database shutdown save completed.");
-
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "Error during database shutdown flush", e);
-            } finally {
-                isSaving = false;
-            }
+            logger.info("Saving " + dirtySpawners.size() + " spawners to database on shutdown...");
+            writeBehind.flushAll();
+            dirtySpawners.clear();
+            deletedSpawners.clear();
+            logger.info("Database shutdown save completed.");
         }
 
         locationCache.clear();
@@ -570,72 +871,51 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
 
     // ============== Serialization Helpers ==============
 
-    private String serializeFilteredItems(Set<Material> filteredItems) {
-        if (filteredItems == null || filteredItems.isEmpty()) {
-            return null;
-        }
-        return filteredItems.stream()
-                .map(Material::name)
-                .collect(Collectors.joining(","));
-    }
-
-    private void deserializeFilteredItems(String data, Set<Material> filteredItems) {
-        if (data == null || data.isEmpty()) return;
-
-        String[] materialNames = data.split(",");
-        for (String materialName : materialNames) {
-            try {
-                Material material = Material.valueOf(materialName.trim());
-                filteredItems.add(material);
-            } catch (IllegalArgumentException e) {
-                logger.warning("Invalid material in filtered items: " + materialName);
-            }
-        }
+    /**
+     * Encodes an inventory for the inventory_data column.
+     * @param inventory {@link InventoryCodec} data
+     * @return The data as base64, or null if the inventory is empty
+     */
+    public static String toInventoryData(byte[] inventory) {
+        return InventoryCodec.toBase64(inventory);
     }
 
-    private String serializeInventory(VirtualInventory virtualInv) {
-        if (virtualInv == null) {
-            return null;
-        }
-
-        Map<VirtualInventory.ItemSignature, Long> items = virtualInv.getConsolidatedItems();
-        if (items.isEmpty()) {
-            return null;
-        }
-
-        // Use existing ItemStackSerializer format, then join with a delimiter
-        List<String> serializedItems = ItemStackSerializer.serializeInventory(items);
-        if (serializedItems.isEmpty()) {
-            return null;
+    /**
+     * Reads the inventory_data column, which holds base64 {@link InventoryCodec} data or, when written
+     * by an older version, a JSON-like array of serialized entries.
+     * @param data The stored column value
+     * @return {@link InventoryCodec} data
+     * @throws IllegalArgumentException if the data is in neither format
+     */
+    public static byte[] readInventoryData(String data) {
+        if (data == null || data.isEmpty()) {
+            return InventoryCodec.EMPTY;
         }
-
-        // Use a JSON-like array format that's easy to parse
-        // Format: ["item1:count","item2;damage:count:count",...]
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        for (int i = 0; i < serializedItems.size(); i++) {
-            if (i > 0) sb.append(",");
-            // Escape any quotes in the string and wrap in quotes
-            sb.append("\"").append(serializedItems.get(i).replace("\"", "\\\"")).append("\"");
+        if (data.startsWith("[")) {
+            return InventoryCodec.fromLegacy(parseInventoryJson(data));
         }
-        sb.append("]");
-        return sb.toString();
+        return InventoryCodec.fromBase64(data);
     }
 
-    private void loadInventoryFromJson(String jsonData, VirtualInventory virtualInv) {
-        if (jsonData == null || jsonData.isEmpty()) return;
+    /**
+     * Splits the JSON-like array stored in inventory_data back into serialized inventory entries.
+     * @param jsonData The stored array string
+     * @return Entries in the ItemStackSerializer format
+     * @throws IllegalArgumentException if the data is not an array
+     */
+    public static List<String> parseInventoryJson(String jsonData) {
+        List<String> items = new ArrayList<>();
+        if (jsonData == null || jsonData.isEmpty()) return items;
 
         // Parse our simple JSON array format
         // Format: ["item1:count","item2;damage:count:count",...]
         if (!jsonData.startsWith("[") || !jsonData.endsWith("]")) {
-            logger.warning("Invalid inventory JSON format: " + jsonData);
-            return;
+            throw new IllegalArgumentException("Invalid inventory JSON format: " + jsonData);
         }
 
         String content = jsonData.substring(1, jsonData.length() - 1);
-        if (content.isEmpty()) return;
+        if (content.isEmpty()) return items;
 
-        List<String> items = new ArrayList<>();
         StringBuilder current = new StringBuilder();
         boolean inQuotes = false;
         boolean escaped = false;
@@ -672,28 +952,7 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
             items.add(current.toString());
         }
 
-        if (items.isEmpty()) return;
-
-        // Use existing ItemStackSerializer to deserialize
-        try {
-            Map<ItemStack, Integer> deserializedItems = ItemStackSerializer.deserializeInventory(items);
-            for (Map.Entry<ItemStack, Integer> entry : deserializedItems.entrySet()) {
-                ItemStack item = entry.getKey();
-                int amount = entry.getValue();
-
-                if (item != null && amount > 0) {
-                    while (amount > 0) {
-                        int batchSize = Math.min(amount, item.getMaxStackSize());
-                        ItemStack batch = item.clone();
-                        batch.setAmount(batchSize);
-                        virtualInv.addItems(Collections.singletonList(batch));
-                        amount -= batchSize;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.warning("Error deserializing inventory data: " + e.getMessage());
-        }
+        return items;
     }
 
     // ============== Cross-Server Query Methods ==============
@@ -711,25 +970,30 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
      * @param callback Consumer to receive the list of server names on the main thread
      */
     public void getDistinctServerNamesAsync(Consumer<List<String>> callback) {
-        Scheduler.runTaskAsync(() -> {
+        persistenceExecutor.read(() -> {
             List<String> servers = new ArrayList<>();
             String sql = "SELECT DISTINCT server_name FROM smart_spawners ORDER BY server_name";
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql);
-                 ResultSet rs = stmt.executeQuery()) {
-
-                while (rs.next()) {
-                    servers.add(rs.getString("server_name"));
-                }
+            try (Connection conn = databaseManager.getReadConnection()) {
+                servers = cachedQuery(conn, null, CrossServerQueryCache.key("servers"), () -> {
+                    List<String> names = new ArrayList<>();
+                    try (PreparedStatement stmt = conn.prepareStatement(sql);
+                         ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            names.add(rs.getString("server_name"));
+                        }
+                    }
+                    return List.copyOf(names);
+                });
 
             } catch (SQLException e) {
                 logger.log(Level.SEVERE, "Error fetching server names from database", e);
             }
 
             // Return to main thread
-            Scheduler.runTask(() -> callback.accept(servers));
-        });
+            final List<String> result = servers;
+            Scheduler.runTask(() -> callback.accept(result));
+        }, () -> Scheduler.runTask(() -> callback.accept(new ArrayList<>())));
     }
 
     /**
@@ -738,27 +1002,31 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
      * @param callback Consumer to receive map of world name -> spawner count
      */
     public void getWorldsForServerAsync(String targetServer, Consumer<Map<String, Integer>> callback) {
-        Scheduler.runTaskAsync(() -> {
+        persistenceExecutor.read(() -> {
             Map<String, Integer> worlds = new LinkedHashMap<>();
             String sql = "SELECT world_name, COUNT(*) as count FROM smart_spawners WHERE server_name = ? GROUP BY world_name ORDER BY world_name";
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setString(1, targetServer);
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        worlds.put(rs.getString("world_name"), rs.getInt("count"));
+            try (Connection conn = databaseManager.getReadConnection()) {
+                worlds = cachedQuery(conn, targetServer, CrossServerQueryCache.key("worlds", targetServer), () -> {
+                    Map<String, Integer> counts = new LinkedHashMap<>();
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, targetServer);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                counts.put(rs.getString("world_name"), rs.getInt("count"));
+                            }
+                        }
                     }
-                }
+                    return Collections.unmodifiableMap(counts);
+                });
 
             } catch (SQLException e) {
                 logger.log(Level.SEVERE, "Error fetching worlds for server " + targetServer, e);
             }
 
-            Scheduler.runTask(() -> callback.accept(worlds));
-        });
+            final Map<String, Integer> result = worlds;
+            Scheduler.runTask(() -> callback.accept(result));
+        }, () -> Scheduler.runTask(() -> callback.accept(new LinkedHashMap<>())));
     }
 
     /**
@@ -768,21 +1036,20 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
      * @param callback Consumer to receive total stack count
      */
     public void getTotalStacksForWorldAsync(String targetServer, String worldName, Consumer<Integer> callback) {
-        Scheduler.runTaskAsync(() -> {
+        persistenceExecutor.read(() -> {
             int total = 0;
             String sql = "SELECT SUM(stack_size) as total FROM smart_spawners WHERE server_name = ? AND world_name = ?";
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setString(1, targetServer);
-                stmt.setString(2, worldName);
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        total = rs.getInt("total");
+            try (Connection conn = databaseManager.getReadConnection()) {
+                total = cachedQuery(conn, targetServer, CrossServerQueryCache.key("stacks", targetServer, worldName), () -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, targetServer);
+                        stmt.setString(2, worldName);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            return rs.next() ? rs.getInt("total") : 0;
+                        }
                     }
-                }
+                });
 
             } catch (SQLException e) {
                 logger.log(Level.SEVERE, "Error fetching stack total for " + targetServer + "/" + worldName, e);
@@ -790,72 +1057,7 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
 
             final int finalTotal = total;
             Scheduler.runTask(() -> callback.accept(finalTotal));
-        });
-    }
-
-    /**
-     * Asynchronously get spawner data for a specific server and world.
-     * Returns CrossServerSpawnerData objects that don't require Bukkit Location objects.
-     * @param targetServer The server name to query
-     * @param worldName The world name to query
-     * @param callback Consumer to receive list of spawner data
-     */
-    public void getCrossServerSpawnersAsync(String targetServer, String worldName, Consumer<List<CrossServerSpawnerData>> callback) {
-        Scheduler.runTaskAsync(() -> {
-            List<CrossServerSpawnerData> spawners = new ArrayList<>();
-            String sql = """
-                SELECT spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
-                       entity_type, stack_size, spawner_stop, last_interacted_player,
-                       spawner_exp, inventory_data
-                FROM smart_spawners
-                WHERE server_name = ? AND world_name = ?
-                ORDER BY stack_size DESC
-                """;
-
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setString(1, targetServer);
-                stmt.setString(2, worldName);
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        String spawnerId = rs.getString("spawner_id");
-                        String server = rs.getString("server_name");
-                        String world = rs.getString("world_name");
-                        int x = rs.getInt("loc_x");
-                        int y = rs.getInt("loc_y");
-                        int z = rs.getInt("loc_z");
-
-                        EntityType entityType;
-                        try {
-                            entityType = EntityType.valueOf(rs.getString("entity_type"));
-                        } catch (IllegalArgumentException e) {
-                            entityType = EntityType.PIG; // Fallback
-                        }
-
-                        int stackSize = rs.getInt("stack_size");
-                        boolean active = !rs.getBoolean("spawner_stop");
-                        String lastPlayer = rs.getString("last_interacted_player");
-                        int storedExp = rs.getInt("spawner_exp");
-
-                        // Estimate total items from inventory data
-                        long totalItems = estimateItemCount(rs.getString("inventory_data"));
-
-                        spawners.add(new CrossServerSpawnerData(
-                                spawnerId, server, world, x, y, z,
-                                entityType, stackSize, active, lastPlayer,
-                                storedExp, totalItems
-                        ));
-                    }
-                }
-
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error fetching spawners for " + targetServer + "/" + worldName, e);
-            }
-
-            Scheduler.runTask(() -> callback.accept(spawners));
-        });
+        }, () -> Scheduler.runTask(() -> callback.accept(0)));
     }
 
     /**
@@ -864,20 +1066,19 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
      * @param callback Consumer to receive the count
      */
     public void getSpawnerCountForServerAsync(String targetServer, Consumer<Integer> callback) {
-        Scheduler.runTaskAsync(() -> {
+        persistenceExecutor.read(() -> {
             int count = 0;
             String sql = "SELECT COUNT(*) as count FROM smart_spawners WHERE server_name = ?";
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setString(1, targetServer);
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        count = rs.getInt("count");
+            try (Connection conn = databaseManager.getReadConnection()) {
+                count = cachedQuery(conn, targetServer, CrossServerQueryCache.key("count", targetServer), () -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, targetServer);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            return rs.next() ? rs.getInt("count") : 0;
+                        }
                     }
-                }
+                });
 
             } catch (SQLException e) {
                 logger.log(Level.SEVERE, "Error fetching spawner count for " + targetServer, e);
@@ -885,90 +1086,152 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
 
             final int finalCount = count;
             Scheduler.runTask(() -> callback.accept(finalCount));
-        });
+        }, () -> Scheduler.runTask(() -> callback.accept(0)));
     }
 
     /**
-     * Asynchronously get spawner data for a specific server and world with filter and sort.
+     * Asynchronously get one page of spawner data for a specific server and world with filter and sort.
+     * Only the rows of the page are read, and item totals come from total_items instead of the inventories.
+     * Given the key of a neighbouring page's first or last spawner, the page is found by keyset from there,
+     * otherwise by offset.
      * @param targetServer The server name to query
      * @param worldName The world name to query
      * @param filter Filter option (ALL, ACTIVE, INACTIVE)
      * @param sort Sort option (DEFAULT, STACK_SIZE_DESC, STACK_SIZE_ASC)
-     * @param callback Consumer to receive list of spawner data
+     * @param page The page to get, clamped to the existing pages
+     * @param pageSize Spawners per page
+     * @param after Last spawner of the page before, or null
+     * @param before First spawner of the page after, or null
+     * @param callback Consumer to receive the page
      */
-    public void getCrossServerSpawnersAsync(String targetServer, String worldName,
-                                            String filter, String sort,
-                                            Consumer<List<CrossServerSpawnerData>> callback) {
-        Scheduler.runTaskAsync(() -> {
-            List<CrossServerSpawnerData> spawners = new ArrayList<>();
-
-            // Build dynamic SQL based on filter and sort
-            StringBuilder sql = new StringBuilder("""
-                SELECT spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
-                       entity_type, stack_size, spawner_stop, last_interacted_player,
-                       spawner_exp, inventory_data
-                FROM smart_spawners
-                WHERE server_name = ? AND world_name = ?
-                """);
-
-            // Add filter condition
-            if ("ACTIVE".equalsIgnoreCase(filter)) {
-                sql.append(" AND spawner_stop = FALSE");
-            } else if ("INACTIVE".equalsIgnoreCase(filter)) {
-                sql.append(" AND spawner_stop = TRUE");
-            }
+    public void getCrossServerSpawnerPageAsync(String targetServer, String worldName,
+                                               String filter, String sort, int page, int pageSize,
+                                               CrossServerSpawnerPage.Key after, CrossServerSpawnerPage.Key before,
+                                               Consumer<CrossServerSpawnerPage> callback) {
+        persistenceExecutor.read(() -> {
+            CrossServerSpawnerPage result = new CrossServerSpawnerPage(new ArrayList<>(), 1, 1, 0);
+
+            try (Connection conn = databaseManager.getReadConnection()) {
+                String cacheKey = CrossServerQueryCache.key("page", targetServer, worldName, filter, sort,
+                        page, pageSize, after, before);
+                result = cachedQuery(conn, targetServer, cacheKey, () -> readCrossServerSpawnerPage(conn,
+                        targetServer, worldName, filter, sort, page, pageSize, after, before));
 
-            // Add sort order
-            if ("STACK_SIZE_ASC".equalsIgnoreCase(sort)) {
-                sql.append(" ORDER BY stack_size ASC");
-            } else if ("STACK_SIZE_DESC".equalsIgnoreCase(sort)) {
-                sql.append(" ORDER BY stack_size DESC");
-            } else {
-                sql.append(" ORDER BY spawner_id ASC"); // DEFAULT sort
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error fetching spawners for " + targetServer + "/" + worldName, e);
             }
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            final CrossServerSpawnerPage finalResult = result;
+            Scheduler.runTask(() -> callback.accept(finalResult));
+        }, () -> Scheduler.runTask(() -> callback.accept(new CrossServerSpawnerPage(new ArrayList<>(), 1, 1, 0))));
+    }
 
-                stmt.setString(1, targetServer);
-                stmt.setString(2, worldName);
+    private CrossServerSpawnerPage readCrossServerSpawnerPage(Connection conn, String targetServer, String worldName,
+                                                              String filter, String sort, int page, int pageSize,
+                                                              CrossServerSpawnerPage.Key after,
+                                                              CrossServerSpawnerPage.Key before) throws SQLException {
+        String filterSql = "";
+        if ("ACTIVE".equalsIgnoreCase(filter)) {
+            filterSql = " AND spawner_stop = FALSE";
+        } else if ("INACTIVE".equalsIgnoreCase(filter)) {
+            filterSql = " AND spawner_stop = TRUE";
+        }
 
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        String spawnerId = rs.getString("spawner_id");
-                        String server = rs.getString("server_name");
-                        String world = rs.getString("world_name");
-                        int x = rs.getInt("loc_x");
-                        int y = rs.getInt("loc_y");
-                        int z = rs.getInt("loc_z");
-
-                        EntityType entityType;
-                        try {
-                            entityType = EntityType.valueOf(rs.getString("entity_type"));
-                        } catch (IllegalArgumentException e) {
-                            entityType = EntityType.PIG; // Fallback
-                        }
+        // DEFAULT sorts by ID only, the stack sorts break ties by ID so every row has a unique position
+        boolean byStack = "STACK_SIZE_ASC".equalsIgnoreCase(sort) || "STACK_SIZE_DESC".equalsIgnoreCase(sort);
+        boolean descending = "STACK_SIZE_DESC".equalsIgnoreCase(sort);
 
-                        int stackSize = rs.getInt("stack_size");
-                        boolean active = !rs.getBoolean("spawner_stop");
-                        String lastPlayer = rs.getString("last_interacted_player");
-                        int storedExp = rs.getInt("spawner_exp");
-                        long totalItems = estimateItemCount(rs.getString("inventory_data"));
-
-                        spawners.add(new CrossServerSpawnerData(
-                                spawnerId, server, world, x, y, z,
-                                entityType, stackSize, active, lastPlayer,
-                                storedExp, totalItems
-                        ));
-                    }
+        int total = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) AS count FROM smart_spawners WHERE server_name = ? AND world_name = ?" + filterSql)) {
+            stmt.setString(1, targetServer);
+            stmt.setString(2, worldName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    total = rs.getInt("count");
                 }
+            }
+        }
 
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error fetching spawners for " + targetServer + "/" + worldName, e);
+        int totalPages = Math.max(1, (total + pageSize - 1) / pageSize);
+        int currentPage = Math.max(1, Math.min(page, totalPages));
+        // Anchors are only valid for the page they were taken for, the list may have shrunk since
+        CrossServerSpawnerPage.Key anchor = currentPage != page ? null : after != null ? after : before;
+        boolean forward = anchor == null || after != null;
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(crossServerColumns())
+                .append(" FROM smart_spawners WHERE server_name = ? AND world_name = ?").append(filterSql);
+        if (anchor != null) {
+            // Rows after the anchor in list order, or before it when paging back
+            String op = forward != descending ? ">" : "<";
+            if (byStack) {
+                sql.append(" AND (stack_size ").append(op).append(" ? OR (stack_size = ? AND spawner_id ")
+                        .append(op).append(" ?))");
+            } else {
+                sql.append(" AND spawner_id ").append(op).append(" ?");
             }
+        }
+        // Paging back reads in reverse order, the rows are flipped after
+        String direction = forward != descending ? " ASC" : " DESC";
+        sql.append(" ORDER BY ");
+        if (byStack) {
+            sql.append("stack_size").append(direction).append(", ");
+        }
+        sql.append("spawner_id").append(direction).append(" LIMIT ?");
+        if (anchor == null) {
+            sql.append(" OFFSET ?");
+        }
 
-            Scheduler.runTask(() -> callback.accept(spawners));
-        });
+        List<CrossServerSpawnerData> spawners = new ArrayList<>(pageSize);
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            stmt.setString(index++, targetServer);
+            stmt.setString(index++, worldName);
+            if (anchor != null) {
+                if (byStack) {
+                    stmt.setInt(index++, anchor.stackSize());
+                    stmt.setInt(index++, anchor.stackSize());
+                }
+                stmt.setString(index++, anchor.spawnerId());
+            }
+            stmt.setInt(index++, pageSize);
+            if (anchor == null) {
+                stmt.setInt(index, (currentPage - 1) * pageSize);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    spawners.add(readCrossServerSpawner(rs));
+                }
+            }
+        }
+        if (!forward) {
+            Collections.reverse(spawners);
+        }
+
+        return new CrossServerSpawnerPage(List.copyOf(spawners), currentPage, totalPages, total);
+    }
+
+    @FunctionalInterface
+    private interface CrossServerQuery<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Serves a cross-server query from the cache while the queried server is unchanged, otherwise runs and caches it.
+     * @param server The queried server, or null for queries covering every server
+     */
+    private <T> T cachedQuery(Connection conn, String server, String key, CrossServerQuery<T> query) throws SQLException {
+        queryCache.pollIfDue(conn);
+        T cached = queryCache.get(key, server);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = queryCache.version(server);
+        T result = query.run();
+        queryCache.put(key, version, result);
+        return result;
     }
 
     /**
@@ -979,17 +1242,11 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
      */
     public void getRemoteSpawnerByIdAsync(String targetServer, String spawnerId,
                                           Consumer<CrossServerSpawnerData> callback) {
-        Scheduler.runTaskAsync(() -> {
+        persistenceExecutor.read(() -> {
             CrossServerSpawnerData spawnerData = null;
-            String sql = """
-                SELECT spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
-                       entity_type, stack_size, spawner_stop, last_interacted_player,
-                       spawner_exp, inventory_data
-                FROM smart_spawners
-                WHERE server_name = ? AND spawner_id = ?
-                """;
+            String sql = "SELECT " + crossServerColumns() + " FROM smart_spawners WHERE server_name = ? AND spawner_id = ?";
 
-            try (Connection conn = databaseManager.getConnection();
+            try (Connection conn = databaseManager.getReadConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
                 stmt.setString(1, targetServer);
@@ -997,29 +1254,7 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
 
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
-                        String world = rs.getString("world_name");
-                        int x = rs.getInt("loc_x");
-                        int y = rs.getInt("loc_y");
-                        int z = rs.getInt("loc_z");
-
-                        EntityType entityType;
-                        try {
-                            entityType = EntityType.valueOf(rs.getString("entity_type"));
-                        } catch (IllegalArgumentException e) {
-                            entityType = EntityType.PIG;
-                        }
-
-                        int stackSize = rs.getInt("stack_size");
-                        boolean active = !rs.getBoolean("spawner_stop");
-                        String lastPlayer = rs.getString("last_interacted_player");
-                        int storedExp = rs.getInt("spawner_exp");
-                        long totalItems = estimateItemCount(rs.getString("inventory_data"));
-
-                        spawnerData = new CrossServerSpawnerData(
-                                spawnerId, targetServer, world, x, y, z,
-                                entityType, stackSize, active, lastPlayer,
-                                storedExp, totalItems
-                        );
+                        spawnerData = readCrossServerSpawner(rs);
                     }
                 }
 
@@ -1029,7 +1264,7 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
 
             final CrossServerSpawnerData result = spawnerData;
             Scheduler.runTask(() -> callback.accept(result));
-        });
+        }, () -> Scheduler.runTask(() -> callback.accept(null)));
     }
 
     /**
@@ -1041,21 +1276,33 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
      */
     public void updateRemoteSpawnerStackSizeAsync(String targetServer, String spawnerId,
                                                    int newStackSize, Consumer<Boolean> callback) {
-        Scheduler.runTaskAsync(() -> {
+        persistenceExecutor.write(() -> {
             boolean success = false;
             String sql = "UPDATE smart_spawners SET stack_size = ?, updated_at = CURRENT_TIMESTAMP WHERE server_name = ? AND spawner_id = ?";
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (Connection conn = databaseManager.getConnection()) {
+                // The version bump commits with the update, so other servers never cache the old row as current
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, newStackSize);
+                    stmt.setString(2, targetServer);
+                    stmt.setString(3, spawnerId);
 
-                stmt.setInt(1, newStackSize);
-                stmt.setString(2, targetServer);
-                stmt.setString(3, spawnerId);
+                    int affected = stmt.executeUpdate();
+                    success = affected > 0;
 
-                int affected = stmt.executeUpdate();
-                success = affected > 0;
+                    if (success) {
+                        CrossServerQueryCache.bumpVersion(conn, databaseManager.getStorageMode(), targetServer);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    success = false;
+                    throw e;
+                }
 
                 if (success) {
+                    queryCache.requestPoll();
                     plugin.debug("Updated remote spawner " + spawnerId + " on " + targetServer + " to stack size " + newStackSize);
                 }
 
@@ -1065,7 +1312,7 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
 
             final boolean result = success;
             Scheduler.runTask(() -> callback.accept(result));
-        });
+        }, () -> Scheduler.runTask(() -> callback.accept(false)));
     }
 
     /**
@@ -1078,20 +1325,39 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
      */
     public void deleteRemoteSpawnerAsync(String targetServer, String spawnerId,
                                           Consumer<Boolean> callback) {
-        Scheduler.runTaskAsync(() -> {
+        persistenceExecutor.write(() -> {
             boolean success = false;
             String sql = "DELETE FROM smart_spawners WHERE server_name = ? AND spawner_id = ?";
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (Connection conn = databaseManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, targetServer);
+                    stmt.setString(2, spawnerId);
 
-                stmt.setString(1, targetServer);
-                stmt.setString(2, spawnerId);
+                    int affected = stmt.executeUpdate();
+                    success = affected > 0;
+
+                    if (itemTablePresent) {
+                        try (PreparedStatement itemStmt = conn.prepareStatement(SpawnerItemTable.DELETE_SPAWNER_SQL)) {
+                            itemStmt.setString(1, targetServer);
+                            itemStmt.setString(2, spawnerId);
+                            itemStmt.executeUpdate();
+                        }
+                    }
 
-                int affected = stmt.executeUpdate();
-                success = affected > 0;
+                    if (success) {
+                        CrossServerQueryCache.bumpVersion(conn, databaseManager.getStorageMode(), targetServer);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    success = false;
+                    throw e;
+                }
 
                 if (success) {
+                    queryCache.requestPoll();
                     logger.info("Deleted remote spawner " + spawnerId + " from " + targetServer + " database record");
                 }
 
@@ -1101,17 +1367,74 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
 
             final boolean result = success;
             Scheduler.runTask(() -> callback.accept(result));
-        });
+        }, () -> Scheduler.runTask(() -> callback.accept(false)));
+    }
+
+    /**
+     * Columns of cross-server query rows. inventory_data is only read for rows written before total_items existed.
+     */
+    private String crossServerColumns() {
+        return """
+                spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
+                       entity_type, stack_size, spawner_stop, last_interacted_player,
+                       spawner_exp, total_items,
+                       CASE WHEN total_items IS NULL THEN inventory_data END AS inventory_data""" + itemTotalColumn();
+    }
+
+    private String itemTotalColumn() {
+        return itemTablePresent ? ",\n       " + SpawnerItemTable.ITEM_TOTAL_COLUMN : "";
+    }
+
+    private CrossServerSpawnerData readCrossServerSpawner(ResultSet rs) throws SQLException {
+        EntityType entityType;
+        try {
+            entityType = EntityType.valueOf(rs.getString("entity_type"));
+        } catch (IllegalArgumentException e) {
+            entityType = EntityType.PIG; // Fallback
+        }
+
+        return new CrossServerSpawnerData(
+                rs.getString("spawner_id"), rs.getString("server_name"), rs.getString("world_name"),
+                rs.getInt("loc_x"), rs.getInt("loc_y"), rs.getInt("loc_z"),
+                entityType, rs.getInt("stack_size"), !rs.getBoolean("spawner_stop"),
+                rs.getString("last_interacted_player"), rs.getInt("spawner_exp"), readTotalItems(rs));
+    }
+
+    /**
+     * Gets the total item count of a cross-server query row, from total_items when the row has it.
+     */
+    private long readTotalItems(ResultSet rs) throws SQLException {
+        long storedTotal = rs.getLong("total_items");
+        if (!rs.wasNull()) {
+            return storedTotal;
+        }
+        // Rows written before total_items existed, summed by the database for spawners with item rows
+        if (itemTablePresent) {
+            long itemTotal = rs.getLong("item_total");
+            if (!rs.wasNull()) {
+                return itemTotal;
+            }
+        }
+        // Estimate total items from inventory data
+        return estimateItemCount(rs.getString("inventory_data"));
     }
 
     /**
-     * Estimate total item count from inventory JSON data.
+     * Estimate total item count from inventory data.
      */
     private long estimateItemCount(String inventoryData) {
         if (inventoryData == null || inventoryData.isEmpty()) {
             return 0;
         }
 
+        if (!inventoryData.startsWith("[")) {
+            try {
+                return InventoryCodec.totalAmount(InventoryCodec.fromBase64(inventoryData));
+            } catch (IllegalArgumentException e) {
+                return 0;
+            }
+        }
+
         long total = 0;
         // Simple regex to find numbers after colons (item counts)
         // Format: ["ITEM:count","ITEM:count",...]
@@ -1128,4 +1451,8 @@ public class SpawnerDatabaseHandler implements SpawnerStorage {
         }
         return total;
     }
+
+    private record PendingSave(SpawnerData spawner, SpawnerSnapshot snapshot, int fields,
+                               Set<VirtualInventory.ItemSignature> changedItems) {
+    }
 }
@@ -0,0 +1,155 @@
+package github.nighter.smartspawner.spawner.data.database;
+
+import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
+import github.nighter.smartspawner.spawner.utils.ItemStackSerializer;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * SQL helpers for the optional smart_spawner_items table, which stores spawner inventories as one row
+ * per item variant instead of the inventory_data column. Item keys are {@link ItemStackSerializer#getItemKey}
+ * keys, so a row converts to the serialized entry "item_key:amount".
+ * While a spawner has item rows they hold its inventory and its inventory_data is left empty.
+ */
+public final class SpawnerItemTable {
+    public static final String TABLE_NAME = "smart_spawner_items";
+
+    static final String UPSERT_SQL_MYSQL = """
+            INSERT INTO smart_spawner_items (server_name, spawner_id, item_key, amount)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE amount = VALUES(amount)
+            """;
+
+    static final String UPSERT_SQL_SQLITE = """
+            INSERT INTO smart_spawner_items (server_name, spawner_id, item_key, amount)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT(server_name, spawner_id, item_key) DO UPDATE SET amount = excluded.amount
+            """;
+
+    static final String DELETE_ITEM_SQL = """
+            DELETE FROM smart_spawner_items WHERE server_name = ? AND spawner_id = ? AND item_key = ?
+            """;
+
+    static final String DELETE_SPAWNER_SQL = """
+            DELETE FROM smart_spawner_items WHERE server_name = ? AND spawner_id = ?
+            """;
+
+    static final String SELECT_SERVER_SQL = """
+            SELECT spawner_id, item_key, amount FROM smart_spawner_items WHERE server_name = ?
+            """;
+
+    static final String SELECT_SPAWNER_SQL = """
+            SELECT spawner_id, item_key, amount FROM smart_spawner_items WHERE server_name = ? AND spawner_id = ?
+            """;
+
+    // Total item count of the spawner in the current smart_spawners row, for cross-server queries
+    static final String ITEM_TOTAL_COLUMN = """
+            (SELECT SUM(i.amount) FROM smart_spawner_items i
+             WHERE i.server_name = smart_spawners.server_name AND i.spawner_id = smart_spawners.spawner_id) AS item_total""";
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT server_name, spawner_id, item_key, amount FROM smart_spawner_items";
+
+    private static final String SET_INVENTORY_SQL = """
+            UPDATE smart_spawners SET inventory_data = ? WHERE server_name = ? AND spawner_id = ?
+            """;
+
+    private SpawnerItemTable() {
+    }
+
+    public static boolean exists(Connection conn) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getTables(conn.getCatalog(), null, TABLE_NAME, null)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Sums the amounts of an inventory by item key.
+     */
+    static Map<String, Long> amountsByKey(Map<VirtualInventory.ItemSignature, Long> items) {
+        Map<String, Long> amounts = new HashMap<>();
+        for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : items.entrySet()) {
+            amounts.merge(ItemStackSerializer.getItemKey(entry.getKey().getTemplateRef()), entry.getValue(), Long::sum);
+        }
+        return amounts;
+    }
+
+    /**
+     * Reads item rows into serialized inventory entries per spawner ID.
+     * @param stmt A query selecting spawner_id, item_key and amount, with its parameters set
+     */
+    static Map<String, List<String>> readEntries(PreparedStatement stmt) throws SQLException {
+        Map<String, List<String>> entries = new HashMap<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                entries.computeIfAbsent(rs.getString("spawner_id"), k -> new ArrayList<>())
+                        .add(rs.getString("item_key") + ":" + rs.getLong("amount"));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Moves all item rows back into the inventory_data column of their spawners and deletes them,
+     * used when the item table is turned off and before a database is copied elsewhere.
+     * @param conn Connection to the database holding both tables
+     * @param serverName Only move the rows of this server, or null for all servers
+     * @return The number of spawners whose inventory was moved
+     */
+    public static int foldIntoInventoryData(Connection conn, String serverName) throws SQLException {
+        if (!exists(conn)) {
+            return 0;
+        }
+
+        // server name -> spawner id -> entries
+        Map<String, Map<String, List<String>>> entries = new HashMap<>();
+        String sql = serverName != null ? SELECT_ALL_SQL + " WHERE server_name = ?" : SELECT_ALL_SQL;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (serverName != null) {
+                stmt.setString(1, serverName);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.computeIfAbsent(rs.getString("server_name"), k -> new HashMap<>())
+                            .computeIfAbsent(rs.getString("spawner_id"), k -> new ArrayList<>())
+                            .add(rs.getString("item_key") + ":" + rs.getLong("amount"));
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        int moved = 0;
+        try (PreparedStatement update = conn.prepareStatement(SET_INVENTORY_SQL);
+             PreparedStatement delete = conn.prepareStatement(DELETE_SPAWNER_SQL)) {
+            for (Map.Entry<String, Map<String, List<String>>> server : entries.entrySet()) {
+                for (Map.Entry<String, List<String>> spawner : server.getValue().entrySet()) {
+                    update.setString(1, SpawnerDatabaseHandler.toInventoryData(InventoryCodec.fromLegacy(spawner.getValue())));
+                    update.setString(2, server.getKey());
+                    update.setString(3, spawner.getKey());
+                    update.addBatch();
+
+                    delete.setString(1, server.getKey());
+                    delete.setString(2, spawner.getKey());
+                    delete.addBatch();
+                    moved++;
+                }
+            }
+            update.executeBatch();
+            delete.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return moved;
+    }
+}
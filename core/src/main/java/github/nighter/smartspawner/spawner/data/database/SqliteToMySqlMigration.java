@@ -1,6 +1,7 @@
 package github.nighter.smartspawner.spawner.data.database;
 
 import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
 import github.nighter.smartspawner.spawner.data.storage.StorageMode;
 
 import java.io.File;
@@ -10,6 +11,8 @@ import java.util.logging.Logger;
 
 /**
  * Handles one-time migration from SQLite database to MySQL/MariaDB.
+ * Rows are streamed from SQLite through a {@link MigrationPipeline}, which re-encodes inventories in
+ * parallel, writes in batches and resumes an interrupted migration from its last checkpoint.
  * After successful migration, the SQLite file is renamed to spawners.db.migrated
  * to prevent re-migration.
  */
@@ -17,46 +20,9 @@ public class SqliteToMySqlMigration {
     private final SmartSpawner plugin;
     private final Logger logger;
     private final DatabaseManager mysqlManager;
-    private final String serverName;
 
     private static final String MIGRATED_FILE_SUFFIX = ".migrated";
 
-    // MySQL insert syntax (target)
-    private static final String INSERT_SQL_MYSQL = """
-            INSERT INTO smart_spawners (
-                spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
-                entity_type, item_spawner_material, spawner_exp, spawner_active,
-                spawner_range, spawner_stop, spawn_delay, max_spawner_loot_slots,
-                max_stored_exp, min_mobs, max_mobs, stack_size, max_stack_size,
-                last_spawn_time, is_at_capacity, last_interacted_player,
-                preferred_sort_item, filtered_items, inventory_data
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            ON DUPLICATE KEY UPDATE
-                world_name = VALUES(world_name),
-                loc_x = VALUES(loc_x),
-                loc_y = VALUES(loc_y),
-                loc_z = VALUES(loc_z),
-                entity_type = VALUES(entity_type),
-                item_spawner_material = VALUES(item_spawner_material),
-                spawner_exp = VALUES(spawner_exp),
-                spawner_active = VALUES(spawner_active),
-                spawner_range = VALUES(spawner_range),
-                spawner_stop = VALUES(spawner_stop),
-                spawn_delay = VALUES(spawn_delay),
-                max_spawner_loot_slots = VALUES(max_spawner_loot_slots),
-                max_stored_exp = VALUES(max_stored_exp),
-                min_mobs = VALUES(min_mobs),
-                max_mobs = VALUES(max_mobs),
-                stack_size = VALUES(stack_size),
-                max_stack_size = VALUES(max_stack_size),
-                last_spawn_time = VALUES(last_spawn_time),
-                is_at_capacity = VALUES(is_at_capacity),
-                last_interacted_player = VALUES(last_interacted_player),
-                preferred_sort_item = VALUES(preferred_sort_item),
-                filtered_items = VALUES(filtered_items),
-                inventory_data = VALUES(inventory_data)
-            """;
-
     private static final String SELECT_ALL_SQLITE = """
             SELECT spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
                    entity_type, item_spawner_material, spawner_exp, spawner_active,
@@ -65,13 +31,19 @@ public class SqliteToMySqlMigration {
                    last_spawn_time, is_at_capacity, last_interacted_player,
                    preferred_sort_item, filtered_items, inventory_data
             FROM smart_spawners
+            ORDER BY server_name, spawner_id
             """;
 
+    private static final String FINGERPRINT_SQLITE = "SELECT COUNT(*), MAX(updated_at) FROM smart_spawners";
+
+    // A row as read from SQLite, its inventory is decoded by the encoders
+    private record SourceRow(String serverName, SpawnerRecord record, String inventoryData) {
+    }
+
     public SqliteToMySqlMigration(SmartSpawner plugin, DatabaseManager mysqlManager) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.mysqlManager = mysqlManager;
-        this.serverName = mysqlManager.getServerName();
     }
 
     /**
@@ -137,93 +109,90 @@ public class SqliteToMySqlMigration {
 
         String sqliteJdbcUrl = "jdbc:sqlite:" + sqliteFile.getAbsolutePath();
 
-        int totalSpawners = 0;
-        int migratedCount = 0;
-        int failedCount = 0;
-
-        try (Connection sqliteConn = DriverManager.getConnection(sqliteJdbcUrl);
-             Connection mysqlConn = mysqlManager.getConnection();
-             PreparedStatement selectStmt = sqliteConn.prepareStatement(SELECT_ALL_SQLITE);
-             PreparedStatement insertStmt = mysqlConn.prepareStatement(INSERT_SQL_MYSQL)) {
-
-            mysqlConn.setAutoCommit(false);
-
-            try (ResultSet rs = selectStmt.executeQuery()) {
-                int batchCount = 0;
-                final int BATCH_SIZE = 100;
-
-                while (rs.next()) {
-                    totalSpawners++;
-
-                    try {
-                        // Transfer all columns
-                        insertStmt.setString(1, rs.getString("spawner_id"));
-                        insertStmt.setString(2, rs.getString("server_name"));
-                        insertStmt.setString(3, rs.getString("world_name"));
-                        insertStmt.setInt(4, rs.getInt("loc_x"));
-                        insertStmt.setInt(5, rs.getInt("loc_y"));
-                        insertStmt.setInt(6, rs.getInt("loc_z"));
-                        insertStmt.setString(7, rs.getString("entity_type"));
-                        insertStmt.setString(8, rs.getString("item_spawner_material"));
-                        insertStmt.setInt(9, rs.getInt("spawner_exp"));
-                        insertStmt.setBoolean(10, rs.getBoolean("spawner_active"));
-                        insertStmt.setInt(11, rs.getInt("spawner_range"));
-                        insertStmt.setBoolean(12, rs.getBoolean("spawner_stop"));
-                        insertStmt.setLong(13, rs.getLong("spawn_delay"));
-                        insertStmt.setInt(14, rs.getInt("max_spawner_loot_slots"));
-                        insertStmt.setInt(15, rs.getInt("max_stored_exp"));
-                        insertStmt.setInt(16, rs.getInt("min_mobs"));
-                        insertStmt.setInt(17, rs.getInt("max_mobs"));
-                        insertStmt.setInt(18, rs.getInt("stack_size"));
-                        insertStmt.setInt(19, rs.getInt("max_stack_size"));
-                        insertStmt.setLong(20, rs.getLong("last_spawn_time"));
-                        insertStmt.setBoolean(21, rs.getBoolean("is_at_capacity"));
-                        insertStmt.setString(22, rs.getString("last_interacted_player"));
-                        insertStmt.setString(23, rs.getString("preferred_sort_item"));
-                        insertStmt.setString(24, rs.getString("filtered_items"));
-                        insertStmt.setString(25, rs.getString("inventory_data"));
-
-                        insertStmt.addBatch();
-                        batchCount++;
-                        migratedCount++;
-
-                        // Execute batch every BATCH_SIZE records
-                        if (batchCount >= BATCH_SIZE) {
-                            insertStmt.executeBatch();
-                            mysqlConn.commit();
-                            batchCount = 0;
-                            logger.info("Migrated " + migratedCount + " spawners...");
-                        }
-                    } catch (Exception e) {
-                        logger.log(Level.WARNING, "Failed to migrate spawner: " + rs.getString("spawner_id"), e);
-                        failedCount++;
-                    }
-                }
-
-                // Execute remaining batch
-                if (batchCount > 0) {
-                    insertStmt.executeBatch();
-                    mysqlConn.commit();
-                }
+        MigrationPipeline.Result result;
+        try (Connection sqliteConn = DriverManager.getConnection(sqliteJdbcUrl)) {
+            // Only inventory_data is copied, so bring back inventories kept in the item table first
+            int folded = SpawnerItemTable.foldIntoInventoryData(sqliteConn, null);
+            if (folded > 0) {
+                plugin.debug("Moved " + folded + " SQLite item table inventories back to inventory_data");
             }
 
-            logger.info("Migration completed. Total: " + totalSpawners + ", Migrated: " + migratedCount + ", Failed: " + failedCount);
-
-            // Rename the SQLite file to prevent re-migration
-            if (failedCount == 0) {
-                File migratedFile = new File(plugin.getDataFolder(), sqliteFileName + MIGRATED_FILE_SUFFIX);
-                if (sqliteFile.renameTo(migratedFile)) {
-                    logger.info("SQLite file renamed to " + sqliteFileName + MIGRATED_FILE_SUFFIX);
-                } else {
-                    logger.warning("Failed to rename SQLite file. Manual cleanup may be required.");
-                }
+            long totalSpawners;
+            String fingerprint;
+            try (Statement stmt = sqliteConn.createStatement();
+                 ResultSet rs = stmt.executeQuery(FINGERPRINT_SQLITE)) {
+                rs.next();
+                totalSpawners = rs.getLong(1);
+                fingerprint = "sqlite:" + totalSpawners + ":" + rs.getString(2);
             }
+            logger.info("Found " + totalSpawners + " spawners to migrate.");
 
-            return failedCount == 0;
+            MigrationPipeline<SourceRow> pipeline = new MigrationPipeline<>(plugin, mysqlManager, "sqlite");
+            result = pipeline.run(fingerprint, totalSpawners,
+                    sink -> readRows(sqliteConn, sink),
+                    row -> new MigrationPipeline.Row(row.serverName(),
+                            row.record().withInventory(SpawnerDatabaseHandler.readInventoryData(row.inventoryData()))));
 
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Database error during SQLite to MySQL migration", e);
             return false;
         }
+
+        long migratedCount = result.migrated();
+        long failedCount = result.failed();
+        if (!result.complete()) {
+            logger.severe("Migration stopped after " + migratedCount + " spawners, it will resume on the next startup.");
+            return false;
+        }
+
+        logger.info("Migration completed. Migrated: " + migratedCount + ", Failed: " + failedCount);
+
+        // Rename the SQLite file to prevent re-migration
+        if (failedCount == 0) {
+            File migratedFile = new File(plugin.getDataFolder(), sqliteFileName + MIGRATED_FILE_SUFFIX);
+            if (sqliteFile.renameTo(migratedFile)) {
+                logger.info("SQLite file renamed to " + sqliteFileName + MIGRATED_FILE_SUFFIX);
+            } else {
+                logger.warning("Failed to rename SQLite file. Manual cleanup may be required.");
+            }
+        }
+
+        return failedCount == 0;
+    }
+
+    private void readRows(Connection sqliteConn, MigrationPipeline.EntrySink<SourceRow> sink) throws SQLException {
+        try (PreparedStatement selectStmt = sqliteConn.prepareStatement(SELECT_ALL_SQLITE);
+             ResultSet rs = selectStmt.executeQuery()) {
+            while (rs.next()) {
+                SpawnerRecord record = new SpawnerRecord(
+                        rs.getString("spawner_id"),
+                        rs.getString("world_name"),
+                        rs.getInt("loc_x"),
+                        rs.getInt("loc_y"),
+                        rs.getInt("loc_z"),
+                        rs.getString("entity_type"),
+                        rs.getString("item_spawner_material"),
+                        rs.getInt("spawner_exp"),
+                        rs.getBoolean("spawner_active"),
+                        rs.getInt("spawner_range"),
+                        rs.getBoolean("spawner_stop"),
+                        rs.getLong("spawn_delay"),
+                        rs.getInt("max_spawner_loot_slots"),
+                        rs.getInt("max_stored_exp"),
+                        rs.getInt("min_mobs"),
+                        rs.getInt("max_mobs"),
+                        rs.getInt("stack_size"),
+                        rs.getInt("max_stack_size"),
+                        rs.getLong("last_spawn_time"),
+                        rs.getBoolean("is_at_capacity"),
+                        rs.getString("last_interacted_player"),
+                        rs.getString("preferred_sort_item"),
+                        rs.getString("filtered_items"),
+                        null);
+                if (!sink.accept(new SourceRow(rs.getString("server_name"), record, rs.getString("inventory_data")))) {
+                    return;
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,130 @@
+package github.nighter.smartspawner.spawner.data.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Prepared statements kept open per physical connection, for drivers without a statement cache of their own.
+ *
+ * <p>The SQLite driver compiles every statement again on each prepare, while the MariaDB driver caches them
+ * itself ({@code cachePrepStmts}). Statements are prepared on the connection under the pool's proxy, so they stay
+ * open when the connection goes back to the pool, and are reused the next time the same connection is borrowed.
+ * Each connection keeps its most recently used statements up to the cache size.
+ *
+ * <p>Statements from {@link #prepare} are handed back with {@link #release} instead of being closed.
+ * A connection is only used by one thread while borrowed, so neither are its statements. The pool doesn't see
+ * these statements run, so transactions using them must roll back themselves on failure.
+ */
+public class StatementCache {
+    private final int maxPerConnection;
+    private final Map<Connection, Map<String, PreparedStatement>> statements = new WeakHashMap<>();
+    // Statements currently held in a connection's cache, anything else is closed on release
+    private final Set<PreparedStatement> cached = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Cached statements handed out and not released yet
+    private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param maxPerConnection Statements kept per connection, 0 to close every statement on release
+     */
+    public StatementCache(int maxPerConnection) {
+        this.maxPerConnection = Math.max(0, maxPerConnection);
+    }
+
+    /**
+     * Gets the cached statement for the SQL on this connection, or prepares it.
+     * Hand it back with {@link #release} when done; cached statements keep no parameters or batches between uses.
+     */
+    public PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        if (maxPerConnection == 0) {
+            return conn.prepareStatement(sql);
+        }
+
+        Connection physical = conn.unwrap(Connection.class);
+        synchronized (this) {
+            Map<String, PreparedStatement> byConnection = statements.computeIfAbsent(physical, c -> lruMap());
+            PreparedStatement stmt = byConnection.get(sql);
+            if (stmt != null && !stmt.isClosed()) {
+                inUse.add(stmt);
+                return stmt;
+            }
+        }
+
+        PreparedStatement stmt = physical.prepareStatement(sql);
+        synchronized (this) {
+            // Replaces a statement that was closed, e.g. by a failed batch
+            PreparedStatement previous = statements.computeIfAbsent(physical, c -> lruMap()).put(sql, stmt);
+            if (previous != null) {
+                cached.remove(previous);
+            }
+            cached.add(stmt);
+            inUse.add(stmt);
+        }
+        return stmt;
+    }
+
+    /**
+     * Hands back a statement from {@link #prepare}, clearing it for the next use or closing it if it isn't cached.
+     */
+    public void release(PreparedStatement stmt) throws SQLException {
+        if (stmt == null) return;
+
+        boolean keep;
+        synchronized (this) {
+            inUse.remove(stmt);
+            keep = cached.contains(stmt);
+        }
+        if (keep && !stmt.isClosed()) {
+            stmt.clearBatch();
+            stmt.clearParameters();
+        } else {
+            stmt.close();
+        }
+    }
+
+    /**
+     * Closes every cached statement, before the pool closes its connections.
+     */
+    public synchronized void clear() {
+        for (Map<String, PreparedStatement> byConnection : statements.values()) {
+            for (PreparedStatement stmt : byConnection.values()) {
+                closeQuietly(stmt);
+            }
+        }
+        statements.clear();
+        cached.clear();
+        inUse.clear();
+    }
+
+    private Map<String, PreparedStatement> lruMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= maxPerConnection) {
+                    return false;
+                }
+                // Evicted statements still in use are closed on release instead
+                PreparedStatement evicted = eldest.getValue();
+                cached.remove(evicted);
+                if (!inUse.contains(evicted)) {
+                    closeQuietly(evicted);
+                }
+                return true;
+            }
+        };
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+            // Connection is closing anyway
+        }
+    }
+}
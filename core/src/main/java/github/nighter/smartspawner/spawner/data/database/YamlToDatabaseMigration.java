@@ -1,21 +1,20 @@
 package github.nighter.smartspawner.spawner.data.database;
 
 import github.nighter.smartspawner.SmartSpawner;
-import github.nighter.smartspawner.spawner.data.storage.StorageMode;
+import github.nighter.smartspawner.spawner.data.SpawnerFileHandler;
+import github.nighter.smartspawner.spawner.data.SpawnerJournal;
+import github.nighter.smartspawner.spawner.data.storage.SpawnerRecord;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.entity.EntityType;
 import java.io.File;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Handles one-time migration from spawners_data.yml to database (MySQL or SQLite).
+ * Spawners are converted in parallel and written in batches by a {@link MigrationPipeline},
+ * which resumes an interrupted migration from its last checkpoint.
  * After successful migration, the YAML file is renamed to spawners_data.yml.migrated
  * to prevent re-migration.
  */
@@ -28,78 +27,6 @@ public class YamlToDatabaseMigration {
     private static final String YAML_FILE_NAME = "spawners_data.yml";
     private static final String MIGRATED_FILE_SUFFIX = ".migrated";
 
-    // MySQL/MariaDB insert syntax
-    private static final String INSERT_SQL_MYSQL = """
-            INSERT INTO smart_spawners (
-                spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
-                entity_type, item_spawner_material, spawner_exp, spawner_active,
-                spawner_range, spawner_stop, spawn_delay, max_spawner_loot_slots,
-                max_stored_exp, min_mobs, max_mobs, stack_size, max_stack_size,
-                last_spawn_time, is_at_capacity, last_interacted_player,
-                preferred_sort_item, filtered_items, inventory_data
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            ON DUPLICATE KEY UPDATE
-                world_name = VALUES(world_name),
-                loc_x = VALUES(loc_x),
-                loc_y = VALUES(loc_y),
-                loc_z = VALUES(loc_z),
-                entity_type = VALUES(entity_type),
-                item_spawner_material = VALUES(item_spawner_material),
-                spawner_exp = VALUES(spawner_exp),
-                spawner_active = VALUES(spawner_active),
-                spawner_range = VALUES(spawner_range),
-                spawner_stop = VALUES(spawner_stop),
-                spawn_delay = VALUES(spawn_delay),
-                max_spawner_loot_slots = VALUES(max_spawner_loot_slots),
-                max_stored_exp = VALUES(max_stored_exp),
-                min_mobs = VALUES(min_mobs),
-                max_mobs = VALUES(max_mobs),
-                stack_size = VALUES(stack_size),
-                max_stack_size = VALUES(max_stack_size),
-                last_spawn_time = VALUES(last_spawn_time),
-                is_at_capacity = VALUES(is_at_capacity),
-                last_interacted_player = VALUES(last_interacted_player),
-                preferred_sort_item = VALUES(preferred_sort_item),
-                filtered_items = VALUES(filtered_items),
-                inventory_data = VALUES(inventory_data)
-            """;
-
-    // SQLite insert syntax
-    private static final String INSERT_SQL_SQLITE = """
-            INSERT INTO smart_spawners (
-                spawner_id, server_name, world_name, loc_x, loc_y, loc_z,
-                entity_type, item_spawner_material, spawner_exp, spawner_active,
-                spawner_range, spawner_stop, spawn_delay, max_spawner_loot_slots,
-                max_stored_exp, min_mobs, max_mobs, stack_size, max_stack_size,
-                last_spawn_time, is_at_capacity, last_interacted_player,
-                preferred_sort_item, filtered_items, inventory_data
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            ON CONFLICT(server_name, spawner_id) DO UPDATE SET
-                world_name = excluded.world_name,
-                loc_x = excluded.loc_x,
-                loc_y = excluded.loc_y,
-                loc_z = excluded.loc_z,
-                entity_type = excluded.entity_type,
-                item_spawner_material = excluded.item_spawner_material,
-                spawner_exp = excluded.spawner_exp,
-                spawner_active = excluded.spawner_active,
-                spawner_range = excluded.spawner_range,
-                spawner_stop = excluded.spawner_stop,
-                spawn_delay = excluded.spawn_delay,
-                max_spawner_loot_slots = excluded.max_spawner_loot_slots,
-                max_stored_exp = excluded.max_stored_exp,
-                min_mobs = excluded.min_mobs,
-                max_mobs = excluded.max_mobs,
-                stack_size = excluded.stack_size,
-                max_stack_size = excluded.max_stack_size,
-                last_spawn_time = excluded.last_spawn_time,
-                is_at_capacity = excluded.is_at_capacity,
-                last_interacted_player = excluded.last_interacted_player,
-                preferred_sort_item = excluded.preferred_sort_item,
-                filtered_items = excluded.filtered_items,
-                inventory_data = excluded.inventory_data
-            """;
-
     public YamlToDatabaseMigration(SmartSpawner plugin, DatabaseManager databaseManager) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
@@ -107,6 +34,16 @@ public class YamlToDatabaseMigration {
         this.serverName = databaseManager.getServerName();
     }
 
+    /**
+     * Loads the YAML snapshot together with any journaled changes that were not compacted yet.
+     */
+    private FileConfiguration loadYamlData(File yamlFile) {
+        FileConfiguration yamlData = YamlConfiguration.loadConfiguration(yamlFile);
+        File journalFile = new File(plugin.getDataFolder(), SpawnerJournal.JOURNAL_FILE_NAME);
+        SpawnerJournal.replay(journalFile, yamlData, logger);
+        return yamlData;
+    }
+
     /**
      * Check if migration is needed.
      * Migration is needed if spawners_data.yml exists and has spawner data.
@@ -125,7 +62,7 @@ public class YamlToDatabaseMigration {
         }
 
         // Check if YAML has any spawner data
-        FileConfiguration yamlData = YamlConfiguration.loadConfiguration(yamlFile);
+        FileConfiguration yamlData = loadYamlData(yamlFile);
         ConfigurationSection spawnersSection = yamlData.getConfigurationSection("spawners");
         return spawnersSection != null && !spawnersSection.getKeys(false).isEmpty();
     }
@@ -143,7 +80,7 @@ public class YamlToDatabaseMigration {
             return true;
         }
 
-        FileConfiguration yamlData = YamlConfiguration.loadConfiguration(yamlFile);
+        FileConfiguration yamlData = loadYamlData(yamlFile);
         ConfigurationSection spawnersSection = yamlData.getConfigurationSection("spawners");
 
         if (spawnersSection == null || spawnersSection.getKeys(false).isEmpty()) {
@@ -151,227 +88,60 @@ public class YamlToDatabaseMigration {
             return true;
         }
 
-        int totalSpawners = spawnersSection.getKeys(false).size();
-        int migratedCount = 0;
-        int failedCount = 0;
-
+        Set<String> spawnerIds = spawnersSection.getKeys(false);
+        int totalSpawners = spawnerIds.size();
         logger.info("Found " + totalSpawners + " spawners to migrate.");
 
-        // Select appropriate SQL based on storage mode
-        String insertSql = databaseManager.getStorageMode() == StorageMode.SQLITE
-                ? INSERT_SQL_SQLITE
-                : INSERT_SQL_MYSQL;
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(insertSql)) {
-
-            conn.setAutoCommit(false);
-            int batchCount = 0;
-            final int BATCH_SIZE = 100;
-
-            for (String spawnerId : spawnersSection.getKeys(false)) {
-                try {
-                    if (migrateSpawner(stmt, yamlData, spawnerId)) {
-                        stmt.addBatch();
-                        batchCount++;
-                        migratedCount++;
-
-                        // Execute batch every BATCH_SIZE records
-                        if (batchCount >= BATCH_SIZE) {
-                            stmt.executeBatch();
-                            conn.commit();
-                            batchCount = 0;
-                            logger.info("Migrated " + migratedCount + "/" + totalSpawners + " spawners...");
-                        }
-                    } else {
-                        failedCount++;
+        // The parsed file is only read from here on, so the encoders can share it
+        int version = yamlData.getInt("data_version", 1);
+        MigrationPipeline<String> pipeline = new MigrationPipeline<>(plugin, databaseManager, "yaml");
+        MigrationPipeline.Result result = pipeline.run(fingerprint(yamlFile, totalSpawners), totalSpawners,
+                sink -> {
+                    for (String spawnerId : spawnerIds) {
+                        if (!sink.accept(spawnerId)) return;
                     }
-                } catch (Exception e) {
-                    logger.log(Level.WARNING, "Failed to migrate spawner " + spawnerId, e);
-                    failedCount++;
-                }
-            }
-
-            // Execute remaining batch
-            if (batchCount > 0) {
-                stmt.executeBatch();
-                conn.commit();
-            }
-
-            logger.info("Migration completed. Migrated: " + migratedCount + ", Failed: " + failedCount);
-
-            // Rename the YAML file to prevent re-migration
-            if (failedCount == 0 || migratedCount > 0) {
-                File migratedFile = new File(plugin.getDataFolder(), YAML_FILE_NAME + MIGRATED_FILE_SUFFIX);
-                if (yamlFile.renameTo(migratedFile)) {
-                    logger.info("YAML file renamed to " + YAML_FILE_NAME + MIGRATED_FILE_SUFFIX);
-                } else {
-                    logger.warning("Failed to rename YAML file. Manual cleanup may be required.");
-                }
-            }
-
-            return failedCount == 0;
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Database error during migration", e);
+                },
+                spawnerId -> {
+                    SpawnerRecord record = SpawnerFileHandler.readRecord(
+                            yamlData.getConfigurationSection("spawners." + spawnerId), spawnerId, version, logger);
+                    return record != null ? new MigrationPipeline.Row(serverName, record) : null;
+                });
+
+        long migratedCount = result.migrated();
+        long failedCount = result.failed();
+        if (!result.complete()) {
+            logger.severe("Migration stopped after " + migratedCount + " spawners, it will resume on the next startup.");
             return false;
         }
-    }
 
-    private boolean migrateSpawner(PreparedStatement stmt, FileConfiguration yamlData, String spawnerId) throws SQLException {
-        String path = "spawners." + spawnerId;
-
-        // Parse location
-        String locationString = yamlData.getString(path + ".location");
-        if (locationString == null) {
-            logger.warning("No location for spawner " + spawnerId + ", skipping.");
-            return false;
-        }
+        logger.info("Migration completed. Migrated: " + migratedCount + ", Failed: " + failedCount);
 
-        String[] locParts = locationString.split(",");
-        if (locParts.length != 4) {
-            logger.warning("Invalid location format for spawner " + spawnerId + ", skipping.");
-            return false;
-        }
-
-        String worldName = locParts[0];
-        int locX, locY, locZ;
-        try {
-            locX = Integer.parseInt(locParts[1]);
-            locY = Integer.parseInt(locParts[2]);
-            locZ = Integer.parseInt(locParts[3]);
-        } catch (NumberFormatException e) {
-            logger.warning("Invalid location coordinates for spawner " + spawnerId + ", skipping.");
-            return false;
-        }
-
-        // Parse entity type
-        String entityTypeString = yamlData.getString(path + ".entityType");
-        if (entityTypeString == null) {
-            logger.warning("No entity type for spawner " + spawnerId + ", skipping.");
-            return false;
-        }
-
-        EntityType entityType;
-        try {
-            entityType = EntityType.valueOf(entityTypeString);
-        } catch (IllegalArgumentException e) {
-            logger.warning("Invalid entity type for spawner " + spawnerId + ": " + entityTypeString + ", skipping.");
-            return false;
-        }
-
-        // Parse item spawner material (if applicable)
-        String itemSpawnerMaterial = yamlData.getString(path + ".itemSpawnerMaterial");
-
-        // Parse settings string
-        String settingsString = yamlData.getString(path + ".settings");
-        int spawnerExp = 0;
-        boolean spawnerActive = true;
-        int spawnerRange = 16;
-        boolean spawnerStop = true;
-        long spawnDelay = 500;
-        int maxSpawnerLootSlots = 45;
-        int maxStoredExp = 1000;
-        int minMobs = 1;
-        int maxMobs = 4;
-        int stackSize = 1;
-        int maxStackSize = 1000;
-        long lastSpawnTime = 0;
-        boolean isAtCapacity = false;
-
-        if (settingsString != null) {
-            String[] settings = settingsString.split(",");
-            int version = yamlData.getInt("data_version", 1);
+        // Rename the YAML file to prevent re-migration
+        if (failedCount == 0 || migratedCount > 0) {
+            File migratedFile = new File(plugin.getDataFolder(), YAML_FILE_NAME + MIGRATED_FILE_SUFFIX);
+            if (yamlFile.renameTo(migratedFile)) {
+                logger.info("YAML file renamed to " + YAML_FILE_NAME + MIGRATED_FILE_SUFFIX);
+            } else {
+                logger.warning("Failed to rename YAML file. Manual cleanup may be required.");
+            }
 
-            try {
-                if (version >= 3 && settings.length >= 13) {
-                    spawnerExp = Integer.parseInt(settings[0]);
-                    spawnerActive = Boolean.parseBoolean(settings[1]);
-                    spawnerRange = Integer.parseInt(settings[2]);
-                    spawnerStop = Boolean.parseBoolean(settings[3]);
-                    spawnDelay = Long.parseLong(settings[4]);
-                    maxSpawnerLootSlots = Integer.parseInt(settings[5]);
-                    maxStoredExp = Integer.parseInt(settings[6]);
-                    minMobs = Integer.parseInt(settings[7]);
-                    maxMobs = Integer.parseInt(settings[8]);
-                    stackSize = Integer.parseInt(settings[9]);
-                    maxStackSize = Integer.parseInt(settings[10]);
-                    lastSpawnTime = Long.parseLong(settings[11]);
-                    isAtCapacity = Boolean.parseBoolean(settings[12]);
-                } else if (settings.length >= 11) {
-                    spawnerExp = Integer.parseInt(settings[0]);
-                    spawnerActive = Boolean.parseBoolean(settings[1]);
-                    spawnerRange = Integer.parseInt(settings[2]);
-                    spawnerStop = Boolean.parseBoolean(settings[3]);
-                    spawnDelay = Long.parseLong(settings[4]);
-                    maxSpawnerLootSlots = Integer.parseInt(settings[5]);
-                    maxStoredExp = Integer.parseInt(settings[6]);
-                    minMobs = Integer.parseInt(settings[7]);
-                    maxMobs = Integer.parseInt(settings[8]);
-                    stackSize = Integer.parseInt(settings[9]);
-                    lastSpawnTime = Long.parseLong(settings[10]);
-                }
-            } catch (NumberFormatException e) {
-                logger.warning("Invalid settings format for spawner " + spawnerId + ", using defaults.");
+            // The journal was migrated along with the snapshot, keep it from being replayed later
+            File journalFile = new File(plugin.getDataFolder(), SpawnerJournal.JOURNAL_FILE_NAME);
+            if (journalFile.exists() && !journalFile.renameTo(
+                    new File(plugin.getDataFolder(), SpawnerJournal.JOURNAL_FILE_NAME + MIGRATED_FILE_SUFFIX))) {
+                logger.warning("Failed to rename YAML journal file. Manual cleanup may be required.");
             }
         }
 
-        // Parse filtered items
-        String filteredItemsStr = yamlData.getString(path + ".filteredItems");
-
-        // Parse preferred sort item
-        String preferredSortItemStr = yamlData.getString(path + ".preferredSortItem");
-
-        // Parse last interacted player
-        String lastInteractedPlayer = yamlData.getString(path + ".lastInteractedPlayer");
-
-        // Parse inventory and convert to JSON format
-        List<String> inventoryData = yamlData.getStringList(path + ".inventory");
-        String inventoryJson = serializeInventoryToJson(inventoryData);
-
-        // Set statement parameters
-        stmt.setString(1, spawnerId);
-        stmt.setString(2, serverName);
-        stmt.setString(3, worldName);
-        stmt.setInt(4, locX);
-        stmt.setInt(5, locY);
-        stmt.setInt(6, locZ);
-        stmt.setString(7, entityType.name());
-        stmt.setString(8, itemSpawnerMaterial);
-        stmt.setInt(9, spawnerExp);
-        stmt.setBoolean(10, spawnerActive);
-        stmt.setInt(11, spawnerRange);
-        stmt.setBoolean(12, spawnerStop);
-        stmt.setLong(13, spawnDelay);
-        stmt.setInt(14, maxSpawnerLootSlots);
-        stmt.setInt(15, maxStoredExp);
-        stmt.setInt(16, minMobs);
-        stmt.setInt(17, maxMobs);
-        stmt.setInt(18, stackSize);
-        stmt.setInt(19, maxStackSize);
-        stmt.setLong(20, lastSpawnTime);
-        stmt.setBoolean(21, isAtCapacity);
-        stmt.setString(22, lastInteractedPlayer);
-        stmt.setString(23, preferredSortItemStr);
-        stmt.setString(24, filteredItemsStr);
-        stmt.setString(25, inventoryJson);
-
-        return true;
+        return failedCount == 0;
     }
 
-    private String serializeInventoryToJson(List<String> inventoryData) {
-        if (inventoryData == null || inventoryData.isEmpty()) {
-            return null;
-        }
-
-        // Convert YAML list format to JSON array format
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        for (int i = 0; i < inventoryData.size(); i++) {
-            if (i > 0) sb.append(",");
-            sb.append("\"").append(inventoryData.get(i).replace("\"", "\\\"")).append("\"");
-        }
-        sb.append("]");
-        return sb.toString();
+    /**
+     * Identifies the YAML data, so a checkpoint is only resumed from while the file and journal are unchanged.
+     */
+    private String fingerprint(File yamlFile, int totalSpawners) {
+        File journalFile = new File(plugin.getDataFolder(), SpawnerJournal.JOURNAL_FILE_NAME);
+        return "yaml:" + yamlFile.length() + ":" + yamlFile.lastModified()
+                + ":" + journalFile.length() + ":" + journalFile.lastModified() + ":" + totalSpawners;
     }
 }
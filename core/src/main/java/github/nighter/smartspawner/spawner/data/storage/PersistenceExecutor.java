@@ -0,0 +1,203 @@
+package github.nighter.smartspawner.spawner.data.storage;
+
+import github.nighter.smartspawner.SmartSpawner;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Threads owned by one storage backend, so slow storage doesn't hold up the shared async pool.
+ *
+ * <p>Writes run one at a time on a single writer in submission order, so a delete and a later save of the
+ * same spawner can never swap. Reads run on a separate pool of limited size. Both queues are bounded; a task
+ * that doesn't fit is refused and its rejection handler runs on the submitting thread instead.
+ */
+public class PersistenceExecutor {
+    private static final long SATURATION_WARNING_INTERVAL_MILLIS = 60_000L;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
+
+    private final SmartSpawner plugin;
+    private final String storageName;
+
+    private final ThreadPoolExecutor writer;
+    private final ExecutorService readers;
+    private final Semaphore readPermits;
+    private final int readThreads;
+    private final int readQueueSize;
+    private final int writeQueueSize;
+
+    // Metrics
+    private final AtomicInteger pendingReads = new AtomicInteger();
+    private final AtomicInteger activeReads = new AtomicInteger();
+    private final AtomicLong completedWrites = new AtomicLong();
+    private final AtomicLong completedReads = new AtomicLong();
+    private final AtomicLong rejectedWrites = new AtomicLong();
+    private final AtomicLong rejectedReads = new AtomicLong();
+    private volatile int peakWriteQueueDepth = 0;
+    private volatile long maxWriteWaitMillis = 0;
+    private volatile long lastSaturationWarning = 0;
+
+    public PersistenceExecutor(SmartSpawner plugin, String storageName) {
+        this.plugin = plugin;
+        this.storageName = storageName;
+        boolean virtualThreads = plugin.getConfig().getBoolean("database.executor.virtual_threads", true);
+        this.writeQueueSize = Math.max(1, plugin.getConfig().getInt("database.executor.write_queue_size", 10000));
+        this.readThreads = Math.max(1, plugin.getConfig().getInt("database.executor.read_threads", 4));
+        this.readQueueSize = Math.max(1, plugin.getConfig().getInt("database.executor.read_queue_size", 1000));
+
+        String threadPrefix = "SmartSpawner-" + storageName.replace(' ', '-');
+        ThreadFactory writerFactory = threadFactory(threadPrefix + "-writer-", virtualThreads);
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueueSize), writerFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        ThreadFactory readerFactory = threadFactory(threadPrefix + "-reader-", virtualThreads);
+        if (virtualThreads) {
+            // Virtual threads are cheap to start but not to pool, so each read gets its own
+            // thread and the permits cap how many query at once
+            this.readers = Executors.newThreadPerTaskExecutor(readerFactory);
+            this.readPermits = new Semaphore(readThreads);
+        } else {
+            this.readers = new ThreadPoolExecutor(readThreads, readThreads, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), readerFactory);
+            this.readPermits = null;
+        }
+    }
+
+    private static ThreadFactory threadFactory(String name, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(name, 0).factory();
+        }
+        return Thread.ofPlatform().name(name, 0).daemon(true).factory();
+    }
+
+    /**
+     * Queues a write behind every write submitted before it.
+     * @param task The write
+     * @param onRejected Run on the calling thread instead if the write queue is full
+     * @return true if the write was queued
+     */
+    public boolean write(Runnable task, Runnable onRejected) {
+        long submitted = System.nanoTime();
+        try {
+            writer.execute(() -> {
+                long waitMillis = (System.nanoTime() - submitted) / 1_000_000L;
+                if (waitMillis > maxWriteWaitMillis) {
+                    maxWriteWaitMillis = waitMillis;
+                }
+                runTask(task, "write");
+                completedWrites.incrementAndGet();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedWrites.incrementAndGet();
+            warnSaturated("write queue is full (" + writeQueueSize + " tasks)");
+            onRejected.run();
+            return false;
+        }
+
+        int depth = writer.getQueue().size();
+        if (depth > peakWriteQueueDepth) {
+            peakWriteQueueDepth = depth;
+        }
+        return true;
+    }
+
+    /**
+     * Queues a read, which may run alongside other reads and the writer.
+     * @param task The read
+     * @param onRejected Run on the calling thread instead if too many reads are waiting
+     * @return true if the read was queued
+     */
+    public boolean read(Runnable task, Runnable onRejected) {
+        if (pendingReads.incrementAndGet() > readQueueSize + readThreads) {
+            pendingReads.decrementAndGet();
+            rejectedReads.incrementAndGet();
+            warnSaturated("read queue is full (" + readQueueSize + " tasks)");
+            onRejected.run();
+            return false;
+        }
+
+        try {
+            readers.execute(() -> {
+                boolean permitted = false;
+                try {
+                    if (readPermits != null) {
+                        readPermits.acquire();
+                        permitted = true;
+                    }
+                    activeReads.incrementAndGet();
+                    try {
+                        runTask(task, "read");
+                    } finally {
+                        activeReads.decrementAndGet();
+                    }
+                    completedReads.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (permitted) {
+                        readPermits.release();
+                    }
+                    pendingReads.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Only after shutdown
+            pendingReads.decrementAndGet();
+            rejectedReads.incrementAndGet();
+            onRejected.run();
+            return false;
+        }
+        return true;
+    }
+
+    private void runTask(Runnable task, String kind) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.SEVERE, "Error in " + storageName + " " + kind + " task", t);
+        }
+    }
+
+    private void warnSaturated(String reason) {
+        long now = System.currentTimeMillis();
+        if (now - lastSaturationWarning >= SATURATION_WARNING_INTERVAL_MILLIS) {
+            lastSaturationWarning = now;
+            plugin.getLogger().warning("The " + storageName + " " + reason + ", refusing new tasks until it catches up");
+        }
+    }
+
+    /**
+     * Stops accepting tasks and waits for the queued writes to finish. Queued reads are dropped.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        readers.shutdownNow();
+        try {
+            if (!writer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for " + writer.getQueue().size()
+                        + " queued " + storageName + " writes to finish");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getWriteQueueDepth() {
+        return writer.getQueue().size();
+    }
+
+    /**
+     * One line of queue and task counts since startup, for the periodic debug report.
+     */
+    public String describeMetrics() {
+        return "Storage " + storageName + ": write queue " + writer.getQueue().size() + "/" + writeQueueSize
+                + " (peak " + peakWriteQueueDepth + ", longest wait " + maxWriteWaitMillis + "ms)"
+                + ", reads " + activeReads.get() + " running and " + pendingReads.get() + " pending"
+                + ", completed " + completedWrites.get() + " writes and " + completedReads.get() + " reads"
+                + ", rejected " + rejectedWrites.get() + " writes and " + rejectedReads.get() + " reads";
+    }
+}
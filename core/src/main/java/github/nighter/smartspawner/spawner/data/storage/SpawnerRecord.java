@@ -0,0 +1,183 @@
+package github.nighter.smartspawner.spawner.data.storage;
+
+import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.logging.Logger;
+
+/**
+ * Flat copy of the persisted fields of a spawner, shared by storage backends and converters.
+ * Values are kept in their stored form (names instead of enums, {@link InventoryCodec} data
+ * for the inventory), so records can be moved between backends without the world being loaded.
+ */
+public record SpawnerRecord(
+        String spawnerId,
+        String worldName,
+        int x,
+        int y,
+        int z,
+        String entityType,
+        String itemSpawnerMaterial,
+        int spawnerExp,
+        boolean spawnerActive,
+        int spawnerRange,
+        boolean spawnerStop,
+        long spawnDelay,
+        int maxSpawnerLootSlots,
+        int maxStoredExp,
+        int minMobs,
+        int maxMobs,
+        int stackSize,
+        int maxStackSize,
+        long lastSpawnTime,
+        boolean atCapacity,
+        String lastInteractedPlayer,
+        String preferredSortItem,
+        String filteredItems,
+        byte[] inventory) {
+
+    public SpawnerRecord {
+        // Encoded inventories are never modified after they are created, so the array is shared
+        inventory = inventory != null ? inventory : InventoryCodec.EMPTY;
+    }
+
+    /**
+     * Captures the persisted state of a loaded spawner, see {@link SpawnerSnapshot#of(SpawnerData)}.
+     */
+    public static SpawnerRecord capture(SpawnerData spawner) {
+        return SpawnerSnapshot.of(spawner).toRecord();
+    }
+
+    /**
+     * Gets a copy of this record with another inventory.
+     */
+    public SpawnerRecord withInventory(byte[] inventory) {
+        return new SpawnerRecord(spawnerId, worldName, x, y, z, entityType, itemSpawnerMaterial,
+                spawnerExp, spawnerActive, spawnerRange, spawnerStop, spawnDelay, maxSpawnerLootSlots,
+                maxStoredExp, minMobs, maxMobs, stackSize, maxStackSize, lastSpawnTime, atCapacity,
+                lastInteractedPlayer, preferredSortItem, filteredItems, inventory);
+    }
+
+    /**
+     * Gets the location in the "world,x,y,z" format used by {@link SpawnerStorage#getRawLocationString(String)}.
+     */
+    public String locationString() {
+        return String.format("%s,%d,%d,%d", worldName, x, y, z);
+    }
+
+    /**
+     * Builds a spawner from this record.
+     *
+     * @param plugin        Plugin instance
+     * @param restartHopper Whether to restart the hopper when the stack size is applied
+     * @return The spawner, or null if its world isn't loaded or the record is invalid
+     */
+    public SpawnerData toSpawnerData(SmartSpawner plugin, boolean restartHopper) {
+        Logger logger = plugin.getLogger();
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            plugin.debug("World not yet loaded for spawner " + spawnerId + ": " + worldName);
+            return null;
+        }
+
+        Location location = new Location(world, x, y, z);
+        EntityType type;
+        try {
+            type = EntityType.valueOf(entityType);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.severe("Invalid entity type for spawner " + spawnerId + ": " + entityType);
+            return null;
+        }
+
+        // Create spawner based on type
+        SpawnerData spawner;
+        if (type == EntityType.ITEM && itemSpawnerMaterial != null) {
+            try {
+                Material itemMaterial = Material.valueOf(itemSpawnerMaterial);
+                spawner = new SpawnerData(spawnerId, location, itemMaterial, plugin);
+            } catch (IllegalArgumentException e) {
+                logger.severe("Invalid item spawner material for spawner " + spawnerId + ": " + itemSpawnerMaterial);
+                return null;
+            }
+        } else {
+            spawner = new SpawnerData(spawnerId, location, type, plugin);
+        }
+
+        // Load settings
+        spawner.setSpawnerExpData(spawnerExp);
+        spawner.setSpawnerActive(spawnerActive);
+        spawner.setSpawnerRange(spawnerRange);
+        spawner.getSpawnerStop().set(spawnerStop);
+        spawner.setSpawnDelayFromConfig(); // Use config delay
+        spawner.setMaxSpawnerLootSlots(maxSpawnerLootSlots);
+        spawner.setMaxStoredExp(maxStoredExp);
+        spawner.setMinMobs(minMobs);
+        spawner.setMaxMobs(maxMobs);
+        spawner.setStackSize(stackSize, restartHopper);
+        spawner.setMaxStackSize(maxStackSize);
+        spawner.setLastSpawnTime(lastSpawnTime);
+        spawner.setIsAtCapacity(atCapacity);
+        spawner.setLastInteractedPlayer(lastInteractedPlayer);
+
+        if (preferredSortItem != null && !preferredSortItem.isEmpty()) {
+            try {
+                spawner.setPreferredSortItem(Material.valueOf(preferredSortItem));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid preferred sort item for spawner " + spawnerId + ": " + preferredSortItem);
+            }
+        }
+
+        spawner.getFilteredItems().deserialize(filteredItems, materialName ->
+                logger.warning("Invalid material in filtered items for spawner " + spawnerId + ": " + materialName));
+
+        // Load inventory
+        VirtualInventory virtualInv = new VirtualInventory(maxSpawnerLootSlots);
+        if (!InventoryCodec.isEmpty(inventory)) {
+            try {
+                virtualInv.addItemAmounts(InventoryCodec.decode(inventory));
+            } catch (Exception e) {
+                logger.warning("Error loading inventory for spawner " + spawnerId + ": " + e.getMessage());
+            }
+        }
+        spawner.setVirtualInventory(virtualInv);
+
+        // Recalculate accumulated sell value after loading inventory
+        spawner.recalculateSellValue();
+
+        // Apply sort preference to virtual inventory
+        if (spawner.getPreferredSortItem() != null) {
+            virtualInv.sortItems(spawner.getPreferredSortItem());
+        }
+
+        // The spawner matches its stored record until it changes
+        spawner.clearDirtyFields();
+
+        // Restore the physical spawner block state for item spawners
+        if (spawner.isItemSpawner()) {
+            Scheduler.runLocationTask(location, () -> {
+                org.bukkit.block.Block block = location.getBlock();
+                if (block.getType() == Material.SPAWNER) {
+                    org.bukkit.block.BlockState state = block.getState(false);
+                    if (state instanceof org.bukkit.block.CreatureSpawner cs) {
+                        cs.setSpawnedType(EntityType.ITEM);
+                        ItemStack spawnedItem = new ItemStack(spawner.getSpawnedItemMaterial(), 1);
+                        cs.setSpawnedItem(spawnedItem);
+                        cs.update(true, false);
+                    }
+                }
+            });
+        }
+
+        return spawner;
+    }
+}
@@ -0,0 +1,68 @@
+package github.nighter.smartspawner.spawner.data.storage;
+
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import github.nighter.smartspawner.spawner.utils.InventoryCodec;
+import org.bukkit.Location;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable point-in-time copy of a spawner, taken by storage flushes before anything is serialized.
+ * Taking it doesn't lock the spawner: the stack size and the values tied to it come from
+ * {@link SpawnerData#readCounters()} and the items from {@link VirtualInventory#snapshotItems()}, both of which
+ * retry on a concurrent change, so the writer thread never sees a half-applied stack size or inventory change.
+ *
+ * @param state The persisted fields, with an empty inventory
+ * @param items The stored items and their amounts
+ */
+public record SpawnerSnapshot(SpawnerRecord state, Map<VirtualInventory.ItemSignature, Long> items) {
+
+    public static SpawnerSnapshot of(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        VirtualInventory virtualInv = spawner.getVirtualInventory();
+        Map<VirtualInventory.ItemSignature, Long> items = virtualInv != null
+                ? virtualInv.snapshotItems()
+                : Collections.emptyMap();
+        SpawnerData.Counters counters = spawner.readCounters();
+
+        SpawnerRecord state = new SpawnerRecord(
+                spawner.getSpawnerId(),
+                loc.getWorld().getName(),
+                loc.getBlockX(),
+                loc.getBlockY(),
+                loc.getBlockZ(),
+                spawner.getEntityType() != null ? spawner.getEntityType().name() : null,
+                spawner.isItemSpawner() ? spawner.getSpawnedItemMaterial().name() : null,
+                counters.spawnerExp(),
+                spawner.getSpawnerActive(),
+                spawner.getSpawnerRange(),
+                spawner.getSpawnerStop().get(),
+                spawner.getSpawnDelay(),
+                counters.maxSpawnerLootSlots(),
+                counters.maxStoredExp(),
+                counters.minMobs(),
+                counters.maxMobs(),
+                counters.stackSize(),
+                counters.maxStackSize(),
+                counters.lastSpawnTime(),
+                spawner.getIsAtCapacity(),
+                spawner.getLastInteractedPlayer(),
+                spawner.getPreferredSortItem() != null ? spawner.getPreferredSortItem().name() : null,
+                spawner.getFilteredItems().serialize(),
+                InventoryCodec.EMPTY);
+        return new SpawnerSnapshot(state, items);
+    }
+
+    public String spawnerId() {
+        return state.spawnerId();
+    }
+
+    /**
+     * Serializes the items into a complete record.
+     */
+    public SpawnerRecord toRecord() {
+        return state.withInventory(InventoryCodec.encode(items));
+    }
+}
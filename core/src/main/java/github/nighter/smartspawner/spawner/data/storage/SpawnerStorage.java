@@ -2,7 +2,7 @@ package github.nighter.smartspawner.spawner.data.storage;
 
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
 
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Interface defining storage operations for spawner data.
@@ -24,11 +24,20 @@ public interface SpawnerStorage {
     void shutdown();
 
     /**
-     * Load all spawners from storage.
-     * Spawners whose worlds are not loaded will have null values.
-     * @return Map of spawner IDs to SpawnerData (null values for unloadable spawners)
+     * Read every stored spawner as a record without building it, for the startup loader.
+     * Called off the main thread. Records may be passed to the consumer from several threads at once;
+     * spawners that can't be read are skipped.
+     * @param consumer Receives each record
      */
-    Map<String, SpawnerData> loadAllSpawnersRaw();
+    void streamSpawnerRecords(Consumer<SpawnerRecord> consumer);
+
+    /**
+     * Build a record read by streamSpawnerRecords into a spawner.
+     * Called on the main thread.
+     * @param record The record to build
+     * @return The SpawnerData or null if its world is not loaded or the record is invalid
+     */
+    SpawnerData buildSpawner(SpawnerRecord record);
 
     /**
      * Load a specific spawner by ID.
@@ -56,11 +65,32 @@ public interface SpawnerStorage {
     void queueSpawnerForSaving(String spawnerId);
 
     /**
-     * Flush all pending changes to storage.
-     * Called periodically and before shutdown.
+     * Check whether a spawner has changes that are not written to storage yet.
+     * @param spawnerId The spawner ID
+     * @return true if the spawner is queued or in the batch being written
+     */
+    boolean hasPendingChanges(String spawnerId);
+
+    /**
+     * Start writing all pending changes to storage in the background.
+     * Periodic saves are handled by the write-behind scheduler.
      */
     void flushChanges();
 
+    /**
+     * Get the write-behind scheduler that saves queued changes.
+     * Exposes queue depth and save duration metrics.
+     * @return The write-behind scheduler of this storage
+     */
+    WriteBehindScheduler getWriteBehind();
+
+    /**
+     * Get the executor that runs this storage's background reads and writes.
+     * Exposes queue saturation metrics.
+     * @return The persistence executor of this storage
+     */
+    PersistenceExecutor getPersistenceExecutor();
+
     /**
      * Get the raw location string for a spawner.
      * Used by WorldEventHandler for pending spawner loading.
@@ -22,5 +22,12 @@ public enum StorageMode {
      * Local file-based database, no external server required.
      * Good for single-server setups wanting database performance without MariaDB.
      */
-    SQLITE
+    SQLITE,
+
+    /**
+     * Binary record storage in memory-mapped segment files.
+     * Spawner data is stored under the binary folder, no external server or JDBC driver required.
+     * Fastest option for single-server setups with large spawner counts.
+     */
+    BINARY
 }
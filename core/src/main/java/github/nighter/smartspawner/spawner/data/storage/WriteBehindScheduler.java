@@ -0,0 +1,233 @@
+package github.nighter.smartspawner.spawner.data.storage;
+
+import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.SmartSpawner;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Decides when a storage handler writes its queued spawner changes.
+ *
+ * <p>The queue is checked every batch interval. A save starts once the oldest queued change has waited
+ * the configured max latency, once the queue reaches the flush threshold, or when one is requested through
+ * {@link #requestFlush()}. A started save is written in batches of at most the max batch size, one batch per
+ * interval, until the queue is empty. Batches run on the writer of the storage's {@link PersistenceExecutor},
+ * in order with its other writes. A check that finds the previous batch still queued or running is skipped,
+ * so a slow backend gets fewer writes instead of a growing backlog.
+ */
+public class WriteBehindScheduler {
+
+    /**
+     * The storage handler whose changes are written.
+     */
+    public interface FlushTarget {
+        /**
+         * @return The number of queued spawner updates and deletions
+         */
+        int pendingChanges();
+
+        /**
+         * Writes up to the given number of queued changes. Runs on the storage writer, or on the calling
+         * thread for {@link #flushAll()}, never concurrently with another batch.
+         * Changes that fail to write should be queued again.
+         * @return The number of changes taken from the queue
+         */
+        int flushBatch(int maxChanges) throws Exception;
+    }
+
+    private final SmartSpawner plugin;
+    private final String storageName;
+    private final FlushTarget target;
+    private final PersistenceExecutor executor;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean batchQueued = new AtomicBoolean(false);
+    // IDs taken from the queues by the batch being written
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final long maxLatencyMillis;
+    private final int flushThreshold;
+    private final int maxBatchSize;
+    private final long batchIntervalTicks;
+
+    private Scheduler.Task task = null;
+    // Time the queue became non-empty, 0 while it is empty
+    private volatile long pendingSince = 0;
+    private volatile boolean draining = false;
+    private volatile boolean flushRequested = false;
+
+    // Metrics
+    @Getter private volatile int queueDepth = 0;
+    @Getter private volatile int peakQueueDepth = 0;
+    @Getter private volatile long lastBatchMillis = 0;
+    @Getter private volatile double averageBatchMillis = 0;
+    @Getter private volatile long batchCount = 0;
+    @Getter private volatile long totalChangesWritten = 0;
+    @Getter private volatile long skippedChecks = 0;
+
+    public WriteBehindScheduler(SmartSpawner plugin, String storageName, PersistenceExecutor executor, FlushTarget target) {
+        this.plugin = plugin;
+        this.storageName = storageName;
+        this.executor = executor;
+        this.target = target;
+        this.maxLatencyMillis = Math.max(1, plugin.getConfig().getLong("database.write_behind.max_latency_seconds", 300)) * 1000L;
+        this.flushThreshold = Math.max(1, plugin.getConfig().getInt("database.write_behind.flush_threshold", 2000));
+        this.maxBatchSize = Math.max(1, plugin.getConfig().getInt("database.write_behind.max_batch_size", 500));
+        this.batchIntervalTicks = Math.max(1, plugin.getConfig().getLong("database.write_behind.batch_interval_ticks", 20));
+    }
+
+    public void start() {
+        stop();
+        task = Scheduler.runTaskTimerAsync(this::check, batchIntervalTicks, batchIntervalTicks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Starts writing every queued change now instead of waiting for the latency or threshold.
+     */
+    public void requestFlush() {
+        flushRequested = true;
+        Scheduler.runTaskAsync(this::check);
+    }
+
+    /**
+     * Writes every queued change in one batch on the calling thread, waiting for a running batch first.
+     * Used on shutdown after {@link #stop()} and {@link PersistenceExecutor#shutdown()}.
+     */
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            if (target.pendingChanges() > 0) {
+                runBatch(Integer.MAX_VALUE);
+            }
+            draining = false;
+            pendingSince = 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a task while no batch can be written, waiting for a running batch first.
+     */
+    public void runExclusive(Runnable task) {
+        flushLock.lock();
+        try {
+            task.run();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void check() {
+        int depth = target.pendingChanges();
+        recordQueueDepth(depth);
+        if (depth == 0) {
+            pendingSince = 0;
+            draining = false;
+            flushRequested = false;
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (pendingSince == 0) {
+            pendingSince = now;
+        }
+
+        if (!draining) {
+            boolean due = flushRequested || depth >= flushThreshold || now - pendingSince >= maxLatencyMillis;
+            if (!due) {
+                return;
+            }
+            plugin.debug("Starting " + storageName + " save of " + depth + " queued changes");
+            draining = true;
+            flushRequested = false;
+        }
+
+        if (!batchQueued.compareAndSet(false, true)) {
+            // Previous batch is still waiting for or being written
+            skippedChecks++;
+            return;
+        }
+        executor.write(() -> {
+            flushLock.lock();
+            try {
+                runBatch(maxBatchSize);
+                if (target.pendingChanges() == 0) {
+                    draining = false;
+                    pendingSince = 0;
+                }
+            } finally {
+                flushLock.unlock();
+                batchQueued.set(false);
+            }
+        }, () -> batchQueued.set(false));
+    }
+
+    private void runBatch(int maxChanges) {
+        long start = System.nanoTime();
+        int written;
+        try {
+            written = target.flushBatch(maxChanges);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error during " + storageName + " save", e);
+            return;
+        } finally {
+            inFlight.clear();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        lastBatchMillis = elapsedMillis;
+        averageBatchMillis = batchCount == 0 ? elapsedMillis : averageBatchMillis * 0.8 + elapsedMillis * 0.2;
+        batchCount++;
+        totalChangesWritten += written;
+
+        int remaining = target.pendingChanges();
+        recordQueueDepth(remaining);
+        plugin.debug("Wrote " + written + " changes to " + storageName + " in " + elapsedMillis + "ms ("
+                + remaining + " still queued, average batch " + Math.round(averageBatchMillis) + "ms)");
+    }
+
+    private void recordQueueDepth(int depth) {
+        queueDepth = depth;
+        if (depth > peakQueueDepth) {
+            peakQueueDepth = depth;
+        }
+    }
+
+    /**
+     * Removes up to the given number of IDs from a queue for the current batch.
+     * They count as in flight until the batch finishes.
+     */
+    public Set<String> take(Set<String> queue, int maxCount) {
+        Set<String> taken = new HashSet<>();
+        Iterator<String> iterator = queue.iterator();
+        while (taken.size() < maxCount && iterator.hasNext()) {
+            String id = iterator.next();
+            // Mark before removing, so the ID is always in one of the two sets
+            inFlight.add(id);
+            taken.add(id);
+            iterator.remove();
+        }
+        return taken;
+    }
+
+    /**
+     * @return true if the batch being written includes the given spawner
+     */
+    public boolean isInFlight(String spawnerId) {
+        return inFlight.contains(spawnerId);
+    }
+}
@@ -3,7 +3,9 @@ package github.nighter.smartspawner.spawner.gui.storage.filter;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.language.LanguageManager;
 import github.nighter.smartspawner.spawner.gui.storage.SpawnerStorageUI;
+import github.nighter.smartspawner.spawner.lootgen.loot.CompiledLootTable;
 import github.nighter.smartspawner.spawner.lootgen.loot.LootItem;
+import github.nighter.smartspawner.spawner.properties.MaterialFilter;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -115,15 +117,10 @@ public class FilterConfigUI implements Listener {
         inventory.clear();
 
         // Get all available loot items
-        List<LootItem> allLootItems;
-        if (spawner.getLootConfig() == null) {
-            allLootItems = Collections.emptyList();
-        } else {
-            allLootItems = spawner.getLootConfig().getAllItems();
-        }
+        CompiledLootTable lootTable = spawner.getLootConfig() != null ? spawner.getLootConfig().compiledTable() : null;
 
         // Get currently filtered items for quick lookup
-        Set<Material> filteredItems = spawner.getFilteredItems();
+        MaterialFilter filteredItems = spawner.getFilteredItems();
 
         // Set divider elements (which also act as return buttons)
         ItemStack divider = staticButtons.get("divider");
@@ -136,12 +133,16 @@ public class FilterConfigUI implements Listener {
         List<ItemStack> blockedItems = new ArrayList<>();
 
         // Categorize items based on filter status
-        for (LootItem lootItem : allLootItems) {
-            ItemStack displayItem = lootItem.createItemStack(new Random());
-            if (displayItem == null) continue;
+        int lootItemCount = lootTable != null ? lootTable.size() : 0;
+        for (int i = 0; i < lootItemCount; i++) {
+            LootItem lootItem = lootTable.getItem(i);
+            if (!lootItem.isAvailable()) continue;
+
+            // Clone the shared prototype, the filter marker below modifies the item
+            ItemStack prototype = lootTable.getPrototype(i);
+            ItemStack displayItem = prototype != null ? prototype.clone() : lootItem.createItemStack(new Random());
 
-            Material itemType = displayItem.getType();
-            if (filteredItems.contains(itemType)) {
+            if (filteredItems.contains(lootItem.material())) {
                 displayItem = addFilterMarkerToItem(displayItem, true);
                 blockedItems.add(displayItem);
             } else {
@@ -85,6 +85,11 @@ public class SpawnerClickManager implements Listener {
 
         SpawnerData spawner = spawnerManager.getSpawnerByLocation(block.getLocation());
         if (spawner == null) {
+            if (spawnerManager.isStartupLoading()) {
+                // May be a stored spawner that isn't indexed yet, keep vanilla interactions such as spawn eggs off it
+                event.setCancelled(true);
+                messageService.sendMessage(player, "spawner_still_loading");
+            }
             return;
         }
 
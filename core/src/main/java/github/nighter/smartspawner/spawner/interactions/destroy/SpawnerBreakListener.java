@@ -71,6 +71,12 @@ public class SpawnerBreakListener implements Listener {
         }
 
         final SpawnerData spawner = spawnerManager.getSpawnerByLocation(location);
+        if (spawner == null && spawnerManager.isStartupLoading()) {
+            // May be a stored spawner that isn't indexed yet, don't treat it as a natural one
+            event.setCancelled(true);
+            messageService.sendMessage(player, "spawner_still_loading");
+            return;
+        }
 
         if (!plugin.getConfig().getBoolean("natural_spawner.breakable", false)) {
             if (spawner == null) {
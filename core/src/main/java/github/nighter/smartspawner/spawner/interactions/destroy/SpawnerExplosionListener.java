@@ -74,6 +74,9 @@ public class SpawnerExplosionListener implements Listener {
                     if (e != null) {
                         Bukkit.getPluginManager().callEvent(e);
                     }
+                } else if (spawnerManager.isStartupLoading()) {
+                    // May be a stored spawner that isn't indexed yet
+                    blocksToRemove.add(block);
                 } else {
                     // Allow vanilla spawners to be destroyed
                     if (plugin.getConfig().getBoolean("natural_spawner.protect_from_explosions", false)) {
@@ -0,0 +1,91 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import github.nighter.smartspawner.utils.ChunkUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-world spatial index of players bucketed by the chunk they stand in.
+ * A spawner only has to test the players of the chunks its range overlaps
+ * instead of every online player.
+ */
+class PlayerChunkIndex {
+    private final Map<UUID, WorldBucket> worlds = new HashMap<>();
+
+    PlayerChunkIndex(PlayerRangeWrapper[] players) {
+        for (PlayerRangeWrapper p : players) {
+            if (p == null || !p.spawnConditions()) continue;
+
+            WorldBucket bucket = worlds.computeIfAbsent(p.worldUID(), k -> new WorldBucket());
+            long key = ChunkUtil.getChunkKey(blockToChunk(p.x()), blockToChunk(p.z()));
+            bucket.cells.computeIfAbsent(key, k -> new ArrayList<>(2)).add(p);
+            bucket.players.add(p);
+        }
+    }
+
+    /**
+     * Checks whether any indexed player is within {@code range} blocks of the given point.
+     *
+     * @param worldUID The world the point is in
+     * @param x        Point X coordinate
+     * @param y        Point Y coordinate
+     * @param z        Point Z coordinate
+     * @param range    Activation range in blocks
+     * @return true if at least one player is within range
+     */
+    boolean anyPlayerInRange(UUID worldUID, double x, double y, double z, double range) {
+        WorldBucket bucket = worlds.get(worldUID);
+        if (bucket == null) return false;
+
+        final double rangeSq = range * range;
+        final int minCX = blockToChunk(x - range);
+        final int maxCX = blockToChunk(x + range);
+        final int minCZ = blockToChunk(z - range);
+        final int maxCZ = blockToChunk(z + range);
+
+        // For huge ranges in sparsely populated worlds, a plain scan is cheaper than probing every cell
+        long cellCount = (long) (maxCX - minCX + 1) * (maxCZ - minCZ + 1);
+        if (cellCount > bucket.players.size()) {
+            return anyInList(bucket.players, x, y, z, rangeSq);
+        }
+
+        for (int cx = minCX; cx <= maxCX; cx++) {
+            for (int cz = minCZ; cz <= maxCZ; cz++) {
+                List<PlayerRangeWrapper> cell = bucket.cells.get(ChunkUtil.getChunkKey(cx, cz));
+                if (cell != null && anyInList(cell, x, y, z, rangeSq)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if no player passing the spawn conditions is present in the given world
+     */
+    boolean isWorldEmpty(UUID worldUID) {
+        return !worlds.containsKey(worldUID);
+    }
+
+    private static boolean anyInList(List<PlayerRangeWrapper> players, double x, double y, double z, double rangeSq) {
+        for (int i = 0, size = players.size(); i < size; i++) {
+            if (players.get(i).distanceSquared(x, y, z) <= rangeSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int blockToChunk(double coordinate) {
+        return ((int) Math.floor(coordinate)) >> 4;
+    }
+
+    private static final class WorldBucket {
+        private final Map<Long, List<PlayerRangeWrapper>> cells = new HashMap<>();
+        private final List<PlayerRangeWrapper> players = new ArrayList<>();
+    }
+}
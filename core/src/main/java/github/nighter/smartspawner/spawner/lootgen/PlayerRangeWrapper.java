@@ -3,12 +3,29 @@ package github.nighter.smartspawner.spawner.lootgen;
 import org.bukkit.Location;
 import java.util.UUID;
 
-record PlayerRangeWrapper(UUID worldUID, double x, double y, double z, boolean spawnConditions) {
+record PlayerRangeWrapper(UUID playerId, UUID worldUID, String worldName, double x, double y, double z,
+                          boolean spawnConditions) {
 
     double distanceSquared(Location loc2) {
-        double dx = this.x - loc2.getX();
-        double dy = this.y - loc2.getY();
-        double dz = this.z - loc2.getZ();
+        return distanceSquared(loc2.getX(), loc2.getY(), loc2.getZ());
+    }
+
+    double distanceSquared(double x2, double y2, double z2) {
+        double dx = this.x - x2;
+        double dy = this.y - y2;
+        double dz = this.z - z2;
         return dx * dx + dy * dy + dz * dz;
     }
+
+    /**
+     * @return true if both snapshots put the player on the same block with the same spawn conditions
+     */
+    boolean isSameBlockAs(PlayerRangeWrapper other) {
+        return other != null
+                && spawnConditions == other.spawnConditions
+                && worldUID.equals(other.worldUID)
+                && (int) Math.floor(x) == (int) Math.floor(other.x)
+                && (int) Math.floor(y) == (int) Math.floor(other.y)
+                && (int) Math.floor(z) == (int) Math.floor(other.z);
+    }
 }
\ No newline at end of file
@@ -9,44 +9,40 @@ import java.util.UUID;
 
 class RangeMath {
     private final List<SpawnerData> spawners;
-    private final PlayerRangeWrapper[] rangePlayers;
+    private final PlayerChunkIndex playerIndex;
 
     public RangeMath(PlayerRangeWrapper[] players, List<SpawnerData> spawners) {
+        this(new PlayerChunkIndex(players), spawners);
+    }
+
+    public RangeMath(PlayerChunkIndex playerIndex, List<SpawnerData> spawners) {
         this.spawners = spawners;
-        this.rangePlayers = players;
+        this.playerIndex = playerIndex;
     }
 
     public boolean[] getActiveSpawners() {
         final boolean[] activeSpawners = new boolean[spawners.size()];
-        boolean playerFound;
 
         for (int i = 0; i < spawners.size(); i++) {
-            SpawnerData s = spawners.get(i);
-            final Location spawnerLoc = s.getSpawnerLocation();
-            if (spawnerLoc == null) continue;
-
-            final World locWorld = spawnerLoc.getWorld();
-            if (locWorld == null) continue;
-
-            final UUID worldUID = locWorld.getUID();
-            final double rangeSq = s.getSpawnerRange() * s.getSpawnerRange();
+            activeSpawners[i] = isPlayerInRange(spawners.get(i));
+        }
 
-            playerFound = false;
+        return activeSpawners;
+    }
 
-            for (PlayerRangeWrapper p : rangePlayers) {
-                if (!p.spawnConditions()) continue;
-                if (!worldUID.equals(p.worldUID())) continue;
+    public boolean isPlayerInRange(SpawnerData s) {
+        final Location spawnerLoc = s.getSpawnerLocation();
+        if (spawnerLoc == null) return false;
 
-                if (p.distanceSquared(spawnerLoc) <= rangeSq) {
-                    playerFound = true;
-                    break;
-                }
-            }
+        final World locWorld = spawnerLoc.getWorld();
+        if (locWorld == null) return false;
 
-            activeSpawners[i] = playerFound;
-        }
+        final UUID worldUID = locWorld.getUID();
+        if (playerIndex.isWorldEmpty(worldUID)) return false;
 
-        return activeSpawners;
+        return playerIndex.anyPlayerInRange(worldUID,
+                spawnerLoc.getX(), spawnerLoc.getY(), spawnerLoc.getZ(),
+                s.getSpawnerRange());
     }
 
 }
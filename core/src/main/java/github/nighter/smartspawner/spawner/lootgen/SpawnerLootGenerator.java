@@ -6,15 +6,20 @@ import github.nighter.smartspawner.spawner.properties.SpawnerData;
 import github.nighter.smartspawner.spawner.data.SpawnerManager;
 import github.nighter.smartspawner.spawner.properties.VirtualInventory;
 import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.spawner.lootgen.loot.CompiledLootTable;
+import github.nighter.smartspawner.spawner.lootgen.loot.EntityLootConfig;
 import github.nighter.smartspawner.spawner.lootgen.loot.LootItem;
+import github.nighter.smartspawner.spawner.lootgen.loot.LootSampler;
 
 import org.bukkit.*;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class SpawnerLootGenerator {
+    // Ticks an accrual waits at most for a spawner's data lock before its missed cycles are dropped
+    private static final int ACCRUAL_LOCK_ATTEMPTS = 20;
+
     private final SmartSpawner plugin;
     private final SpawnerGuiViewManager spawnerGuiViewManager;
     private final SpawnerManager spawnerManager;
@@ -55,19 +60,17 @@ public class SpawnerLootGenerator {
             final long spawnTime;
             final int minMobs;
             final int maxMobs;
-            final AtomicInteger usedSlots;
-            final AtomicInteger maxSlots;
             
             try {
                 // Timing is now managed by SpawnerRangeChecker (timer) and SpawnerGuiViewManager (spawn trigger)
                 // No need for time check here since spawn is only called when timer expires
                 
                 // Get exact inventory slot usage
-                usedSlots = new AtomicInteger(spawner.getVirtualInventory().getUsedSlots());
-                maxSlots = new AtomicInteger(spawner.getMaxSpawnerLootSlots());
+                int usedSlots = spawner.getVirtualInventory().getUsedSlots();
+                int maxSlots = spawner.getMaxSpawnerLootSlots();
 
                 // Check if both inventory and exp are full, only then skip loot generation
-                if (usedSlots.get() >= maxSlots.get() && spawner.getSpawnerExp() >= spawner.getMaxStoredExp()) {
+                if (usedSlots >= maxSlots && spawner.getSpawnerExp() >= spawner.getMaxStoredExp()) {
                     if (!spawner.getIsAtCapacity()) {
                         spawner.setIsAtCapacity(true);
                     }
@@ -94,142 +97,171 @@ public class SpawnerLootGenerator {
                 }
 
                 // Switch back to main thread for Bukkit API calls using location-aware scheduling
-                Scheduler.runLocationTask(spawner.getSpawnerLocation(), () -> {
-                    // Re-acquire the lock for the update phase
-                    // This ensures the spawner hasn't been modified (like stack size changes)
-                    // between our async calculations and now
-                    boolean updateLockAcquired = spawner.getLootGenerationLock().tryLock();
-                    if (!updateLockAcquired) {
-                        // Lock is held, stack size is changing, skip this update
-                        return;
-                    }
-
-                    try {
-                        // Modified approach: Handle items and exp separately
-                        boolean changed = false;
+                Scheduler.runLocationTask(spawner.getSpawnerLocation(), () -> applyLoot(spawner, loot, spawnTime));
+            });
+        } finally {
+            spawner.getLootGenerationLock().unlock();
+        }
+    }
 
-                        // Process experience if there's any to add and not at max
-                        if (loot.experience() > 0 && spawner.getSpawnerExp() < spawner.getMaxStoredExp()) {
-                            int currentExp = spawner.getSpawnerExp();
-                            int maxExp = spawner.getMaxStoredExp();
-                            int newExp = Math.min(currentExp + loot.experience(), maxExp);
+    /**
+     * Adds generated loot to the spawner, capped by its free slots and max stored exp.
+     * Must run on the spawner's region thread.
+     *
+     * @param spawner   The spawner to add loot to
+     * @param loot      The generated loot
+     * @param spawnTime The spawn time to record once loot was added
+     */
+    private void applyLoot(SpawnerData spawner, LootResult loot, long spawnTime) {
+        // Re-acquire the lock for the update phase
+        // This ensures the spawner hasn't been modified (like stack size changes)
+        // between our async calculations and now
+        boolean updateLockAcquired = spawner.getLootGenerationLock().tryLock();
+        if (!updateLockAcquired) {
+            // Lock is held, stack size is changing, skip this update
+            return;
+        }
 
-                            if (newExp != currentExp) {
-                                spawner.setSpawnerExp(newExp);
-                                changed = true;
-                            }
-                        }
+        try {
+            // Modified approach: Handle items and exp separately
+            boolean changed = false;
+
+            // Process experience if there's any to add and not at max
+            if (loot.experience() > 0 && spawner.getSpawnerExp() < spawner.getMaxStoredExp()) {
+                int currentExp = spawner.getSpawnerExp();
+                int maxExp = spawner.getMaxStoredExp();
+                int newExp = (int) Math.min((long) currentExp + loot.experience(), maxExp);
+
+                if (newExp != currentExp) {
+                    spawner.setSpawnerExp(newExp);
+                    changed = true;
+                }
+            }
 
-                        // Re-check max slots as it could have changed
-                        maxSlots.set(spawner.getMaxSpawnerLootSlots());
-                        usedSlots.set(spawner.getVirtualInventory().getUsedSlots());
+            // Re-check max slots as it could have changed
+            int maxSlots = spawner.getMaxSpawnerLootSlots();
+            int usedSlots = spawner.getVirtualInventory().getUsedSlots();
 
-                        // Process items if there are any to add and inventory isn't completely full
-                        if (!loot.items().isEmpty() && usedSlots.get() < maxSlots.get()) {
-                            List<ItemStack> itemsToAdd = new ArrayList<>(loot.items());
+            // Process items if there are any to add and inventory isn't completely full
+            if (!loot.items().isEmpty() && usedSlots < maxSlots) {
+                List<ItemStack> itemsToAdd = new ArrayList<>(loot.items());
 
-                            // Get exact calculation of slots with the new items
-                            int totalRequiredSlots = calculateRequiredSlots(itemsToAdd, spawner.getVirtualInventory());
+                // Get exact calculation of slots with the new items
+                long totalRequiredSlots = calculateRequiredSlots(itemsToAdd, spawner.getVirtualInventory());
 
-                            // If we'll exceed the limit, limit the items we're adding
-                            if (totalRequiredSlots > maxSlots.get()) {
-                                itemsToAdd = limitItemsToAvailableSlots(itemsToAdd, spawner);
-                            }
+                // If we'll exceed the limit, limit the items we're adding
+                if (totalRequiredSlots > maxSlots) {
+                    itemsToAdd = limitItemsToAvailableSlots(itemsToAdd, spawner);
+                }
 
-                            if (!itemsToAdd.isEmpty()) {
-                                spawner.addItemsAndUpdateSellValue(itemsToAdd);
-                                changed = true;
-                            }
-                        }
+                if (!itemsToAdd.isEmpty()) {
+                    spawner.addItemsAndUpdateSellValue(itemsToAdd);
+                    changed = true;
+                }
+            }
 
-                        if (!changed) {
-                            return;
-                        }
+            if (!changed) {
+                return;
+            }
 
-                        // Update spawn time only after successful loot addition
-                        // This prevents skipped spawns when the lock fails
-                        // Must acquire dataLock to safely update lastSpawnTime
-                        boolean updateDataLockAcquired = spawner.getDataLock().tryLock();
-                        if (updateDataLockAcquired) {
-                            try {
-                                spawner.setLastSpawnTime(spawnTime);
-                            } finally {
-                                spawner.getDataLock().unlock();
-                            }
-                        }
+            // Update spawn time only after successful loot addition
+            // This prevents skipped spawns when the lock fails
+            // Must acquire dataLock to safely update lastSpawnTime
+            boolean updateDataLockAcquired = spawner.getDataLock().tryLock();
+            if (updateDataLockAcquired) {
+                try {
+                    spawner.setLastSpawnTime(spawnTime);
+                } finally {
+                    spawner.getDataLock().unlock();
+                }
+            }
 
-                        // Check if spawner is now at capacity and update status if needed
-                        spawner.updateCapacityStatus();
+            // Check if spawner is now at capacity and update status if needed
+            spawner.updateCapacityStatus();
 
-                        // Handle GUI updates in batches
-                        handleGuiUpdates(spawner);
+            // Handle GUI updates in batches
+            handleGuiUpdates(spawner);
 
-                        // Mark for saving only once
-                        spawnerManager.markSpawnerModified(spawner.getSpawnerId());
-                    } finally {
-                        spawner.getLootGenerationLock().unlock();
-                    }
-                });
-            });
+            // Mark for saving only once
+            spawnerManager.markSpawnerModified(spawner.getSpawnerId());
         } finally {
             spawner.getLootGenerationLock().unlock();
         }
     }
 
     public LootResult generateLoot(int minMobs, int maxMobs, SpawnerData spawner) {
-
         int mobCount = random.nextInt(maxMobs - minMobs + 1) + minMobs;
-        int totalExperience = spawner.getEntityExperienceValue() * mobCount;
+        return generateLootForMobs(mobCount, spawner, Integer.MAX_VALUE);
+    }
 
-        // Get valid items from the spawner's EntityLootConfig
-        List<LootItem> validItems =  spawner.getValidLootItems();
+    /**
+     * Generates the combined loot of a number of mobs.
+     *
+     * @param mobCount  Number of mobs to roll loot for
+     * @param spawner   The spawner to generate loot for
+     * @param slotLimit Maximum number of stacks to build per item type
+     * @return The generated loot
+     */
+    private LootResult generateLootForMobs(int mobCount, SpawnerData spawner, int slotLimit) {
+        int totalExperience = (int) Math.min(Integer.MAX_VALUE, (long) spawner.getEntityExperienceValue() * mobCount);
 
-        if (validItems.isEmpty()) {
+        // Resolve the spawner's filter against the loot table compiled at config load
+        EntityLootConfig lootConfig = spawner.getLootConfig();
+        long[] filterMask = spawner.getLootFilterMask();
+
+        if (lootConfig == null || filterMask == null) {
             return new LootResult(Collections.emptyList(), totalExperience);
         }
 
-        // Use a Map to consolidate identical drops instead of List
-        Map<ItemStack, Integer> consolidatedLoot = new HashMap<>();
+        CompiledLootTable table = lootConfig.compiledTable();
+
+        // Use a Map to consolidate identical drops instead of List. Amounts are summed as longs, the draws of a
+        // high stack catching up on a long absence can exceed an int before they are capped below
+        Map<ItemStack, Long> consolidatedLoot = new HashMap<>();
 
         // Process mobs in batch rather than individually
-        for (LootItem lootItem : validItems) {
-            // Calculate the probability for the entire mob batch at once
-            int successfulDrops = 0;
-
-            // Calculate binomial distribution - how many mobs will drop this item
-            for (int i = 0; i < mobCount; i++) {
-                if (random.nextDouble() * 100 <= lootItem.chance()) {
-                    successfulDrops++;
-                }
-            }
+        for (int index = 0; index < table.size(); index++) {
+            if (CompiledLootTable.isMasked(filterMask, index)) continue;
+            LootItem lootItem = table.getItem(index);
+
+            // Draw how many mobs drop this item for the entire batch at once
+            int successfulDrops = LootSampler.binomial(random, mobCount, lootItem.chance() / 100.0);
 
             if (successfulDrops > 0) {
-                // Create item just once per loot type
-                ItemStack prototype = lootItem.createItemStack(random);
+                // Reuse the shared prototype, only items with random durability need a new stack
+                ItemStack prototype = table.getPrototype(index);
+                if (prototype == null) {
+                    prototype = lootItem.createItemStack(random);
+                }
                 if (prototype != null) {
                     // Total amount across all mobs
-                    int totalAmount = 0;
-                    for (int i = 0; i < successfulDrops; i++) {
-                        totalAmount += lootItem.generateAmount(random);
-                    }
+                    int totalAmount = LootSampler.uniformSum(random, successfulDrops,
+                            lootItem.minAmount(), lootItem.maxAmount());
 
                     if (totalAmount > 0) {
                         // Add to consolidated map
-                        consolidatedLoot.merge(prototype, totalAmount, Integer::sum);
+                        consolidatedLoot.merge(prototype, (long) totalAmount, Long::sum);
                     }
                 }
             }
         }
 
+        if (consolidatedLoot.isEmpty()) {
+            return new LootResult(Collections.emptyList(), totalExperience);
+        }
+
         // Convert consolidated map to item stacks
         List<ItemStack> finalLoot = new ArrayList<>(consolidatedLoot.size());
-        for (Map.Entry<ItemStack, Integer> entry : consolidatedLoot.entrySet()) {
+        for (Map.Entry<ItemStack, Long> entry : consolidatedLoot.entrySet()) {
             ItemStack item = entry.getKey().clone();
-            item.setAmount(Math.min(entry.getValue(), item.getMaxStackSize()));
+            // Never build more stacks than could be stored anyway
+            long storable = Math.min((long) slotLimit * item.getMaxStackSize(), Integer.MAX_VALUE);
+            int totalAmount = (int) Math.min(entry.getValue(), storable);
+            item.setAmount(Math.min(totalAmount, item.getMaxStackSize()));
             finalLoot.add(item);
 
             // Handle amounts exceeding max stack size
-            int remaining = entry.getValue() - item.getMaxStackSize();
+            int remaining = totalAmount - item.getMaxStackSize();
             while (remaining > 0) {
                 ItemStack extraStack = item.clone();
                 extraStack.setAmount(Math.min(remaining, item.getMaxStackSize()));
@@ -241,17 +273,76 @@ public class SpawnerLootGenerator {
         return new LootResult(finalLoot, totalExperience);
     }
 
+    /**
+     * Adds the loot of several missed cycles in one aggregated draw, instead of simulating each cycle.
+     * The number of mobs across all cycles and the drops of those mobs are sampled directly,
+     * and the result is capped by the spawner's free slots and max stored exp.
+     *
+     * @param spawner The spawner to catch up
+     * @param cycles  Number of loot cycles that were missed
+     */
+    public void accrueMissedCycles(SpawnerData spawner, long cycles) {
+        accrueMissedCycles(spawner, cycles, 0);
+    }
+
+    private void accrueMissedCycles(SpawnerData spawner, long cycles, int attempt) {
+        if (cycles <= 0 || spawner.getSpawnerLocation() == null || spawner.getSpawnerStop().get()) {
+            return;
+        }
+
+        final int minMobs;
+        final int maxMobs;
+        final int slotLimit;
+        // Don't wait for the lock, a stack size change holds it; try again on a later tick instead
+        if (!spawner.getDataLock().tryLock()) {
+            if (attempt < ACCRUAL_LOCK_ATTEMPTS) {
+                Scheduler.runLocationTaskLater(spawner.getSpawnerLocation(),
+                        () -> accrueMissedCycles(spawner, cycles, attempt + 1), 1L);
+            } else {
+                plugin.debug("Dropped " + cycles + " accrued loot cycles of spawner " + spawner.getSpawnerId()
+                        + ", its data stayed locked");
+            }
+            return;
+        }
+        try {
+            if (spawner.getVirtualInventory().getUsedSlots() >= spawner.getMaxSpawnerLootSlots()
+                    && spawner.getSpawnerExp() >= spawner.getMaxStoredExp()) {
+                return;
+            }
+            minMobs = spawner.getMinMobs();
+            maxMobs = spawner.getMaxMobs();
+            slotLimit = spawner.getMaxSpawnerLootSlots();
+        } finally {
+            spawner.getDataLock().unlock();
+        }
+
+        final long spawnTime = System.currentTimeMillis();
+        final int cycleCount = (int) Math.min(Integer.MAX_VALUE, cycles);
+
+        Scheduler.runTaskAsync(() -> {
+            int mobCount = LootSampler.uniformSum(random, cycleCount, minMobs, maxMobs);
+            LootResult loot = generateLootForMobs(mobCount, spawner, slotLimit);
+
+            if (loot.items().isEmpty() && loot.experience() == 0) {
+                return;
+            }
+
+            Scheduler.runLocationTask(spawner.getSpawnerLocation(), () -> applyLoot(spawner, loot, spawnTime));
+        });
+    }
+
     private List<ItemStack> limitItemsToAvailableSlots(List<ItemStack> items, SpawnerData spawner) {
         VirtualInventory currentInventory = spawner.getVirtualInventory();
         int maxSlots = spawner.getMaxSpawnerLootSlots();
 
         // If already full, return empty list
-        if (currentInventory.getUsedSlots() >= maxSlots) {
+        long usedSlots = currentInventory.getTotalUsedSlots();
+        if (usedSlots >= maxSlots) {
             return Collections.emptyList();
         }
 
-        // Create a simulation inventory
-        Map<VirtualInventory.ItemSignature, Long> simulatedInventory = new HashMap<>(currentInventory.getConsolidatedItems());
+        // Only the accepted additions are tracked, stored amounts are read from the inventory
+        Map<VirtualInventory.ItemSignature, Long> acceptedAmounts = new HashMap<>();
         List<ItemStack> acceptedItems = new ArrayList<>();
 
         // Sort items by priority (you can change this sorting strategy)
@@ -260,38 +351,27 @@ public class SpawnerLootGenerator {
         for (ItemStack item : items) {
             if (item == null || item.getAmount() <= 0) continue;
 
-            // Add to simulation and check slot count
-            Map<VirtualInventory.ItemSignature, Long> tempSimulation = new HashMap<>(simulatedInventory);
             // Use cached signature to avoid excessive cloning
             VirtualInventory.ItemSignature sig = VirtualInventory.getSignature(item);
-            tempSimulation.merge(sig, (long) item.getAmount(), Long::sum);
-
-            // Calculate slots needed
-            int slotsNeeded = calculateSlots(tempSimulation);
+            int maxStackSize = item.getMaxStackSize();
+            long currentAmount = currentInventory.getAmount(sig) + acceptedAmounts.getOrDefault(sig, 0L);
+            long slotsBefore = VirtualInventory.slotsFor(currentAmount, maxStackSize);
+            long slotsAfter = VirtualInventory.slotsFor(currentAmount + item.getAmount(), maxStackSize);
 
             // If we still have room, accept this item
-            if (slotsNeeded <= maxSlots) {
+            if (usedSlots + slotsAfter - slotsBefore <= maxSlots) {
                 acceptedItems.add(item);
-                simulatedInventory = tempSimulation; // Update simulation
+                acceptedAmounts.merge(sig, (long) item.getAmount(), Long::sum);
+                usedSlots += slotsAfter - slotsBefore;
             } else {
-                // Try to accept a partial amount of this item
-                int maxStackSize = item.getMaxStackSize();
-                long currentAmount = simulatedInventory.getOrDefault(sig, 0L);
-
-                // Calculate how many we can add without exceeding slot limit
-                int remainingSlots = maxSlots - calculateSlots(simulatedInventory);
-                if (remainingSlots > 0) {
-                    // Maximum items we can add in the remaining slots
-                    long maxAddAmount = (long) remainingSlots * maxStackSize - (currentAmount % maxStackSize);
-                    if (maxAddAmount > 0) {
-                        // Create a partial item
-                        ItemStack partialItem = item.clone();
-                        partialItem.setAmount((int) Math.min(maxAddAmount, item.getAmount()));
-                        acceptedItems.add(partialItem);
-
-                        // Update simulation
-                        simulatedInventory.merge(sig, (long) partialItem.getAmount(), Long::sum);
-                    }
+                // Accept what fits in the remaining slots plus the free space of this item's last partial stack
+                long freeInLastStack = slotsBefore * maxStackSize - currentAmount;
+                long maxAddAmount = (maxSlots - usedSlots) * maxStackSize + freeInLastStack;
+                if (maxAddAmount > 0) {
+                    // Create a partial item
+                    ItemStack partialItem = item.clone();
+                    partialItem.setAmount((int) Math.min(maxAddAmount, item.getAmount()));
+                    acceptedItems.add(partialItem);
                 }
 
                 // We've filled all slots, stop processing
@@ -302,38 +382,26 @@ public class SpawnerLootGenerator {
         return acceptedItems;
     }
 
-    private int calculateSlots(Map<VirtualInventory.ItemSignature, Long> items) {
-        // Use a more efficient calculation approach
-        return items.entrySet().stream()
-                .mapToInt(entry -> {
-                    long amount = entry.getValue();
-                    int maxStackSize = entry.getKey().getTemplateRef().getMaxStackSize();
-                    // Use integer division with ceiling function
-                    return (int) ((amount + maxStackSize - 1) / maxStackSize);
-                })
-                .sum();
-    }
-
-    private int calculateRequiredSlots(List<ItemStack> items, VirtualInventory inventory) {
-        // Create a temporary map to simulate how items would stack
-        Map<VirtualInventory.ItemSignature, Long> simulatedItems = new HashMap<>();
-
-        // First, get existing items if we need to account for them
-        if (inventory != null) {
-            simulatedItems.putAll(inventory.getConsolidatedItems());
-        }
-
-        // Add the new items to our simulation
+    private long calculateRequiredSlots(List<ItemStack> items, VirtualInventory inventory) {
+        // Consolidate only the new items, existing amounts are read from the inventory
+        Map<VirtualInventory.ItemSignature, Long> addedItems = new HashMap<>();
         for (ItemStack item : items) {
             if (item == null || item.getAmount() <= 0) continue;
 
             // Use cached signature to avoid excessive cloning
             VirtualInventory.ItemSignature sig = VirtualInventory.getSignature(item);
-            simulatedItems.merge(sig, (long) item.getAmount(), Long::sum);
+            addedItems.merge(sig, (long) item.getAmount(), Long::sum);
         }
 
-        // Calculate exact slots needed
-        return calculateSlots(simulatedItems);
+        // Start from the exact slot count and add what each item type grows by
+        long requiredSlots = inventory.getTotalUsedSlots();
+        for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : addedItems.entrySet()) {
+            int maxStackSize = entry.getKey().getTemplateRef().getMaxStackSize();
+            long currentAmount = inventory.getAmount(entry.getKey());
+            requiredSlots += VirtualInventory.slotsFor(currentAmount + entry.getValue(), maxStackSize)
+                    - VirtualInventory.slotsFor(currentAmount, maxStackSize);
+        }
+        return requiredSlots;
     }
 
     /**
@@ -0,0 +1,111 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Min-heap of active spawners keyed by the time their next loot cycle is due.
+ * Each range check only pops the spawners that are due instead of polling every active spawner.
+ *
+ * <p>Rescheduling or removing a spawner marks its previous entry as cancelled; cancelled entries
+ * are discarded lazily when they reach the top of the heap or when the heap is compacted.
+ */
+class SpawnerLootScheduler {
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e.dueTime));
+    private final Map<SpawnerData, Entry> entries = new IdentityHashMap<>();
+
+    /**
+     * Schedules (or reschedules) the next loot cycle of a spawner.
+     *
+     * @param spawner The spawner to schedule
+     * @param dueTime Epoch millis at which the cycle is due
+     */
+    synchronized void schedule(SpawnerData spawner, long dueTime) {
+        Entry previous = entries.remove(spawner);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+
+        Entry entry = new Entry(spawner, dueTime);
+        entries.put(spawner, entry);
+        queue.add(entry);
+        compactIfNeeded();
+    }
+
+    /**
+     * Schedules a spawner only if it has no pending entry yet.
+     *
+     * @return true if a new entry was added
+     */
+    synchronized boolean scheduleIfAbsent(SpawnerData spawner, long dueTime) {
+        if (entries.containsKey(spawner)) {
+            return false;
+        }
+        schedule(spawner, dueTime);
+        return true;
+    }
+
+    synchronized void unschedule(SpawnerData spawner) {
+        Entry entry = entries.remove(spawner);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * Removes and returns every spawner whose cycle is due at {@code now}.
+     * Returned spawners are no longer scheduled; callers reschedule them after handling.
+     */
+    synchronized List<SpawnerData> pollDue(long now) {
+        if (queue.isEmpty() || queue.peek().dueTime > now) {
+            return Collections.emptyList();
+        }
+
+        List<SpawnerData> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().dueTime <= now) {
+            Entry entry = queue.poll();
+            if (entry.cancelled) continue;
+
+            entries.remove(entry.spawner);
+            due.add(entry.spawner);
+        }
+        return due;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized void clear() {
+        queue.clear();
+        entries.clear();
+    }
+
+    private void compactIfNeeded() {
+        // Frequent activation churn leaves cancelled entries behind; rebuild once they dominate the heap
+        if (queue.size() > COMPACT_THRESHOLD && queue.size() > entries.size() * 2) {
+            queue.clear();
+            queue.addAll(entries.values());
+        }
+    }
+
+    private static final class Entry {
+        private final SpawnerData spawner;
+        private final long dueTime;
+        private boolean cancelled;
+
+        private Entry(SpawnerData spawner, long dueTime) {
+            this.spawner = spawner;
+            this.dueTime = dueTime;
+        }
+    }
+}
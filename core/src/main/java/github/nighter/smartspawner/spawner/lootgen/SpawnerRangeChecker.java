@@ -7,10 +7,12 @@ import github.nighter.smartspawner.Scheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -20,30 +22,84 @@ public class SpawnerRangeChecker {
     private final SpawnerManager spawnerManager;
     private final ExecutorService executor;
 
+    // Incremental mode settings
+    private volatile boolean incrementalMode;
+    private volatile long fullRescanIntervalChecks;
+
+    // Loot accrual settings
+    private volatile boolean lootAccrual;
+    private volatile long maxAccrualMillis;
+
+    // State below is only touched from the range check executor thread
+    private final Map<UUID, PlayerRangeWrapper> lastPlayerPositions = new HashMap<>();
+    private long checksSinceFullRescan = Long.MAX_VALUE - 1; // Forces a full rescan on the first check
+    private int maxSpawnerRange;
+
+    // Spawners added since the last check, e.g. freshly placed or loaded with a pending world
+    private final Queue<SpawnerData> pendingChecks = new ConcurrentLinkedQueue<>();
+
+    // Active spawners ordered by the time their next loot cycle is due
+    private final SpawnerLootScheduler lootScheduler = new SpawnerLootScheduler();
+
     public SpawnerRangeChecker(SmartSpawner plugin) {
         this.plugin = plugin;
         this.spawnerManager = plugin.getSpawnerManager();
         this.executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "SmartSpawner-RangeCheck"));
+        loadConfig();
         initializeRangeCheckTask();
     }
 
+    public void loadConfig() {
+        this.incrementalMode = plugin.getConfig().getBoolean("performance.range_check.incremental", true);
+        long rescanTicks = plugin.getTimeFromConfig("performance.range_check.full_rescan_interval", "30s");
+        this.fullRescanIntervalChecks = Math.max(1L, rescanTicks / CHECK_INTERVAL);
+        this.lootAccrual = plugin.getConfig().getBoolean("performance.loot_accrual.enabled", false);
+        this.maxAccrualMillis = plugin.getTimeFromConfig("performance.loot_accrual.max_offline_time", "24h") * 50L;
+    }
+
     private void initializeRangeCheckTask() {
         // Using the global scheduler, but only for coordinating region-specific checks
         Scheduler.runTaskTimer(this::scheduleRegionSpecificCheck, CHECK_INTERVAL, CHECK_INTERVAL);
     }
 
+    /**
+     * Queues a spawner to be evaluated on the next range check, regardless of player movement.
+     *
+     * @param spawner The spawner to evaluate
+     */
+    public void requestCheck(SpawnerData spawner) {
+        if (spawner != null) {
+            pendingChecks.add(spawner);
+        }
+    }
+
     private void scheduleRegionSpecificCheck() {
         PlayerRangeWrapper[] rangePlayers = getRangePlayers();
 
         this.executor.execute(() -> {
-            final List<SpawnerData> allSpawners = spawnerManager.getAllSpawners();
+            final PlayerChunkIndex playerIndex = new PlayerChunkIndex(rangePlayers);
+            final boolean fullRescan = !incrementalMode || ++checksSinceFullRescan >= fullRescanIntervalChecks;
+
+            final List<SpawnerData> candidates;
+            if (fullRescan) {
+                candidates = spawnerManager.getAllSpawners();
+                pendingChecks.clear();
+                checksSinceFullRescan = 0;
+                maxSpawnerRange = 0;
+                for (SpawnerData sd : candidates) {
+                    maxSpawnerRange = Math.max(maxSpawnerRange, sd.getSpawnerRange());
+                }
+                recordPlayerPositions(rangePlayers);
+            } else {
+                candidates = collectIncrementalCandidates(rangePlayers);
+            }
 
-            final RangeMath rangeCheck = new RangeMath(rangePlayers, allSpawners);
+            final RangeMath rangeCheck = new RangeMath(playerIndex, candidates);
             final boolean[] spawnersPlayerFound = rangeCheck.getActiveSpawners();
 
             for (int i = 0; i < spawnersPlayerFound.length; i++) {
                 final boolean expectedStop = !spawnersPlayerFound[i];
-                final SpawnerData sd = allSpawners.get(i);
+                final SpawnerData sd = candidates.get(i);
                 final String spawnerId = sd.getSpawnerId();
 
                 // Atomically update spawner stop flag only if it has changed
@@ -60,17 +116,75 @@ public class SpawnerRangeChecker {
                             handleSpawnerStateChange(sd, expectedStop);
                         }
                     });
+                } else if (expectedStop || !sd.getSpawnerActive()) {
+                    lootScheduler.unschedule(sd);
                 } else {
-                    // Spawner state hasn't changed, but check if it's time to spawn loot
-                    // Only process active spawners that are not stopped
-                    if (sd.getSpawnerActive() && !sd.getSpawnerStop().get()) {
-                        checkAndSpawnLoot(sd);
-                    }
+                    // Already running (e.g. restored from storage), make sure its loot cycle is tracked.
+                    // Freshly activated spawners are scheduled by activateSpawner instead
+                    lootScheduler.scheduleIfAbsent(sd, sd.getLastSpawnTime() + getSpawnDelayMillis(sd));
                 }
             }
+
+            // Only spawners whose loot cycle is due are visited
+            processDueSpawners(System.currentTimeMillis());
         });
     }
 
+    /**
+     * Collects the spawners that may have changed state since the previous check:
+     * spawners around the old and new block of every player that moved, joined or left,
+     * plus spawners explicitly queued through {@link #requestCheck(SpawnerData)}.
+     */
+    private List<SpawnerData> collectIncrementalCandidates(PlayerRangeWrapper[] rangePlayers) {
+        final Set<SpawnerData> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        SpawnerData pending;
+        while ((pending = pendingChecks.poll()) != null) {
+            candidates.add(pending);
+            maxSpawnerRange = Math.max(maxSpawnerRange, pending.getSpawnerRange());
+        }
+
+        final int chunkRadius = (maxSpawnerRange >> 4) + 1;
+        final Set<UUID> seenPlayers = new HashSet<>(rangePlayers.length);
+
+        for (PlayerRangeWrapper current : rangePlayers) {
+            seenPlayers.add(current.playerId());
+            PlayerRangeWrapper previous = lastPlayerPositions.put(current.playerId(), current);
+            if (current.isSameBlockAs(previous)) continue;
+
+            if (previous != null) {
+                collectSpawnersAround(previous, chunkRadius, candidates);
+            }
+            collectSpawnersAround(current, chunkRadius, candidates);
+        }
+
+        // Players that went offline since the last check
+        Iterator<Map.Entry<UUID, PlayerRangeWrapper>> it = lastPlayerPositions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, PlayerRangeWrapper> entry = it.next();
+            if (!seenPlayers.contains(entry.getKey())) {
+                collectSpawnersAround(entry.getValue(), chunkRadius, candidates);
+                it.remove();
+            }
+        }
+
+        return new ArrayList<>(candidates);
+    }
+
+    private void collectSpawnersAround(PlayerRangeWrapper position, int chunkRadius, Collection<SpawnerData> out) {
+        spawnerManager.collectSpawnersNearChunk(position.worldName(),
+                ((int) Math.floor(position.x())) >> 4,
+                ((int) Math.floor(position.z())) >> 4,
+                chunkRadius, out);
+    }
+
+    private void recordPlayerPositions(PlayerRangeWrapper[] rangePlayers) {
+        lastPlayerPositions.clear();
+        for (PlayerRangeWrapper p : rangePlayers) {
+            lastPlayerPositions.put(p.playerId(), p);
+        }
+    }
+
     private PlayerRangeWrapper[] getRangePlayers() {
         final Player[] onlinePlayers = Bukkit.getOnlinePlayers().toArray(new Player[0]);
         final PlayerRangeWrapper[] rangePlayers = new PlayerRangeWrapper[onlinePlayers.length];
@@ -82,7 +196,8 @@ public class SpawnerRangeChecker {
                     && p.getGameMode() != GameMode.SPECTATOR;
 
             // Store data in wrapper for faster access
-            rangePlayers[i++] = new PlayerRangeWrapper(p.getWorld().getUID(),
+            World world = p.getWorld();
+            rangePlayers[i++] = new PlayerRangeWrapper(p.getUniqueId(), world.getUID(), world.getName(),
                     p.getX(), p.getY(), p.getZ(),
                     conditions
             );
@@ -121,6 +236,7 @@ public class SpawnerRangeChecker {
             activateSpawner(spawner);
         } else {
             deactivateSpawner(spawner);
+            spawner.setInactiveSince(System.currentTimeMillis());
         }
 
         // Force GUI update when spawner state changes
@@ -131,15 +247,22 @@ public class SpawnerRangeChecker {
 
     public void activateSpawner(SpawnerData spawner) {
         deactivateSpawner(spawner);
+        long inactiveSince = spawner.getInactiveSince();
+        spawner.setInactiveSince(0L);
 
         // Check if spawner is actually active before starting
         if (!spawner.getSpawnerActive()) {
             return;
         }
 
-        // Set lastSpawnTime to current time to start countdown immediately
         long currentTime = System.currentTimeMillis();
+        if (lootAccrual) {
+            accrueMissedCycles(spawner, inactiveSince, currentTime);
+        }
+
+        // Set lastSpawnTime to current time to start countdown immediately
         spawner.setLastSpawnTime(currentTime);
+        lootScheduler.schedule(spawner, currentTime + getSpawnDelayMillis(spawner));
 
         // Immediately update any open GUIs to show the countdown
         if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) {
@@ -147,93 +270,111 @@ public class SpawnerRangeChecker {
         }
     }
 
+    /**
+     * Grants the loot cycles a spawner missed while the range check had it stopped, counted from the moment it
+     * was stopped. Spawners that were never stopped since they were loaded have nothing to catch up on.
+     */
+    private void accrueMissedCycles(SpawnerData spawner, long inactiveSince, long currentTime) {
+        if (inactiveSince <= 0L || currentTime <= inactiveSince) {
+            return;
+        }
+
+        long elapsed = Math.min(currentTime - inactiveSince, maxAccrualMillis);
+        long cycles = elapsed / getSpawnDelayMillis(spawner);
+        if (cycles > 0) {
+            plugin.getSpawnerLootGenerator().accrueMissedCycles(spawner, cycles);
+        }
+    }
+
     public void deactivateSpawner(SpawnerData spawner) {
+        lootScheduler.unschedule(spawner);
+
         // Clear any pre-generated loot when deactivating
         spawner.clearPreGeneratedLoot();
     }
 
-    /**
-     * Checks if a spawner should spawn loot based on its timer and spawns if needed.
-     * This runs independently of GUI updates to ensure loot spawns even when no one is viewing.
-     *
-     * @param spawner The spawner to check
-     */
-    private void checkAndSpawnLoot(SpawnerData spawner) {
-        // Calculate spawn delay
+    private long getSpawnDelayMillis(SpawnerData spawner) {
         long cachedDelay = spawner.getCachedSpawnDelay();
         if (cachedDelay == 0) {
             cachedDelay = (spawner.getSpawnDelay() + 20L) * 50L; // Convert ticks to milliseconds
             spawner.setCachedSpawnDelay(cachedDelay);
         }
+        return cachedDelay;
+    }
+
+    /**
+     * Pops every spawner whose loot cycle is due and spawns its loot.
+     * This runs independently of GUI updates to ensure loot spawns even when no one is viewing.
+     *
+     * @param now Current epoch millis
+     */
+    private void processDueSpawners(long now) {
+        for (SpawnerData spawner : lootScheduler.pollDue(now)) {
+            // Removed, stopped or inactive spawners simply drop out so the heap only holds active ones.
+            // activateSpawner or the next range check of the spawner schedules them again
+            if (spawnerManager.getSpawnerById(spawner.getSpawnerId()) != spawner) continue;
+            if (spawner.getSpawnerStop().get()) continue;
+            if (!spawner.getSpawnerActive()) continue;
+
+            final long delay = getSpawnDelayMillis(spawner);
+
+            // lastSpawnTime may have moved since the entry was queued (early loot, stack changes)
+            long dueTime = spawner.getLastSpawnTime() + delay;
+            if (dueTime > now) {
+                lootScheduler.schedule(spawner, dueTime);
+                continue;
+            }
+
+            spawnLoot(spawner, delay);
+            lootScheduler.schedule(spawner, now + delay);
+        }
+    }
 
-        final long finalCachedDelay = cachedDelay; // Make effectively final for lambda
+    private void spawnLoot(SpawnerData spawner, long spawnDelay) {
+        Location spawnerLocation = spawner.getSpawnerLocation();
+        if (spawnerLocation == null) {
+            return;
+        }
 
-        long currentTime = System.currentTimeMillis();
-        long lastSpawnTime = spawner.getLastSpawnTime();
-        long timeElapsed = currentTime - lastSpawnTime;
-
-        // Check if it's time to spawn loot
-        if (timeElapsed >= cachedDelay) {
-            // Try to acquire lock with short timeout to avoid blocking
-            try {
-                if (spawner.getDataLock().tryLock(50, java.util.concurrent.TimeUnit.MILLISECONDS)) {
-                    try {
-                        // Double-check time and state after acquiring lock
-                        currentTime = System.currentTimeMillis();
-                        lastSpawnTime = spawner.getLastSpawnTime();
-                        timeElapsed = currentTime - lastSpawnTime;
-
-                        if (timeElapsed >= cachedDelay && spawner.getSpawnerActive() && !spawner.getSpawnerStop().get()) {
-                            Location spawnerLocation = spawner.getSpawnerLocation();
-                            if (spawnerLocation != null) {
-                                // Schedule loot spawning on the correct region thread
-                                Scheduler.runLocationTask(spawnerLocation, () -> {
-                                    // Final check before spawning
-                                    if (!spawner.getSpawnerActive() || spawner.getSpawnerStop().get()) {
-                                        spawner.clearPreGeneratedLoot();
-                                        return;
-                                    }
-
-                                    // Check if loot was already added early (for smooth UX)
-                                    // If so, just update the timer without spawning again
-                                    long timeSinceLastSpawn = System.currentTimeMillis() - spawner.getLastSpawnTime();
-                                    if (timeSinceLastSpawn < finalCachedDelay - 100) { // 100ms tolerance
-                                        // Loot was already added early, just update GUI
-                                        if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) {
-                                            plugin.getSpawnerGuiViewManager().updateSpawnerMenuViewers(spawner);
-                                        }
-                                        return;
-                                    }
-
-                                    // Spawn loot (pre-generated if available, otherwise generate new)
-                                    if (spawner.hasPreGeneratedLoot()) {
-                                        List<ItemStack> items = spawner.getAndClearPreGeneratedItems();
-                                        int exp = spawner.getAndClearPreGeneratedExperience();
-                                        plugin.getSpawnerLootGenerator().addPreGeneratedLoot(spawner, items, exp);
-                                    } else {
-                                        plugin.getSpawnerLootGenerator().spawnLootToSpawner(spawner);
-                                    }
-
-                                    // Update last spawn time is handled by addPreGeneratedLoot/spawnLootToSpawner
-
-                                    // Update any open GUIs to show the new loot
-                                    if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) {
-                                        plugin.getSpawnerGuiViewManager().updateSpawnerMenuViewers(spawner);
-                                    }
-                                });
-                            }
-                        }
-                    } finally {
-                        spawner.getDataLock().unlock();
-                    }
+        // Schedule loot spawning on the correct region thread
+        Scheduler.runLocationTask(spawnerLocation, () -> {
+            // Final check before spawning
+            if (!spawner.getSpawnerActive() || spawner.getSpawnerStop().get()) {
+                spawner.clearPreGeneratedLoot();
+                return;
+            }
+
+            // Check if loot was already added early (for smooth UX)
+            // If so, just update the timer without spawning again
+            long timeSinceLastSpawn = System.currentTimeMillis() - spawner.getLastSpawnTime();
+            if (timeSinceLastSpawn < spawnDelay - 100) { // 100ms tolerance
+                // Loot was already added early, just update GUI
+                if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) {
+                    plugin.getSpawnerGuiViewManager().updateSpawnerMenuViewers(spawner);
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                return;
             }
-        }
+
+            // Spawn loot (pre-generated if available, otherwise generate new)
+            if (spawner.hasPreGeneratedLoot()) {
+                List<ItemStack> items = spawner.getAndClearPreGeneratedItems();
+                int exp = spawner.getAndClearPreGeneratedExperience();
+                plugin.getSpawnerLootGenerator().addPreGeneratedLoot(spawner, items, exp);
+            } else {
+                plugin.getSpawnerLootGenerator().spawnLootToSpawner(spawner);
+            }
+
+            // Update last spawn time is handled by addPreGeneratedLoot/spawnLootToSpawner
+
+            // Update any open GUIs to show the new loot
+            if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) {
+                plugin.getSpawnerGuiViewManager().updateSpawnerMenuViewers(spawner);
+            }
+        });
     }
 
     public void cleanup() {
+        lootScheduler.clear();
         executor.shutdown();
         try {
             if (!executor.awaitTermination(5, java.util.concurrent.TimeUnit.SECONDS)) {
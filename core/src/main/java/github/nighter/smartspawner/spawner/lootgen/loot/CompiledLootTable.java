@@ -0,0 +1,144 @@
+package github.nighter.smartspawner.spawner.lootgen.loot;
+
+import github.nighter.smartspawner.spawner.properties.MaterialFilter;
+import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.*;
+
+/**
+ * Loot config resolved once at load time so loot generation and valuation don't have
+ * to rebuild ItemStacks, signatures or price keys every cycle.
+ * Entries keep the index of their {@link LootItem} in the source list, which is also
+ * the bit used by per-spawner filter masks.
+ */
+public final class CompiledLootTable {
+    private static final ItemStack[] NO_PROTOTYPES = new ItemStack[0];
+
+    private final LootItem[] items;
+    // Shared amount-1 stacks, null for items that need a fresh random durability or are unavailable
+    private final ItemStack[] prototypes;
+    private final Map<VirtualInventory.ItemSignature, Double> signaturePrices;
+    // Items with a random durability can't be matched by signature, so they are priced by material
+    private final Map<Material, Double> materialPrices;
+
+    private CompiledLootTable(LootItem[] items, ItemStack[] prototypes,
+                              Map<VirtualInventory.ItemSignature, Double> signaturePrices,
+                              Map<Material, Double> materialPrices) {
+        this.items = items;
+        this.prototypes = prototypes;
+        this.signaturePrices = signaturePrices;
+        this.materialPrices = materialPrices;
+    }
+
+    public static CompiledLootTable compile(List<LootItem> lootItems) {
+        if (lootItems == null || lootItems.isEmpty()) {
+            return new CompiledLootTable(new LootItem[0], NO_PROTOTYPES, Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        LootItem[] items = lootItems.toArray(new LootItem[0]);
+        ItemStack[] prototypes = new ItemStack[items.length];
+        Map<VirtualInventory.ItemSignature, Double> signaturePrices = new HashMap<>();
+        Map<Material, Double> materialPrices = new EnumMap<>(Material.class);
+
+        for (int i = 0; i < items.length; i++) {
+            LootItem item = items[i];
+            if (!item.isAvailable()) continue;
+
+            if (!item.hasRandomDurability()) {
+                // No random parts, so the created stack is the same every time
+                prototypes[i] = item.createItemStack(null);
+            }
+
+            if (item.sellPrice() > 0.0) {
+                if (prototypes[i] != null) {
+                    signaturePrices.put(VirtualInventory.getSignature(prototypes[i]), item.sellPrice());
+                } else {
+                    materialPrices.put(item.material(), item.sellPrice());
+                }
+            }
+        }
+
+        return new CompiledLootTable(items, prototypes, signaturePrices, materialPrices);
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public LootItem getItem(int index) {
+        return items[index];
+    }
+
+    /**
+     * Gets the shared prototype for an entry. The returned stack must not be modified.
+     *
+     * @return The amount-1 prototype, or null if the entry needs a freshly created stack
+     */
+    public ItemStack getPrototype(int index) {
+        return prototypes[index];
+    }
+
+    /**
+     * Builds the filter mask for a set of filtered materials.
+     * Bit {@code i} is set when entry {@code i} is filtered out or unavailable on this server.
+     */
+    public long[] createFilterMask(MaterialFilter filteredItems) {
+        long[] mask = new long[(items.length + 63) >>> 6];
+        for (int i = 0; i < items.length; i++) {
+            LootItem item = items[i];
+            if (!item.isAvailable() || filteredItems.contains(item.material())) {
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    public static boolean isMasked(long[] mask, int index) {
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks whether any entry is left after applying a filter mask.
+     */
+    public boolean hasUnmaskedItems(long[] mask) {
+        for (int i = 0; i < items.length; i++) {
+            if (!isMasked(mask, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the sell price of a stored item.
+     *
+     * @param signature Signature of the stored item
+     * @return The price per item, or 0 if the item isn't part of this loot table
+     */
+    public double getPrice(VirtualInventory.ItemSignature signature) {
+        if (signature == null) {
+            return 0.0;
+        }
+        Double price = signaturePrices.get(signature);
+        if (price != null) {
+            return price;
+        }
+        if (materialPrices.isEmpty()) {
+            return 0.0;
+        }
+
+        // Durability items only match when nothing beyond the damage was changed
+        ItemStack template = signature.getTemplateRef();
+        if (template.hasItemMeta()) {
+            ItemMeta meta = template.getItemMeta();
+            if (meta.hasEnchants() || meta.hasCustomModelData() || meta.hasDisplayName()) {
+                return 0.0;
+            }
+        }
+        price = materialPrices.get(template.getType());
+        return price != null ? price : 0.0;
+    }
+}
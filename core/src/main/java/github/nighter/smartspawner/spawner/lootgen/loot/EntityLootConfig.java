@@ -2,7 +2,11 @@ package github.nighter.smartspawner.spawner.lootgen.loot;
 
 import java.util.List;
 
-public record EntityLootConfig(int experience, List<LootItem> possibleItems) {
+public record EntityLootConfig(int experience, List<LootItem> possibleItems, CompiledLootTable compiledTable) {
+
+    public EntityLootConfig(int experience, List<LootItem> possibleItems) {
+        this(experience, possibleItems, CompiledLootTable.compile(possibleItems));
+    }
 
     public List<LootItem> getAllItems() {
         return possibleItems;
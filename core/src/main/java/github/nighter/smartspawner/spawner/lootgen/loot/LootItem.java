@@ -20,7 +20,7 @@ public record LootItem(Material material, int minAmount, int maxAmount, double c
         ItemStack item = new ItemStack(material, 1);
 
         // Apply durability if needed
-        if (minDurability != null && maxDurability != null) {
+        if (hasRandomDurability()) {
             ItemMeta meta = item.getItemMeta();
             if (meta instanceof Damageable) {
                 int durability = random.nextInt(maxDurability - minDurability + 1) + minDurability;
@@ -45,6 +45,10 @@ public record LootItem(Material material, int minAmount, int maxAmount, double c
         return random.nextInt(maxAmount - minAmount + 1) + minAmount;
     }
 
+    public boolean hasRandomDurability() {
+        return minDurability != null && maxDurability != null;
+    }
+
     public boolean isAvailable() {
         return material != null;
     }
@@ -0,0 +1,105 @@
+package github.nighter.smartspawner.spawner.lootgen.loot;
+
+import java.util.Random;
+
+/**
+ * Draws aggregated loot results for a whole mob batch in constant time,
+ * instead of rolling every mob individually.
+ */
+public final class LootSampler {
+    // Below this mean the exact inversion is cheap and the normal approximation is poor
+    private static final double INVERSION_THRESHOLD = 30.0;
+    // Below this many terms uniform sums are drawn exactly
+    private static final int EXACT_SUM_THRESHOLD = 16;
+
+    private LootSampler() {
+    }
+
+    /**
+     * Number of successes out of {@code trials} independent rolls with the given probability.
+     * Equivalent in distribution to counting {@code random.nextDouble() < probability} over every trial.
+     *
+     * @param random      Random source
+     * @param trials      Number of rolls
+     * @param probability Chance of each roll in the range [0, 1]
+     * @return Number of successful rolls
+     */
+    public static int binomial(Random random, int trials, double probability) {
+        if (trials <= 0 || probability <= 0.0) {
+            return 0;
+        }
+        if (probability >= 1.0) {
+            return trials;
+        }
+        // Sample the rarer outcome, so the inversion walk stays short
+        if (probability > 0.5) {
+            return trials - binomial(random, trials, 1.0 - probability);
+        }
+
+        double mean = trials * probability;
+        if (mean < INVERSION_THRESHOLD) {
+            return binomialInversion(random, trials, probability);
+        }
+
+        // Normal approximation with continuity correction, accurate once n*p*(1-p) is large
+        double deviation = Math.sqrt(mean * (1.0 - probability));
+        long result = Math.round(mean + deviation * random.nextGaussian());
+        return (int) Math.max(0, Math.min(trials, result));
+    }
+
+    private static int binomialInversion(Random random, int trials, double probability) {
+        double q = 1.0 - probability;
+        double s = probability / q;
+        double a = (trials + 1) * s;
+        double r = Math.exp(trials * Math.log1p(-probability)); // P(X = 0)
+        double u = random.nextDouble();
+
+        int x = 0;
+        while (u > r && x < trials) {
+            u -= r;
+            x++;
+            r *= (a / x) - s;
+        }
+        return x;
+    }
+
+    /**
+     * Sum of {@code count} independent uniform integers in [min, max].
+     * Equivalent in distribution to adding {@code count} calls of {@link LootItem#generateAmount(Random)}.
+     *
+     * @param random Random source
+     * @param count  Number of terms
+     * @param min    Inclusive lower bound of each term
+     * @param max    Inclusive upper bound of each term
+     * @return The summed amount, clamped to {@link Integer#MAX_VALUE}
+     */
+    public static int uniformSum(Random random, int count, int min, int max) {
+        if (count <= 0) {
+            return 0;
+        }
+        if (max <= min) {
+            return clamp((long) count * min);
+        }
+
+        int width = max - min + 1;
+        if (count <= EXACT_SUM_THRESHOLD) {
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                total += random.nextInt(width) + min;
+            }
+            return clamp(total);
+        }
+
+        // By the central limit theorem the sum is close to normal once there are enough terms
+        double mean = count * ((min + (double) max) / 2.0);
+        double variance = count * (((double) width * width - 1.0) / 12.0);
+        long result = Math.round(mean + Math.sqrt(variance) * random.nextGaussian());
+        long lower = (long) count * min;
+        long upper = (long) count * max;
+        return clamp(Math.max(lower, Math.min(upper, result)));
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, value));
+    }
+}
@@ -26,6 +26,9 @@ public class NaturalSpawnerListener implements Listener {
         if (smartSpawner != null) {
             event.setCancelled(true);
             event.setShouldAbortSpawn(true);
+        } else if (spawnerManager.isStartupLoading()) {
+            // May be a stored spawner that isn't indexed yet
+            event.setCancelled(true);
         } else {
             // This is a natural spawner - check if natural spawning is allowed
             if (!plugin.getConfig().getBoolean("natural_spawner.spawn_mobs", true)) {
@@ -40,7 +43,7 @@ public class NaturalSpawnerListener implements Listener {
 
         SpawnerData smartSpawner = spawnerManager.getSpawnerByLocation(event.getSpawner().getLocation());
 
-        if (smartSpawner != null) {
+        if (smartSpawner != null || spawnerManager.isStartupLoading()) {
             event.setCancelled(true);
         } else {
             // This is a natural spawner - check if natural spawning is allowed
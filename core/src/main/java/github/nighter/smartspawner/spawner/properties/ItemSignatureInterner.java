@@ -0,0 +1,103 @@
+package github.nighter.smartspawner.spawner.properties;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares one {@link VirtualInventory.ItemSignature} per distinct item, independent of stack amount.
+ * Lookups never lock, so region threads and async loot threads don't contend on a shared monitor.
+ *
+ * <p>Plain items (no meta) are interned in an array indexed by material ordinal.
+ * Items with meta go through a bounded concurrent map keyed by the item's similarity,
+ * which is cleared when it fills up; signatures are plain values, so eviction only costs a rebuild.
+ */
+public class ItemSignatureInterner {
+    private final AtomicReferenceArray<VirtualInventory.ItemSignature> plainSignatures =
+            new AtomicReferenceArray<>(Material.values().length);
+    private final Map<Key, VirtualInventory.ItemSignature> metaSignatures = new ConcurrentHashMap<>();
+    private final int maxMetaEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ItemSignatureInterner(int maxMetaEntries) {
+        this.maxMetaEntries = maxMetaEntries;
+    }
+
+    public VirtualInventory.ItemSignature intern(ItemStack item) {
+        if (!item.hasItemMeta()) {
+            int ordinal = item.getType().ordinal();
+            VirtualInventory.ItemSignature signature = plainSignatures.get(ordinal);
+            if (signature != null) {
+                hits.increment();
+                return signature;
+            }
+
+            misses.increment();
+            VirtualInventory.ItemSignature created = new VirtualInventory.ItemSignature(item);
+            // Another thread may have won the race, keep the first one so instances stay shared
+            return plainSignatures.compareAndSet(ordinal, null, created) ? created : plainSignatures.get(ordinal);
+        }
+
+        // Probe with the caller's stack, only a stored key holds its own copy
+        VirtualInventory.ItemSignature signature = metaSignatures.get(new Key(item));
+        if (signature != null) {
+            hits.increment();
+            return signature;
+        }
+
+        misses.increment();
+        VirtualInventory.ItemSignature created = new VirtualInventory.ItemSignature(item);
+        if (metaSignatures.size() >= maxMetaEntries) {
+            metaSignatures.clear();
+        }
+        VirtualInventory.ItemSignature existing = metaSignatures.putIfAbsent(new Key(created.getTemplateRef()), created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * One line of lookup counts since startup, for the periodic debug report.
+     */
+    public String describeMetrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return "Item signatures: " + metaSignatures.size() + "/" + maxMetaEntries + " with meta, " + hitCount
+                + " hits and " + missCount + " misses (" + (lookups > 0 ? hitCount * 100 / lookups : 0) + "% hit rate)";
+    }
+
+    public int size() {
+        return metaSignatures.size();
+    }
+
+    /**
+     * Map key matching items the same way {@link VirtualInventory.ItemSignature} does.
+     * Stored keys wrap the signature's private amount-1 template, so they never change.
+     */
+    private static final class Key {
+        private final ItemStack item;
+        private final int hashCode;
+
+        private Key(ItemStack item) {
+            this.item = item;
+            this.hashCode = VirtualInventory.ItemSignature.hashOf(item);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return hashCode == other.hashCode && VirtualInventory.ItemSignature.matches(item, other.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package github.nighter.smartspawner.spawner.properties;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Set of filtered materials stored as a bitset over {@link Material#ordinal()}.
+ * The backing array is only allocated once something is filtered and is sized
+ * to the highest filtered ordinal, so most spawners hold no array at all.
+ */
+public class MaterialFilter {
+    private static final long[] EMPTY = new long[0];
+    private static final Material[] MATERIALS = Material.values();
+
+    private volatile long[] words = EMPTY;
+    // Bumped on every change so derived state (loot filter masks) can tell when it's stale
+    private volatile int version;
+
+    public boolean contains(Material material) {
+        if (material == null) {
+            return false;
+        }
+        long[] current = words;
+        int ordinal = material.ordinal();
+        int index = ordinal >>> 6;
+        return index < current.length && (current[index] & (1L << ordinal)) != 0;
+    }
+
+    public synchronized boolean add(Material material) {
+        if (material == null || contains(material)) {
+            return false;
+        }
+        int ordinal = material.ordinal();
+        int index = ordinal >>> 6;
+        long[] updated = Arrays.copyOf(words, Math.max(words.length, index + 1));
+        updated[index] |= 1L << ordinal;
+        words = updated;
+        version++;
+        return true;
+    }
+
+    public synchronized boolean remove(Material material) {
+        if (!contains(material)) {
+            return false;
+        }
+        int ordinal = material.ordinal();
+        long[] updated = words.clone();
+        updated[ordinal >>> 6] &= ~(1L << ordinal);
+        words = isAllZero(updated) ? EMPTY : updated;
+        version++;
+        return true;
+    }
+
+    /**
+     * Toggles a material in the filter.
+     *
+     * @return true if the material is filtered after the call
+     */
+    public synchronized boolean toggle(Material material) {
+        if (contains(material)) {
+            remove(material);
+            return false;
+        }
+        add(material);
+        return true;
+    }
+
+    public synchronized void clear() {
+        if (words.length > 0) {
+            words = EMPTY;
+            version++;
+        }
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public int size() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void forEach(Consumer<Material> action) {
+        long[] current = words;
+        for (int i = 0; i < current.length; i++) {
+            long word = current[i];
+            while (word != 0) {
+                int ordinal = (i << 6) + Long.numberOfTrailingZeros(word);
+                action.accept(MATERIALS[ordinal]);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Serializes the filter to the comma separated material names used by every storage mode.
+     *
+     * @return The serialized filter, or null if nothing is filtered
+     */
+    public String serialize() {
+        if (isEmpty()) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        forEach(material -> {
+            if (!builder.isEmpty()) {
+                builder.append(',');
+            }
+            builder.append(material.name());
+        });
+        return builder.toString();
+    }
+
+    /**
+     * Adds every material from a serialized filter.
+     *
+     * @param data           Comma separated material names
+     * @param invalidHandler Called with each name that isn't a known material
+     */
+    public void deserialize(String data, Consumer<String> invalidHandler) {
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+        for (String materialName : data.split(",")) {
+            try {
+                add(Material.valueOf(materialName.trim()));
+            } catch (IllegalArgumentException e) {
+                invalidHandler.accept(materialName);
+            }
+        }
+    }
+
+    private static boolean isAllZero(long[] array) {
+        for (long word : array) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,6 +2,7 @@ package github.nighter.smartspawner.spawner.properties;
 
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.commands.hologram.SpawnerHologram;
+import github.nighter.smartspawner.spawner.lootgen.loot.CompiledLootTable;
 import github.nighter.smartspawner.spawner.lootgen.loot.EntityLootConfig;
 import github.nighter.smartspawner.spawner.lootgen.loot.LootItem;
 import github.nighter.smartspawner.spawner.sell.SellResult;
@@ -14,10 +15,19 @@ import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.StampedLock;
 
 public class SpawnerData {
+    // Groups of persisted fields, used by storage to write only what changed since the last save
+    public static final int DIRTY_EXP = 1;              // spawner_exp, last_spawn_time, is_at_capacity
+    public static final int DIRTY_INVENTORY = 1 << 1;   // inventory_data
+    public static final int DIRTY_STACK = 1 << 2;       // stack size and the values calculated from it
+    public static final int DIRTY_SETTINGS = 1 << 3;    // type, active, range, stop, delay, player and sort item
+    public static final int DIRTY_FILTERS = 1 << 4;     // filtered_items
+    public static final int DIRTY_ALL = DIRTY_EXP | DIRTY_INVENTORY | DIRTY_STACK | DIRTY_SETTINGS | DIRTY_FILTERS;
+
     @Getter
     private final SmartSpawner plugin;
 
@@ -35,6 +45,8 @@ public class SpawnerData {
     private final ReentrantLock sellLock = new ReentrantLock();  // For selling operations
     @Getter
     private final ReentrantLock dataLock = new ReentrantLock();  // For metadata changes (exp, stack size, etc.)
+    // Held while the counters change, so readCounters() can read them optimistically and retry on a torn read
+    private final StampedLock countersLock = new StampedLock();
 
     // Base values from config (immutable after load)
     @Getter @Setter
@@ -48,15 +60,15 @@ public class SpawnerData {
 
     @Getter
     private Integer spawnerExp;
-    @Getter @Setter
+    @Getter
     private Boolean spawnerActive;
-    @Getter @Setter
+    @Getter
     private Integer spawnerRange;
     @Getter
     private AtomicBoolean spawnerStop;
-    @Getter @Setter
+    @Getter
     private Boolean isAtCapacity;
-    @Getter @Setter
+    @Getter
     private Long lastSpawnTime;
     @Getter
     private long spawnDelay;
@@ -67,33 +79,35 @@ public class SpawnerData {
     private EntityLootConfig lootConfig;
 
     // Item spawner support - stores the material being spawned for item spawners
-    @Getter @Setter
+    @Getter
     private Material spawnedItemMaterial;
 
     // Calculated values based on stackSize
     @Getter
     private int maxStoragePages;
-    @Getter @Setter
+    @Getter
     private int maxSpawnerLootSlots;
-    @Getter @Setter
+    @Getter
     private int maxStoredExp;
-    @Getter @Setter
+    @Getter
     private int minMobs;
-    @Getter @Setter
+    @Getter
     private int maxMobs;
 
     @Getter
     private int stackSize;
-    @Getter @Setter
+    @Getter
     private int maxStackSize;
 
-    @Getter @Setter
+    @Getter
     private VirtualInventory virtualInventory;
     @Getter
-    private final Set<Material> filteredItems = new HashSet<>();
+    private final MaterialFilter filteredItems = new MaterialFilter();
+    // Filter resolved against the compiled loot table, rebuilt lazily after filter or loot config changes
+    private volatile LootFilter lootFilter;
 
     private final AtomicBoolean interacted = new AtomicBoolean(false);
-    @Getter @Setter
+    @Getter
     private String lastInteractedPlayer;
 
     @Getter
@@ -111,11 +125,22 @@ public class SpawnerData {
     private SpawnerHologram hologram;
     @Getter @Setter
     private long cachedSpawnDelay;
+    // When the range check last stopped this spawner, 0 while it runs. Only kept in memory, so downtime,
+    // restarts and time spent unloaded never count as time out of range
+    @Getter @Setter
+    private volatile long inactiveSince;
 
     // Sort preference for spawner storage
-    @Getter @Setter
+    @Getter
     private Material preferredSortItem;
 
+    // Persisted field groups changed since the last save, new spawners start with everything dirty
+    private final AtomicInteger dirtyFields = new AtomicInteger(DIRTY_ALL);
+    // Last saved state of values that change without going through a setter, only used by the storage flush
+    private int savedInventoryVersion;
+    private int savedFilterVersion;
+    private boolean savedSpawnerStop;
+
     // CRITICAL: Pre-generated loot storage for better UX - access must be synchronized via lootGenerationLock
     private volatile List<ItemStack> preGeneratedItems;
     private volatile int preGeneratedExperience;
@@ -222,16 +247,28 @@ public class SpawnerData {
     }
 
     private void calculateStackBasedValues() {
+        long stamp = countersLock.writeLock();
+        try {
+            applyStackBasedValues();
+        } finally {
+            countersLock.unlockWrite(stamp);
+        }
+    }
+
+    // Callers hold the counters write lock
+    private void applyStackBasedValues() {
         this.maxStoredExp = baseMaxStoredExp * stackSize;
         this.maxStoragePages = baseMaxStoragePages * stackSize;
         this.maxSpawnerLootSlots = maxStoragePages * 45;
         this.minMobs = baseMinMobs * stackSize;
         this.maxMobs = baseMaxMobs * stackSize;
         this.spawnerExp = Math.min(this.spawnerExp, this.maxStoredExp);
+        markDirty(DIRTY_STACK | DIRTY_EXP);
     }
 
     public void setSpawnDelay(long baseSpawnerDelay) {
         this.spawnDelay = baseSpawnerDelay > 0 ? baseSpawnerDelay : 500;
+        markDirty(DIRTY_SETTINGS);
         if (baseSpawnerDelay <= 0) {
             plugin.getLogger().warning("Invalid spawner delay value. Setting to default: 500 ticks (25s)");
         }
@@ -298,25 +335,32 @@ public class SpawnerData {
 
     private void updateStackSize(int newStackSize, boolean restartHopper) {
         if (newStackSize <= 0) {
-            this.stackSize = 1;
+            setCounter(() -> this.stackSize = 1);
+            markDirty(DIRTY_STACK);
             plugin.getLogger().warning("Invalid stack size. Setting to 1");
             return;
         }
 
         if (newStackSize > this.maxStackSize) {
-            this.stackSize = this.maxStackSize;
+            setCounter(() -> this.stackSize = this.maxStackSize);
+            markDirty(DIRTY_STACK);
             plugin.getLogger().warning("Stack size exceeds maximum. Setting to " + this.stackSize);
             return;
         }
 
-        this.stackSize = newStackSize;
-        calculateStackBasedValues();
+        // The stack size, everything calculated from it and the spawn time reset change as one
+        long stamp = countersLock.writeLock();
+        try {
+            this.stackSize = newStackSize;
+            applyStackBasedValues();
+            // Reset lastSpawnTime to prevent exploit where players break spawners to trigger immediate loot
+            this.lastSpawnTime = System.currentTimeMillis();
+        } finally {
+            countersLock.unlockWrite(stamp);
+        }
 
         // Resize the existing virtual inventory instead of creating a new one
         virtualInventory.resize(this.maxSpawnerLootSlots);
-
-        // Reset lastSpawnTime to prevent exploit where players break spawners to trigger immediate loot
-        this.lastSpawnTime = System.currentTimeMillis();
         updateHologramData();
 
         // Invalidate GUI cache when stack size changes
@@ -334,7 +378,8 @@ public class SpawnerData {
     }
 
     public void setSpawnerExp(int exp) {
-        this.spawnerExp = Math.min(Math.max(0, exp), maxStoredExp);
+        setCounter(() -> this.spawnerExp = Math.min(Math.max(0, exp), maxStoredExp));
+        markDirty(DIRTY_EXP);
         updateHologramData();
 
         // Invalidate GUI cache when experience changes
@@ -347,7 +392,159 @@ public class SpawnerData {
     }
 
     public void setSpawnerExpData(int exp) {
-        this.spawnerExp = exp;
+        setCounter(() -> this.spawnerExp = exp);
+        markDirty(DIRTY_EXP);
+    }
+
+    public void setSpawnerActive(Boolean spawnerActive) {
+        this.spawnerActive = spawnerActive;
+        markDirty(DIRTY_SETTINGS);
+    }
+
+    public void setSpawnerRange(Integer spawnerRange) {
+        this.spawnerRange = spawnerRange;
+        markDirty(DIRTY_SETTINGS);
+    }
+
+    public void setIsAtCapacity(Boolean isAtCapacity) {
+        this.isAtCapacity = isAtCapacity;
+        markDirty(DIRTY_EXP);
+    }
+
+    public void setLastSpawnTime(Long lastSpawnTime) {
+        setCounter(() -> this.lastSpawnTime = lastSpawnTime);
+        markDirty(DIRTY_EXP);
+    }
+
+    public void setSpawnedItemMaterial(Material spawnedItemMaterial) {
+        this.spawnedItemMaterial = spawnedItemMaterial;
+        markDirty(DIRTY_SETTINGS);
+    }
+
+    public void setMaxSpawnerLootSlots(int maxSpawnerLootSlots) {
+        setCounter(() -> this.maxSpawnerLootSlots = maxSpawnerLootSlots);
+        markDirty(DIRTY_STACK);
+    }
+
+    public void setMaxStoredExp(int maxStoredExp) {
+        setCounter(() -> this.maxStoredExp = maxStoredExp);
+        markDirty(DIRTY_STACK);
+    }
+
+    public void setMinMobs(int minMobs) {
+        setCounter(() -> this.minMobs = minMobs);
+        markDirty(DIRTY_STACK);
+    }
+
+    public void setMaxMobs(int maxMobs) {
+        setCounter(() -> this.maxMobs = maxMobs);
+        markDirty(DIRTY_STACK);
+    }
+
+    public void setMaxStackSize(int maxStackSize) {
+        setCounter(() -> this.maxStackSize = maxStackSize);
+        markDirty(DIRTY_STACK);
+    }
+
+    /**
+     * The stack size, the values calculated from it and the exp and spawn time they bound, read together.
+     */
+    public record Counters(int stackSize, int maxStackSize, int maxSpawnerLootSlots, int maxStoredExp,
+                           int minMobs, int maxMobs, int spawnerExp, Long lastSpawnTime) {
+    }
+
+    /**
+     * Reads the counters as of one complete change, without blocking the setters.
+     * A stack size change updates several of them at once, reading them one by one could mix old and new values.
+     */
+    public Counters readCounters() {
+        long stamp = countersLock.tryOptimisticRead();
+        Counters counters = currentCounters();
+        if (!countersLock.validate(stamp)) {
+            // A setter ran during the read, read again after it
+            stamp = countersLock.readLock();
+            try {
+                counters = currentCounters();
+            } finally {
+                countersLock.unlockRead(stamp);
+            }
+        }
+        return counters;
+    }
+
+    private Counters currentCounters() {
+        return new Counters(stackSize, maxStackSize, maxSpawnerLootSlots, maxStoredExp,
+                minMobs, maxMobs, spawnerExp, lastSpawnTime);
+    }
+
+    private void setCounter(Runnable update) {
+        long stamp = countersLock.writeLock();
+        try {
+            update.run();
+        } finally {
+            countersLock.unlockWrite(stamp);
+        }
+    }
+
+    public void setVirtualInventory(VirtualInventory virtualInventory) {
+        this.virtualInventory = virtualInventory;
+        markDirty(DIRTY_INVENTORY);
+    }
+
+    public void setLastInteractedPlayer(String lastInteractedPlayer) {
+        this.lastInteractedPlayer = lastInteractedPlayer;
+        markDirty(DIRTY_SETTINGS);
+    }
+
+    public void setPreferredSortItem(Material preferredSortItem) {
+        this.preferredSortItem = preferredSortItem;
+        markDirty(DIRTY_SETTINGS);
+    }
+
+    /**
+     * Records that persisted fields changed, see the DIRTY_ constants.
+     */
+    public void markDirty(int fields) {
+        dirtyFields.accumulateAndGet(fields, (current, added) -> current | added);
+    }
+
+    /**
+     * Gets and resets the persisted field groups changed since the last call.
+     * Inventory, filter and stop flag changes are picked up by comparing against their last saved state.
+     * Only the storage flush should call this, and it should hand the fields back to {@link #markDirty(int)}
+     * if the save fails.
+     *
+     * @return The changed field groups, 0 if nothing needs saving
+     */
+    public int takeDirtyFields() {
+        int fields = dirtyFields.getAndSet(0);
+
+        VirtualInventory inventory = virtualInventory;
+        if (inventory != null && inventory.getVersion() != savedInventoryVersion) {
+            savedInventoryVersion = inventory.getVersion();
+            fields |= DIRTY_INVENTORY;
+        }
+        if (filteredItems.getVersion() != savedFilterVersion) {
+            savedFilterVersion = filteredItems.getVersion();
+            fields |= DIRTY_FILTERS;
+        }
+        boolean stop = spawnerStop.get();
+        if (stop != savedSpawnerStop) {
+            savedSpawnerStop = stop;
+            fields |= DIRTY_SETTINGS;
+        }
+        return fields;
+    }
+
+    /**
+     * Marks the current state as saved, used after a spawner is loaded from storage.
+     */
+    public void clearDirtyFields() {
+        takeDirtyFields();
+        VirtualInventory inventory = virtualInventory;
+        if (inventory != null) {
+            inventory.drainChangedSignatures();
+        }
     }
 
     public void updateHologramData() {
@@ -389,6 +586,7 @@ public class SpawnerData {
         boolean newStatus = isCompletelyFull();
         if (newStatus != isAtCapacity) {
             isAtCapacity = newStatus;
+            markDirty(DIRTY_EXP);
             return true;
         }
         return false;
@@ -396,6 +594,7 @@ public class SpawnerData {
 
     public void setEntityType(EntityType newType) {
         this.entityType = newType;
+        markDirty(DIRTY_SETTINGS);
         this.lootConfig = plugin.getSpawnerSettingsConfig().getLootConfig(newType);
         // Mark sell value as dirty since entity type and prices changed
         this.sellValueDirty = true;
@@ -403,27 +602,45 @@ public class SpawnerData {
     }
 
     public boolean toggleItemFilter(Material material) {
-        boolean wasFiltered = filteredItems.contains(material);
-        if (wasFiltered) {
-            filteredItems.remove(material);
-        } else {
-            filteredItems.add(material);
+        return filteredItems.toggle(material);
+    }
+
+    /**
+     * Gets the filter mask for the current loot table, see {@link CompiledLootTable#createFilterMask(MaterialFilter)}.
+     *
+     * @return The mask, or null if this spawner has no loot config
+     */
+    public long[] getLootFilterMask() {
+        EntityLootConfig config = lootConfig;
+        if (config == null) {
+            return null;
         }
-        return !wasFiltered;
+
+        CompiledLootTable table = config.compiledTable();
+        LootFilter filter = lootFilter;
+        int version = filteredItems.getVersion();
+        if (filter == null || filter.table() != table || filter.version() != version) {
+            filter = new LootFilter(table, version, table.createFilterMask(filteredItems));
+            lootFilter = filter;
+        }
+        return filter.mask();
     }
 
     public List<LootItem> getValidLootItems() {
-        if (lootConfig == null) {
+        EntityLootConfig config = lootConfig;
+        long[] mask = getLootFilterMask();
+        if (config == null || mask == null) {
             return Collections.emptyList();
         }
-        return lootConfig.getAllItems().stream()
-                .filter(this::isLootItemValid)
-                .collect(Collectors.toList());
-    }
 
-    private boolean isLootItemValid(LootItem item) {
-        ItemStack example = item.createItemStack(new Random());
-        return example != null && !filteredItems.contains(example.getType());
+        CompiledLootTable table = config.compiledTable();
+        List<LootItem> validItems = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            if (!CompiledLootTable.isMasked(mask, i)) {
+                validItems.add(table.getItem(i));
+            }
+        }
+        return validItems;
     }
 
     public int getEntityExperienceValue() {
@@ -444,8 +661,9 @@ public class SpawnerData {
         }
 
         // Calculate and cache the result
-        boolean result = (lootConfig == null ||
-                (lootConfig.experience() == 0 && getValidLootItems().isEmpty()));
+        long[] mask = getLootFilterMask();
+        boolean result = (lootConfig == null || mask == null ||
+                (lootConfig.experience() == 0 && !lootConfig.compiledTable().hasUnmaskedItems(mask)));
         cachedHasNoLoot = result;
         return result;
     }
@@ -486,6 +704,7 @@ public class SpawnerData {
 
     public void updateLastInteractedPlayer(String playerName) {
         this.lastInteractedPlayer = playerName;
+        markDirty(DIRTY_SETTINGS);
         // Prevent concurrent modification during spawn events to avoid hologram desync
         if (System.currentTimeMillis() - lastSpawnTime < 50) {
             markInteracted();
@@ -502,22 +721,18 @@ public class SpawnerData {
     /**
      * Updates the accumulated sell value for specific items being added
      * @param itemsAdded Map of item signatures to quantities added
-     * @param priceCache Price cache from loot config
      */
-    public void incrementSellValue(Map<VirtualInventory.ItemSignature, Long> itemsAdded,
-                                   Map<String, Double> priceCache) {
-        if (itemsAdded == null || itemsAdded.isEmpty()) {
+    public void incrementSellValue(Map<VirtualInventory.ItemSignature, Long> itemsAdded) {
+        if (itemsAdded == null || itemsAdded.isEmpty() || lootConfig == null) {
             return;
         }
 
+        CompiledLootTable table = lootConfig.compiledTable();
         double addedValue = 0.0;
         for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : itemsAdded.entrySet()) {
-            // Use getTemplateRef() to avoid cloning - we only need to read properties
-            ItemStack template = entry.getKey().getTemplateRef();
-            long amount = entry.getValue();
-            double itemPrice = findItemPrice(template, priceCache);
+            double itemPrice = table.getPrice(entry.getKey());
             if (itemPrice > 0.0) {
-                addedValue += itemPrice * amount;
+                addedValue += itemPrice * entry.getValue();
             }
         }
 
@@ -528,30 +743,20 @@ public class SpawnerData {
     /**
      * Decrements the accumulated sell value when items are removed
      * @param itemsRemoved List of items removed
-     * @param priceCache Price cache from loot config
      */
-    public void decrementSellValue(List<ItemStack> itemsRemoved, Map<String, Double> priceCache) {
-        if (itemsRemoved == null || itemsRemoved.isEmpty()) {
+    public void decrementSellValue(List<ItemStack> itemsRemoved) {
+        if (itemsRemoved == null || itemsRemoved.isEmpty() || lootConfig == null) {
             return;
         }
 
-        // Consolidate removed items
-        Map<VirtualInventory.ItemSignature, Long> consolidated = new java.util.HashMap<>();
+        CompiledLootTable table = lootConfig.compiledTable();
+        double removedValue = 0.0;
         for (ItemStack item : itemsRemoved) {
             if (item == null || item.getAmount() <= 0) continue;
             // Use cached signature to avoid excessive cloning
-            VirtualInventory.ItemSignature sig = VirtualInventory.getSignature(item);
-            consolidated.merge(sig, (long) item.getAmount(), Long::sum);
-        }
-
-        double removedValue = 0.0;
-        for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : consolidated.entrySet()) {
-            // Use getTemplateRef() to avoid cloning - we only need to read properties
-            ItemStack template = entry.getKey().getTemplateRef();
-            long amount = entry.getValue();
-            double itemPrice = findItemPrice(template, priceCache);
+            double itemPrice = table.getPrice(VirtualInventory.getSignature(item));
             if (itemPrice > 0.0) {
-                removedValue += itemPrice * amount;
+                removedValue += itemPrice * item.getAmount();
             }
         }
 
@@ -569,20 +774,15 @@ public class SpawnerData {
             return;
         }
 
-        // Get price cache
-        Map<String, Double> priceCache = createPriceCache();
-
-        // Calculate from current inventory
+        // Calculate from current inventory using the prices compiled with the loot config
+        CompiledLootTable table = lootConfig.compiledTable();
         Map<VirtualInventory.ItemSignature, Long> items = virtualInventory.getConsolidatedItems();
         double totalValue = 0.0;
 
         for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : items.entrySet()) {
-            // Use getTemplateRef() to avoid cloning - we only need to read properties
-            ItemStack template = entry.getKey().getTemplateRef();
-            long amount = entry.getValue();
-            double itemPrice = findItemPrice(template, priceCache);
+            double itemPrice = table.getPrice(entry.getKey());
             if (itemPrice > 0.0) {
-                totalValue += itemPrice * amount;
+                totalValue += itemPrice * entry.getValue();
             }
         }
 
@@ -590,74 +790,6 @@ public class SpawnerData {
         this.sellValueDirty = false;
     }
 
-    /**
-     * Gets the price cache from loot config
-     */
-    public Map<String, Double> createPriceCache() {
-        if (lootConfig == null) {
-            return new java.util.HashMap<>();
-        }
-
-        Map<String, Double> cache = new java.util.HashMap<>();
-        java.util.List<LootItem> allLootItems = lootConfig.getAllItems();
-
-        for (LootItem lootItem : allLootItems) {
-            if (lootItem.sellPrice() > 0.0) {
-                ItemStack template = lootItem.createItemStack(new java.util.Random());
-                if (template != null) {
-                    String key = createItemKey(template);
-                    cache.put(key, lootItem.sellPrice());
-                }
-            }
-        }
-
-        return cache;
-    }
-
-    /**
-     * Finds item price using the cache
-     */
-    private double findItemPrice(ItemStack item, Map<String, Double> priceCache) {
-        if (item == null || priceCache == null) {
-            return 0.0;
-        }
-        String itemKey = createItemKey(item);
-        Double price = priceCache.get(itemKey);
-        return price != null ? price : 0.0;
-    }
-
-    /**
-     * Creates a unique key for an item (same logic as SpawnerSellManager)
-     */
-    private String createItemKey(ItemStack item) {
-        if (item == null) {
-            return "null";
-        }
-
-        StringBuilder key = new StringBuilder();
-        key.append(item.getType().name());
-
-        // Add enchantments if present
-        if (item.hasItemMeta() && item.getItemMeta().hasEnchants()) {
-            key.append("_enchants:");
-            item.getItemMeta().getEnchants().entrySet().stream()
-                    .sorted(java.util.Map.Entry.comparingByKey(java.util.Comparator.comparing(enchantment -> enchantment.getKey().toString())))
-                    .forEach(entry -> key.append(entry.getKey().getKey()).append(":").append(entry.getValue()).append(","));
-        }
-
-        // Add custom model data if present
-        if (item.hasItemMeta() && item.getItemMeta().hasCustomModelData()) {
-            key.append("_cmd:").append(item.getItemMeta().getCustomModelData());
-        }
-
-        // Add display name if present
-        if (item.hasItemMeta() && item.getItemMeta().hasDisplayName()) {
-            key.append("_name:").append(item.getItemMeta().getDisplayName());
-        }
-
-        return key.toString();
-    }
-
     /**
      * Adds items to virtual inventory and updates accumulated sell value
      * This is the preferred method to add items to maintain accurate sell value cache
@@ -686,8 +818,7 @@ public class SpawnerData {
 
             // Update sell value atomically
             if (!sellValueDirty) {
-                Map<String, Double> priceCache = createPriceCache();
-                incrementSellValue(itemsToAdd, priceCache);
+                incrementSellValue(itemsToAdd);
             }
         } finally {
             inventoryLock.unlock();
@@ -713,8 +844,7 @@ public class SpawnerData {
 
             // Update sell value atomically if removal was successful
             if (removed && !sellValueDirty) {
-                Map<String, Double> priceCache = createPriceCache();
-                decrementSellValue(items, priceCache);
+                decrementSellValue(items);
             }
 
             return removed;
@@ -765,4 +895,7 @@ public class SpawnerData {
     public boolean isItemSpawner() {
         return entityType == EntityType.ITEM && spawnedItemMaterial != null;
     }
+
+    private record LootFilter(CompiledLootTable table, int version, long[] mask) {
+    }
 }
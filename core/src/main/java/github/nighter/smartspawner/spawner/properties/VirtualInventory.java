@@ -6,40 +6,43 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
 import java.util.stream.Collectors;
 
 public class VirtualInventory {
     private final Map<ItemSignature, Long> consolidatedItems;
     @Getter
     private int maxSlots;
-    private final Map<Integer, ItemStack> displayInventoryCache;
-    private boolean displayCacheDirty;
-    private int usedSlotsCache;
+    // Exact number of slots all stored items occupy, kept up to date by addItems/removeItems
+    private final AtomicLong usedSlotCount = new AtomicLong();
     private long totalItemsCache;
     private boolean metricsCacheDirty;
-    // Cache sorted entries to avoid resorting when display isn't changing
-    private List<Map.Entry<ItemSignature, Long>> sortedEntriesCache;
-    private org.bukkit.Material preferredSortMaterial;
-
-    // Add an LRU cache for expensive item operations
-    private static final int ITEM_CACHE_SIZE = 128;
-    private static final Map<ItemStack, ItemSignature> signatureCache =
-            Collections.synchronizedMap(new LinkedHashMap<ItemStack, ItemSignature>(ITEM_CACHE_SIZE, 0.75f, true) {
-                @Override
-                protected boolean removeEldestEntry(Map.Entry<ItemStack, ItemSignature> eldest) {
-                    return size() > ITEM_CACHE_SIZE;
-                }
-            });
+    // Cache sorted entries to avoid resorting when display isn't changing, published as one object
+    // so readers never pair the entries of one rebuild with the offsets of another
+    private volatile SortedView sortedView;
+    private volatile org.bukkit.Material preferredSortMaterial;
+    // Bumped on every change to the stored items, lets storage tell whether the inventory needs saving
+    @Getter
+    private volatile int version;
+    // Held by addItems/removeItems so snapshotItems() can copy the items optimistically and detect torn copies
+    private final StampedLock mutationLock = new StampedLock();
+    // Immutable copy of the items at a version, rebuilt by snapshotItems() only after changes
+    private volatile ItemSnapshot itemSnapshot;
+    // Items whose amount changed since storage last drained them, for stores that save per item
+    private final Set<ItemSignature> changedSignatures = ConcurrentHashMap.newKeySet();
+
+    // Shared signatures for items, looked up without locking from any thread
+    private static final int MAX_META_SIGNATURES = 4096;
+    @Getter
+    private static final ItemSignatureInterner signatureInterner = new ItemSignatureInterner(MAX_META_SIGNATURES);
 
     public VirtualInventory(int maxSlots) {
         this.maxSlots = maxSlots;
         this.consolidatedItems = new ConcurrentHashMap<>();
-        this.displayInventoryCache = new HashMap<>(maxSlots); // Pre-size the map
-        this.displayCacheDirty = true;
         this.metricsCacheDirty = true;
-        this.usedSlotsCache = 0;
         this.totalItemsCache = 0;
-        this.sortedEntriesCache = null;
+        this.sortedView = null;
         this.preferredSortMaterial = null;
     }
 
@@ -53,18 +56,20 @@ public class VirtualInventory {
             this.template = item.clone();
             this.template.setAmount(1);
             this.materialName = item.getType().name();
-            this.hashCode = calculateHashCode();
+            this.hashCode = hashOf(template);
         }
 
-        // Replace the current calculateHashCode() method with:
-        private int calculateHashCode() {
+        /**
+         * Hash of the properties that decide whether two items stack, ignoring the amount.
+         */
+        static int hashOf(ItemStack item) {
             // Use a faster hash algorithm and cache more item properties
-            int result = 31 * template.getType().ordinal(); // Using ordinal() instead of name() hashing
-            result = 31 * result + (int)template.getDurability();
+            int result = 31 * item.getType().ordinal(); // Using ordinal() instead of name() hashing
+            result = 31 * result + (int)item.getDurability();
 
             // Only access ItemMeta when needed
-            if (template.hasItemMeta()) {
-                ItemMeta meta = template.getItemMeta();
+            if (item.hasItemMeta()) {
+                ItemMeta meta = item.getItemMeta();
                 // Extract only the essential meta properties that determine similarity
                 result = 31 * result + (meta.hasDisplayName() ? meta.getDisplayName().hashCode() : 0);
                 result = 31 * result + (meta.hasLore() ? meta.getLore().hashCode() : 0);
@@ -78,28 +83,34 @@ public class VirtualInventory {
             if (this == o) return true;
             if (!(o instanceof ItemSignature)) return false;
             ItemSignature that = (ItemSignature) o;
+            return hashCode == that.hashCode && matches(template, that.template);
+        }
 
+        /**
+         * Checks whether two items stack together, ignoring the amount.
+         */
+        static boolean matches(ItemStack first, ItemStack second) {
             // First compare cheap properties
-            if (template.getType() != that.template.getType() ||
-                    template.getDurability() != that.template.getDurability()) {
+            if (first.getType() != second.getType() ||
+                    first.getDurability() != second.getDurability()) {
                 return false;
             }
 
             // Only check ItemMeta if types match
-            boolean thisHasMeta = template.hasItemMeta();
-            boolean thatHasMeta = that.template.hasItemMeta();
+            boolean firstHasMeta = first.hasItemMeta();
+            boolean secondHasMeta = second.hasItemMeta();
 
-            if (thisHasMeta != thatHasMeta) {
+            if (firstHasMeta != secondHasMeta) {
                 return false;
             }
 
             // If both have no meta, they're similar enough
-            if (!thisHasMeta) {
+            if (!firstHasMeta) {
                 return true;
             }
 
             // For complex items, fall back to isSimilar but only as a last resort
-            return template.isSimilar(that.template);
+            return first.isSimilar(second);
         }
 
         @Override
@@ -119,16 +130,7 @@ public class VirtualInventory {
     }
 
     public static ItemSignature getSignature(ItemStack item) {
-        // First try to get from cache
-        ItemSignature cachedSig = signatureCache.get(item);
-        if (cachedSig != null) {
-            return cachedSig;
-        }
-
-        // Create new signature and cache it
-        ItemSignature newSig = new ItemSignature(item);
-        signatureCache.put(item.clone(), newSig);
-        return newSig;
+        return signatureInterner.intern(item);
     }
 
     // Add items in bulk with minimal operations
@@ -145,14 +147,44 @@ public class VirtualInventory {
             itemBatch.merge(sig, (long) item.getAmount(), Long::sum);
         }
 
+        applyAdditions(itemBatch);
+    }
+
+    /**
+     * Adds items by stored amount, e.g. when loading a saved inventory. Amounts aren't limited to a stack.
+     *
+     * @param amounts Items, whose own amount is ignored, and the amount of each to add
+     */
+    public void addItemAmounts(Map<ItemStack, Long> amounts) {
+        if (amounts.isEmpty()) return;
+
+        Map<ItemSignature, Long> itemBatch = new HashMap<>(amounts.size());
+        for (Map.Entry<ItemStack, Long> entry : amounts.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() <= 0) continue;
+            itemBatch.merge(getSignature(entry.getKey()), entry.getValue(), Long::sum);
+        }
+        applyAdditions(itemBatch);
+    }
+
+    private void applyAdditions(Map<ItemSignature, Long> itemBatch) {
         // Apply all changes in one operation
         if (!itemBatch.isEmpty()) {
-            for (Map.Entry<ItemSignature, Long> entry : itemBatch.entrySet()) {
-                consolidatedItems.merge(entry.getKey(), entry.getValue(), Long::sum);
+            long stamp = mutationLock.writeLock();
+            try {
+                for (Map.Entry<ItemSignature, Long> entry : itemBatch.entrySet()) {
+                    ItemSignature sig = entry.getKey();
+                    long added = entry.getValue();
+                    long updated = consolidatedItems.merge(sig, added, Long::sum);
+                    changedSignatures.add(sig);
+                    int maxStackSize = sig.getTemplateRef().getMaxStackSize();
+                    usedSlotCount.addAndGet(slotsFor(updated, maxStackSize) - slotsFor(updated - added, maxStackSize));
+                }
+                metricsCacheDirty = true;
+                sortedView = null;
+                version++;
+            } finally {
+                mutationLock.unlockWrite(stamp);
             }
-            displayCacheDirty = true;
-            metricsCacheDirty = true;
-            sortedEntriesCache = null;
         }
     }
     // Remove items in bulk with minimal operations
@@ -171,109 +203,174 @@ public class VirtualInventory {
 
         if (toRemove.isEmpty()) return true;
 
-        // Verify we have enough of each item
-        for (Map.Entry<ItemSignature, Long> entry : toRemove.entrySet()) {
-            Long currentAmount = consolidatedItems.getOrDefault(entry.getKey(), 0L);
-            if (currentAmount < entry.getValue()) {
-                return false;
+        long stamp = mutationLock.writeLock();
+        try {
+            // Verify we have enough of each item
+            for (Map.Entry<ItemSignature, Long> entry : toRemove.entrySet()) {
+                Long currentAmount = consolidatedItems.getOrDefault(entry.getKey(), 0L);
+                if (currentAmount < entry.getValue()) {
+                    return false;
+                }
             }
-        }
 
-        // Perform removals all at once
-        boolean updated = false;
-        for (Map.Entry<ItemSignature, Long> entry : toRemove.entrySet()) {
-            ItemSignature sig = entry.getKey();
-            long amountToRemove = entry.getValue();
+            // Perform removals all at once
+            boolean updated = false;
+            for (Map.Entry<ItemSignature, Long> entry : toRemove.entrySet()) {
+                ItemSignature sig = entry.getKey();
+                long amountToRemove = entry.getValue();
 
-            consolidatedItems.computeIfPresent(sig, (key, current) -> {
-                long newAmount = current - amountToRemove;
-                return newAmount <= 0 ? null : newAmount;
-            });
+                Long remaining = consolidatedItems.computeIfPresent(sig, (key, current) -> {
+                    long newAmount = current - amountToRemove;
+                    return newAmount <= 0 ? null : newAmount;
+                });
 
-            updated = true;
-        }
+                // Availability was verified above, so a removed entry held exactly amountToRemove
+                long newAmount = remaining != null ? remaining : 0L;
+                changedSignatures.add(sig);
+                int maxStackSize = sig.getTemplateRef().getMaxStackSize();
+                usedSlotCount.addAndGet(slotsFor(newAmount, maxStackSize) - slotsFor(newAmount + amountToRemove, maxStackSize));
+
+                updated = true;
+            }
 
-        if (updated) {
-            displayCacheDirty = true;
-            metricsCacheDirty = true;
-            sortedEntriesCache = null; // Invalidate sorted entries cache
+            if (updated) {
+                metricsCacheDirty = true;
+                sortedView = null; // Invalidate sorted entries cache
+                version++;
+            }
+        } finally {
+            mutationLock.unlockWrite(stamp);
         }
 
         return true;
     }
 
-    // Optimized getDisplayInventory method
-    public Map<Integer, ItemStack> getDisplayInventory() {
-        // Return cached result if available
-        if (!displayCacheDirty) {
-            // Return a shallow copy to prevent modification of the cache
-            return Collections.unmodifiableMap(displayInventoryCache);
+    /**
+     * Entries in display order with the prefix sums of their slots: {@code slotOffsets[i]} is the first display
+     * slot of entry i, and the last element is the number of slots all entries take.
+     * Built for one inventory version and sort preference, and never changed after that.
+     */
+    private record SortedView(List<Map.Entry<ItemSignature, Long>> entries, long[] slotOffsets,
+                              int version, org.bukkit.Material sortMaterial) {
+    }
+
+    private SortedView getSortedView() {
+        // Read once, a rebuild by another thread replaces the whole view
+        SortedView view = sortedView;
+        final org.bukkit.Material preferred = preferredSortMaterial;
+        final int currentVersion = version;
+        if (view != null && view.version() == currentVersion && view.sortMaterial() == preferred) {
+            return view;
+        }
+
+        List<Map.Entry<ItemSignature, Long>> sortedEntries = new ArrayList<>(consolidatedItems.entrySet());
+        // Apply preferred sort if set, otherwise sort alphabetically
+        if (preferred != null) {
+            sortedEntries.sort((e1, e2) -> {
+                // Use getTemplateRef() to avoid cloning - we only need to read the type
+                boolean e1Preferred = e1.getKey().getTemplateRef().getType() == preferred;
+                boolean e2Preferred = e2.getKey().getTemplateRef().getType() == preferred;
+
+                if (e1Preferred && !e2Preferred) return -1;
+                if (!e1Preferred && e2Preferred) return 1;
+
+                // Both preferred or both not preferred, sort by material name
+                return e1.getKey().getMaterialName().compareTo(e2.getKey().getMaterialName());
+            });
+        } else {
+            // Use optimized comparator based on cached material name
+            sortedEntries.sort(Comparator.comparing(e -> e.getKey().getMaterialName()));
+        }
+
+        long[] slotOffsets = new long[sortedEntries.size() + 1];
+        for (int i = 0; i < sortedEntries.size(); i++) {
+            Map.Entry<ItemSignature, Long> entry = sortedEntries.get(i);
+            int maxStackSize = entry.getKey().getTemplateRef().getMaxStackSize();
+            slotOffsets[i + 1] = slotOffsets[i] + slotsFor(entry.getValue(), maxStackSize);
         }
 
-        // Clear the cache for a fresh rebuild but reuse the existing map
-        displayInventoryCache.clear();
+        view = new SortedView(Collections.unmodifiableList(sortedEntries), slotOffsets, currentVersion, preferred);
+        sortedView = view;
+        return view;
+    }
 
-        if (consolidatedItems.isEmpty()) {
-            displayCacheDirty = false;
-            usedSlotsCache = 0;
+    /**
+     * Builds the stacks shown on one storage page, without materializing the rest of the inventory.
+     *
+     * @param page     The page number, starting at 1
+     * @param pageSize Number of slots per page
+     * @return Map of page-relative slot to display item
+     */
+    public Map<Integer, ItemStack> getDisplayPage(int page, int pageSize) {
+        if (page < 1 || pageSize <= 0 || consolidatedItems.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        // Get and sort the items - only use cached sort result if available
-        if (sortedEntriesCache == null) {
-            sortedEntriesCache = new ArrayList<>(consolidatedItems.entrySet());
-            // Apply preferred sort if set, otherwise sort alphabetically
-            if (preferredSortMaterial != null) {
-                sortedEntriesCache.sort((e1, e2) -> {
-                    // Use getTemplateRef() to avoid cloning - we only need to read the type
-                    boolean e1Preferred = e1.getKey().getTemplateRef().getType() == preferredSortMaterial;
-                    boolean e2Preferred = e2.getKey().getTemplateRef().getType() == preferredSortMaterial;
-
-                    if (e1Preferred && !e2Preferred) return -1;
-                    if (!e1Preferred && e2Preferred) return 1;
-                    
-                    // Both preferred or both not preferred, sort by material name
-                    return e1.getKey().getMaterialName().compareTo(e2.getKey().getMaterialName());
-                });
+        long startSlot = (long) (page - 1) * pageSize;
+        Map<Integer, ItemStack> pageItems = new HashMap<>();
+        Iterator<ItemStack> slots = displaySlotIterator(startSlot);
+        for (int slot = 0; slot < pageSize && slots.hasNext(); slot++) {
+            pageItems.put(slot, slots.next());
+        }
+        return pageItems;
+    }
+
+    /**
+     * Iterates display stacks in slot order, starting at the given slot.
+     * Stacks are only created as the iterator advances and the start slot is found by
+     * binary search, so reading a few slots costs the same regardless of inventory size.
+     *
+     * @param fromSlot The first display slot to return
+     * @return Iterator over fresh display stacks, stopping at the last used slot or {@link #getMaxSlots()}
+     */
+    public Iterator<ItemStack> displaySlotIterator(long fromSlot) {
+        final SortedView view = getSortedView();
+        final List<Map.Entry<ItemSignature, Long>> entries = view.entries();
+        final long[] offsets = view.slotOffsets();
+        final long endSlot = Math.min(offsets[entries.size()], maxSlots);
+
+        // Last entry whose first slot is at or before fromSlot
+        int low = 0;
+        int high = entries.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= fromSlot) {
+                low = mid;
             } else {
-                // Use optimized comparator based on cached material name
-                sortedEntriesCache.sort(Comparator.comparing(e -> e.getKey().getMaterialName()));
+                high = mid - 1;
             }
         }
+        final int startEntry = low;
 
-        // Process items directly to the display inventory
-        int currentSlot = 0;
+        return new Iterator<ItemStack>() {
+            private long slot = Math.max(fromSlot, 0);
+            private int entryIndex = startEntry;
 
-        for (Map.Entry<ItemSignature, Long> entry : sortedEntriesCache) {
-            if (currentSlot >= maxSlots) break;
+            @Override
+            public boolean hasNext() {
+                return slot < endSlot;
+            }
 
-            ItemSignature sig = entry.getKey();
-            long totalAmount = entry.getValue();
-            ItemStack templateItem = sig.getTemplateRef();
-            int maxStackSize = templateItem.getMaxStackSize();
+            @Override
+            public ItemStack next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                while (offsets[entryIndex + 1] <= slot) {
+                    entryIndex++;
+                }
 
-            // Create as many stacks as needed for this item type
-            while (totalAmount > 0 && currentSlot < maxSlots) {
-                int stackSize = (int) Math.min(totalAmount, maxStackSize);
+                Map.Entry<ItemSignature, Long> entry = entries.get(entryIndex);
+                ItemStack templateItem = entry.getKey().getTemplateRef();
+                int maxStackSize = templateItem.getMaxStackSize();
+                long consumed = (slot - offsets[entryIndex]) * maxStackSize;
 
-                // Create the display item only once per slot
                 ItemStack displayItem = templateItem.clone();
-                displayItem.setAmount(stackSize);
-
-                // Store in cache
-                displayInventoryCache.put(currentSlot, displayItem);
-
-                totalAmount -= stackSize;
-                currentSlot++;
+                displayItem.setAmount((int) Math.min(entry.getValue() - consumed, maxStackSize));
+                slot++;
+                return displayItem;
             }
-        }
-
-        // Update cache state
-        displayCacheDirty = false;
-        usedSlotsCache = displayInventoryCache.size();
-
-        // Return unmodifiable map to prevent external changes
-        return Collections.unmodifiableMap(displayInventoryCache);
+        };
     }
 
     public long getTotalItems() {
@@ -287,28 +384,67 @@ public class VirtualInventory {
         return new HashMap<>(consolidatedItems);
     }
 
-    public int getUsedSlots() {
-        // If cache is dirty but we haven't regenerated the display inventory yet,
-        // calculate a quick estimate instead of rebuilding the whole display
-        if (displayCacheDirty) {
-            if (consolidatedItems.isEmpty()) {
-                return 0;
-            }
+    /**
+     * Gets an immutable copy of the items as of one complete add or remove, without blocking those.
+     * The copy is shared until the inventory changes again, so repeated saves of an idle spawner cost nothing.
+     */
+    public Map<ItemSignature, Long> snapshotItems() {
+        ItemSnapshot snapshot = itemSnapshot;
+        if (snapshot != null && snapshot.version() == version) {
+            return snapshot.items();
+        }
 
-            // Quick estimate - not perfectly accurate but avoids full rebuilds
-            int estimatedSlots = 0;
-            for (Map.Entry<ItemSignature, Long> entry : consolidatedItems.entrySet()) {
-                long amount = entry.getValue();
-                int maxStackSize = entry.getKey().getTemplateRef().getMaxStackSize();
-                estimatedSlots += (int) Math.ceil((double) amount / maxStackSize);
-                if (estimatedSlots >= maxSlots) {
-                    return maxSlots; // Cap at max slots
-                }
+        long stamp = mutationLock.tryOptimisticRead();
+        int snapshotVersion = version;
+        Map<ItemSignature, Long> items = Map.copyOf(consolidatedItems);
+        if (!mutationLock.validate(stamp)) {
+            // An add or remove ran during the copy, take a consistent one after it
+            stamp = mutationLock.readLock();
+            try {
+                snapshotVersion = version;
+                items = Map.copyOf(consolidatedItems);
+            } finally {
+                mutationLock.unlockRead(stamp);
             }
-            return estimatedSlots;
         }
 
-        return usedSlotsCache;
+        itemSnapshot = new ItemSnapshot(snapshotVersion, items);
+        return items;
+    }
+
+    /**
+     * Gets the number of slots the stored items occupy, capped at {@link #getMaxSlots()}.
+     */
+    public int getUsedSlots() {
+        return (int) Math.min(usedSlotCount.get(), maxSlots);
+    }
+
+    /**
+     * Gets the exact number of slots the stored items occupy, including items beyond {@link #getMaxSlots()}.
+     */
+    public long getTotalUsedSlots() {
+        return usedSlotCount.get();
+    }
+
+    /**
+     * Gets the stored amount of an item type.
+     */
+    public long getAmount(ItemSignature signature) {
+        return consolidatedItems.getOrDefault(signature, 0L);
+    }
+
+    /**
+     * Number of slots needed to hold an amount of items, the same arithmetic the display uses.
+     *
+     * @param amount       Total amount of one item type
+     * @param maxStackSize Max stack size of that item
+     * @return Number of slots the amount occupies
+     */
+    public static long slotsFor(long amount, int maxStackSize) {
+        if (amount <= 0) {
+            return 0;
+        }
+        return (amount + maxStackSize - 1) / maxStackSize;
     }
 
     private void updateMetricsCache() {
@@ -318,8 +454,20 @@ public class VirtualInventory {
         metricsCacheDirty = false;
     }
 
-    public boolean isDirty() {
-        return displayCacheDirty;
+    /**
+     * Gets and forgets the items whose amount changed since the last call.
+     */
+    public Set<ItemSignature> drainChangedSignatures() {
+        Set<ItemSignature> drained = new HashSet<>(changedSignatures);
+        changedSignatures.removeAll(drained);
+        return drained;
+    }
+
+    /**
+     * Marks items as changed again, e.g. after a save of them failed.
+     */
+    public void markChanged(Collection<ItemSignature> signatures) {
+        changedSignatures.addAll(signatures);
     }
 
     /**
@@ -332,39 +480,8 @@ public class VirtualInventory {
         // Store the preferred material for future cache rebuilds
         this.preferredSortMaterial = preferredMaterial;
         
-        // Clear the sorted cache to force re-sorting with new preference
-        this.sortedEntriesCache = null;
-        
-        // Only proceed if we have items to sort
-        if (consolidatedItems.isEmpty()) {
-            this.displayCacheDirty = true;
-            return;
-        }
-        
-        // Generate new sorted entries with preference
-        if (preferredMaterial != null) {
-            this.sortedEntriesCache = consolidatedItems.entrySet().stream()
-                .sorted((e1, e2) -> {
-                    // Use getTemplateRef() to avoid cloning - we only need to read the type
-                    boolean e1Preferred = e1.getKey().getTemplateRef().getType() == preferredMaterial;
-                    boolean e2Preferred = e2.getKey().getTemplateRef().getType() == preferredMaterial;
-
-                    if (e1Preferred && !e2Preferred) return -1;
-                    if (!e1Preferred && e2Preferred) return 1;
-                    
-                    // Both preferred or both not preferred, sort by material name
-                    return e1.getKey().getMaterialName().compareTo(e2.getKey().getMaterialName());
-                })
-                .collect(java.util.stream.Collectors.toList());
-        } else {
-            // No preference, sort alphabetically by material name
-            this.sortedEntriesCache = consolidatedItems.entrySet().stream()
-                .sorted(Comparator.comparing(e -> e.getKey().getMaterialName()))
-                .collect(java.util.stream.Collectors.toList());
-        }
-        
-        // Mark display cache as dirty to force regeneration
-        this.displayCacheDirty = true;
+        // Clear the sorted cache to force re-sorting with new preference on the next read
+        this.sortedView = null;
     }
 
     /**
@@ -381,15 +498,15 @@ public class VirtualInventory {
 
         this.maxSlots = newMaxSlots;
 
-        // Mark caches as dirty since slot count changed
-        this.displayCacheDirty = true;
-
         // If downsizing, we may need to remove items that exceed capacity
-        if (newMaxSlots < usedSlotsCache) {
+        if (newMaxSlots < getTotalUsedSlots()) {
             // Let the display inventory rebuild handle the truncation naturally
             // Items beyond maxSlots will simply not be displayed
             // Note: This doesn't remove items from consolidatedItems,
             // but they won't be accessible in the display
         }
     }
-}
\ No newline at end of file
+
+    private record ItemSnapshot(int version, Map<ItemSignature, Long> items) {
+    }
+}
@@ -0,0 +1,317 @@
+package github.nighter.smartspawner.spawner.utils;
+
+import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary form of a stored spawner inventory.
+ *
+ * <p>An encoded inventory is a format version byte followed by one entry per item variant until the end:
+ * a kind byte, the material name (the potion type name for tipped arrows), the damage for destructible
+ * items and the amount as a varint. Amounts are longs, so large inventories aren't truncated.
+ * An empty inventory encodes to no bytes at all.
+ *
+ * <p>Inventories saved by older versions as {@link ItemStackSerializer#getItemKey} style text entries
+ * ("MATERIAL:count", "MATERIAL;damage:count,..." and "TIPPED_ARROW#potion:count,...") are converted with
+ * {@link #fromLegacy(List)}.
+ */
+public final class InventoryCodec {
+    public static final int FORMAT_VERSION = 1;
+    public static final byte[] EMPTY = new byte[0];
+
+    private static final int KIND_PLAIN = 0;
+    private static final int KIND_DAMAGE = 1;
+    private static final int KIND_POTION = 2;
+    private static final String TIPPED_ARROW_PREFIX = "TIPPED_ARROW#";
+
+    // isDestructibleItem compares names, so remember the answer per material
+    private static final Map<Material, Boolean> DESTRUCTIBLE = new ConcurrentHashMap<>();
+
+    private InventoryCodec() {
+    }
+
+    /**
+     * Encodes stored items and their amounts.
+     */
+    public static byte[] encode(Map<VirtualInventory.ItemSignature, Long> items) {
+        if (items.isEmpty()) {
+            return EMPTY;
+        }
+
+        Output out = new Output(items.size() * 12);
+        out.write(FORMAT_VERSION);
+        for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : items.entrySet()) {
+            long amount = entry.getValue();
+            if (amount <= 0) continue;
+
+            // Use getTemplateRef() to avoid cloning - we only need to read properties
+            ItemStack template = entry.getKey().getTemplateRef();
+            Material material = template.getType();
+            if (material == Material.TIPPED_ARROW) {
+                PotionMeta meta = (PotionMeta) template.getItemMeta();
+                PotionType potionType = meta != null && meta.getBasePotionType() != null
+                        ? meta.getBasePotionType()
+                        : PotionType.WATER;
+                out.write(KIND_POTION);
+                out.writeString(potionType.name());
+            } else if (isDestructible(material)) {
+                out.write(KIND_DAMAGE);
+                out.writeString(material.name());
+                out.writeVarLong(ItemStackSerializer.getDamageValue(template));
+            } else {
+                out.write(KIND_PLAIN);
+                out.writeString(material.name());
+            }
+            out.writeVarLong(amount);
+        }
+        return out.size() > 1 ? out.toByteArray() : EMPTY;
+    }
+
+    /**
+     * Decodes an inventory into items with an amount of one and their stored amounts.
+     * Entries of materials or potion types this server doesn't know are skipped.
+     *
+     * @throws IllegalArgumentException if the data is truncated or of an unknown version
+     */
+    public static Map<ItemStack, Long> decode(byte[] data) {
+        Map<ItemStack, Long> items = new HashMap<>();
+        if (data == null || data.length == 0) {
+            return items;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            checkVersion(in.get());
+            while (in.hasRemaining()) {
+                int kind = in.get();
+                ItemStack item;
+                switch (kind) {
+                    case KIND_PLAIN -> {
+                        Material material = Material.getMaterial(readString(in));
+                        item = material != null ? new ItemStack(material) : null;
+                    }
+                    case KIND_DAMAGE -> {
+                        Material material = Material.getMaterial(readString(in));
+                        int damage = (int) readVarLong(in);
+                        item = material != null ? new ItemStack(material) : null;
+                        if (item != null && damage != 0) {
+                            ItemStackSerializer.setDamageValue(item, damage);
+                        }
+                    }
+                    case KIND_POTION -> item = tippedArrow(readString(in));
+                    default -> throw new IllegalArgumentException("Unknown inventory entry kind " + kind);
+                }
+
+                long amount = readVarLong(in);
+                if (item != null && amount > 0) {
+                    items.merge(item, amount, Long::sum);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated inventory data", e);
+        }
+        return items;
+    }
+
+    /**
+     * Sums the stored amounts without creating any items.
+     *
+     * @throws IllegalArgumentException if the data is truncated or of an unknown version
+     */
+    public static long totalAmount(byte[] data) {
+        if (data == null || data.length == 0) {
+            return 0;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(data);
+        long total = 0;
+        try {
+            checkVersion(in.get());
+            while (in.hasRemaining()) {
+                int kind = in.get();
+                skipString(in);
+                if (kind == KIND_DAMAGE) {
+                    readVarLong(in);
+                }
+                total += readVarLong(in);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated inventory data", e);
+        }
+        return total;
+    }
+
+    public static boolean isEmpty(byte[] data) {
+        return data == null || data.length == 0;
+    }
+
+    /**
+     * Converts inventory entries in the old text format. Malformed entries are skipped.
+     */
+    public static byte[] fromLegacy(List<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return EMPTY;
+        }
+
+        Output out = new Output(entries.size() * 12);
+        out.write(FORMAT_VERSION);
+        for (String entry : entries) {
+            if (entry == null) continue;
+            try {
+                writeLegacyEntry(out, entry);
+            } catch (RuntimeException ignored) {
+                // Malformed entry, the old reader couldn't load it either
+            }
+        }
+        return out.size() > 1 ? out.toByteArray() : EMPTY;
+    }
+
+    private static void writeLegacyEntry(Output out, String entry) {
+        // Parse the whole entry before writing, so a malformed one leaves nothing behind
+        if (entry.startsWith(TIPPED_ARROW_PREFIX)) {
+            String[] variants = entry.substring(TIPPED_ARROW_PREFIX.length()).split(",");
+            String[] potionTypes = new String[variants.length];
+            long[] amounts = new long[variants.length];
+            for (int i = 0; i < variants.length; i++) {
+                String[] parts = variants[i].split(":");
+                potionTypes[i] = parts[0];
+                amounts[i] = Long.parseLong(parts[1]);
+            }
+            for (int i = 0; i < variants.length; i++) {
+                out.write(KIND_POTION);
+                out.writeString(potionTypes[i]);
+                out.writeVarLong(amounts[i]);
+            }
+        } else if (entry.contains(";")) {
+            String[] parts = entry.split(";");
+            String[] variants = parts[1].split(",");
+            long[] damages = new long[variants.length];
+            long[] amounts = new long[variants.length];
+            for (int i = 0; i < variants.length; i++) {
+                String[] dc = variants[i].split(":");
+                damages[i] = Integer.parseInt(dc[0]);
+                amounts[i] = Long.parseLong(dc[1]);
+            }
+            for (int i = 0; i < variants.length; i++) {
+                out.write(KIND_DAMAGE);
+                out.writeString(parts[0]);
+                out.writeVarLong(damages[i]);
+                out.writeVarLong(amounts[i]);
+            }
+        } else {
+            String[] parts = entry.split(":");
+            long amount = Long.parseLong(parts[1]);
+            out.write(KIND_PLAIN);
+            out.writeString(parts[0]);
+            out.writeVarLong(amount);
+        }
+    }
+
+    /**
+     * @return The data as base64 for text storage, or null if the inventory is empty
+     */
+    public static String toBase64(byte[] data) {
+        return isEmpty(data) ? null : Base64.getEncoder().encodeToString(data);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not valid base64
+     */
+    public static byte[] fromBase64(String text) {
+        return text == null || text.isEmpty() ? EMPTY : Base64.getDecoder().decode(text);
+    }
+
+    private static boolean isDestructible(Material material) {
+        return DESTRUCTIBLE.computeIfAbsent(material, ItemStackSerializer::isDestructibleItem);
+    }
+
+    private static ItemStack tippedArrow(String potionTypeName) {
+        ItemStack arrow = new ItemStack(Material.TIPPED_ARROW);
+        PotionMeta meta = (PotionMeta) arrow.getItemMeta();
+        if (meta != null) {
+            PotionType potionType;
+            try {
+                potionType = PotionType.valueOf(potionTypeName);
+            } catch (IllegalArgumentException e) {
+                // Unknown potion type, default to WATER like the old format did
+                potionType = PotionType.WATER;
+            }
+            meta.setBasePotionType(potionType);
+            arrow.setItemMeta(meta);
+        }
+        return arrow;
+    }
+
+    private static void checkVersion(int version) {
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported inventory data version " + version);
+        }
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint");
+            }
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Truncated inventory data");
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Truncated inventory data");
+        }
+        in.position(in.position() + length);
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+        Output(int size) {
+            super(Math.max(16, size));
+        }
+
+        void writeVarLong(long value) {
+            // Amounts and damage are never negative, so no zigzag
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
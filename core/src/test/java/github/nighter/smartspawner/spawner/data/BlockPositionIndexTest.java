@@ -0,0 +1,144 @@
+package github.nighter.smartspawner.spawner.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that lookups keep finding every spawner when positions share a probe run, get removed, or outgrow
+ * the table.
+ */
+class BlockPositionIndexTest {
+    // The starting table has 16 slots and grows once it would be more than three quarters full
+    private static final int MIN_MASK = 15;
+
+    @Test
+    void collidingKeysAreAllFound() {
+        List<Long> keys = keysWithSlot(3, 4);
+        BlockPositionIndex<Object> index = new BlockPositionIndex<>();
+        List<Object> spawners = new ArrayList<>();
+        for (long key : keys) {
+            Object spawner = new Object();
+            spawners.add(spawner);
+            index.put(key, spawner);
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            assertSame(spawners.get(i), index.get(keys.get(i)));
+        }
+        assertNull(index.get(keysWithSlot(3, 5).get(4)));
+    }
+
+    @Test
+    void removingFromMiddleOfProbeRunKeepsLaterEntries() {
+        // Home slot is the last one, so the run wraps around to the start of the table
+        List<Long> colliding = keysWithSlot(MIN_MASK, 3);
+        long neighbour = keysWithSlot(0, 1).get(0);
+        Object first = new Object();
+        Object middle = new Object();
+        Object last = new Object();
+        Object other = new Object();
+
+        BlockPositionIndex<Object> index = new BlockPositionIndex<>();
+        index.put(colliding.get(0), first);
+        index.put(colliding.get(1), middle);
+        index.put(colliding.get(2), last);
+        index.put(neighbour, other);
+
+        index.remove(colliding.get(1), middle);
+        assertNull(index.get(colliding.get(1)));
+        assertSame(first, index.get(colliding.get(0)));
+        assertSame(last, index.get(colliding.get(2)));
+        assertSame(other, index.get(neighbour));
+
+        index.remove(colliding.get(0), first);
+        assertSame(last, index.get(colliding.get(2)));
+        assertSame(other, index.get(neighbour));
+
+        index.put(colliding.get(1), middle);
+        assertSame(middle, index.get(colliding.get(1)));
+        assertSame(last, index.get(colliding.get(2)));
+    }
+
+    @Test
+    void removeIgnoresReplacedSpawner() {
+        long key = BlockPositionIndex.pack(10, 64, -10);
+        Object replaced = new Object();
+        Object current = new Object();
+        BlockPositionIndex<Object> index = new BlockPositionIndex<>();
+        index.put(key, replaced);
+        index.put(key, current);
+
+        index.remove(key, replaced);
+        assertSame(current, index.get(key));
+        assertFalse(index.isEmpty());
+
+        index.remove(key, current);
+        assertNull(index.get(key));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    void resizeKeepsEveryEntry() {
+        BlockPositionIndex<Object> index = new BlockPositionIndex<>();
+        List<Long> keys = new ArrayList<>();
+        List<Object> spawners = new ArrayList<>();
+        for (int x = -20; x < 20; x++) {
+            for (int z = -20; z < 20; z++) {
+                long key = BlockPositionIndex.pack(x, x + z, z);
+                Object spawner = new Object();
+                keys.add(key);
+                spawners.add(spawner);
+                index.put(key, spawner);
+            }
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            assertSame(spawners.get(i), index.get(keys.get(i)));
+        }
+
+        for (int i = 0; i < keys.size(); i += 2) {
+            index.remove(keys.get(i), spawners.get(i));
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            if (i % 2 == 0) {
+                assertNull(index.get(keys.get(i)));
+            } else {
+                assertSame(spawners.get(i), index.get(keys.get(i)));
+            }
+        }
+
+        for (int i = 1; i < keys.size(); i += 2) {
+            index.remove(keys.get(i), spawners.get(i));
+        }
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    void packKeepsNegativeCoordinatesApart() {
+        assertNotEquals(BlockPositionIndex.pack(-1, 0, 0), BlockPositionIndex.pack(0, 0, -1));
+        assertNotEquals(BlockPositionIndex.pack(0, -1, 0), BlockPositionIndex.pack(0, 0, -1));
+        assertNotEquals(BlockPositionIndex.pack(-1, -64, 0), BlockPositionIndex.pack(1, -64, 0));
+    }
+
+    /**
+     * The first positions along a row of blocks whose home slot in the starting table is the given one.
+     */
+    private static List<Long> keysWithSlot(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (int x = 0; keys.size() < count; x++) {
+            long key = BlockPositionIndex.pack(x, 64, 0);
+            if (BlockPositionIndex.slot(key, MIN_MASK) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,156 @@
+package github.nighter.smartspawner.spawner.data.binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which records a reopened store recovers after updates, deletes, damaged tails and compaction.
+ */
+class SegmentStoreTest {
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final Logger LOGGER = Logger.getLogger(SegmentStoreTest.class.getName());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenKeepsLatestRecords() throws IOException {
+        SegmentStore store = open();
+        store.put("a", payload("a", "first"));
+        store.put("b", payload("b", "only"));
+        store.put("a", payload("a", "second"));
+        store.delete("b");
+        store.close();
+
+        SegmentStore reopened = open();
+        assertEquals(Set.of("a"), reopened.ids());
+        assertArrayEquals(payload("a", "second"), reopened.get("a"));
+        assertNull(reopened.get("b"));
+        reopened.close();
+    }
+
+    @Test
+    void corruptedTailRecordIsDropped() throws IOException {
+        byte[] first = payload("a", "kept");
+        byte[] second = payload("b", "corrupted");
+        SegmentStore store = open();
+        store.put("a", first);
+        store.put("b", second);
+        store.close();
+
+        // Flip a payload byte of the last record, so its checksum no longer matches
+        long secondPayload = HEADER_SIZE + RECORD_HEADER_SIZE + first.length + RECORD_HEADER_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(segmentFile(0), "rw")) {
+            raf.seek(secondPayload + second.length - 1);
+            int value = raf.read();
+            raf.seek(secondPayload + second.length - 1);
+            raf.write(value ^ 0xFF);
+        }
+
+        SegmentStore reopened = open();
+        assertEquals(Set.of("a"), reopened.ids());
+        assertArrayEquals(first, reopened.get("a"));
+
+        // New records go where the damaged one was, and survive the next reopen
+        reopened.put("c", payload("c", "after"));
+        reopened.close();
+
+        SegmentStore again = open();
+        assertEquals(Set.of("a", "c"), again.ids());
+        assertArrayEquals(payload("c", "after"), again.get("c"));
+        again.close();
+    }
+
+    @Test
+    void truncatedTailRecordIsDropped() throws IOException {
+        byte[] first = payload("a", "kept");
+        byte[] second = payload("b", "truncated");
+        SegmentStore store = open();
+        store.put("a", first);
+        store.put("b", second);
+        store.close();
+
+        // Cut the file in the middle of the last record's payload, as a crash during a write could
+        long secondPayload = HEADER_SIZE + RECORD_HEADER_SIZE + first.length + RECORD_HEADER_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(segmentFile(0), "rw")) {
+            raf.setLength(secondPayload + second.length / 2);
+        }
+
+        SegmentStore reopened = open();
+        assertEquals(Set.of("a"), reopened.ids());
+        assertArrayEquals(first, reopened.get("a"));
+        assertFalse(reopened.contains("b"));
+        reopened.close();
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveRecords() throws IOException {
+        SegmentStore store = open();
+        for (int i = 0; i < 200; i++) {
+            store.put("a", payload("a", "update-" + i));
+        }
+        store.put("b", payload("b", "deleted"));
+        store.delete("b");
+        store.put("c", payload("c", "live"));
+        assertTrue(store.needsCompaction(), "replaced records should call for compaction");
+
+        store.compact();
+        assertFalse(store.needsCompaction());
+        assertEquals(Set.of("a", "c"), store.ids());
+        assertArrayEquals(payload("a", "update-199"), store.get("a"));
+        store.close();
+
+        // The old segments are gone and the manifest points past them
+        File[] segmentFiles = directory.toFile().listFiles((dir, name) -> name.startsWith("segment-"));
+        assertEquals(1, segmentFiles.length);
+        int baseSegment = Integer.parseInt(
+                new String(Files.readAllBytes(directory.resolve("manifest")), StandardCharsets.UTF_8).trim());
+        assertEquals(segmentFile(baseSegment).getName(), segmentFiles[0].getName());
+
+        SegmentStore reopened = open();
+        assertEquals(Set.of("a", "c"), reopened.ids());
+        assertArrayEquals(payload("a", "update-199"), reopened.get("a"));
+        assertArrayEquals(payload("c", "live"), reopened.get("c"));
+        assertNull(reopened.get("b"));
+        reopened.close();
+    }
+
+    private SegmentStore open() throws IOException {
+        SegmentStore store = new SegmentStore(directory.toFile(), SEGMENT_SIZE, LOGGER);
+        store.open();
+        return store;
+    }
+
+    private File segmentFile(int id) {
+        return directory.resolve(String.format("segment-%06d.dat", id)).toFile();
+    }
+
+    /**
+     * A payload the store can read the spawner ID from, followed by some content.
+     */
+    private static byte[] payload(String spawnerId, String content) {
+        byte[] id = BinaryRecordCodec.encodeDelete(spawnerId);
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = Arrays.copyOf(id, id.length + bytes.length);
+        System.arraycopy(bytes, 0, payload, id.length, bytes.length);
+        return payload;
+    }
+}
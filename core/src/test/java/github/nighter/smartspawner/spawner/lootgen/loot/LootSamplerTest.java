@@ -0,0 +1,177 @@
+package github.nighter.smartspawner.spawner.lootgen.loot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the batch sampler draws from the same distribution as the per-mob loop it replaced.
+ *
+ * <p>Each case draws many samples from the sampler and from the old loop, with fixed seeds, and compares the
+ * mean and variance of both against each other and against the exact values. Differences are allowed up to
+ * {@link #Z} standard errors, the standard error of the variance taking the sample's fourth moment into account.
+ */
+class LootSamplerTest {
+    private static final int SAMPLES = 20_000;
+    private static final double Z = 5.0;
+
+    // ===============================================================
+    //                    Binomial drop counts
+    // ===============================================================
+
+    @ParameterizedTest(name = "n={0}, p={1}")
+    @CsvSource({
+            "1, 0.5",
+            "10, 0.05",
+            // Just below and at the mean where the normal approximation takes over
+            "59, 0.5",
+            "60, 0.5",
+            "299, 0.1",
+            "300, 0.1",
+            // Mirrored into p = 0.1 and p = 0.25
+            "100, 0.9",
+            "1000, 0.75",
+            // Large stacks, the case the sampler exists for
+            "4000, 0.25",
+            "4000, 0.01"
+    })
+    void binomialMatchesPerMobLoop(int trials, double probability) {
+        Random samplerRandom = new Random(1234L + trials);
+        Random loopRandom = new Random(5678L + trials);
+        double chance = probability * 100.0;
+
+        Moments sampled = Moments.of(() -> LootSampler.binomial(samplerRandom, trials, probability));
+        Moments loop = Moments.of(() -> {
+            // The loop generateLoot ran before
+            int successfulDrops = 0;
+            for (int i = 0; i < trials; i++) {
+                if (loopRandom.nextDouble() * 100 <= chance) {
+                    successfulDrops++;
+                }
+            }
+            return successfulDrops;
+        });
+
+        assertSameDistribution(sampled, loop, trials * probability, trials * probability * (1.0 - probability));
+        assertTrue(sampled.min >= 0 && sampled.max <= trials, "drop count out of range: " + sampled);
+    }
+
+    @Test
+    void binomialEdgeCases() {
+        Random random = new Random(42L);
+        assertEquals(0, LootSampler.binomial(random, 0, 0.5));
+        assertEquals(0, LootSampler.binomial(random, -3, 0.5));
+        assertEquals(0, LootSampler.binomial(random, 100, 0.0));
+        assertEquals(100, LootSampler.binomial(random, 100, 1.0));
+        assertEquals(100, LootSampler.binomial(random, 100, 1.5));
+    }
+
+    // ===============================================================
+    //                    Uniform amount sums
+    // ===============================================================
+
+    @ParameterizedTest(name = "count={0}, [{1}, {2}]")
+    @CsvSource({
+            "1, 1, 3",
+            // Last exact sum and first normal approximation
+            "16, 1, 3",
+            "17, 1, 3",
+            "16, 0, 64",
+            "17, 0, 64",
+            "500, 1, 2",
+            "4000, 2, 5"
+    })
+    void uniformSumMatchesPerDropLoop(int count, int min, int max) {
+        Random samplerRandom = new Random(4321L + count);
+        Random loopRandom = new Random(8765L + count);
+
+        Moments sampled = Moments.of(() -> LootSampler.uniformSum(samplerRandom, count, min, max));
+        Moments loop = Moments.of(() -> {
+            // The loop summing LootItem.generateAmount for each successful drop
+            int total = 0;
+            for (int i = 0; i < count; i++) {
+                total += loopRandom.nextInt(max - min + 1) + min;
+            }
+            return total;
+        });
+
+        double width = max - min + 1.0;
+        double expectedMean = count * (min + max) / 2.0;
+        double expectedVariance = count * (width * width - 1.0) / 12.0;
+        assertSameDistribution(sampled, loop, expectedMean, expectedVariance);
+        assertTrue(sampled.min >= (long) count * min && sampled.max <= (long) count * max,
+                "sum out of range: " + sampled);
+    }
+
+    @Test
+    void uniformSumEdgeCases() {
+        Random random = new Random(42L);
+        assertEquals(0, LootSampler.uniformSum(random, 0, 1, 3));
+        assertEquals(40, LootSampler.uniformSum(random, 20, 2, 2));
+        assertEquals(Integer.MAX_VALUE, LootSampler.uniformSum(random, Integer.MAX_VALUE, 64, 64));
+    }
+
+    // ===============================================================
+    //                    Statistics
+    // ===============================================================
+
+    private static void assertSameDistribution(Moments sampled, Moments loop, double expectedMean, double expectedVariance) {
+        // The old loop itself follows the exact distribution, so a failure here is in the test, not the sampler
+        assertWithin(loop.mean, expectedMean, loop.meanError(), "loop mean", loop);
+        assertWithin(loop.variance, expectedVariance, loop.varianceError(), "loop variance", loop);
+
+        assertWithin(sampled.mean, expectedMean, sampled.meanError(), "sampled mean", sampled);
+        assertWithin(sampled.variance, expectedVariance, sampled.varianceError(), "sampled variance", sampled);
+
+        assertWithin(sampled.mean, loop.mean, Math.hypot(sampled.meanError(), loop.meanError()),
+                "sampled mean against loop mean " + loop.mean, sampled);
+        assertWithin(sampled.variance, loop.variance, Math.hypot(sampled.varianceError(), loop.varianceError()),
+                "sampled variance against loop variance " + loop.variance, sampled);
+    }
+
+    private static void assertWithin(double actual, double expected, double standardError, String what, Moments moments) {
+        // A floor keeps degenerate distributions, e.g. a single possible value, from needing an exact match
+        double tolerance = Z * Math.max(standardError, 1e-9) + 1e-9;
+        assertTrue(Math.abs(actual - expected) <= tolerance,
+                what + " " + actual + " differs from " + expected + " by more than " + tolerance + ": " + moments);
+    }
+
+    private record Moments(double mean, double variance, double fourthMoment, long min, long max) {
+        static Moments of(IntSupplier draw) {
+            long[] values = new long[SAMPLES];
+            double sum = 0;
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (int i = 0; i < SAMPLES; i++) {
+                values[i] = draw.getAsInt();
+                sum += values[i];
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+
+            double mean = sum / SAMPLES;
+            double m2 = 0, m4 = 0;
+            for (long value : values) {
+                double d = value - mean;
+                m2 += d * d;
+                m4 += d * d * d * d;
+            }
+            return new Moments(mean, m2 / (SAMPLES - 1), m4 / SAMPLES, min, max);
+        }
+
+        double meanError() {
+            return Math.sqrt(variance / SAMPLES);
+        }
+
+        double varianceError() {
+            // Var(s^2) = (m4 - s^4 * (n - 3) / (n - 1)) / n
+            double excess = fourthMoment - variance * variance * (SAMPLES - 3.0) / (SAMPLES - 1.0);
+            return Math.sqrt(Math.max(0.0, excess) / SAMPLES);
+        }
+    }
+}